@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2013 IBM Corporation and others.
+ * Copyright (c) 2009, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,7 +12,9 @@ package org.eclipse.pde.api.tools.anttasks.tests;
 
 import java.util.Properties;
 
+import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IFolder;
+import org.eclipse.pde.api.tools.internal.util.Util;
 
 public class ApiToolingAnalysisAntTaskTests extends AntRunnerTestCase {
 	@Override
@@ -133,4 +135,46 @@ public class ApiToolingAnalysisAntTaskTests extends AntRunnerTestCase {
 		assertTrue("deltatest folder must exist", folder.exists()); //$NON-NLS-1$
 		assertTrue("report.xml file must be there", folder.getFile("report.xml").exists()); //$NON-NLS-1$ //$NON-NLS-2$
 	}
+
+	/**
+	 * Test analyzing the components concurrently produces the same reports as
+	 * analyzing them one at a time
+	 */
+	public void test8() throws Exception {
+		IFolder buildFolder = newTest("test8"); //$NON-NLS-1$
+		IFolder serial = runAnalysis(buildFolder, "serial", 1); //$NON-NLS-1$
+		IFolder parallel = runAnalysis(buildFolder, "parallel", 2); //$NON-NLS-1$
+		String[] names = new String[] { "deltatest", "deltatest1", "deltatest2" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		for (String name : names) {
+			IFile expected = serial.getFolder(name).getFile("report.xml"); //$NON-NLS-1$
+			IFile actual = parallel.getFolder(name).getFile("report.xml"); //$NON-NLS-1$
+			assertTrue(name + " serial report.xml file must be there", expected.getLocation().toFile().exists()); //$NON-NLS-1$
+			assertTrue(name + " parallel report.xml file must be there", actual.getLocation().toFile().exists()); //$NON-NLS-1$
+			assertEquals(name + " reports must be identical", Util.getFileContentAsString(expected.getLocation().toFile()), Util.getFileContentAsString(actual.getLocation().toFile())); //$NON-NLS-1$
+		}
+		assertEquals("counts must be identical", Util.getFileContentAsString(serial.getFile("counts.xml").getLocation().toFile()), Util.getFileContentAsString(parallel.getFile("counts.xml").getLocation().toFile())); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+	}
+
+	/**
+	 * Runs the analysis of the given test folder writing the reports to the
+	 * given sub-folder
+	 *
+	 * @param buildFolder the test folder
+	 * @param reportName the name of the sub-folder to write the reports to
+	 * @param threads the number of threads to analyze the components with
+	 * @return the folder containing the reports
+	 * @throws Exception
+	 */
+	private IFolder runAnalysis(IFolder buildFolder, String reportName, int threads) throws Exception {
+		String buildXMLPath = buildFolder.getFile("build.xml").getLocation().toOSString(); //$NON-NLS-1$
+		IFolder reportFolder = buildFolder.getFolder(reportName);
+		Properties properties = new Properties();
+		properties.put("reference_location", buildFolder.getFile("before").getLocation().toOSString()); //$NON-NLS-1$ //$NON-NLS-2$
+		properties.put("current_location", buildFolder.getFile("after").getLocation().toOSString()); //$NON-NLS-1$ //$NON-NLS-2$
+		properties.put("report_location", reportFolder.getLocation().toOSString()); //$NON-NLS-1$
+		properties.put("threads", Integer.toString(threads)); //$NON-NLS-1$
+		runAntScript(buildXMLPath, new String[] { "run" }, buildFolder.getLocation().toOSString(), properties); //$NON-NLS-1$
+		assertFalse("allNonApiBundles must not exist", reportFolder.getLocation().append("allNonApiBundles").toFile().exists()); //$NON-NLS-1$ //$NON-NLS-2$
+		return reportFolder;
+	}
 }
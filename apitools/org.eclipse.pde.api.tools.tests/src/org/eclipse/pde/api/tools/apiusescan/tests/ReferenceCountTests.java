@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010 IBM Corporation and others.
+ * Copyright (c) 2010, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,6 +10,8 @@
  *******************************************************************************/
 package org.eclipse.pde.api.tools.apiusescan.tests;
 
+import java.io.File;
+
 import junit.framework.TestCase;
 
 import org.eclipse.core.resources.IProject;
@@ -21,7 +23,9 @@ import org.eclipse.pde.api.tools.internal.provisional.model.IApiBaseline;
 import org.eclipse.pde.api.tools.internal.provisional.model.IApiComponent;
 import org.eclipse.pde.api.tools.internal.search.IReferenceCollection;
 import org.eclipse.pde.api.tools.internal.search.IReferenceDescriptor;
+import org.eclipse.pde.api.tools.internal.search.UseScanIndex;
 import org.eclipse.pde.api.tools.internal.search.UseScanManager;
+import org.eclipse.pde.api.tools.internal.search.UseScanReferences;
 import org.eclipse.pde.api.tools.model.tests.TestSuiteHelper;
 
 public class ReferenceCountTests extends TestCase {
@@ -127,4 +131,72 @@ public class ReferenceCountTests extends TestCase {
 		assertFalse("References for org.eclipse.equinox.app.IApplication should have been purged from the cache", //$NON-NLS-1$
 				useScanRefs.hasReferencesTo("org.eclipse.equinox.app.IApplication")); //$NON-NLS-1$
 	}
+
+	/**
+	 * Tests that the use scan index answers the same references as the scan
+	 * and is only reopened for the scan it was built from
+	 *
+	 * @throws Exception
+	 */
+	public void testUseScanIndex() throws Exception {
+		String reportLocation = ExternalDependencyTestUtils.setupReport("PDEApiUseScanReport", true); //$NON-NLS-1$
+		if (reportLocation == null) {
+			fail("Could not setup the report : PDEApiUseScanReport.zip"); //$NON-NLS-1$
+		}
+		long stamp = UseScanIndex.computeStamp(new File(reportLocation));
+		File indexFile = new File(TestSuiteHelper.getUserDirectoryPath().toOSString(), "usescan.index"); //$NON-NLS-1$
+		try {
+			UseScanIndex index = UseScanIndex.build(reportLocation, stamp, indexFile, new NullProgressMonitor());
+			assertTrue("The index file should exist", indexFile.exists()); //$NON-NLS-1$
+			UseScanReferences references = new UseScanReferences();
+			index.collect("org.eclipse.equinox.app", null, references); //$NON-NLS-1$
+			assertEquals("Incorrect number of references for org.eclipse.equinox.app", 13, references.getAllExternalDependencies().length); //$NON-NLS-1$
+			assertTrue("References for org.eclipse.equinox.app.IApplication not found", //$NON-NLS-1$
+					references.hasReferencesTo("org.eclipse.equinox.app.IApplication")); //$NON-NLS-1$
+
+			references = new UseScanReferences();
+			index = UseScanIndex.open(indexFile, stamp);
+			assertNotNull("The index should be reopened", index); //$NON-NLS-1$
+			index.collect("org.eclipse.equinox.p2.operations", new String[] { "org.eclipse.equinox.p2.operations.InstallOperation" }, references); //$NON-NLS-1$ //$NON-NLS-2$
+			assertTrue("References for org.eclipse.equinox.p2.operations.InstallOperation not found", //$NON-NLS-1$
+					references.hasReferencesTo("org.eclipse.equinox.p2.operations.InstallOperation")); //$NON-NLS-1$
+			assertFalse("No references to org.eclipse.equinox.app.IApplication should be collected", //$NON-NLS-1$
+					references.hasReferencesTo("org.eclipse.equinox.app.IApplication")); //$NON-NLS-1$
+
+			assertNull("The index of another scan should not be reopened", UseScanIndex.open(indexFile, stamp + 1)); //$NON-NLS-1$
+		} finally {
+			indexFile.delete();
+		}
+	}
+
+	/**
+	 * Tests that a scan written again at the same location is indexed again
+	 * without clearing the cache
+	 *
+	 * @throws Exception
+	 */
+	public void testScanRewrittenInPlace() throws Exception {
+		String location = ExternalDependencyTestUtils.setupReport("reportAll", true); //$NON-NLS-1$
+		if (location == null) {
+			fail("Could not setup the report : reportAll.zip"); //$NON-NLS-1$
+		}
+		fUseScanManager.clearCache();
+		File component = new File(location, "tests.apiusescan.coretestproject (1.0.0.201011170119)"); //$NON-NLS-1$
+		File client = new File(component, "tests.apiusescan.clienttestprojectTwo (1.0.0.201011170119)"); //$NON-NLS-1$
+		File backup = new File(new File(location).getParentFile(), client.getName());
+		IApiComponent apiComponent = fBaseline.getApiComponent(ExternalDependencyTestUtils.PROJECT_NAME);
+		try {
+			assertTrue("The client references should be moved", client.renameTo(backup)); //$NON-NLS-1$
+			int count = fUseScanManager.getExternalDependenciesFor(apiComponent, null, new NullProgressMonitor()).length;
+
+			// what a new scan to the same location does
+			assertTrue("The client references should be restored", backup.renameTo(client)); //$NON-NLS-1$
+			File meta = new File(location, "meta.xml"); //$NON-NLS-1$
+			assertTrue("The meta file should be touched", meta.setLastModified(meta.lastModified() + 10000)); //$NON-NLS-1$
+			int newCount = fUseScanManager.getExternalDependenciesFor(apiComponent, null, new NullProgressMonitor()).length;
+			assertTrue("The references of the rewritten scan should be found", newCount > count); //$NON-NLS-1$
+		} finally {
+			fUseScanManager.clearCache();
+		}
+	}
 }
@@ -0,0 +1,105 @@
+/*******************************************************************************
+ * Copyright (c) 2017 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.api.tools.builder.tests;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.pde.api.tools.internal.builder.ReferenceAnalyzer;
+import org.eclipse.pde.api.tools.internal.provisional.model.IApiBaseline;
+import org.eclipse.pde.api.tools.internal.provisional.model.IApiComponent;
+import org.eclipse.pde.api.tools.internal.provisional.problems.IApiProblem;
+import org.eclipse.pde.api.tools.model.tests.TestSuiteHelper;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests that the parallel reference extraction of the
+ * {@link ReferenceAnalyzer} reports the same problems in the same order as
+ * the serial extraction
+ *
+ * @since 1.1
+ */
+public class ReferenceAnalyzerTests extends TestCase {
+
+	static final String COMPONENT_A = "component.a"; //$NON-NLS-1$
+
+	IApiBaseline fBaseline = null;
+
+	@Override
+	protected void setUp() throws Exception {
+		fBaseline = TestSuiteHelper.createTestingBaseline("test-plugins"); //$NON-NLS-1$
+		assertNotNull("the testing baseline should exist", fBaseline); //$NON-NLS-1$
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		if (fBaseline != null) {
+			fBaseline.dispose();
+		}
+	}
+
+	/**
+	 * Analyzes the given component with the given number of threads
+	 *
+	 * @param component
+	 * @param threads
+	 * @return the problems as strings, in order
+	 * @throws CoreException
+	 */
+	List<String> analyze(IApiComponent component, int threads) throws CoreException {
+		ReferenceAnalyzer analyzer = new ReferenceAnalyzer();
+		analyzer.setParallelism(threads);
+		IApiProblem[] problems = analyzer.analyze(component, component, new NullProgressMonitor());
+		List<String> result = new ArrayList<String>(problems.length);
+		for (IApiProblem problem : problems) {
+			StringBuffer buffer = new StringBuffer();
+			buffer.append(problem.toString());
+			buffer.append(' ').append(problem.getTypeName());
+			buffer.append(' ').append(problem.getLineNumber());
+			result.add(buffer.toString());
+		}
+		return result;
+	}
+
+	/**
+	 * Tests that the parallel analysis reports the serial problems in the
+	 * serial order
+	 *
+	 * @throws Exception
+	 */
+	public void testParallelMatchesSerial() throws Exception {
+		IApiComponent component = fBaseline.getApiComponent(COMPONENT_A);
+		assertNotNull("Missing API component component.a", component); //$NON-NLS-1$
+		List<String> serial = analyze(component, 1);
+		assertFalse("component.a should leak internal types", serial.isEmpty()); //$NON-NLS-1$
+		for (int threads = 2; threads <= 4; threads++) {
+			assertEquals("Parallel analysis with " + threads + " threads differs", serial, analyze(component, threads)); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+	}
+
+	/**
+	 * Tests that running the parallel analysis repeatedly on the shared pool
+	 * keeps producing the same result
+	 *
+	 * @throws Exception
+	 */
+	public void testRepeatedParallelAnalysis() throws Exception {
+		IApiComponent component = fBaseline.getApiComponent(COMPONENT_A);
+		assertNotNull("Missing API component component.a", component); //$NON-NLS-1$
+		List<String> first = analyze(component, 2);
+		for (int i = 0; i < 5; i++) {
+			assertEquals("Repeated analysis differs", first, analyze(component, 2)); //$NON-NLS-1$
+		}
+	}
+}
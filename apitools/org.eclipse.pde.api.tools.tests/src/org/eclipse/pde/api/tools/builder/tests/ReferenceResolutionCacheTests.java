@@ -0,0 +1,136 @@
+/*******************************************************************************
+ * Copyright (c) 2017 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.api.tools.builder.tests;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.pde.api.tools.internal.builder.Reference;
+import org.eclipse.pde.api.tools.internal.builder.ReferenceResolutionCache;
+import org.eclipse.pde.api.tools.internal.builder.ReferenceResolver;
+import org.eclipse.pde.api.tools.internal.model.ApiBaseline;
+import org.eclipse.pde.api.tools.internal.provisional.builder.IReference;
+import org.eclipse.pde.api.tools.internal.provisional.model.IApiBaseline;
+import org.eclipse.pde.api.tools.internal.provisional.model.IApiComponent;
+import org.eclipse.pde.api.tools.internal.provisional.model.IApiMember;
+import org.eclipse.pde.api.tools.internal.provisional.model.IApiType;
+import org.eclipse.pde.api.tools.internal.provisional.model.IApiTypeRoot;
+import org.eclipse.pde.api.tools.model.tests.TestSuiteHelper;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the {@link ReferenceResolutionCache}
+ *
+ * @since 1.1
+ */
+public class ReferenceResolutionCacheTests extends TestCase {
+
+	/**
+	 * @param name the type name
+	 * @return a testing member
+	 */
+	IApiMember member(String name) {
+		return TestSuiteHelper.createTestingApiType("baseline", "component", name, "L" + name.replace('.', '/') + ";", null, 0, null); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+	}
+
+	/**
+	 * Tests that cached resolutions are returned and counted as hits
+	 */
+	public void testHit() {
+		ReferenceResolutionCache cache = new ReferenceResolutionCache();
+		IApiMember member = member("a.A"); //$NON-NLS-1$
+		assertNull("The cache should be empty", cache.get("k1")); //$NON-NLS-1$ //$NON-NLS-2$
+		cache.put("k1", member, Arrays.asList("a")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertSame("The cached resolution should be returned", member, cache.get("k1")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals("There should be one hit", 1, cache.getHitCount()); //$NON-NLS-1$
+		assertEquals("There should be one miss", 1, cache.getMissCount()); //$NON-NLS-1$
+		cache.put("k2", null, Arrays.asList("a")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals("Failed resolutions should not be cached", 1, cache.size()); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that a resolution is dropped when any of the packages visited to
+	 * resolve it is cleared, not only the package of the referenced type
+	 */
+	public void testClearVisitedPackage() {
+		ReferenceResolutionCache cache = new ReferenceResolutionCache();
+		// an inherited member of a.A declared in b.B
+		cache.put("inherited", member("b.B"), Arrays.asList("a", "b")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+		cache.put("local", member("a.C"), Arrays.asList("a")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		cache.clearPackage("b"); //$NON-NLS-1$
+		assertNull("The inherited resolution should be dropped", cache.get("inherited")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertNotNull("The local resolution should be kept", cache.get("local")); //$NON-NLS-1$ //$NON-NLS-2$
+		cache.clearPackage("a"); //$NON-NLS-1$
+		assertEquals("All resolutions should be dropped", 0, cache.size()); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that the least recently used resolution is evicted once the cache
+	 * is full, and that evicted resolutions are no longer indexed
+	 */
+	public void testEviction() {
+		ReferenceResolutionCache cache = new ReferenceResolutionCache(2);
+		cache.put("k1", member("a.A"), Arrays.asList("a")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		cache.put("k2", member("b.B"), Arrays.asList("b")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		assertNotNull("k1 should be cached", cache.get("k1")); //$NON-NLS-1$ //$NON-NLS-2$
+		cache.put("k3", member("c.C"), Arrays.asList("c")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		assertEquals("The cache should stay within its limit", 2, cache.size()); //$NON-NLS-1$
+		assertEquals("There should be one eviction", 1, cache.getEvictionCount()); //$NON-NLS-1$
+		assertNull("The least recently used resolution should be evicted", cache.get("k2")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertNotNull("The recently used resolution should be kept", cache.get("k1")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertNotNull("The new resolution should be cached", cache.get("k3")); //$NON-NLS-1$ //$NON-NLS-2$
+		cache.clearPackage("b"); //$NON-NLS-1$
+		assertEquals("Clearing the package of an evicted resolution should not drop others", 2, cache.size()); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that resolving a method inherited from a superclass in another
+	 * package records that package, so the cached resolution is dropped when
+	 * the superclass package changes
+	 *
+	 * @throws Exception
+	 */
+	public void testInheritedMethodResolution() throws Exception {
+		IApiBaseline baseline = TestSuiteHelper.createTestingBaseline("test-plugins"); //$NON-NLS-1$
+		try {
+			IApiComponent component = baseline.getApiComponent("component.b"); //$NON-NLS-1$
+			assertNotNull("Missing API component component.b", component); //$NON-NLS-1$
+			IApiTypeRoot root = component.findTypeRoot("component.b.B"); //$NON-NLS-1$
+			assertNotNull("Missing type component.b.B", root); //$NON-NLS-1$
+			IApiType origin = root.getStructure();
+			ReferenceResolutionCache cache = ((ApiBaseline) baseline).getReferenceResolutionCache();
+			cache.clear();
+
+			List<IReference> references = new ArrayList<IReference>();
+			references.add(Reference.methodReference(origin, "component.a.A", "hashCode", "()I", IReference.REF_VIRTUALMETHOD)); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			ReferenceResolver.resolveReferences(references, new NullProgressMonitor());
+			IApiMember resolved = references.get(0).getResolvedReference();
+			assertNotNull("hashCode() should resolve to java.lang.Object", resolved); //$NON-NLS-1$
+			assertEquals("hashCode() should be inherited", "java.lang", resolved.getPackageName()); //$NON-NLS-1$ //$NON-NLS-2$
+			assertEquals("The resolution should be cached", 1, cache.size()); //$NON-NLS-1$
+
+			references.clear();
+			references.add(Reference.methodReference(origin, "component.a.A", "hashCode", "()I", IReference.REF_VIRTUALMETHOD)); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			long hits = cache.getHitCount();
+			ReferenceResolver.resolveReferences(references, new NullProgressMonitor());
+			assertEquals("The second resolution should be a cache hit", hits + 1, cache.getHitCount()); //$NON-NLS-1$
+			assertSame("The cached resolution should be used", resolved, references.get(0).getResolvedReference()); //$NON-NLS-1$
+
+			cache.clearPackage("java.lang"); //$NON-NLS-1$
+			assertEquals("Clearing the superclass package should drop the resolution", 0, cache.size()); //$NON-NLS-1$
+		} finally {
+			baseline.dispose();
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2009 IBM Corporation and others.
+ * Copyright (c) 2008, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,9 +10,20 @@
  *******************************************************************************/
 package org.eclipse.pde.api.tools.builder.tests.compatibility;
 
+import java.util.Arrays;
+
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IncrementalProjectBuilder;
 import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.Path;
+import org.eclipse.osgi.util.NLS;
+import org.eclipse.pde.api.tools.builder.tests.ApiProblem;
+import org.eclipse.pde.api.tools.internal.builder.BuilderMessages;
 import org.eclipse.pde.api.tools.internal.problems.ApiProblemFactory;
+import org.eclipse.pde.api.tools.internal.provisional.IApiMarkerConstants;
 import org.eclipse.pde.api.tools.internal.provisional.comparator.IDelta;
 import org.eclipse.pde.api.tools.internal.provisional.problems.IApiProblem;
 
@@ -136,6 +147,91 @@ public class MethodCompatibilityModifierTests extends MethodCompatibilityTests {
 		xAddFinal(false);
 	}
 
+	/**
+	 * Tests that making a method final is still reported after the API
+	 * analysis of the change was cancelled and only the method body is edited
+	 * afterwards
+	 */
+	public void testAddFinalCancelledI() throws Exception {
+		IPath filePath = WORKSPACE_CLASSES_PACKAGE_A.append("AddFinal.java"); //$NON-NLS-1$
+		setExpectedProblemIds(new int[] { getChangedProblemId(IDelta.NON_FINAL_TO_FINAL) });
+		setExpectedMessageArgs(new String[][] { { PACKAGE_PREFIX + "AddFinal", "method()" } }); //$NON-NLS-1$ //$NON-NLS-2$
+		updateWorkspaceFile(filePath, getUpdateFilePath("AddFinal.java")); //$NON-NLS-1$
+		// cancel the build once the API analysis of the project starts
+		final String analysis = NLS.bind(BuilderMessages.ApiAnalysisBuilder_finding_affected_source_files, filePath.segment(0));
+		NullProgressMonitor monitor = new NullProgressMonitor() {
+			@Override
+			public void subTask(String name) {
+				if (analysis.equals(name)) {
+					setCanceled(true);
+				}
+			}
+		};
+		try {
+			getEnv().getWorkspace().build(IncrementalProjectBuilder.INCREMENTAL_BUILD, monitor);
+		} catch (OperationCanceledException e) {
+			// expected
+		}
+		assertTrue("The build should have been cancelled", monitor.isCanceled()); //$NON-NLS-1$
+		updateWorkspaceFile(filePath, getUpdateFilePath("AddFinalBodyChange.java")); //$NON-NLS-1$
+		incrementalBuild();
+		expectingNoJDTProblemsFor(filePath);
+		ApiProblem[] problems = getEnv().getProblemsFor(filePath, null);
+		assertProblems(problems);
+	}
+
+	/**
+	 * Returns the ids of the compatibility markers of the given workspace file
+	 *
+	 * @param filePath
+	 * @return the marker ids
+	 * @throws Exception
+	 */
+	private long[] getCompatibilityMarkerIds(IPath filePath) throws Exception {
+		IMarker[] markers = getEnv().getWorkspace().getRoot().getFile(filePath).findMarkers(IApiMarkerConstants.COMPATIBILITY_PROBLEM_MARKER, false, IResource.DEPTH_ZERO);
+		long[] ids = new long[markers.length];
+		for (int i = 0; i < markers.length; i++) {
+			ids[i] = markers[i].getId();
+		}
+		Arrays.sort(ids);
+		return ids;
+	}
+
+	/**
+	 * Tests that only editing the method body of a method made final keeps the
+	 * compatibility problem without checking the compatibility of the type
+	 * again
+	 */
+	public void testAddFinalBodyChangeI() throws Exception {
+		IPath filePath = WORKSPACE_CLASSES_PACKAGE_A.append("AddFinal.java"); //$NON-NLS-1$
+		xAddFinal(true);
+		long[] ids = getCompatibilityMarkerIds(filePath);
+		assertEquals("Wrong number of compatibility markers", 1, ids.length); //$NON-NLS-1$
+		updateWorkspaceFile(filePath, getUpdateFilePath("AddFinalBodyChange.java")); //$NON-NLS-1$
+		incrementalBuild();
+		expectingNoJDTProblemsFor(filePath);
+		assertProblems(getEnv().getProblemsFor(filePath, null));
+		// markers of checked types are deleted and created again
+		assertTrue("The compatibility markers should be kept", Arrays.equals(ids, getCompatibilityMarkerIds(filePath))); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that changing the signature of a method made final checks the
+	 * compatibility of the type again
+	 */
+	public void testAddFinalSignatureChangeI() throws Exception {
+		IPath filePath = WORKSPACE_CLASSES_PACKAGE_A.append("AddFinal.java"); //$NON-NLS-1$
+		xAddFinal(true);
+		long[] ids = getCompatibilityMarkerIds(filePath);
+		setExpectedProblemIds(new int[] { ApiProblemFactory.createProblemId(IApiProblem.CATEGORY_COMPATIBILITY, IDelta.CLASS_ELEMENT_TYPE, IDelta.REMOVED, IDelta.METHOD) });
+		setExpectedMessageArgs(new String[][] { { PACKAGE_PREFIX + "AddFinal", "method()" } }); //$NON-NLS-1$ //$NON-NLS-2$
+		updateWorkspaceFile(filePath, getUpdateFilePath("AddFinalSignatureChange.java")); //$NON-NLS-1$
+		incrementalBuild();
+		expectingNoJDTProblemsFor(filePath);
+		assertProblems(getEnv().getProblemsFor(filePath, null));
+		assertFalse("The compatibility markers should be created again", Arrays.equals(ids, getCompatibilityMarkerIds(filePath))); //$NON-NLS-1$
+	}
+
 	/**
 	 * Tests making a non-abstract method abstract
 	 */
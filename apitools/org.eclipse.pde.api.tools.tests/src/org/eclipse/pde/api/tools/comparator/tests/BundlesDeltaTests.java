@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2010 IBM Corporation and others.
+ * Copyright (c) 2007, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -13,9 +13,13 @@ package org.eclipse.pde.api.tools.comparator.tests;
 import junit.framework.Test;
 import junit.framework.TestSuite;
 
+import java.util.Map;
+
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.pde.api.tools.internal.comparator.ApiBaselineComparator;
 import org.eclipse.pde.api.tools.internal.provisional.VisibilityModifiers;
 import org.eclipse.pde.api.tools.internal.provisional.comparator.ApiComparator;
+import org.eclipse.pde.api.tools.internal.provisional.comparator.ApiScope;
 import org.eclipse.pde.api.tools.internal.provisional.comparator.DeltaProcessor;
 import org.eclipse.pde.api.tools.internal.provisional.comparator.IDelta;
 import org.eclipse.pde.api.tools.internal.provisional.model.IApiBaseline;
@@ -575,4 +579,81 @@ public class BundlesDeltaTests extends DeltaTestSetup {
 		assertNotNull("No delta", delta); //$NON-NLS-1$
 		assertFalse("Equals to NO_DELTA", delta == ApiComparator.NO_DELTA); //$NON-NLS-1$
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Deploys the before and after states of the given components of the
+	 * given test
+	 *
+	 * @param testName the given test name
+	 * @param bundleNames the names of the components
+	 */
+	private void deployBundles(String testName, String[] bundleNames) {
+		for (String bundleName : bundleNames) {
+			deployBundle(testName + '/' + bundleName, BEFORE, bundleName);
+			deployBundle(testName + '/' + bundleName, AFTER, bundleName);
+		}
+	}
+
+	/**
+	 * Asserts that the given deltas have the same leaves in the same order
+	 *
+	 * @param expected
+	 * @param actual
+	 */
+	private void assertSameLeaves(IDelta expected, IDelta actual) {
+		assertNotNull("No delta", expected); //$NON-NLS-1$
+		assertNotNull("No delta", actual); //$NON-NLS-1$
+		IDelta[] allLeavesDeltas = collectLeaves(expected);
+		IDelta[] allLeavesDeltas2 = collectLeaves(actual);
+		assertEquals("Wrong size", allLeavesDeltas.length, allLeavesDeltas2.length); //$NON-NLS-1$
+		for (int i = 0; i < allLeavesDeltas.length; i++) {
+			assertEquals("Wrong delta", allLeavesDeltas[i], allLeavesDeltas2[i]); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Test that comparing the baselines on several threads returns the same
+	 * delta as comparing them on one thread, and that the time spent on each
+	 * compared component is reported
+	 */
+	public void test17() {
+		String[] names = new String[] { "deltatest1", "deltatest2", "deltatest3" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		deployBundles("test17", names); //$NON-NLS-1$
+		IApiBaseline beforeState = getBeforeState();
+		IApiBaseline afterState = getAfterState();
+		for (String name : names) {
+			assertNotNull("No api component", beforeState.getApiComponent(name)); //$NON-NLS-1$
+		}
+		IDelta delta = ApiComparator.compare(beforeState, afterState, VisibilityModifiers.ALL_VISIBILITIES, true, 1, null);
+		assertEquals("Wrong size", 3, collectLeaves(delta).length); //$NON-NLS-1$
+		ApiBaselineComparator comparator = new ApiBaselineComparator(beforeState, afterState, VisibilityModifiers.ALL_VISIBILITIES, true, 4);
+		assertSameLeaves(delta, comparator.compare(null));
+		Map<String, Long> timings = comparator.getComponentTimings();
+		for (String name : names) {
+			assertTrue("Missing timing", timings.containsKey(name)); //$NON-NLS-1$
+			assertTrue("Wrong timing", timings.get(name).longValue() >= 0); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Test that comparing a scope on several threads returns the same delta as
+	 * comparing it on one thread
+	 */
+	public void test18() throws CoreException {
+		String[] names = new String[] { "deltatest1", "deltatest2", "deltatest3" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		deployBundles("test17", names); //$NON-NLS-1$
+		IApiBaseline beforeState = getBeforeState();
+		IApiBaseline afterState = getAfterState();
+		ApiScope scope = new ApiScope();
+		for (String name : names) {
+			IApiComponent component = afterState.getApiComponent(name);
+			assertNotNull("No api component", component); //$NON-NLS-1$
+			scope.addElement(component);
+		}
+		IDelta delta = ApiComparator.compare(scope, beforeState, VisibilityModifiers.ALL_VISIBILITIES, true, false, 1, null);
+		assertEquals("Wrong size", 3, collectLeaves(delta).length); //$NON-NLS-1$
+		for (int threads = 2; threads <= 4; threads++) {
+			assertSameLeaves(delta, ApiComparator.compare(scope, beforeState, VisibilityModifiers.ALL_VISIBILITIES, true, false, threads, null));
+		}
+	}
+}
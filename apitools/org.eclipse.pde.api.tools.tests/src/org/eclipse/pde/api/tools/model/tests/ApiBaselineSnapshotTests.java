@@ -0,0 +1,177 @@
+/*******************************************************************************
+ * Copyright (c) 2017 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.api.tools.model.tests;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import org.eclipse.pde.api.tools.internal.model.ApiBaseline;
+import org.eclipse.pde.api.tools.internal.model.ApiBaselineSnapshot;
+import org.eclipse.pde.api.tools.internal.model.ApiModelFactory;
+import org.eclipse.pde.api.tools.internal.model.BundleComponent;
+import org.eclipse.pde.api.tools.internal.provisional.model.IApiBaseline;
+import org.eclipse.pde.api.tools.internal.provisional.model.IApiComponent;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the {@link ApiBaselineSnapshot}
+ *
+ * @since 1.1
+ */
+public class ApiBaselineSnapshotTests extends TestCase {
+
+	File fDirectory = null;
+	List<IApiBaseline> fBaselines = new ArrayList<IApiBaseline>();
+
+	@Override
+	protected void setUp() throws Exception {
+		fDirectory = File.createTempFile("snapshot", null); //$NON-NLS-1$
+		fDirectory.delete();
+		fDirectory.mkdirs();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		for (IApiBaseline baseline : fBaselines) {
+			baseline.dispose();
+		}
+		TestSuiteHelper.delete(fDirectory);
+	}
+
+	/**
+	 * Creates a baseline holding the bundles of the <code>test-plugins</code>
+	 * folder, retaining their complete manifests
+	 *
+	 * @param name
+	 * @return the new baseline
+	 * @throws Exception
+	 */
+	ApiBaseline createBaseline(String name) throws Exception {
+		ApiBaseline baseline = (ApiBaseline) TestSuiteHelper.newApiBaseline(name, TestSuiteHelper.getEEDescriptionFile());
+		fBaselines.add(baseline);
+		baseline.setRetainManifests(true);
+		File[] files = TestSuiteHelper.getPluginDirectoryPath().append("test-plugins").toFile().listFiles(); //$NON-NLS-1$
+		List<IApiComponent> components = new ArrayList<IApiComponent>();
+		for (File file : files) {
+			IApiComponent component = ApiModelFactory.newApiComponent(baseline, file.getAbsolutePath());
+			if (component != null) {
+				components.add(component);
+			}
+		}
+		baseline.addApiComponents(components.toArray(new IApiComponent[components.size()]));
+		return baseline;
+	}
+
+	/**
+	 * Writes a fake baseline description with the given content
+	 *
+	 * @param content
+	 * @return the description file
+	 * @throws IOException
+	 */
+	File writeDescription(String content) throws IOException {
+		File file = new File(fDirectory, "baseline.profile"); //$NON-NLS-1$
+		FileOutputStream out = new FileOutputStream(file);
+		try {
+			out.write(content.getBytes("UTF-8")); //$NON-NLS-1$
+		} finally {
+			out.close();
+		}
+		return file;
+	}
+
+	/**
+	 * @param baseline
+	 * @return the sorted symbolic names of the components of the baseline
+	 */
+	TreeSet<String> getNames(IApiBaseline baseline) {
+		TreeSet<String> names = new TreeSet<String>();
+		for (IApiComponent component : baseline.getApiComponents()) {
+			if (!component.isSystemComponent()) {
+				names.add(component.getSymbolicName());
+			}
+		}
+		return names;
+	}
+
+	/**
+	 * Tests that components keep their complete manifest while the baseline
+	 * retains manifests, and drop it once retention is turned off
+	 *
+	 * @throws Exception
+	 */
+	public void testRetainedManifests() throws Exception {
+		ApiBaseline baseline = createBaseline("retained"); //$NON-NLS-1$
+		IApiComponent component = baseline.getApiComponent("component.a"); //$NON-NLS-1$
+		assertTrue("component.a should be a bundle", component instanceof BundleComponent); //$NON-NLS-1$
+		Map<String, String> manifest = ((BundleComponent) component).getFullManifest();
+		assertNotNull("The complete manifest should be retained", manifest); //$NON-NLS-1$
+		assertEquals("The retained manifest should not be compacted", "component.a", manifest.get("Bundle-SymbolicName")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		baseline.setRetainManifests(false);
+		assertNull("The complete manifest should be released", ((BundleComponent) component).getFullManifest()); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that a baseline restored from a snapshot has the same components
+	 *
+	 * @throws Exception
+	 */
+	public void testRoundTrip() throws Exception {
+		ApiBaseline baseline = createBaseline("original"); //$NON-NLS-1$
+		File description = writeDescription("<baseline name=\"original\"/>"); //$NON-NLS-1$
+		File snapshot = new File(fDirectory, "baseline.snapshot"); //$NON-NLS-1$
+		long stamp = ApiBaselineSnapshot.getDescriptionStamp(description);
+		assertTrue("The snapshot should be written", ApiBaselineSnapshot.write(baseline, snapshot, stamp)); //$NON-NLS-1$
+
+		IApiBaseline restored = TestSuiteHelper.newApiBaseline("restored", TestSuiteHelper.getEEDescriptionFile()); //$NON-NLS-1$
+		fBaselines.add(restored);
+		assertTrue("The snapshot should be restored", ApiBaselineSnapshot.restore(restored, snapshot, stamp)); //$NON-NLS-1$
+		assertEquals("The restored components should match", getNames(baseline), getNames(restored)); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that a snapshot written for another baseline description is not
+	 * used
+	 *
+	 * @throws Exception
+	 */
+	public void testStaleDescription() throws Exception {
+		ApiBaseline baseline = createBaseline("original"); //$NON-NLS-1$
+		File description = writeDescription("<baseline name=\"original\"/>"); //$NON-NLS-1$
+		File snapshot = new File(fDirectory, "baseline.snapshot"); //$NON-NLS-1$
+		assertTrue("The snapshot should be written", ApiBaselineSnapshot.write(baseline, snapshot, ApiBaselineSnapshot.getDescriptionStamp(description))); //$NON-NLS-1$
+
+		description = writeDescription("<baseline name=\"changed\"/>"); //$NON-NLS-1$
+		IApiBaseline restored = TestSuiteHelper.newApiBaseline("restored", TestSuiteHelper.getEEDescriptionFile()); //$NON-NLS-1$
+		fBaselines.add(restored);
+		assertFalse("A snapshot for another description should not be restored", ApiBaselineSnapshot.restore(restored, snapshot, ApiBaselineSnapshot.getDescriptionStamp(description))); //$NON-NLS-1$
+		assertTrue("Nothing should be added to the baseline", getNames(restored).isEmpty()); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that failing to write a snapshot is not an error
+	 *
+	 * @throws Exception
+	 */
+	public void testWriteFailure() throws Exception {
+		ApiBaseline baseline = createBaseline("original"); //$NON-NLS-1$
+		File description = writeDescription("<baseline name=\"original\"/>"); //$NON-NLS-1$
+		File snapshot = new File(new File(fDirectory, "missing"), "baseline.snapshot"); //$NON-NLS-1$ //$NON-NLS-2$
+		assertFalse("The snapshot cannot be written", ApiBaselineSnapshot.write(baseline, snapshot, ApiBaselineSnapshot.getDescriptionStamp(description))); //$NON-NLS-1$
+		assertFalse("No partial snapshot should be left", snapshot.exists()); //$NON-NLS-1$
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2013 IBM Corporation and others.
+ * Copyright (c) 2007, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,13 +10,19 @@
  *******************************************************************************/
 package org.eclipse.pde.api.tools.model.tests;
 
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.pde.api.tools.internal.BundleVersionRange;
 import org.eclipse.pde.api.tools.internal.RequiredComponentDescription;
+import org.eclipse.pde.api.tools.internal.model.ApiBaseline;
+import org.eclipse.pde.api.tools.internal.model.ApiModelFactory;
 import org.eclipse.pde.api.tools.internal.provisional.Factory;
 import org.eclipse.pde.api.tools.internal.provisional.IApiAnnotations;
 import org.eclipse.pde.api.tools.internal.provisional.IApiDescription;
@@ -28,6 +34,7 @@ import org.eclipse.pde.api.tools.internal.provisional.model.IApiTypeContainer;
 import org.eclipse.pde.api.tools.internal.provisional.model.IApiTypeRoot;
 import org.eclipse.pde.api.tools.internal.util.Util;
 
+import junit.framework.AssertionFailedError;
 import junit.framework.TestCase;
 
 /**
@@ -203,6 +210,8 @@ public class ApiBaselineTests extends TestCase {
 		}
 		assertNotNull("Missing class file", file); //$NON-NLS-1$
 		assertEquals("Wrong type name", "component.a.A", file.getTypeName()); //$NON-NLS-1$ //$NON-NLS-2$
+		assertNotNull("Missing class file contents", file.getContents()); //$NON-NLS-1$
+		assertEquals("Wrong type structure", "component.a.A", file.getStructure().getName()); //$NON-NLS-1$ //$NON-NLS-2$
 	}
 
 	/**
@@ -315,4 +324,69 @@ public class ApiBaselineTests extends TestCase {
 		fBaseline.setLocation("new_loc"); //$NON-NLS-1$
 		assertNotNull("The location must not be null", fBaseline.getLocation()); //$NON-NLS-1$
 	}
+
+	/**
+	 * Tests that packages can be resolved from several threads while
+	 * components are added to the baseline and its state is re-resolved
+	 *
+	 * @throws Exception
+	 */
+	public void testConcurrentResolvePackage() throws Exception {
+		final IApiBaseline baseline = TestSuiteHelper.createTestingBaseline(TEST_PLUGINS);
+		try {
+			final IApiComponent source = baseline.getApiComponent(COMPONENT_B);
+			final IApiComponent exporter = baseline.getApiComponent(COMPONENT_A);
+			final List<Throwable> errors = Collections.synchronizedList(new ArrayList<Throwable>());
+			final AtomicBoolean done = new AtomicBoolean();
+			Thread[] threads = new Thread[4];
+			for (int i = 0; i < threads.length; i++) {
+				threads[i] = new Thread("resolver " + i) { //$NON-NLS-1$
+					@Override
+					public void run() {
+						try {
+							while (!done.get()) {
+								IApiComponent[] components = baseline.resolvePackage(source, COMPONENT_A);
+								if (components.length != 1 || !exporter.equals(components[0])) {
+									errors.add(new AssertionFailedError("Wrong provider for package: " + Arrays.asList(components))); //$NON-NLS-1$
+									return;
+								}
+								baseline.resolvePackage(source, "java.lang"); //$NON-NLS-1$
+							}
+						} catch (Throwable t) {
+							errors.add(t);
+						}
+					}
+				};
+				threads[i].start();
+			}
+			try {
+				File bundle = TestSuiteHelper.getPluginDirectoryPath().append("test-analyzer-1").append("test.bundle.a_1.0.0.jar").toFile(); //$NON-NLS-1$ //$NON-NLS-2$
+				for (int i = 0; i < 20; i++) {
+					IApiComponent component = ApiModelFactory.newApiComponent(baseline, bundle.getAbsolutePath());
+					assertNotNull("test.bundle.a should be a bundle", component); //$NON-NLS-1$
+					baseline.addApiComponents(new IApiComponent[] { component });
+					if (baseline instanceof ApiBaseline) {
+						((ApiBaseline) baseline).clearPackage(COMPONENT_A);
+					}
+				}
+			} finally {
+				done.set(true);
+				for (Thread thread : threads) {
+					thread.join();
+				}
+			}
+			if (!errors.isEmpty()) {
+				Throwable error = errors.get(0);
+				if (error instanceof Error) {
+					throw (Error) error;
+				}
+				throw new Exception(error);
+			}
+			IApiComponent[] components = baseline.resolvePackage(source, COMPONENT_A);
+			assertEquals("Wrong size", 1, components.length); //$NON-NLS-1$
+			assertEquals("Wrong provider for package", exporter, components[0]); //$NON-NLS-1$
+		} finally {
+			baseline.dispose();
+		}
+	}
 }
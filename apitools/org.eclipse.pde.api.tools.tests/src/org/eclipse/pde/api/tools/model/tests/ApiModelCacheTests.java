@@ -13,6 +13,7 @@ package org.eclipse.pde.api.tools.model.tests;
 import junit.framework.TestCase;
 
 import org.eclipse.pde.api.tools.internal.model.ApiModelCache;
+import org.eclipse.pde.api.tools.internal.model.TypeStructureCache;
 import org.eclipse.pde.api.tools.internal.provisional.model.IApiElement;
 import org.eclipse.pde.api.tools.internal.provisional.model.IApiType;
 
@@ -161,4 +162,44 @@ public class ApiModelCacheTests extends TestCase {
 		assertTrue("The type 'a.b.c.testee1' should have been removed from the cache", ApiModelCache.getCache().removeElementInfo(element)); //$NON-NLS-1$
 		assertTrue("The cache should be empty", ApiModelCache.getCache().isEmpty()); //$NON-NLS-1$
 	}
+
+	/**
+	 * Tests caching / removing compact type structures, removing a type must
+	 * also remove the structures of its member types
+	 *
+	 * @throws Exception
+	 */
+	public void testAddRemoveTypeStructure() throws Exception {
+		ApiModelCache cache = ApiModelCache.getCache();
+		byte[] structure = new byte[] { 1, 2, 3 };
+		cache.cacheTypeStructure(TEST_BASELINE_ID, TEST_COMP_ID, "a.b.c.testee1", structure); //$NON-NLS-1$
+		cache.cacheTypeStructure(TEST_BASELINE_ID, TEST_COMP_ID, "a.b.c.testee1$inner", structure); //$NON-NLS-1$
+		cache.cacheTypeStructure(TEST_BASELINE_ID, TEST_COMP_ID, "a.b.c.testee2", structure); //$NON-NLS-1$
+		assertSame("The structure of 'a.b.c.testee1' should be cached", structure, cache.getTypeStructure(TEST_BASELINE_ID, TEST_COMP_ID, "a.b.c.testee1")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertFalse("The cache should not be empty", cache.isEmpty()); //$NON-NLS-1$
+		cache.removeElementInfo(TEST_BASELINE_ID, TEST_COMP_ID, "a.b.c.testee1", IApiElement.TYPE); //$NON-NLS-1$
+		assertNull("The structure of 'a.b.c.testee1' should have been removed", cache.getTypeStructure(TEST_BASELINE_ID, TEST_COMP_ID, "a.b.c.testee1")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertNull("The structure of 'a.b.c.testee1$inner' should have been removed", cache.getTypeStructure(TEST_BASELINE_ID, TEST_COMP_ID, "a.b.c.testee1$inner")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertNotNull("The structure of 'a.b.c.testee2' should still be cached", cache.getTypeStructure(TEST_BASELINE_ID, TEST_COMP_ID, "a.b.c.testee2")); //$NON-NLS-1$ //$NON-NLS-2$
+		cache.removeElementInfo(TEST_BASELINE_ID, TEST_COMP_ID, null, IApiElement.COMPONENT);
+		assertTrue("The cache should be empty", cache.isEmpty()); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that the compact structure cache stays within its size limit
+	 *
+	 * @throws Exception
+	 */
+	public void testTypeStructureCacheLimit() throws Exception {
+		TypeStructureCache cache = new TypeStructureCache(10);
+		cache.put("a", new byte[4]); //$NON-NLS-1$
+		cache.put("b", new byte[4]); //$NON-NLS-1$
+		assertNotNull("'a' should be cached", cache.get("a")); //$NON-NLS-1$ //$NON-NLS-2$
+		cache.put("c", new byte[4]); //$NON-NLS-1$
+		assertNull("'b' is the least recently used and should have been evicted", cache.get("b")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals("The cache should hold 8 bytes", 8, cache.getSize()); //$NON-NLS-1$
+		assertEquals("There should be one eviction", 1, cache.getEvictionCount()); //$NON-NLS-1$
+		cache.put("d", new byte[11]); //$NON-NLS-1$
+		assertNull("Structures over the limit should not be cached", cache.get("d")); //$NON-NLS-1$ //$NON-NLS-2$
+	}
 }
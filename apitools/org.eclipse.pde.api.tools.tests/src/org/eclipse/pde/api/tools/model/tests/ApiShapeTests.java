@@ -0,0 +1,86 @@
+/*******************************************************************************
+ * Copyright (c) 2017 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.api.tools.model.tests;
+
+import org.eclipse.pde.api.tools.internal.builder.BuildState;
+import org.eclipse.pde.api.tools.internal.model.TypeStructureBuilder;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the API shape hashes recorded in the {@link BuildState}
+ *
+ * @since 1.1
+ */
+public class ApiShapeTests extends TestCase {
+
+	/**
+	 * Creates the class file of a type with a single method
+	 *
+	 * @param descriptor the descriptor of the method
+	 * @param constant the constant pushed in the body of the method, or
+	 *            <code>-1</code> for an empty body
+	 * @return the class file bytes
+	 */
+	private byte[] newClassFile(String descriptor, int constant) {
+		ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+		writer.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC, "a/b/Shape", null, "java/lang/Object", null); //$NON-NLS-1$ //$NON-NLS-2$
+		writer.visitSource("Shape.java", null); //$NON-NLS-1$
+		MethodVisitor method = writer.visitMethod(Opcodes.ACC_PUBLIC, "m", descriptor, null, null); //$NON-NLS-1$
+		method.visitCode();
+		if (constant != -1) {
+			method.visitLdcInsn(Integer.valueOf(constant));
+			method.visitInsn(Opcodes.POP);
+		}
+		method.visitInsn(Opcodes.RETURN);
+		method.visitMaxs(0, 0);
+		method.visitEnd();
+		writer.visitEnd();
+		return writer.toByteArray();
+	}
+
+	/**
+	 * Computes the API shape of the given class file
+	 *
+	 * @param classFile
+	 * @return the hash of the API shape
+	 */
+	private long getShape(byte[] classFile) {
+		return BuildState.computeApiShape(new byte[][] { TypeStructureBuilder.compactTypeStructure(classFile) });
+	}
+
+	/**
+	 * Tests that a change to a method body keeps the API shape
+	 */
+	public void testBodyChange() {
+		long shape = getShape(newClassFile("()V", -1)); //$NON-NLS-1$
+		assertTrue("The shape should be known", shape != -1L); //$NON-NLS-1$
+		assertEquals("A body change should keep the shape", shape, getShape(newClassFile("()V", 123456))); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * Tests that a change to a method signature changes the API shape
+	 */
+	public void testSignatureChange() {
+		long shape = getShape(newClassFile("()V", -1)); //$NON-NLS-1$
+		assertFalse("A signature change should change the shape", shape == getShape(newClassFile("(I)V", -1))); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * Tests that the shape is unknown if a class file cannot be read
+	 */
+	public void testUnknownShape() {
+		assertEquals("The shape should be unknown", -1L, BuildState.computeApiShape(new byte[][] { null })); //$NON-NLS-1$
+	}
+}
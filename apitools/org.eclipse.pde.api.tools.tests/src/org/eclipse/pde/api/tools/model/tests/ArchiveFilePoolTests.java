@@ -0,0 +1,116 @@
+/*******************************************************************************
+ * Copyright (c) 2017 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.api.tools.model.tests;
+
+import java.io.File;
+import java.util.zip.ZipFile;
+
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.pde.api.tools.internal.model.ArchiveFilePool;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the {@link ArchiveFilePool}
+ *
+ * @since 1.1
+ */
+public class ArchiveFilePoolTests extends TestCase {
+
+	/**
+	 * @return the path to the sample archive
+	 */
+	private String getSampleArchive() {
+		IPath path = TestSuiteHelper.getPluginDirectoryPath();
+		return path.append("test-jars").append("sample.jar").toOSString(); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * @return the path to the nested sample archive
+	 */
+	private String getNestedArchive() {
+		IPath path = TestSuiteHelper.getPluginDirectoryPath();
+		return path.append("test-nested-jars").append("component.a_1.0.0.jar").toOSString(); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * Tests that an archive is opened once and shared between clients
+	 *
+	 * @throws Exception
+	 */
+	public void testSharedHandle() throws Exception {
+		ArchiveFilePool pool = new ArchiveFilePool(4);
+		String location = getSampleArchive();
+		ZipFile first = pool.acquire(location);
+		ZipFile second = pool.acquire(location);
+		assertSame("The same archive should be returned", first, second); //$NON-NLS-1$
+		assertEquals("There should be one miss", 1, pool.getMissCount()); //$NON-NLS-1$
+		assertEquals("There should be one hit", 1, pool.getHitCount()); //$NON-NLS-1$
+		pool.release(first);
+		pool.release(second);
+		assertEquals("The archive should still be open", 1, pool.getOpenCount()); //$NON-NLS-1$
+		pool.close();
+		assertEquals("The pool should be empty", 0, pool.getOpenCount()); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that idle archives are evicted once the pool is over its limit and
+	 * that archives in use are never closed
+	 *
+	 * @throws Exception
+	 */
+	public void testEviction() throws Exception {
+		ArchiveFilePool pool = new ArchiveFilePool(1);
+		ZipFile sample = pool.acquire(getSampleArchive());
+		ZipFile nested = pool.acquire(getNestedArchive());
+		assertEquals("Both archives are in use and must be open", 2, pool.getOpenCount()); //$NON-NLS-1$
+		assertNotNull("The archive in use should be readable", sample.entries()); //$NON-NLS-1$
+		pool.release(sample);
+		assertEquals("The idle archive should have been evicted", 1, pool.getOpenCount()); //$NON-NLS-1$
+		assertEquals("There should be one eviction", 1, pool.getEvictionCount()); //$NON-NLS-1$
+		pool.release(nested);
+		pool.close();
+	}
+
+	/**
+	 * Tests that closing the pool defers closing archives still in use
+	 *
+	 * @throws Exception
+	 */
+	public void testCloseWhileInUse() throws Exception {
+		ArchiveFilePool pool = new ArchiveFilePool(4);
+		ZipFile sample = pool.acquire(getSampleArchive());
+		pool.close();
+		assertEquals("The archive in use should still be open", 1, pool.getOpenCount()); //$NON-NLS-1$
+		assertNotNull("The archive in use should be readable", sample.entries()); //$NON-NLS-1$
+		pool.release(sample);
+		assertEquals("The archive should be closed once released", 0, pool.getOpenCount()); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that an archive acquired with a location that is not normalized is
+	 * released back into the pool instead of being treated as unmanaged
+	 *
+	 * @throws Exception
+	 */
+	public void testReleaseUnnormalizedLocation() throws Exception {
+		ArchiveFilePool pool = new ArchiveFilePool(4);
+		IPath path = TestSuiteHelper.getPluginDirectoryPath();
+		String location = path.append("test-jars").toOSString() + File.separator + File.separator + "sample.jar"; //$NON-NLS-1$ //$NON-NLS-2$
+		ZipFile sample = pool.acquire(location);
+		pool.release(sample);
+		assertEquals("The released archive should stay pooled", 1, pool.getOpenCount()); //$NON-NLS-1$
+		assertSame("The pooled archive should be reused", sample, pool.acquire(location)); //$NON-NLS-1$
+		pool.release(sample);
+		pool.close(location);
+		assertEquals("The idle archive should be closed", 0, pool.getOpenCount()); //$NON-NLS-1$
+	}
+}
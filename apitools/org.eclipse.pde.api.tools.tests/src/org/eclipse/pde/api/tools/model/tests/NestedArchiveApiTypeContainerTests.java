@@ -0,0 +1,219 @@
+/*******************************************************************************
+ * Copyright (c) 2017 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.api.tools.model.tests;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.pde.api.tools.internal.model.NestedArchiveApiTypeContainer;
+import org.eclipse.pde.api.tools.internal.provisional.model.IApiTypeRoot;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests reading class files of <code>Bundle-ClassPath</code> entries directly
+ * from a bundle archive with the {@link NestedArchiveApiTypeContainer}
+ *
+ * @since 1.1
+ */
+public class NestedArchiveApiTypeContainerTests extends TestCase {
+
+	private static final String NESTED_JAR = "lib/nested.jar"; //$NON-NLS-1$
+	private static final String CLASS_A = "p/A.class"; //$NON-NLS-1$
+	private static final String CLASS_B = "p/q/B.class"; //$NON-NLS-1$
+
+	private File fDirectory;
+	private NestedArchiveApiTypeContainer fContainer;
+
+	@Override
+	protected void setUp() throws Exception {
+		fDirectory = Files.createTempDirectory("nested-archive").toFile(); //$NON-NLS-1$
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		if (fContainer != null) {
+			fContainer.close();
+		}
+		for (File file : fDirectory.listFiles()) {
+			file.delete();
+		}
+		fDirectory.delete();
+	}
+
+	/**
+	 * @param name the entry name
+	 * @return the contents of the entry with the given name, compressible
+	 *         and different for each entry
+	 */
+	private byte[] getContents(String name) {
+		StringBuilder buffer = new StringBuilder();
+		for (int i = 0; i < 200; i++) {
+			buffer.append(name).append(i);
+		}
+		return buffer.toString().getBytes();
+	}
+
+	/**
+	 * Writes an entry. Deflated entries are followed by a data descriptor, the
+	 * local header of stored entries holds their size.
+	 */
+	private void putEntry(ZipOutputStream stream, String name, byte[] contents, boolean stored) throws IOException {
+		ZipEntry entry = new ZipEntry(name);
+		if (stored) {
+			CRC32 crc = new CRC32();
+			crc.update(contents);
+			entry.setMethod(ZipEntry.STORED);
+			entry.setSize(contents.length);
+			entry.setCompressedSize(contents.length);
+			entry.setCrc(crc.getValue());
+		}
+		stream.putNextEntry(entry);
+		stream.write(contents);
+		stream.closeEntry();
+	}
+
+	/**
+	 * @param stored whether to store the entries rather than deflate them
+	 * @param centralDirectory whether to write the central directory
+	 * @return the bytes of a jar with the two class files
+	 */
+	private byte[] createNestedJar(boolean stored, boolean centralDirectory) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ZipOutputStream stream = new ZipOutputStream(out);
+		putEntry(stream, "p/", new byte[0], true); //$NON-NLS-1$
+		putEntry(stream, CLASS_A, getContents(CLASS_A), stored);
+		putEntry(stream, CLASS_B, getContents(CLASS_B), stored);
+		putEntry(stream, "p/readme.txt", getContents("readme"), stored); //$NON-NLS-1$ //$NON-NLS-2$
+		stream.flush();
+		// the local entries only, as left by an interrupted write
+		byte[] entries = out.toByteArray();
+		stream.close();
+		return centralDirectory ? out.toByteArray() : entries;
+	}
+
+	/**
+	 * Creates a bundle archive holding the given nested jar and a directory
+	 * with the same class files, and a container for the given path in it
+	 */
+	private NestedArchiveApiTypeContainer createContainer(byte[] nestedJar, String path) throws IOException {
+		File bundle = new File(fDirectory, "bundle.jar"); //$NON-NLS-1$
+		try (ZipOutputStream stream = new ZipOutputStream(new FileOutputStream(bundle))) {
+			if (nestedJar != null) {
+				putEntry(stream, NESTED_JAR, nestedJar, false);
+			}
+			putEntry(stream, "classes/" + CLASS_A, getContents(CLASS_A), false); //$NON-NLS-1$
+			putEntry(stream, "classes/" + CLASS_B, getContents(CLASS_B), true); //$NON-NLS-1$
+		}
+		fContainer = new NestedArchiveApiTypeContainer(null, bundle.getAbsolutePath(), path);
+		return fContainer;
+	}
+
+	private void assertClassFiles(NestedArchiveApiTypeContainer container) throws CoreException {
+		assertEquals("Wrong packages", Arrays.asList("p", "p.q"), Arrays.asList(container.getPackageNames())); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		IApiTypeRoot a = container.findTypeRoot("p.A"); //$NON-NLS-1$
+		assertNotNull("Missing class file", a); //$NON-NLS-1$
+		assertTrue("Wrong contents", Arrays.equals(getContents(CLASS_A), a.getContents())); //$NON-NLS-1$
+		IApiTypeRoot b = container.findTypeRoot("p.q.B"); //$NON-NLS-1$
+		assertNotNull("Missing class file", b); //$NON-NLS-1$
+		assertTrue("Wrong contents", Arrays.equals(getContents(CLASS_B), b.getContents())); //$NON-NLS-1$
+		assertNull("Resources are not class files", container.findTypeRoot("p.readme")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertNull("Unexpected class file", container.findTypeRoot("p.C")); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * Tests reading deflated entries followed by data descriptors
+	 *
+	 * @throws Exception
+	 */
+	public void testDeflatedEntries() throws Exception {
+		assertClassFiles(createContainer(createNestedJar(false, true), NESTED_JAR));
+	}
+
+	/**
+	 * Tests reading stored entries
+	 *
+	 * @throws Exception
+	 */
+	public void testStoredEntries() throws Exception {
+		assertClassFiles(createContainer(createNestedJar(true, true), NESTED_JAR));
+	}
+
+	/**
+	 * Tests that a nested jar without a readable central directory is read as
+	 * a stream
+	 *
+	 * @throws Exception
+	 */
+	public void testStreamFallback() throws Exception {
+		assertClassFiles(createContainer(createNestedJar(false, false), NESTED_JAR));
+		fContainer.close();
+		assertClassFiles(createContainer(createNestedJar(true, false), NESTED_JAR));
+	}
+
+	/**
+	 * Tests that a nested jar is loaded again after the container was closed
+	 *
+	 * @throws Exception
+	 */
+	public void testReloadAfterClose() throws Exception {
+		NestedArchiveApiTypeContainer container = createContainer(createNestedJar(false, true), NESTED_JAR);
+		IApiTypeRoot a = container.findTypeRoot("p.A"); //$NON-NLS-1$
+		container.close();
+		assertTrue("Wrong contents", Arrays.equals(getContents(CLASS_A), a.getContents())); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests reading class files from a directory of the bundle archive
+	 *
+	 * @throws Exception
+	 */
+	public void testDirectory() throws Exception {
+		NestedArchiveApiTypeContainer container = createContainer(null, "classes/"); //$NON-NLS-1$
+		assertEquals("Wrong packages", Arrays.asList("p", "p.q"), Arrays.asList(container.getPackageNames())); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		assertTrue("Wrong contents", Arrays.equals(getContents(CLASS_A), container.findTypeRoot("p.A").getContents())); //$NON-NLS-1$ //$NON-NLS-2$
+		assertTrue("Wrong contents", Arrays.equals(getContents(CLASS_B), container.findTypeRoot("p.q.B").getContents())); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * Tests that a nested jar that is not a zip archive has no class files
+	 *
+	 * @throws Exception
+	 */
+	public void testCorruptNestedJar() throws Exception {
+		NestedArchiveApiTypeContainer container = createContainer(getContents("not a jar"), NESTED_JAR); //$NON-NLS-1$
+		assertEquals("Unexpected packages", 0, container.getPackageNames().length); //$NON-NLS-1$
+		assertNull("Unexpected class file", container.findTypeRoot("p.A")); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * Tests that a missing nested jar is reported
+	 *
+	 * @throws Exception
+	 */
+	public void testMissingNestedJar() throws Exception {
+		NestedArchiveApiTypeContainer container = createContainer(null, NESTED_JAR);
+		try {
+			container.findTypeRoot("p.A"); //$NON-NLS-1$
+			fail("A missing nested jar should be reported"); //$NON-NLS-1$
+		} catch (CoreException e) {
+			// expected
+		}
+	}
+}
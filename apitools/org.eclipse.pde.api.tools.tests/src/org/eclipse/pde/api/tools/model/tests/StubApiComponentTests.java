@@ -0,0 +1,78 @@
+/*******************************************************************************
+ * Copyright (c) 2017 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.api.tools.model.tests;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.eclipse.pde.api.tools.internal.model.StubApiComponent;
+import org.eclipse.pde.api.tools.internal.provisional.ProfileModifiers;
+import org.eclipse.pde.api.tools.internal.provisional.model.IApiComponent;
+import org.eclipse.pde.api.tools.internal.provisional.model.IApiTypeRoot;
+import org.eclipse.pde.api.tools.internal.util.Util;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the {@link StubApiComponent}s shared by the analysis threads
+ *
+ * @since 1.1
+ */
+public class StubApiComponentTests extends TestCase {
+
+	private static final int THREADS = 8;
+
+	/**
+	 * Tests that system references of the same execution environment resolved
+	 * on several threads at once use a single component
+	 *
+	 * @throws Exception
+	 */
+	public void testConcurrentResolution() throws Exception {
+		final int eeValue = ProfileModifiers.JAVASE_1_8;
+		if (!StubApiComponent.isInstalled(eeValue)) {
+			// the stubs are provided by an optional fragment
+			return;
+		}
+		final CyclicBarrier barrier = new CyclicBarrier(THREADS);
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try {
+			List<Future<IApiComponent>> futures = new ArrayList<>();
+			for (int i = 0; i < THREADS; i++) {
+				futures.add(executor.submit(new Callable<IApiComponent>() {
+					@Override
+					public IApiComponent call() throws Exception {
+						barrier.await();
+						// what Reference#resolve(int) does for a system reference
+						IApiComponent component = StubApiComponent.getStubApiComponent(eeValue);
+						assertNotNull("The stub component should exist", component); //$NON-NLS-1$
+						IApiTypeRoot root = Util.getClassFile(new IApiComponent[] { component }, "java.lang.Object"); //$NON-NLS-1$
+						assertNotNull("java.lang.Object should be found", root); //$NON-NLS-1$
+						assertNotNull("java.lang.Object should be read", root.getStructure()); //$NON-NLS-1$
+						return component;
+					}
+				}));
+			}
+			IApiComponent first = futures.get(0).get();
+			for (Future<IApiComponent> future : futures) {
+				assertSame("All threads should get the same component", first, future.get()); //$NON-NLS-1$
+			}
+			assertSame("Later lookups should get the same component", first, StubApiComponent.getStubApiComponent(eeValue)); //$NON-NLS-1$
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+}
@@ -0,0 +1,130 @@
+/*******************************************************************************
+ * Copyright (c) 2017 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.api.tools.search.tests;
+
+import java.io.File;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.pde.api.tools.internal.IApiXmlConstants;
+import org.eclipse.pde.api.tools.internal.provisional.Factory;
+import org.eclipse.pde.api.tools.internal.provisional.VisibilityModifiers;
+import org.eclipse.pde.api.tools.internal.provisional.builder.IReference;
+import org.eclipse.pde.api.tools.internal.provisional.descriptors.IComponentDescriptor;
+import org.eclipse.pde.api.tools.internal.search.IReferenceDescriptor;
+import org.eclipse.pde.api.tools.internal.search.XmlReferenceDescriptorStreamWriter;
+import org.eclipse.pde.api.tools.internal.search.XmlReferenceDescriptorWriter;
+import org.eclipse.pde.api.tools.model.tests.TestSuiteHelper;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the {@link XmlReferenceDescriptorStreamWriter}
+ *
+ * @since 1.1
+ */
+public class XmlReferenceDescriptorStreamWriterTests extends TestCase {
+
+	static final IPath XML_PATH = TestSuiteHelper.getUserDirectoryPath().append("stream-writer-tests"); //$NON-NLS-1$
+	static final IComponentDescriptor ORIGIN = Factory.componentDescriptor("origin", "1.0.0"); //$NON-NLS-1$ //$NON-NLS-2$
+	static final IComponentDescriptor TARGET = Factory.componentDescriptor("target", "1.0.0"); //$NON-NLS-1$ //$NON-NLS-2$
+
+	@Override
+	protected void tearDown() throws Exception {
+		TestSuiteHelper.delete(XML_PATH.toFile());
+		super.tearDown();
+	}
+
+	/**
+	 * Creates a type reference from the given line to the given type
+	 *
+	 * @param line
+	 * @param type
+	 * @return a new reference descriptor
+	 */
+	private IReferenceDescriptor newReference(int line, String type) {
+		return Factory.referenceDescriptor(ORIGIN, Factory.typeDescriptor("a.b.Origin"), line, TARGET, Factory.typeDescriptor(type), IReference.REF_FIELDDECL, 0, VisibilityModifiers.API, null); //$NON-NLS-1$
+	}
+
+	/**
+	 * @return the report file for type references from {@link #ORIGIN} to
+	 *         {@link #TARGET}
+	 */
+	private File getReportFile() {
+		return XML_PATH.append("target (1.0.0)").append("origin (1.0.0)").append(VisibilityModifiers.getVisibilityName(VisibilityModifiers.API)).append(XmlReferenceDescriptorWriter.TYPE_REFERENCES + ".xml").toFile(); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+	}
+
+	/**
+	 * Parses the report file and checks its reference count and number of
+	 * reference elements
+	 *
+	 * @param expected the expected number of references
+	 * @throws Exception
+	 */
+	private void assertReport(int expected) throws Exception {
+		File file = getReportFile();
+		assertTrue("The report file should exist", file.exists()); //$NON-NLS-1$
+		Document doc = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(file);
+		Element root = doc.getDocumentElement();
+		assertEquals("Wrong reference count", expected, Integer.parseInt(root.getAttribute(IApiXmlConstants.ATTR_REFERENCE_COUNT))); //$NON-NLS-1$
+		assertEquals("Wrong number of references", expected, root.getElementsByTagName(IApiXmlConstants.ATTR_REFERENCE).getLength()); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that the report is complete after each write
+	 *
+	 * @throws Exception
+	 */
+	public void testAppend() throws Exception {
+		XmlReferenceDescriptorStreamWriter writer = new XmlReferenceDescriptorStreamWriter(XML_PATH.toOSString());
+		writer.writeReferences(new IReferenceDescriptor[] {
+				newReference(1, "a.b.Target1"), //$NON-NLS-1$
+				newReference(2, "a.b.Target2") }); //$NON-NLS-1$
+		assertReport(2);
+		writer.writeReferences(new IReferenceDescriptor[] { newReference(3, "a.b.Target1") }); //$NON-NLS-1$
+		assertReport(3);
+	}
+
+	/**
+	 * Tests that the referenced and referencing members are described as by
+	 * the {@link XmlReferenceDescriptorWriter}
+	 *
+	 * @throws Exception
+	 */
+	public void testMemberDetails() throws Exception {
+		XmlReferenceDescriptorStreamWriter writer = new XmlReferenceDescriptorStreamWriter(XML_PATH.toOSString());
+		writer.writeReferences(new IReferenceDescriptor[] { newReference(1, "a.b.Target1") }); //$NON-NLS-1$
+		assertReport(1);
+		Document doc = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(getReportFile());
+		Element target = (Element) doc.getElementsByTagName(IApiXmlConstants.ELEMENT_TARGET).item(0);
+		assertEquals("Wrong referenced type", "a.b.Target1", target.getAttribute(IApiXmlConstants.ATTR_TYPE)); //$NON-NLS-1$ //$NON-NLS-2$
+		Element reference = (Element) doc.getElementsByTagName(IApiXmlConstants.ATTR_REFERENCE).item(0);
+		assertEquals("Wrong referencing type", "a.b.Origin", reference.getAttribute(IApiXmlConstants.ATTR_TYPE)); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals("Wrong line number", "1", reference.getAttribute(IApiXmlConstants.ATTR_LINE_NUMBER)); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * Tests appending to a report written by the {@link XmlReferenceDescriptorWriter}
+	 *
+	 * @throws Exception
+	 */
+	public void testAppendToExistingReport() throws Exception {
+		XmlReferenceDescriptorWriter domWriter = new XmlReferenceDescriptorWriter(XML_PATH.toOSString());
+		domWriter.writeReferences(new IReferenceDescriptor[] { newReference(1, "a.b.Target1") }); //$NON-NLS-1$
+		assertReport(1);
+		XmlReferenceDescriptorStreamWriter writer = new XmlReferenceDescriptorStreamWriter(XML_PATH.toOSString());
+		writer.writeReferences(new IReferenceDescriptor[] { newReference(2, "a.b.Target2") }); //$NON-NLS-1$
+		assertReport(2);
+	}
+}
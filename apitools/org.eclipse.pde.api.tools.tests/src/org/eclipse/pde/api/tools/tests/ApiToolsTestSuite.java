@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2012 IBM Corporation and others.
+ * Copyright (c) 2007, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,17 +12,24 @@ package org.eclipse.pde.api.tools.tests;
 
 
 import org.eclipse.pde.api.tools.builder.tests.OSGiLessAnalysisTests;
+import org.eclipse.pde.api.tools.builder.tests.ReferenceAnalyzerTests;
+import org.eclipse.pde.api.tools.builder.tests.ReferenceResolutionCacheTests;
 import org.eclipse.pde.api.tools.comparator.tests.AllDeltaTests;
+import org.eclipse.pde.api.tools.model.tests.ApiBaselineSnapshotTests;
 import org.eclipse.pde.api.tools.model.tests.ApiBaselineTests;
 import org.eclipse.pde.api.tools.model.tests.ApiDescriptionTests;
 import org.eclipse.pde.api.tools.model.tests.ApiModelCacheTests;
+import org.eclipse.pde.api.tools.model.tests.ApiShapeTests;
 import org.eclipse.pde.api.tools.model.tests.ApiTypeContainerTests;
+import org.eclipse.pde.api.tools.model.tests.ArchiveFilePoolTests;
 import org.eclipse.pde.api.tools.model.tests.BadClassfileTests;
 import org.eclipse.pde.api.tools.model.tests.CRCTests;
 import org.eclipse.pde.api.tools.model.tests.ClassFileScannerTests;
 import org.eclipse.pde.api.tools.model.tests.ComponentManifestTests;
 import org.eclipse.pde.api.tools.model.tests.ElementDescriptorTests;
 import org.eclipse.pde.api.tools.model.tests.Java8ClassfileScannerTests;
+import org.eclipse.pde.api.tools.model.tests.NestedArchiveApiTypeContainerTests;
+import org.eclipse.pde.api.tools.model.tests.StubApiComponentTests;
 import org.eclipse.pde.api.tools.model.tests.TagScannerTests;
 import org.eclipse.pde.api.tools.problems.tests.ApiFilterTests;
 import org.eclipse.pde.api.tools.problems.tests.ApiProblemFactoryTests;
@@ -31,11 +38,13 @@ import org.eclipse.pde.api.tools.reference.tests.SearchScopeTests;
 import org.eclipse.pde.api.tools.search.tests.SearchEngineTests;
 import org.eclipse.pde.api.tools.search.tests.SkippedComponentTests;
 import org.eclipse.pde.api.tools.search.tests.UseSearchTests;
+import org.eclipse.pde.api.tools.search.tests.XmlReferenceDescriptorStreamWriterTests;
 import org.eclipse.pde.api.tools.tests.util.ProjectUtils;
 import org.eclipse.pde.api.tools.util.tests.HeadlessApiBaselineManagerTests;
 import org.eclipse.pde.api.tools.util.tests.SignaturesTests;
 import org.eclipse.pde.api.tools.util.tests.TarEntryTests;
 import org.eclipse.pde.api.tools.util.tests.TarExceptionTests;
+import org.eclipse.pde.api.tools.util.tests.TarFileTests;
 import org.eclipse.pde.api.tools.util.tests.UtilTests;
 
 import junit.framework.Test;
@@ -72,12 +81,14 @@ public class ApiToolsTestSuite extends TestSuite {
 		addTest(new TestSuite(SearchEngineTests.class));
 		addTest(new TestSuite(SkippedComponentTests.class));
 		addTest(new TestSuite(UseSearchTests.class));
+		addTest(new TestSuite(XmlReferenceDescriptorStreamWriterTests.class));
 		addTest(new TestSuite(HeadlessApiBaselineManagerTests.class));
 		addTest(new TestSuite(TagScannerTests.class));
 		addTest(new TestSuite(ComponentManifestTests.class));
 		addTest(new TestSuite(UtilTests.class));
 		addTest(new TestSuite(SignaturesTests.class));
 		addTest(new TestSuite(ApiBaselineTests.class));
+		addTest(new TestSuite(ApiBaselineSnapshotTests.class));
 		addTest(new TestSuite(ApiTypeContainerTests.class));
 		addTest(ClassFileScannerTests.suite());
 		if (ProjectUtils.isJava8Compatible()) {
@@ -90,8 +101,15 @@ public class ApiToolsTestSuite extends TestSuite {
 		addTest(new TestSuite(ApiFilterTests.class));
 		addTest(new TestSuite(TarEntryTests.class));
 		addTest(new TestSuite(TarExceptionTests.class));
+		addTest(new TestSuite(TarFileTests.class));
 		addTest(new TestSuite(OSGiLessAnalysisTests.class));
+		addTest(new TestSuite(ReferenceAnalyzerTests.class));
+		addTest(new TestSuite(ReferenceResolutionCacheTests.class));
 		addTest(new TestSuite(ApiModelCacheTests.class));
+		addTest(new TestSuite(ApiShapeTests.class));
+		addTest(new TestSuite(ArchiveFilePoolTests.class));
+		addTest(new TestSuite(NestedArchiveApiTypeContainerTests.class));
+		addTest(new TestSuite(StubApiComponentTests.class));
 		addTest(new TestSuite(BadClassfileTests.class));
 		addTest(new TestSuite(CRCTests.class));
 		addTest(new AllDeltaTests());
@@ -0,0 +1,173 @@
+/*******************************************************************************
+ * Copyright (c) 2017 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.api.tools.util.tests;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+import org.eclipse.pde.api.tools.internal.util.TarEntry;
+import org.eclipse.pde.api.tools.internal.util.TarFile;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests reading entries of a {@link TarFile} out of archive order
+ *
+ * @since 1.1
+ */
+public class TarFileTests extends TestCase {
+
+	static final String[] NAMES = new String[] { "a/One.class", "a/Two.class", "b/Three.class" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+
+	private File fArchive;
+
+	@Override
+	protected void tearDown() throws Exception {
+		if (fArchive != null) {
+			fArchive.delete();
+		}
+		super.tearDown();
+	}
+
+	/**
+	 * Returns the contents written for the entry with the given name, sized so
+	 * that entries span more than one tar block
+	 *
+	 * @param name
+	 * @return the entry contents
+	 */
+	private byte[] getContents(String name) {
+		StringBuilder buffer = new StringBuilder();
+		for (int i = 0; i < 100; i++) {
+			buffer.append(name).append(i);
+		}
+		return buffer.toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Writes a tar header for a file entry
+	 *
+	 * @param out
+	 * @param name
+	 * @param size
+	 * @throws IOException
+	 */
+	private void writeHeader(OutputStream out, String name, int size) throws IOException {
+		byte[] header = new byte[512];
+		byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+		System.arraycopy(bytes, 0, header, 0, bytes.length);
+		put(header, 100, "0000644"); //$NON-NLS-1$
+		put(header, 108, "0000000"); //$NON-NLS-1$
+		put(header, 116, "0000000"); //$NON-NLS-1$
+		put(header, 124, String.format("%011o", Integer.valueOf(size))); //$NON-NLS-1$
+		put(header, 136, "00000000000"); //$NON-NLS-1$
+		header[156] = '0';
+		for (int i = 148; i < 156; i++) {
+			header[i] = ' ';
+		}
+		long checksum = 0;
+		for (byte b : header) {
+			checksum += b & 0xff;
+		}
+		put(header, 148, String.format("%06o", Long.valueOf(checksum))); //$NON-NLS-1$
+		header[155] = ' ';
+		out.write(header);
+	}
+
+	private void put(byte[] header, int offset, String value) {
+		byte[] bytes = value.getBytes(StandardCharsets.US_ASCII);
+		System.arraycopy(bytes, 0, header, offset, bytes.length);
+	}
+
+	/**
+	 * Creates a test archive holding the {@link #NAMES} entries
+	 *
+	 * @param gzip if the archive should be compressed
+	 * @throws IOException
+	 */
+	private void createArchive(boolean gzip) throws IOException {
+		fArchive = File.createTempFile("tarfiletests", gzip ? ".tar.gz" : ".tar"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		OutputStream out = new FileOutputStream(fArchive);
+		if (gzip) {
+			out = new GZIPOutputStream(out);
+		}
+		try {
+			for (String name : NAMES) {
+				byte[] contents = getContents(name);
+				writeHeader(out, name, contents.length);
+				out.write(contents);
+				out.write(new byte[(512 - contents.length % 512) % 512]);
+			}
+			out.write(new byte[1024]);
+		} finally {
+			out.close();
+		}
+	}
+
+	private byte[] read(InputStream in) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buf = new byte[100];
+		int len;
+		while ((len = in.read(buf)) >= 0) {
+			out.write(buf, 0, len);
+		}
+		return out.toByteArray();
+	}
+
+	/**
+	 * Reads all entries in reverse archive order and then in archive order
+	 *
+	 * @param gzip
+	 * @throws Exception
+	 */
+	private void doTestRandomAccess(boolean gzip) throws Exception {
+		createArchive(gzip);
+		TarFile tarFile = new TarFile(fArchive);
+		try {
+			for (int i = NAMES.length - 1; i >= 0; i--) {
+				TarEntry entry = tarFile.getEntry(NAMES[i]);
+				assertNotNull("Missing entry " + NAMES[i], entry); //$NON-NLS-1$
+				assertEquals("Wrong contents for " + NAMES[i], new String(getContents(NAMES[i]), StandardCharsets.UTF_8), new String(read(tarFile.getInputStream(entry)), StandardCharsets.UTF_8)); //$NON-NLS-1$
+			}
+			for (String name : NAMES) {
+				TarEntry entry = tarFile.getEntry(name);
+				assertEquals("Wrong contents for " + name, new String(getContents(name), StandardCharsets.UTF_8), new String(read(tarFile.getInputStream(entry)), StandardCharsets.UTF_8)); //$NON-NLS-1$
+			}
+			assertNull("There should be no such entry", tarFile.getEntry("c/Four.class")); //$NON-NLS-1$ //$NON-NLS-2$
+		} finally {
+			tarFile.close();
+		}
+	}
+
+	/**
+	 * Tests reading an uncompressed archive out of order
+	 *
+	 * @throws Exception
+	 */
+	public void testRandomAccessTar() throws Exception {
+		doTestRandomAccess(false);
+	}
+
+	/**
+	 * Tests reading a compressed archive out of order
+	 *
+	 * @throws Exception
+	 */
+	public void testRandomAccessTarGz() throws Exception {
+		doTestRandomAccess(true);
+	}
+}
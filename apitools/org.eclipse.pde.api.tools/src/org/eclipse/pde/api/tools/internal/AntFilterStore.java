@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012, 2014 IBM Corporation and others.
+ * Copyright (c) 2012, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -16,8 +16,10 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import org.eclipse.pde.api.tools.internal.problems.ApiProblemFilter;
@@ -32,7 +34,12 @@ public class AntFilterStore extends FilterStore {
 
 	String fComponentId = null;
 	String fFiltersRoot = null;
-	public static ArrayList<IApiProblem> filteredAPIProblems = new ArrayList<>();
+	/**
+	 * The problems filtered by all ant filter stores. Components may be
+	 * analyzed concurrently so the list is synchronized.
+	 */
+	public static final List<IApiProblem> filteredAPIProblems = Collections.synchronizedList(new ArrayList<IApiProblem>());
+
 	/**
 	 * Constructor
 	 *
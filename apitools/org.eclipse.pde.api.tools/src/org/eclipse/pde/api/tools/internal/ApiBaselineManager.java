@@ -44,6 +44,7 @@ import org.eclipse.core.runtime.preferences.IPreferencesService;
 import org.eclipse.core.runtime.preferences.IScopeContext;
 import org.eclipse.core.runtime.preferences.InstanceScope;
 import org.eclipse.pde.api.tools.internal.model.ApiBaseline;
+import org.eclipse.pde.api.tools.internal.model.ApiBaselineSnapshot;
 import org.eclipse.pde.api.tools.internal.model.ApiModelCache;
 import org.eclipse.pde.api.tools.internal.model.ApiModelFactory;
 import org.eclipse.pde.api.tools.internal.model.StubApiComponent;
@@ -92,6 +93,12 @@ public final class ApiBaselineManager implements IApiBaselineManager, ISaveParti
 	 */
 	private static final String BASELINE_FILE_EXTENSION = ".profile"; //$NON-NLS-1$
 
+	/**
+	 * Constant representing the file extension for a binary baseline snapshot.
+	 * Value is: <code>.snapshot</code>
+	 */
+	private static final String SNAPSHOT_FILE_EXTENSION = ".snapshot"; //$NON-NLS-1$
+
 	/**
 	 * The main cache for the manager. The form of the cache is:
 	 *
@@ -108,6 +115,12 @@ public final class ApiBaselineManager implements IApiBaselineManager, ISaveParti
 
 	private HashSet<String> hasinfos = null;
 
+	/**
+	 * The description stamps the binary snapshots of the loaded baselines were
+	 * written or verified for, by baseline name
+	 */
+	private HashMap<String, Long> snapshotstamps = new HashMap<>(8);
+
 	/**
 	 * The current default {@link IApiBaseline}
 	 */
@@ -175,6 +188,7 @@ public final class ApiBaselineManager implements IApiBaselineManager, ISaveParti
 			if (((ApiBaseline) newbaseline).peekInfos()) {
 				hasinfos.add(newbaseline.getName());
 			}
+			snapshotstamps.remove(newbaseline.getName());
 			fNeedsSaving = true;
 		}
 	}
@@ -195,6 +209,11 @@ public final class ApiBaselineManager implements IApiBaselineManager, ISaveParti
 				if (file.exists()) {
 					success &= file.delete();
 				}
+				file = savelocation.append(name + SNAPSHOT_FILE_EXTENSION).toFile();
+				if (file.exists()) {
+					success &= file.delete();
+				}
+				snapshotstamps.remove(name);
 				fNeedsSaving = true;
 
 				// flush the model cache
@@ -220,6 +239,21 @@ public final class ApiBaselineManager implements IApiBaselineManager, ISaveParti
 		String filename = handlecache.get(baseline.getName());
 		if (filename != null) {
 			File file = new File(filename);
+			if (file.exists() && savelocation != null) {
+				File snapshot = savelocation.append(baseline.getName() + SNAPSHOT_FILE_EXTENSION).toFile();
+				long stamp = ApiBaselineSnapshot.getDescriptionStamp(file);
+				if (ApiBaselineSnapshot.restore(baseline, snapshot, stamp)) {
+					snapshotstamps.put(baseline.getName(), Long.valueOf(stamp));
+					hasinfos.add(baseline.getName());
+					return;
+				}
+				// keep the manifests read below and (re-)write the snapshot on
+				// the next save
+				if (baseline instanceof ApiBaseline) {
+					((ApiBaseline) baseline).setRetainManifests(true);
+				}
+				fNeedsSaving = true;
+			}
 			if (file.exists()) {
 				FileInputStream inputStream = null;
 				try {
@@ -333,6 +367,23 @@ public final class ApiBaselineManager implements IApiBaselineManager, ISaveParti
 						fout.close();
 					}
 				}
+				// the snapshot is only an optimization, failing to write it
+				// must not fail the save
+				Long stamp = Long.valueOf(ApiBaselineSnapshot.getDescriptionStamp(file));
+				if (!stamp.equals(snapshotstamps.get(baseline.getName()))) {
+					File snapshot = savelocation.append(id + SNAPSHOT_FILE_EXTENSION).toFile();
+					if (ApiBaselineSnapshot.write(baseline, snapshot, stamp.longValue())) {
+						snapshotstamps.put(baseline.getName(), stamp);
+					} else {
+						snapshotstamps.remove(baseline.getName());
+						if (snapshot.exists()) {
+							snapshot.delete();
+						}
+					}
+				}
+				if (baseline instanceof ApiBaseline) {
+					((ApiBaseline) baseline).setRetainManifests(false);
+				}
 			}
 		}
 	}
@@ -633,6 +684,16 @@ public final class ApiBaselineManager implements IApiBaselineManager, ISaveParti
 		}
 	}
 
+	/**
+	 * Drops the reference resolutions cached by the workspace baseline, if it
+	 * has been created.
+	 */
+	synchronized void clearWorkspaceResolutions() {
+		if (workspacebaseline instanceof ApiBaseline) {
+			((ApiBaseline) workspacebaseline).getReferenceResolutionCache().clear();
+		}
+	}
+
 	/**
 	 * Creates a workspace {@link IApiBaseline}
 	 *
@@ -178,6 +178,7 @@ public class WorkspaceDeltaProcessor implements IElementChangedListener, IResour
 									}
 									dmanager.projectChanged(project);
 									dmanager.flushElementCache(delta.getElement());
+									bmanager.clearWorkspaceResolutions();
 									continue;
 								}
 							}
@@ -195,6 +196,7 @@ public class WorkspaceDeltaProcessor implements IElementChangedListener, IResour
 								}
 								dmanager.projectChanged(project);
 								dmanager.flushElementCache(delta.getElement());
+								bmanager.clearWorkspaceResolutions();
 								continue;
 							}
 							break;
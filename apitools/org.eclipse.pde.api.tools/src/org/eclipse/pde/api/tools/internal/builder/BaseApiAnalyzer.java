@@ -248,7 +248,7 @@ public class BaseApiAnalyzer implements IApiAnalyzer {
 							reference.getSymbolicName(), baseline.getName() }));
 					if (bcontext.hasTypes()) {
 						String[] changedtypes = bcontext.getStructurallyChangedTypes();
-						checkCompatibility(changedtypes, reference, component, localMonitor.split(1));
+						checkCompatibility(changedtypes, bcontext, reference, component, localMonitor.split(1));
 					} else {
 						// store re-exported bundle into the build state
 						checkCompatibility(reference, component, localMonitor.split(1));
@@ -584,21 +584,35 @@ public class BaseApiAnalyzer implements IApiAnalyzer {
 	 * Checks the compatibility of each type.
 	 *
 	 * @param changedtypes type names, may have <code>null</code> entries
+	 * @param context the current build context
 	 * @param reference API component in the reference baseline
 	 * @param component API component being checked for compatibility
 	 * @param localMonitor
 	 * @throws CoreException
 	 */
-	private void checkCompatibility(String[] changedtypes, IApiComponent reference, IApiComponent component, SubMonitor localMonitor) throws CoreException {
+	private void checkCompatibility(String[] changedtypes, IBuildContext context, IApiComponent reference, IApiComponent component, SubMonitor localMonitor) throws CoreException {
 		localMonitor.setWorkRemaining(changedtypes.length);
 		for (String changedtype : changedtypes) {
-			if (changedtype == null) {
+			if (changedtype == null || isApiShapeUnchanged(context, changedtype)) {
 				continue;
 			}
 			checkCompatibility(changedtype, reference, component, localMonitor.split(1));
 		}
 	}
 
+	/**
+	 * Returns if the given type was found to have the same API shape as when it
+	 * was last analyzed, in which case its compatibility is not checked again
+	 *
+	 * @param context the current build context
+	 * @param typename the name of the type
+	 * @return <code>true</code> if the API shape of the type has not changed,
+	 *         <code>false</code> otherwise
+	 */
+	private boolean isApiShapeUnchanged(IBuildContext context, String typename) {
+		return context instanceof BuildContext && ((BuildContext) context).containsUnchangedApiShape(typename);
+	}
+
 	/**
 	 * Checks for unused API problem filters
 	 *
@@ -626,7 +640,9 @@ public class BaseApiAnalyzer implements IApiAnalyzer {
 				IResource resource = null;
 				String[] types = getApiUseTypes(context);
 				for (String type : types) {
-					if (type == null) {
+					if (type == null || isApiShapeUnchanged(context, type)) {
+						// the compatibility of types with an unchanged API
+						// shape was not checked, their filters were not used
 						continue;
 					}
 					resource = Util.getResource(project, fJavaProject.findType(Signatures.getPrimaryTypeName(type)));
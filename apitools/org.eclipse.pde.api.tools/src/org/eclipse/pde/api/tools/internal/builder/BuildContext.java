@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2010 IBM Corporation and others.
+ * Copyright (c) 2009, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -26,6 +26,7 @@ public class BuildContext implements IBuildContext {
 	private StringSet removedTypes = null;
 	private StringSet descriptionChanges = null;
 	private StringSet descriptionDepedents = null;
+	private StringSet unchangedApiShapes = null;
 
 	/**
 	 * Constructor
@@ -143,6 +144,40 @@ public class BuildContext implements IBuildContext {
 		this.descriptionDepedents.add(typename.replace('/', '.'));
 	}
 
+	/**
+	 * Records that the given structurally changed type has the same API shape
+	 * as when it was last analyzed, so its compatibility does not need to be
+	 * checked again. Does nothing if <code>null</code> is passed in as the type
+	 * name.
+	 *
+	 * @param typename the type whose API shape has not changed
+	 * @since 1.1
+	 */
+	public void recordUnchangedApiShape(String typename) {
+		if (typename == null) {
+			return;
+		}
+		if (this.unchangedApiShapes == null) {
+			this.unchangedApiShapes = new StringSet(16);
+		}
+		this.unchangedApiShapes.add(typename.replace('/', '.'));
+	}
+
+	/**
+	 * Returns if the given type was recorded as having an unchanged API shape
+	 *
+	 * @param typename
+	 * @return true if the API shape of the type has not changed, false
+	 *         otherwise
+	 * @since 1.1
+	 */
+	public boolean containsUnchangedApiShape(String typename) {
+		if (typename == null) {
+			return false;
+		}
+		return unchangedApiShapes != null && unchangedApiShapes.includes(typename.replace('/', '.'));
+	}
+
 	@Override
 	public void dispose() {
 		if (this.structualChanges != null) {
@@ -161,6 +196,10 @@ public class BuildContext implements IBuildContext {
 			this.descriptionDepedents.clear();
 			this.descriptionDepedents = null;
 		}
+		if (this.unchangedApiShapes != null) {
+			this.unchangedApiShapes.clear();
+			this.unchangedApiShapes = null;
+		}
 	}
 
 	@Override
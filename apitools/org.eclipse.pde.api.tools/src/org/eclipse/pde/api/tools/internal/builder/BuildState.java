@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2016 IBM Corporation and others.
+ * Copyright (c) 2008, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -18,6 +18,8 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -57,7 +59,7 @@ import org.eclipse.pde.core.build.IBuildModel;
 public class BuildState {
 	private static final IDelta[] EMPTY_DELTAS = new IDelta[0];
 	private static final String[] NO_REEXPORTED_COMPONENTS = new String[0];
-	private static final int VERSION = 33;
+	private static final int VERSION = 34;
 
 	private Map<String, Set<IDelta>> compatibleChanges;
 	private Map<String, Set<IDelta>> breakingChanges;
@@ -73,6 +75,13 @@ public class BuildState {
 	 * @since 1.0.3
 	 */
 	private Map<String, String> buildPropChanges;
+	/**
+	 * Map of the hash of the API shape of each type, as of the last time the
+	 * type was analyzed
+	 *
+	 * @since 1.1
+	 */
+	private Map<String, Long> apiShapes;
 	private String[] reexportedComponents;
 	private Set<String> apiToolingDependentProjects;
 	private long buildpathCRC = -1L;
@@ -85,6 +94,7 @@ public class BuildState {
 		this.breakingChanges = new HashMap<>();
 		this.manifestChanges = new HashMap<>();
 		this.buildPropChanges = new HashMap<>();
+		this.apiShapes = new HashMap<>();
 	}
 
 	/**
@@ -155,6 +165,12 @@ public class BuildState {
 					}
 					state.setBuildPropertiesState(map);
 				}
+				count = in.readInt();
+				// read the API shapes of types
+				for (int i = 0; i < count; i++) {
+					String typeName = in.readUTF();
+					state.setApiShape(typeName, in.readLong());
+				}
 			}
 			return state;
 		}
@@ -214,6 +230,11 @@ public class BuildState {
 			out.writeUTF(entry.getKey());
 			out.writeUTF(entry.getValue());
 		}
+		out.writeInt(state.apiShapes.size());
+		for (Entry<String, Long> shape : state.apiShapes.entrySet()) {
+			out.writeUTF(shape.getKey());
+			out.writeLong(shape.getValue().longValue());
+		}
 	}
 
 	/**
@@ -376,9 +397,72 @@ public class BuildState {
 	public void cleanup(String typeName) {
 		this.breakingChanges.remove(typeName);
 		this.compatibleChanges.remove(typeName);
+		this.apiShapes.remove(typeName);
 		this.reexportedComponents = null;
 	}
 
+	/**
+	 * Returns the hash of the API shape recorded for the given type, see
+	 * {@link #computeApiShape(byte[][])}
+	 *
+	 * @param typeName the qualified name of the type
+	 * @return the hash of the API shape of the type or <code>-1</code> if none
+	 *         has been recorded
+	 * @since 1.1
+	 */
+	public long getApiShape(String typeName) {
+		Long shape = this.apiShapes.get(typeName);
+		return shape == null ? -1L : shape.longValue();
+	}
+
+	/**
+	 * Records the hash of the API shape of the given type, or removes it if
+	 * the hash is <code>-1</code>
+	 *
+	 * @param typeName the qualified name of the type
+	 * @param shape the hash of the API shape of the type
+	 * @since 1.1
+	 */
+	public void setApiShape(String typeName, long shape) {
+		if (shape == -1L) {
+			this.apiShapes.remove(typeName);
+		} else {
+			this.apiShapes.put(typeName, Long.valueOf(shape));
+		}
+	}
+
+	/**
+	 * Computes a hash of the API shape of the given class files. The class
+	 * files are expected to be in their compact form, without method bodies or
+	 * debug attributes, so that edits which do not change the members or
+	 * signatures of the types keep the same hash.
+	 *
+	 * @param classFiles the compact class files of the types of a compilation
+	 *            unit
+	 * @return the hash of the API shape or <code>-1</code> if it cannot be
+	 *         computed
+	 * @since 1.1
+	 */
+	public static long computeApiShape(byte[][] classFiles) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-1"); //$NON-NLS-1$
+			for (byte[] classFile : classFiles) {
+				if (classFile == null) {
+					return -1L;
+				}
+				digest.update(classFile);
+			}
+			byte[] hash = digest.digest();
+			long shape = 0;
+			for (int i = 0; i < 8; i++) {
+				shape = (shape << 8) | (hash[i] & 0xFF);
+			}
+			return shape == -1L ? 0 : shape;
+		} catch (NoSuchAlgorithmException e) {
+			return -1L;
+		}
+	}
+
 	/**
 	 * Sets the current list if re-exported {@link IApiComponent}s for this
 	 * build state
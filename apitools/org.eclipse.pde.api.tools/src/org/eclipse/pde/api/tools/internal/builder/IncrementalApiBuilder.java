@@ -11,9 +11,12 @@
 package org.eclipse.pde.api.tools.internal.builder;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 
 import org.eclipse.core.resources.IFile;
@@ -38,12 +41,14 @@ import org.eclipse.jdt.internal.core.builder.State;
 import org.eclipse.jdt.internal.core.builder.StringSet;
 import org.eclipse.osgi.util.NLS;
 import org.eclipse.pde.api.tools.internal.TypeAnnotations;
+import org.eclipse.pde.api.tools.internal.model.TypeStructureBuilder;
 import org.eclipse.pde.api.tools.internal.provisional.ApiPlugin;
 import org.eclipse.pde.api.tools.internal.provisional.Factory;
 import org.eclipse.pde.api.tools.internal.provisional.IApiAnnotations;
 import org.eclipse.pde.api.tools.internal.provisional.IApiMarkerConstants;
 import org.eclipse.pde.api.tools.internal.provisional.model.IApiBaseline;
 import org.eclipse.pde.api.tools.internal.provisional.model.IApiComponent;
+import org.eclipse.pde.api.tools.internal.provisional.model.IApiTypeRoot;
 import org.eclipse.pde.api.tools.internal.util.Util;
 import org.eclipse.pde.core.plugin.IPluginModelBase;
 import org.osgi.framework.Version;
@@ -193,6 +198,12 @@ public class IncrementalApiBuilder {
 	BuildContext context = null;
 	IApiBaseline workspaceBaseline = null;
 
+	/**
+	 * The API shapes of the changed types, only recorded in the build state
+	 * once the types have been analyzed
+	 */
+	Map<String, Long> apiShapes = new HashMap<>();
+
 	/**
 	 * Constructor
 	 *
@@ -223,6 +234,7 @@ public class IncrementalApiBuilder {
 		this.workspaceBaseline = wbaseline;
 		SubMonitor localmonitor = SubMonitor.convert(monitor, NLS.bind(BuilderMessages.IncrementalBuilder_builder_for_project, project.getName()), 1);
 		this.context = new BuildContext();
+		this.apiShapes.clear();
 		try {
 			String[] projectNames = buildstate.getReexportedComponents();
 			HashSet<IProject> depprojects = null;
@@ -248,7 +260,7 @@ public class IncrementalApiBuilder {
 			for (IResourceDelta delta : deltas) {
 				delta.accept(visitor);
 			}
-			buildContext(project, state, visitor.changes, depprojects);
+			buildContext(project, state, buildstate, visitor.changes, depprojects);
 			build(project, baseline, wbaseline, state, buildstate, localmonitor.split(1));
 		} catch (OperationCanceledException oce) {
 			// do nothing, but don't forward it
@@ -258,6 +270,7 @@ public class IncrementalApiBuilder {
 			}
 		} finally {
 			this.context.dispose();
+			this.apiShapes.clear();
 		}
 	}
 
@@ -300,6 +313,11 @@ public class IncrementalApiBuilder {
 				extClean(project, buildstate, localmonitor.split(1));
 				this.builder.getAnalyzer().analyzeComponent(buildstate, null, null, baseline, comp, this.context, localmonitor.split(1));
 				localmonitor.split(1);
+				// the build state is saved even if the build is cancelled, so
+				// only record the shapes of types that have been compared
+				for (Entry<String, Long> entry : this.apiShapes.entrySet()) {
+					buildstate.setApiShape(entry.getKey(), entry.getValue().longValue());
+				}
 				this.builder.createMarkers();
 			}
 		}
@@ -362,8 +380,9 @@ public class IncrementalApiBuilder {
 	 *
 	 * @param file
 	 * @param mask of STRUCTURAL and/or DESCRIPTION
+	 * @param unchangedShape if the API shape of the types has not changed
 	 */
-	private void addInnerTypes(IFile file, int kind) {
+	private void addInnerTypes(IFile file, int kind, boolean unchangedShape) {
 		ICompilationUnit unit = (ICompilationUnit) JavaCore.create(file);
 		IType[] types = null;
 		try {
@@ -374,6 +393,9 @@ public class IncrementalApiBuilder {
 				if ((STRUCTURAL & kind) > 0) {
 					if (!this.context.containsStructuralChange(typename)) {
 						this.context.recordStructuralChange(typename);
+						if (unchangedShape) {
+							this.context.recordUnchangedApiShape(typename);
+						}
 					}
 				}
 				if ((DESCRIPTION & kind) > 0) {
@@ -387,19 +409,75 @@ public class IncrementalApiBuilder {
 		}
 	}
 
+	/**
+	 * Computes the hash of the API shape of the types compiled from the given
+	 * source file, see {@link BuildState#computeApiShape(byte[][])}
+	 *
+	 * @param file the source file
+	 * @return the hash of the API shape or <code>-1</code> if it cannot be
+	 *         computed
+	 */
+	long computeApiShape(IFile file) {
+		IApiComponent component = this.workspaceBaseline.getApiComponent(file.getProject());
+		ICompilationUnit unit = (ICompilationUnit) JavaCore.create(file);
+		if (component == null || unit == null) {
+			return -1L;
+		}
+		try {
+			IType[] types = unit.getAllTypes();
+			byte[][] classFiles = new byte[types.length][];
+			for (int i = 0; i < types.length; i++) {
+				IApiTypeRoot root = component.findTypeRoot(types[i].getFullyQualifiedName('$'));
+				if (root == null) {
+					return -1L;
+				}
+				classFiles[i] = TypeStructureBuilder.compactTypeStructure(root.getContents());
+			}
+			return BuildState.computeApiShape(classFiles);
+		} catch (CoreException e) {
+			// unknown shape, analyze the type
+			return -1L;
+		}
+	}
+
 	/**
 	 * Constructs a build context based on the current JDT build state and known
 	 * changes.
 	 *
 	 * @param project the current project being built
 	 * @param state the current JDT build state
+	 * @param buildstate the current API tools build state
 	 * @param list of changes
 	 */
-	void buildContext(final IProject project, State state, List<Change> changes, HashSet<IProject> depprojects) {
+	void buildContext(final IProject project, State state, BuildState buildstate, List<Change> changes, HashSet<IProject> depprojects) {
 		StringSet structural = null;
 		StringSet description = null;
 		for (Change change : changes) {
 			boolean contained = change.isContained(project, depprojects);
+			if (contained && change.fileKind == JAVA__FILE && change.deltaKind != IResourceDelta.REMOVED) {
+				String typename = change.typeName.replace('/', '.');
+				long shape = computeApiShape(change.resource);
+				boolean unchanged = shape != -1L && change.deltaKind == IResourceDelta.CHANGED && change.changeKind == STRUCTURAL && shape == buildstate.getApiShape(typename);
+				this.apiShapes.put(typename, Long.valueOf(shape));
+				if (unchanged) {
+					// only method bodies or other non-API parts of the types
+					// changed: keep the compatibility results and skip the
+					// dependents, but re-check the API use of the changed
+					// code
+					if (ApiPlugin.DEBUG_BUILDER) {
+						System.out.println("ApiAnalysisBuilder: API shape unchanged for " + typename); //$NON-NLS-1$
+					}
+					this.builder.cleanupUsageMarkers(change.resource);
+					this.builder.cleanupUnsupportedTagMarkers(change.resource);
+					this.builder.cleanupUnsupportedAnnotationMarkers(change.resource);
+					this.builder.cleanApiUseScanMarkers(change.resource);
+					this.builder.cleanupFatalMarkers(change.resource);
+					context.recordStructuralChange(change.typeName);
+					context.recordUnchangedApiShape(change.typeName);
+					addInnerTypes(change.resource, STRUCTURAL, true);
+					continue;
+				}
+			}
 			if ((change.changeKind & STRUCTURAL) > 0) {
 				// don't analyze dependents of removed types
 				if (change.deltaKind != IResourceDelta.REMOVED) {
@@ -431,7 +509,7 @@ public class IncrementalApiBuilder {
 			if (contained) {
 				if (change.fileKind == JAVA__FILE) {
 					this.builder.cleanupMarkers(change.resource);
-					addInnerTypes(change.resource, change.changeKind);
+					addInnerTypes(change.resource, change.changeKind, false);
 				} else {
 					// look up the source file
 					String path = (String) state.typeLocators.get(change.typeName);
@@ -440,7 +518,7 @@ public class IncrementalApiBuilder {
 						if (member != null && member.getType() == IResource.FILE) {
 							IFile source = (IFile) member;
 							this.builder.cleanupMarkers(source);
-							addInnerTypes(source, change.changeKind);
+							addInnerTypes(source, change.changeKind, false);
 						}
 					}
 				}
@@ -569,7 +647,7 @@ public class IncrementalApiBuilder {
 				String tname = null;
 				for (IMarker marker : markers) {
 					tname = Util.getTypeNameFromMarker(marker);
-					if (this.context.containsStructuralChange(tname)) {
+					if (this.context.containsStructuralChange(tname) && !this.context.containsUnchangedApiShape(tname)) {
 						marker.delete();
 					}
 				}
@@ -580,7 +658,7 @@ public class IncrementalApiBuilder {
 				markers = resource.findMarkers(IApiMarkerConstants.UNUSED_FILTER_PROBLEM_MARKER, false, IResource.DEPTH_ZERO);
 				for (IMarker marker : markers) {
 					tname = Util.getTypeNameFromMarker(marker);
-					if (this.context.containsStructuralChange(tname)) {
+					if (this.context.containsStructuralChange(tname) && !this.context.containsUnchangedApiShape(tname)) {
 						marker.delete();
 					}
 				}
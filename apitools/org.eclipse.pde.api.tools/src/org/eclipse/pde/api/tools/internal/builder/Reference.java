@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2014 IBM Corporation and others.
+ * Copyright (c) 2008, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,6 +12,7 @@ package org.eclipse.pde.api.tools.internal.builder;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.jdt.core.Flags;
@@ -100,6 +101,12 @@ public class Reference implements IReference {
 	 */
 	private List<IApiProblem> fProblems = null;
 
+	/**
+	 * The packages of the types visited while resolving this reference or
+	 * <code>null</code> if they are not collected
+	 */
+	private Set<String> fVisitedPackages = null;
+
 	/**
 	 * Adds the given collection of
 	 * {@link org.eclipse.pde.api.tools.internal.provisional.problems.IApiProblem}
@@ -342,6 +349,34 @@ public class Reference implements IReference {
 		}
 	}
 
+	/**
+	 * Resolves this reference and adds the names of the packages of all types
+	 * visited while looking up the referenced member, such as the superclasses
+	 * of the referenced type, to the given set.
+	 *
+	 * @param visitedPackages the set to add package names to
+	 * @throws CoreException
+	 */
+	void resolve(Set<String> visitedPackages) throws CoreException {
+		fVisitedPackages = visitedPackages;
+		try {
+			resolve();
+		} finally {
+			fVisitedPackages = null;
+		}
+	}
+
+	/**
+	 * Records the package of the given type as visited
+	 *
+	 * @param type
+	 */
+	private void visited(IApiType type) {
+		if (fVisitedPackages != null) {
+			fVisitedPackages.add(type.getPackageName());
+		}
+	}
+
 	public boolean resolve(int eeValue) throws CoreException {
 		IApiComponent sourceComponent = StubApiComponent.getStubApiComponent(eeValue);
 		if (sourceComponent == null) {
@@ -379,6 +414,7 @@ public class Reference implements IReference {
 	 * @since 1.1
 	 */
 	private boolean resolveField(IApiType type, String fieldame) throws CoreException {
+		visited(type);
 		IApiField field = type.getField(fieldame);
 		if (field != null) {
 			fResolved = field;
@@ -405,6 +441,7 @@ public class Reference implements IReference {
 	 * @throws CoreException if something goes terribly wrong
 	 */
 	private boolean resolveVirtualMethod(IApiType type, String methodName, String methodSignature) throws CoreException {
+		visited(type);
 		if (setResolvedMethod(type.getMethod(methodName, methodSignature))) {
 			return true;
 		}
@@ -460,6 +497,7 @@ public class Reference implements IReference {
 	 * @since 1.0.600
 	 */
 	boolean resolveSuperTypeMethod(IApiType type, String methodName, String methodSignature) throws CoreException {
+		visited(type);
 		if (setResolvedMethod(type.getMethod(methodName, methodSignature))) {
 			return true;
 		}
@@ -482,6 +520,7 @@ public class Reference implements IReference {
 	 * @since 1.0.600
 	 */
 	boolean resolveInterfaceMethod(IApiType type, String methodName, String methodSignature) throws CoreException {
+		visited(type);
 		if (setResolvedMethod(type.getMethod(methodName, methodSignature))) {
 			return true;
 		}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2015 IBM Corporation and others.
+ * Copyright (c) 2008, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,11 +10,18 @@
  *******************************************************************************/
 package org.eclipse.pde.api.tools.internal.builder;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.MultiStatus;
 import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.SubMonitor;
@@ -82,34 +89,7 @@ public class ReferenceAnalyzer {
 		public void visit(String packageName, IApiTypeRoot classFile) {
 			if (!fMonitor.isCanceled()) {
 				try {
-					IApiType type = classFile.getStructure();
-					if (type == null) {
-						// do nothing for bad class files
-						return;
-					}
-					// don't process inner/anonymous/local types, this is done
-					// in the extractor
-					if (type.isMemberType() || type.isLocal() || type.isAnonymous()) {
-						return;
-					}
-					List<IReference> references = type.extractReferences(fAllReferenceKinds, null);
-					// keep potential matches
-					for (IReference ref : references) {
-						// compute index of interested problem detectors
-						int index = getLog2(ref.getReferenceKind());
-						IApiProblemDetector[] detectors = fIndexedDetectors[index];
-						boolean added = false;
-						if (detectors != null) {
-							for (IApiProblemDetector detector : detectors) {
-								if (detector.considerReference(ref)) {
-									if (!added) {
-										fReferences.add(ref);
-										added = true;
-									}
-								}
-							}
-						}
-					}
+					considerReferences(extractReferences(classFile));
 				} catch (CoreException e) {
 					fStatus.add(e.getStatus());
 				}
@@ -117,11 +97,43 @@ public class ReferenceAnalyzer {
 		}
 	}
 
+	/**
+	 * The type roots of one package visited in the scope, along with the
+	 * references and errors collected for them by a worker thread.
+	 */
+	static class PackageBatch {
+		final String fPackageName;
+		final List<IApiTypeRoot> fTypeRoots = new ArrayList<>();
+		final List<IReference> fReferences = new ArrayList<>();
+		final List<IStatus> fErrors = new ArrayList<>();
+
+		PackageBatch(String packageName) {
+			fPackageName = packageName;
+		}
+	}
+
+	/**
+	 * System property used to opt in to parallel reference extraction and
+	 * resolution. The value is the number of worker threads to use, values
+	 * less than 2 keep the serial extraction and resolution.
+	 */
+	public static final String PARALLELISM_PROPERTY = "org.eclipse.pde.api.tools.referenceAnalyzerThreads"; //$NON-NLS-1$
+
+	/**
+	 * Worker pools shared by all analyzers, by parallelism
+	 */
+	private static final Map<Integer, ForkJoinPool> fgPools = new HashMap<>();
+
 	/**
 	 * Scan status
 	 */
 	MultiStatus fStatus;
 
+	/**
+	 * Number of threads used to extract and resolve references
+	 */
+	int fParallelism = Integer.getInteger(PARALLELISM_PROPERTY, 1).intValue();
+
 	/**
 	 * Bit mask of reference kinds that problem detectors care about.
 	 */
@@ -184,6 +196,90 @@ public class ReferenceAnalyzer {
 		return (int) Math.round(pow);
 	}
 
+	/**
+	 * Sets the number of threads used to extract and resolve references.
+	 * Values less than 2 extract and resolve references on the calling thread.
+	 *
+	 * @param threads the number of worker threads
+	 */
+	public void setParallelism(int threads) {
+		fParallelism = threads;
+	}
+
+	/**
+	 * Returns the worker pool with the given parallelism, creating it on first
+	 * use. Idle workers of a pool terminate on their own, so the pools are
+	 * never shut down.
+	 *
+	 * @param parallelism the number of worker threads
+	 * @return the shared pool
+	 */
+	static ForkJoinPool getPool(int parallelism) {
+		synchronized (fgPools) {
+			Integer key = Integer.valueOf(parallelism);
+			ForkJoinPool pool = fgPools.get(key);
+			if (pool == null) {
+				pool = new ForkJoinPool(parallelism);
+				fgPools.put(key, pool);
+			}
+			return pool;
+		}
+	}
+
+	/**
+	 * Extracts the references from the given type root. Member, local and
+	 * anonymous types are skipped as their references are extracted with their
+	 * enclosing type.
+	 *
+	 * @param classFile the type root to scan
+	 * @return the extracted references or <code>null</code> if the type root is
+	 *         skipped
+	 * @throws CoreException if the type structure cannot be read
+	 */
+	List<IReference> extractReferences(IApiTypeRoot classFile) throws CoreException {
+		IApiType type = classFile.getStructure();
+		if (type == null) {
+			// do nothing for bad class files
+			return null;
+		}
+		// don't process inner/anonymous/local types, this is done
+		// in the extractor
+		if (type.isMemberType() || type.isLocal() || type.isAnonymous()) {
+			return null;
+		}
+		return type.extractReferences(fAllReferenceKinds, null);
+	}
+
+	/**
+	 * Hands the given references to the interested problem detectors and keeps
+	 * the potential matches. Problem detectors are not thread safe, this must
+	 * only be called from the analyzing thread.
+	 *
+	 * @param references the references to consider, may be <code>null</code>
+	 */
+	void considerReferences(List<IReference> references) {
+		if (references == null) {
+			return;
+		}
+		// keep potential matches
+		for (IReference ref : references) {
+			// compute index of interested problem detectors
+			int index = getLog2(ref.getReferenceKind());
+			IApiProblemDetector[] detectors = fIndexedDetectors[index];
+			boolean added = false;
+			if (detectors != null) {
+				for (IApiProblemDetector detector : detectors) {
+					if (detector.considerReference(ref)) {
+						if (!added) {
+							fReferences.add(ref);
+							added = true;
+						}
+					}
+				}
+			}
+		}
+	}
+
 	/**
 	 * Scans the given scope extracting all reference information.
 	 *
@@ -195,10 +291,13 @@ public class ReferenceAnalyzer {
 		fStatus = new MultiStatus(ApiPlugin.PLUGIN_ID, 0, BuilderMessages.ReferenceAnalyzer_api_analysis_error, null);
 		String[] packageNames = scope.getPackageNames();
 		SubMonitor localMonitor = SubMonitor.convert(monitor, packageNames.length);
-		ApiTypeContainerVisitor visitor = new Visitor(localMonitor);
 		long start = System.currentTimeMillis();
 		try {
-			scope.accept(visitor);
+			if (fParallelism > 1) {
+				extractReferencesInParallel(scope, localMonitor);
+			} else {
+				scope.accept(new Visitor(localMonitor));
+			}
 		} catch (CoreException e) {
 			fStatus.add(e.getStatus());
 		}
@@ -212,6 +311,72 @@ public class ReferenceAnalyzer {
 		}
 	}
 
+	/**
+	 * Extracts references from the packages of the given scope on a bounded
+	 * pool of worker threads. Each package is scanned into its own buffer, the
+	 * buffers are then handed to the problem detectors on the calling thread in
+	 * the same order the serial {@link Visitor} would have produced.
+	 *
+	 * @param scope scope to scan
+	 * @param monitor progress monitor
+	 * @throws CoreException if the scope cannot be visited
+	 */
+	private void extractReferencesInParallel(IApiTypeContainer scope, final IProgressMonitor monitor) throws CoreException {
+		final List<PackageBatch> batches = new ArrayList<>();
+		scope.accept(new ApiTypeContainerVisitor() {
+			PackageBatch fCurrent = null;
+
+			@Override
+			public boolean visitPackage(String packageName) {
+				fCurrent = new PackageBatch(packageName);
+				batches.add(fCurrent);
+				return true;
+			}
+
+			@Override
+			public void visit(String packageName, IApiTypeRoot typeroot) {
+				if (fCurrent == null) {
+					visitPackage(packageName);
+				}
+				fCurrent.fTypeRoots.add(typeroot);
+			}
+		});
+		ForkJoinPool pool = getPool(fParallelism);
+		List<ForkJoinTask<PackageBatch>> tasks = new ArrayList<>(batches.size());
+		for (final PackageBatch batch : batches) {
+			tasks.add(pool.submit(new Callable<PackageBatch>() {
+				@Override
+				public PackageBatch call() {
+					for (IApiTypeRoot root : batch.fTypeRoots) {
+						if (monitor.isCanceled()) {
+							break;
+						}
+						try {
+							List<IReference> references = extractReferences(root);
+							if (references != null) {
+								batch.fReferences.addAll(references);
+							}
+						} catch (CoreException e) {
+							batch.fErrors.add(e.getStatus());
+						}
+					}
+					return batch;
+				}
+			}));
+		}
+		for (ForkJoinTask<PackageBatch> task : tasks) {
+			PackageBatch batch = task.join();
+			monitor.subTask(MessageFormat.format(BuilderMessages.ReferenceAnalyzer_checking_api_used_by, batch.fPackageName));
+			if (!monitor.isCanceled()) {
+				considerReferences(batch.fReferences);
+			}
+			for (IStatus error : batch.fErrors) {
+				fStatus.add(error);
+			}
+			monitor.worked(1);
+		}
+	}
+
 	/**
 	 * Analyzes the given {@link IApiComponent} within the given
 	 * {@link IApiTypeContainer} (scope) and returns a collection of detected
@@ -236,7 +401,7 @@ public class ReferenceAnalyzer {
 			// 2. resolve problematic references
 			localMonitor.subTask(BuilderMessages.ReferenceAnalyzer_analyzing_api_checking_use);
 			if (fReferences.size() != 0) {
-				ReferenceResolver.resolveReferences(fReferences, localMonitor.split(1));
+				ReferenceResolver.resolveReferences(fReferences, fParallelism, localMonitor.split(1));
 			}
 			// 3. create problems
 			List<IApiProblem> allProblems = new LinkedList<>();
@@ -0,0 +1,218 @@
+/*******************************************************************************
+ * Copyright (c) 2017 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.api.tools.internal.builder;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.pde.api.tools.internal.provisional.builder.IReference;
+import org.eclipse.pde.api.tools.internal.provisional.model.IApiMember;
+
+/**
+ * Cache of resolved {@link IReference}s for one baseline, shared by all of
+ * the components analyzed against that baseline.
+ * <p>
+ * Each resolution is indexed by the packages of all of the types visited
+ * while resolving it, for example the superclasses walked to find an
+ * inherited method, so that it is dropped when any of those packages
+ * changes. Only successful resolutions are cached. Once the cache holds its
+ * maximum number of entries the least recently used resolutions are evicted.
+ * </p>
+ *
+ * @since 1.1
+ */
+public final class ReferenceResolutionCache {
+
+	/**
+	 * A resolved member and the packages visited to resolve it
+	 */
+	static class Resolution {
+		final IApiMember fMember;
+		final String[] fPackages;
+
+		Resolution(IApiMember member, String[] packages) {
+			fMember = member;
+			fPackages = packages;
+		}
+	}
+
+	/**
+	 * Default maximum number of cached resolutions
+	 */
+	static final int DEFAULT_MAX_SIZE = 50000;
+
+	/**
+	 * Map of <code>signature key -> resolution</code>, in least recently used
+	 * order
+	 */
+	private final LinkedHashMap<String, Resolution> fResolutions;
+
+	/**
+	 * Map of <code>package name -> signature keys</code> of the resolutions
+	 * that visited a type in the package
+	 */
+	private final Map<String, Set<String>> fKeysByPackage = new HashMap<>();
+
+	private final int fMaxSize;
+	private long fHits = 0;
+	private long fMisses = 0;
+	private long fEvictions = 0;
+
+	/**
+	 * Constructs a cache with the default maximum size
+	 */
+	public ReferenceResolutionCache() {
+		this(DEFAULT_MAX_SIZE);
+	}
+
+	/**
+	 * Constructs a cache holding at most the given number of resolutions
+	 *
+	 * @param maxSize the maximum number of cached resolutions
+	 */
+	public ReferenceResolutionCache(int maxSize) {
+		fMaxSize = Math.max(1, maxSize);
+		fResolutions = new LinkedHashMap<String, Resolution>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Resolution> eldest) {
+				if (size() > fMaxSize) {
+					unindex(eldest.getKey(), eldest.getValue());
+					fEvictions++;
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	/**
+	 * Returns the cached resolution for the given key or <code>null</code> if
+	 * none
+	 *
+	 * @param key the signature key of the reference
+	 * @return the resolved member or <code>null</code>
+	 */
+	public synchronized IApiMember get(String key) {
+		Resolution resolution = fResolutions.get(key);
+		if (resolution == null) {
+			fMisses++;
+			return null;
+		}
+		fHits++;
+		return resolution.fMember;
+	}
+
+	/**
+	 * Caches the resolution for the given key
+	 *
+	 * @param key the signature key of the reference
+	 * @param member the resolved member, <code>null</code> is ignored
+	 * @param packages the names of the packages of all types visited to
+	 *            resolve the reference
+	 */
+	public synchronized void put(String key, IApiMember member, Collection<String> packages) {
+		if (member == null) {
+			return;
+		}
+		Resolution resolution = new Resolution(member, packages.toArray(new String[packages.size()]));
+		Resolution previous = fResolutions.put(key, resolution);
+		if (previous != null) {
+			unindex(key, previous);
+		}
+		for (String packageName : resolution.fPackages) {
+			Set<String> keys = fKeysByPackage.get(packageName);
+			if (keys == null) {
+				keys = new HashSet<>();
+				fKeysByPackage.put(packageName, keys);
+			}
+			keys.add(key);
+		}
+	}
+
+	/**
+	 * Removes the given key from the index of the packages of its resolution
+	 *
+	 * @param key
+	 * @param resolution
+	 */
+	void unindex(String key, Resolution resolution) {
+		for (String packageName : resolution.fPackages) {
+			Set<String> keys = fKeysByPackage.get(packageName);
+			if (keys != null) {
+				keys.remove(key);
+				if (keys.isEmpty()) {
+					fKeysByPackage.remove(packageName);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Removes all of the resolutions that visited a type in the given package
+	 *
+	 * @param packageName the package name
+	 */
+	public synchronized void clearPackage(String packageName) {
+		Set<String> keys = fKeysByPackage.remove(packageName);
+		if (keys == null) {
+			return;
+		}
+		for (String key : keys) {
+			Resolution resolution = fResolutions.remove(key);
+			if (resolution != null) {
+				unindex(key, resolution);
+			}
+		}
+	}
+
+	/**
+	 * Removes all of the cached resolutions
+	 */
+	public synchronized void clear() {
+		fResolutions.clear();
+		fKeysByPackage.clear();
+	}
+
+	/**
+	 * @return the number of cached resolutions
+	 */
+	public synchronized int size() {
+		return fResolutions.size();
+	}
+
+	/**
+	 * @return the number of lookups answered from the cache
+	 */
+	public synchronized long getHitCount() {
+		return fHits;
+	}
+
+	/**
+	 * @return the number of lookups not answered from the cache
+	 */
+	public synchronized long getMissCount() {
+		return fMisses;
+	}
+
+	/**
+	 * @return the number of resolutions evicted to stay within the maximum
+	 *         size
+	 */
+	public synchronized long getEvictionCount() {
+		return fEvictions;
+	}
+}
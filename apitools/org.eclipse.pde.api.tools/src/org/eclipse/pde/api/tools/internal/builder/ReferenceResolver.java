@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2013 IBM Corporation and others.
+ * Copyright (c) 2009, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,14 +12,25 @@ package org.eclipse.pde.api.tools.internal.builder;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.pde.api.tools.internal.model.ApiBaseline;
 import org.eclipse.pde.api.tools.internal.provisional.ApiPlugin;
 import org.eclipse.pde.api.tools.internal.provisional.builder.IReference;
+import org.eclipse.pde.api.tools.internal.provisional.model.IApiBaseline;
+import org.eclipse.pde.api.tools.internal.provisional.model.IApiComponent;
 import org.eclipse.pde.api.tools.internal.provisional.model.IApiMember;
+import org.eclipse.pde.api.tools.internal.util.Signatures;
 
 /**
  * Utility class used to resolve {@link IReference}s
@@ -43,6 +54,19 @@ public final class ReferenceResolver {
 	 * @throws CoreException if something goes wrong
 	 */
 	public static void resolveReferences(List<IReference> references, IProgressMonitor monitor) throws CoreException {
+		resolveReferences(references, Integer.getInteger(ReferenceAnalyzer.PARALLELISM_PROPERTY, 1).intValue(), monitor);
+	}
+
+	/**
+	 * Resolves retained references, using the given number of threads.
+	 *
+	 * @param references list of {@link IReference} to resolve
+	 * @param parallelism the number of worker threads, values less than 2
+	 *            resolve references on the calling thread
+	 * @param progress monitor
+	 * @throws CoreException if something goes wrong
+	 */
+	public static void resolveReferences(List<IReference> references, int parallelism, IProgressMonitor monitor) throws CoreException {
 		// sort references by target type for 'shared' resolution
 		int refcount = references.size();
 		Map<String, List<IReference>> sigtoref = new HashMap<>(refcount);
@@ -71,7 +95,7 @@ public final class ReferenceResolver {
 		}
 		// resolve references
 		start = System.currentTimeMillis();
-		resolveReferenceSets(sigtoref, monitor);
+		resolveReferenceSets(sigtoref, parallelism, monitor);
 		end = System.currentTimeMillis();
 		if (ApiPlugin.DEBUG_REFERENCE_RESOLVER) {
 			System.out.println("Reference resolver: resolved unique references in " + (end - start) + "ms"); //$NON-NLS-1$//$NON-NLS-2$
@@ -88,25 +112,103 @@ public final class ReferenceResolver {
 	}
 
 	/**
-	 * Resolves the collect sets of references.
+	 * Resolves the collect sets of references. Sets are resolved in parallel
+	 * when more than one thread is asked for.
 	 *
 	 * @param map the mapping of keys to sets of {@link IReference}s
+	 * @param parallelism the number of worker threads
 	 * @throws CoreException if something bad happens
 	 */
-	private static void resolveReferenceSets(Map<String, List<IReference>> map, IProgressMonitor monitor) throws CoreException {
-		IReference ref = null;
-		for (List<IReference> refs : map.values()) {
-			ref = refs.get(0);
-			((Reference) ref).resolve();
-			IApiMember resolved = ref.getResolvedReference();
-			if (resolved != null) {
-				for (IReference ref2 : refs) {
-					((Reference) ref2).setResolution(resolved);
+	private static void resolveReferenceSets(Map<String, List<IReference>> map, int parallelism, IProgressMonitor monitor) throws CoreException {
+		if (parallelism < 2 || map.size() < 2) {
+			for (Entry<String, List<IReference>> entry : map.entrySet()) {
+				resolveReferenceSet(entry.getKey(), entry.getValue());
+			}
+			return;
+		}
+		ForkJoinPool pool = ReferenceAnalyzer.getPool(parallelism);
+		List<ForkJoinTask<Void>> tasks = new ArrayList<>(map.size());
+		for (final Entry<String, List<IReference>> entry : map.entrySet()) {
+			tasks.add(pool.submit(new Callable<Void>() {
+				@Override
+				public Void call() throws CoreException {
+					resolveReferenceSet(entry.getKey(), entry.getValue());
+					return null;
+				}
+			}));
+		}
+		for (ForkJoinTask<Void> task : tasks) {
+			try {
+				task.get();
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof CoreException) {
+					throw (CoreException) e.getCause();
 				}
+				throw new CoreException(ApiPlugin.newErrorStatus(e.getMessage(), e.getCause()));
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
 			}
 		}
 	}
 
+	/**
+	 * Resolves one set of references sharing the same signature key, using the
+	 * resolution cache of the referencing baseline when there is one.
+	 *
+	 * @param key the signature key shared by the references
+	 * @param refs the references to resolve
+	 * @throws CoreException if something bad happens
+	 */
+	static void resolveReferenceSet(String key, List<IReference> refs) throws CoreException {
+		IReference ref = refs.get(0);
+		ReferenceResolutionCache cache = getResolutionCache(ref);
+		IApiMember resolved = null;
+		if (cache != null) {
+			resolved = cache.get(key);
+		}
+		if (resolved == null) {
+			if (cache != null) {
+				Set<String> packages = new HashSet<>();
+				packages.add(Signatures.getPackageName(ref.getReferencedTypeName()));
+				((Reference) ref).resolve(packages);
+				resolved = ref.getResolvedReference();
+				cache.put(key, resolved, packages);
+			} else {
+				((Reference) ref).resolve();
+				resolved = ref.getResolvedReference();
+			}
+		}
+		if (resolved != null) {
+			for (IReference ref2 : refs) {
+				((Reference) ref2).setResolution(resolved);
+			}
+		}
+	}
+
+	/**
+	 * Returns the resolution cache to use for the given reference or
+	 * <code>null</code> if its resolution must not be cached. Resolutions are
+	 * not cached when the baseline holds more than one version of the
+	 * referencing component, as the component id no longer identifies the
+	 * resolution context.
+	 *
+	 * @param reference the reference
+	 * @return the cache or <code>null</code>
+	 * @throws CoreException
+	 */
+	private static ReferenceResolutionCache getResolutionCache(IReference reference) throws CoreException {
+		IApiComponent component = reference.getMember().getApiComponent();
+		if (component == null) {
+			return null;
+		}
+		IApiBaseline baseline = component.getBaseline();
+		if (baseline instanceof ApiBaseline && baseline.getAllApiComponents(component.getSymbolicName()).isEmpty()) {
+			return ((ApiBaseline) baseline).getReferenceResolutionCache();
+		}
+		return null;
+	}
+
 	/**
 	 * Creates a unique string key for a given reference. The key is of the form
 	 * "component X references type/member"
@@ -119,7 +221,7 @@ public final class ReferenceResolver {
 	 * @return a string key for the given reference.
 	 */
 	private static String createSignatureKey(IReference reference) {
-		StringBuffer buffer = new StringBuffer();
+		StringBuilder buffer = new StringBuilder();
 		buffer.append(reference.getMember().getApiComponent().getSymbolicName());
 		buffer.append("#"); //$NON-NLS-1$
 		buffer.append(reference.getReferencedTypeName());
@@ -0,0 +1,258 @@
+/*******************************************************************************
+ * Copyright (c) 2017 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.api.tools.internal.comparator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.pde.api.tools.internal.provisional.ApiPlugin;
+import org.eclipse.pde.api.tools.internal.provisional.comparator.ApiComparator;
+import org.eclipse.pde.api.tools.internal.provisional.comparator.IDelta;
+import org.eclipse.pde.api.tools.internal.provisional.model.IApiBaseline;
+import org.eclipse.pde.api.tools.internal.provisional.model.IApiComponent;
+
+/**
+ * Compares two {@link IApiBaseline}s component by component.
+ * <p>
+ * The components can be compared concurrently on a pool of threads, each
+ * component being compared as a whole by a single thread. They all share the
+ * type structures cached by their baselines. The resulting delta does not
+ * depend on the number of threads: the component deltas are merged in the
+ * order of the components of the reference baseline.
+ * </p>
+ *
+ * @since 1.1
+ */
+public class ApiBaselineComparator {
+
+	/**
+	 * The result of the comparison of one component of the reference baseline
+	 */
+	static class ComponentComparison {
+		/**
+		 * The delta for a changed major or minor version, or <code>null</code>
+		 */
+		IDelta versionDelta;
+		/**
+		 * The delta of the component, or <code>null</code> if not compared or
+		 * the comparison failed
+		 */
+		IDelta delta;
+	}
+
+	private final IApiBaseline fReferenceBaseline;
+	private final IApiBaseline fBaseline;
+	private final int fVisibilityModifiers;
+	private final boolean fForce;
+	private final int fThreads;
+
+	/**
+	 * Time spent comparing each component, in the order of the components of
+	 * the reference baseline
+	 */
+	private final Map<String, Long> fTimings = Collections.synchronizedMap(new LinkedHashMap<String, Long>());
+
+	/**
+	 * Constructor
+	 *
+	 * @param referenceBaseline the given API baseline which is used as the
+	 *            reference
+	 * @param baseline the given API baseline to compare with
+	 * @param visibilityModifiers the given visibility that triggers what
+	 *            visibility should be used for the comparison
+	 * @param force a flag to force the comparison of nested API components with
+	 *            the same versions
+	 * @param threads the number of components to compare concurrently,
+	 *            <code>0</code> or less means one per available processor
+	 */
+	public ApiBaselineComparator(IApiBaseline referenceBaseline, IApiBaseline baseline, int visibilityModifiers, boolean force, int threads) {
+		if (referenceBaseline == null || baseline == null) {
+			throw new IllegalArgumentException("None of the baselines must be null"); //$NON-NLS-1$
+		}
+		fReferenceBaseline = referenceBaseline;
+		fBaseline = baseline;
+		fVisibilityModifiers = visibilityModifiers;
+		fForce = force;
+		fThreads = threads <= 0 ? Runtime.getRuntime().availableProcessors() : threads;
+	}
+
+	/**
+	 * Returns a delta that corresponds to the difference between the two
+	 * baselines.
+	 *
+	 * @param monitor the progress monitor or <code>null</code>
+	 * @return a delta, an empty delta if no difference is found
+	 */
+	public IDelta compare(IProgressMonitor monitor) {
+		SubMonitor localmonitor = SubMonitor.convert(monitor, 2);
+		try {
+			fTimings.clear();
+			IApiComponent[] apiComponents = fReferenceBaseline.getApiComponents();
+			List<IApiComponent> components = new ArrayList<>(apiComponents.length);
+			for (IApiComponent apiComponent : apiComponents) {
+				if (!apiComponent.isSystemComponent()) {
+					components.add(apiComponent);
+				}
+			}
+			List<ComponentComparison> comparisons = compareComponents(components, localmonitor.split(1));
+			Set<String> apiComponentsIds = new HashSet<>();
+			final Delta globalDelta = new Delta();
+			for (int i = 0, max = components.size(); i < max; i++) {
+				IApiComponent apiComponent = components.get(i);
+				ComponentComparison comparison = comparisons.get(i);
+				if (fBaseline.getApiComponent(apiComponent.getSymbolicName()) != null) {
+					apiComponentsIds.add(apiComponent.getSymbolicName());
+				}
+				globalDelta.add(comparison.versionDelta);
+				if (comparison.delta != null && comparison.delta != ApiComparator.NO_DELTA) {
+					globalDelta.add(comparison.delta);
+				}
+			}
+			IApiComponent[] apiComponents2 = fBaseline.getApiComponents();
+			SubMonitor elementLoopMonitor = localmonitor.split(1).setWorkRemaining(apiComponents2.length);
+			for (IApiComponent apiComponent : apiComponents2) {
+				elementLoopMonitor.split(1);
+				if (!apiComponent.isSystemComponent()) {
+					String id = apiComponent.getSymbolicName();
+					if (!apiComponentsIds.contains(id)) {
+						// addition of an API component
+						globalDelta.add(new Delta(null, IDelta.API_BASELINE_ELEMENT_TYPE, IDelta.ADDED, IDelta.API_COMPONENT, null, id, id));
+					}
+				}
+			}
+			return globalDelta.isEmpty() ? ApiComparator.NO_DELTA : globalDelta;
+		} finally {
+			SubMonitor.done(monitor);
+		}
+	}
+
+	/**
+	 * Returns the time spent comparing each component during the last
+	 * {@link #compare(IProgressMonitor)}, in milliseconds. Components whose
+	 * versions were not compared are not included.
+	 *
+	 * @return the timings by component id, in the order of the components of
+	 *         the reference baseline
+	 */
+	public Map<String, Long> getComponentTimings() {
+		synchronized (fTimings) {
+			return new LinkedHashMap<>(fTimings);
+		}
+	}
+
+	/**
+	 * Compares the given components of the reference baseline, concurrently if
+	 * more than one thread is configured
+	 *
+	 * @param components the components to compare
+	 * @param monitor the progress monitor
+	 * @return the comparisons in the order of the given components
+	 */
+	private List<ComponentComparison> compareComponents(List<IApiComponent> components, SubMonitor monitor) {
+		monitor.setWorkRemaining(components.size());
+		List<ComponentComparison> comparisons = new ArrayList<>(components.size());
+		int poolSize = Math.min(fThreads, components.size());
+		if (poolSize <= 1) {
+			for (IApiComponent component : components) {
+				comparisons.add(compareComponent(component, monitor.split(1)));
+			}
+			return comparisons;
+		}
+		if (ApiPlugin.DEBUG_API_COMPARATOR) {
+			System.out.println("Comparing " + components.size() + " components using " + poolSize + " threads"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		}
+		// reserve the slots so the timings keep the component order
+		for (IApiComponent component : components) {
+			fTimings.put(component.getSymbolicName(), Long.valueOf(-1));
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(poolSize);
+		try {
+			List<Future<ComponentComparison>> futures = new ArrayList<>(components.size());
+			for (final IApiComponent component : components) {
+				futures.add(executor.submit(new Callable<ComponentComparison>() {
+					@Override
+					public ComponentComparison call() throws Exception {
+						return compareComponent(component, null);
+					}
+				}));
+			}
+			// collect in submission order so the delta does not depend on
+			// which component finished first
+			for (Future<ComponentComparison> future : futures) {
+				monitor.split(1);
+				try {
+					comparisons.add(future.get());
+				} catch (ExecutionException e) {
+					ApiPlugin.log(e.getCause());
+					comparisons.add(new ComponentComparison());
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			while (comparisons.size() < components.size()) {
+				comparisons.add(new ComponentComparison());
+			}
+		} finally {
+			executor.shutdownNow();
+			synchronized (fTimings) {
+				fTimings.values().removeAll(Collections.singleton(Long.valueOf(-1)));
+			}
+		}
+		return comparisons;
+	}
+
+	/**
+	 * Compares the given component of the reference baseline with the
+	 * component of the same id in the other baseline
+	 *
+	 * @param apiComponent the component of the reference baseline
+	 * @param monitor the progress monitor or <code>null</code>
+	 * @return the comparison
+	 */
+	ComponentComparison compareComponent(IApiComponent apiComponent, IProgressMonitor monitor) {
+		ComponentComparison comparison = new ComponentComparison();
+		String id = apiComponent.getSymbolicName();
+		IApiComponent apiComponentBaseline = fBaseline.getApiComponent(id);
+		if (apiComponentBaseline == null) {
+			// report removal of an API component
+			comparison.delta = new Delta(null, IDelta.API_BASELINE_ELEMENT_TYPE, IDelta.REMOVED, IDelta.API_COMPONENT, null, id, id);
+			return comparison;
+		}
+		String versionString = apiComponent.getVersion();
+		String versionString2 = apiComponentBaseline.getVersion();
+		comparison.versionDelta = ApiComparator.checkBundleVersionChanges(apiComponentBaseline, id, versionString, versionString2);
+		if (!versionString.equals(versionString2) || fForce) {
+			long time = System.currentTimeMillis();
+			try {
+				comparison.delta = ApiComparator.compare(apiComponent, apiComponentBaseline, fReferenceBaseline, fBaseline, fVisibilityModifiers, monitor);
+			} finally {
+				time = System.currentTimeMillis() - time;
+				fTimings.put(id, Long.valueOf(time));
+				if (ApiPlugin.DEBUG_API_COMPARATOR) {
+					System.out.println("Time spent for " + id + " " + versionString + " : " + time + "ms"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+				}
+			}
+		}
+		return comparison;
+	}
+}
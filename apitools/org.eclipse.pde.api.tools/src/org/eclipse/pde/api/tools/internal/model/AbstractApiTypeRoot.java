@@ -49,19 +49,30 @@ public abstract class AbstractApiTypeRoot extends ApiElement implements IApiType
 			type = (IApiType) cache.getElementInfo(baseline.getName(), comp.getSymbolicName(), this.getTypeName(), IApiElement.TYPE);
 		}
 		if (type == null) {
-			type = TypeStructureBuilder.buildTypeStructure(getContents(), getApiComponent(), this);
-			if (type == null) {
-				return null;
-			}
 			Set<IApiComponent> apiComponentMultiple = Collections.emptySet();
+			byte[] structure = null;
 			if (comp != null) {
 				IApiBaseline baseline = comp.getBaseline();
 				apiComponentMultiple = baseline.getAllApiComponents(comp.getSymbolicName());
+				structure = cache.getTypeStructure(baseline.getName(), comp.getSymbolicName(), this.getTypeName());
+			}
+			// rebuild from the compact structure if we have one, avoids
+			// reading the class file again
+			boolean compact = structure != null;
+			if (!compact) {
+				structure = getContents();
+			}
+			type = TypeStructureBuilder.buildTypeStructure(structure, getApiComponent(), this);
+			if (type == null) {
+				return null;
 			}
 			// cache only if 1 version is there - else optimising would cause
 			// issues if both the versions have the same type.
 			if (apiComponentMultiple.isEmpty()) {
 				cache.cacheElementInfo(type);
+				if (!compact && comp != null) {
+					cache.cacheTypeStructure(comp.getBaseline().getName(), comp.getSymbolicName(), this.getTypeName(), TypeStructureBuilder.compactTypeStructure(structure));
+				}
 			}
 		}
 		return type;
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2016 IBM Corporation and others.
+ * Copyright (c) 2007, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -31,6 +31,7 @@ import java.util.Map.Entry;
 import java.util.Properties;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.runtime.CoreException;
@@ -57,6 +58,7 @@ import org.eclipse.osgi.service.resolver.StateObjectFactory;
 import org.eclipse.pde.api.tools.internal.AnyValue;
 import org.eclipse.pde.api.tools.internal.ApiBaselineManager;
 import org.eclipse.pde.api.tools.internal.CoreMessages;
+import org.eclipse.pde.api.tools.internal.builder.ReferenceResolutionCache;
 import org.eclipse.pde.api.tools.internal.provisional.ApiPlugin;
 import org.eclipse.pde.api.tools.internal.provisional.model.IApiBaseline;
 import org.eclipse.pde.api.tools.internal.provisional.model.IApiComponent;
@@ -116,16 +118,37 @@ public class ApiBaseline extends ApiElement implements IApiBaseline, IVMInstallC
 	 */
 	private AnyValue ANY_VALUE = new AnyValue("*"); //$NON-NLS-1$
 
+	/**
+	 * Key used in the package cache for lookups without a source component
+	 */
+	private static final Object NO_SOURCE_COMPONENT = new Object();
+
 	/**
 	 * Cache of resolved packages.
 	 * <p>
-	 * Map of <code>PackageName -> Map(componentName -> IApiComponent[])</code>
+	 * Map of <code>PackageName -> Map(sourceComponent -> IApiComponent[])</code>
 	 * </p>
 	 * For each package the cache contains a map of API components that provide
-	 * that package, by source component name (including the <code>null</code>
-	 * component name).
+	 * that package, by source component (using {@link #NO_SOURCE_COMPONENT} for
+	 * the <code>null</code> component). The cache can be read and updated
+	 * without locking the baseline.
+	 */
+	private final ConcurrentHashMap<String, ConcurrentHashMap<Object, IApiComponent[]>> fComponentsProvidingPackageCache = new ConcurrentHashMap<>();
+
+	/**
+	 * Index of the packages visible to each bundle component, computed once
+	 * per component from the resolved OSGi state.
+	 * <p>
+	 * Map of <code>sourceComponent -> Map(PackageName -> IApiComponent[] exporters)</code>
+	 * </p>
+	 */
+	private final ConcurrentHashMap<IApiComponent, Map<String, IApiComponent[]>> fVisiblePackagesIndex = new ConcurrentHashMap<>();
+
+	/**
+	 * Incremented whenever the package caches are cleared, so that a
+	 * resolution computed from an outdated state is not cached
 	 */
-	private HashMap<String, HashMap<IApiComponent, IApiComponent[]>> fComponentsProvidingPackageCache = null;
+	private volatile int fPackageCacheGeneration = 0;
 
 	/**
 	 * Maps component id's to components.
@@ -148,7 +171,7 @@ public class ApiBaseline extends ApiElement implements IApiBaseline, IVMInstallC
 	/**
 	 * Cache of system package names
 	 */
-	private HashSet<String> fSystemPackageNames = null;
+	private volatile HashSet<String> fSystemPackageNames = null;
 
 	/**
 	 * The VM install this baseline is bound to for system libraries or
@@ -156,6 +179,23 @@ public class ApiBaseline extends ApiElement implements IApiBaseline, IVMInstallC
 	 */
 	private IVMInstall fVMBinding = null;
 
+	/**
+	 * Pool of open archives shared by all archive containers in this baseline
+	 */
+	private final ArchiveFilePool fArchivePool = new ArchiveFilePool();
+
+	/**
+	 * Cache of resolved references shared by all components analyzed against
+	 * this baseline
+	 */
+	private final ReferenceResolutionCache fResolutionCache = new ReferenceResolutionCache();
+
+	/**
+	 * Whether bundle components keep their complete manifest until the binary
+	 * snapshot of this baseline has been written
+	 */
+	private volatile boolean fRetainManifests = false;
+
 	/**
 	 * Constructs a new API baseline with the given name.
 	 *
@@ -296,10 +336,7 @@ public class ApiBaseline extends ApiElement implements IApiBaseline, IVMInstallC
 		if (fSystemLibraryComponent != null && fComponentsById != null) {
 			fComponentsById.remove(fSystemLibraryComponent.getSymbolicName());
 		}
-		if (fSystemPackageNames != null) {
-			fSystemPackageNames.clear();
-			fSystemPackageNames = null;
-		}
+		fSystemPackageNames = null;
 		clearComponentsCache();
 		// set new system library
 		fSystemLibraryComponent = new SystemLibraryApiComponent(this, description, systemPackages);
@@ -309,11 +346,10 @@ public class ApiBaseline extends ApiElement implements IApiBaseline, IVMInstallC
 	/**
 	 * Clears the package -> components cache and sets it to <code>null</code>
 	 */
-	private synchronized void clearComponentsCache() {
-		if (fComponentsProvidingPackageCache != null) {
-			fComponentsProvidingPackageCache.clear();
-			fComponentsProvidingPackageCache = null;
-		}
+	private void clearComponentsCache() {
+		fPackageCacheGeneration++;
+		fComponentsProvidingPackageCache.clear();
+		fVisiblePackagesIndex.clear();
 	}
 
 	/**
@@ -364,8 +400,13 @@ public class ApiBaseline extends ApiElement implements IApiBaseline, IVMInstallC
 		}
 	}
 
+	/**
+	 * Adds the given components and re-resolves the state. The OSGi state is
+	 * not thread safe, it is only modified and read while holding the lock of
+	 * this baseline.
+	 */
 	@Override
-	public void addApiComponents(IApiComponent[] components) throws CoreException {
+	public synchronized void addApiComponents(IApiComponent[] components) throws CoreException {
 		HashSet<String> ees = new HashSet<>();
 		for (IApiComponent apiComponent : components) {
 			BundleComponent component = (BundleComponent) apiComponent;
@@ -379,6 +420,8 @@ public class ApiBaseline extends ApiElement implements IApiBaseline, IVMInstallC
 		}
 		resolveSystemLibrary(ees);
 		getState().resolve();
+		// package visibility is derived from the resolution
+		clearComponentsCache();
 	}
 
 	/**
@@ -495,23 +538,22 @@ public class ApiBaseline extends ApiElement implements IApiBaseline, IVMInstallC
 	}
 
 	@Override
-	public synchronized IApiComponent[] resolvePackage(IApiComponent sourceComponent, String packageName) throws CoreException {
-		HashMap<IApiComponent, IApiComponent[]> componentsForPackage = null;
-		if (fComponentsProvidingPackageCache != null) {
-			componentsForPackage = fComponentsProvidingPackageCache.get(packageName);
-		} else {
-			fComponentsProvidingPackageCache = new HashMap<>(8);
-		}
-		IApiComponent[] cachedComponents = null;
-		if (componentsForPackage != null) {
-			cachedComponents = componentsForPackage.get(sourceComponent);
-			if (cachedComponents != null && cachedComponents.length > 0) {
-				return cachedComponents;
+	public IApiComponent[] resolvePackage(IApiComponent sourceComponent, String packageName) throws CoreException {
+		int generation = fPackageCacheGeneration;
+		ConcurrentHashMap<Object, IApiComponent[]> componentsForPackage = fComponentsProvidingPackageCache.get(packageName);
+		if (componentsForPackage == null) {
+			componentsForPackage = new ConcurrentHashMap<>(8);
+			ConcurrentHashMap<Object, IApiComponent[]> existing = fComponentsProvidingPackageCache.putIfAbsent(packageName, componentsForPackage);
+			if (existing != null) {
+				componentsForPackage = existing;
 			}
-		} else {
-			componentsForPackage = new HashMap<>(8);
-			fComponentsProvidingPackageCache.put(packageName, componentsForPackage);
 		}
+		Object key = sourceComponent == null ? NO_SOURCE_COMPONENT : sourceComponent;
+		IApiComponent[] cachedComponents = componentsForPackage.get(key);
+		if (cachedComponents != null && cachedComponents.length > 0) {
+			return cachedComponents;
+		}
+		cachedComponents = null;
 
 		// check resolvePackage0 before the system packages to avoid wrong
 		// add/remove API problems - see bug 430640
@@ -537,13 +579,12 @@ public class ApiBaseline extends ApiElement implements IApiBaseline, IVMInstallC
 			}
 		}
 
-		if (cachedComponents == null) {
-			cachedComponents = EMPTY_COMPONENTS;
-		}
-		if (cachedComponents.length == 0) {
+		if (cachedComponents == null || cachedComponents.length == 0) {
 			return EMPTY_COMPONENTS;
 		}
-		componentsForPackage.put(sourceComponent, cachedComponents);
+		if (generation == fPackageCacheGeneration) {
+			componentsForPackage.put(key, cachedComponents);
+		}
 		return cachedComponents;
 	}
 
@@ -561,26 +602,17 @@ public class ApiBaseline extends ApiElement implements IApiBaseline, IVMInstallC
 		if (component instanceof BundleComponent) {
 			BundleDescription bundle = ((BundleComponent) component).getBundleDescription();
 			if (bundle != null) {
-				StateHelper helper = getState().getStateHelper();
-				ExportPackageDescription[] visiblePackages = helper.getVisiblePackages(bundle);
-				for (ExportPackageDescription pkg : visiblePackages) {
-					String pkgName = pkg.getName();
-					if (pkgName.equals(".")) { //$NON-NLS-1$
-						// translate . to default package
-						pkgName = Util.DEFAULT_PACKAGE_NAME;
-					}
-					if (packageName.equals(pkgName)) {
-						BundleDescription bundleDescription = pkg.getExporter();
-						IApiComponent exporter = getApiComponent(bundleDescription.getSymbolicName());
-						if (exporter != null) {
-							componentsList.add(exporter);
-						}
-					}
+				IApiComponent[] exporters = getVisiblePackages(component, bundle).get(packageName);
+				if (exporters != null) {
+					componentsList.addAll(Arrays.asList(exporters));
 				}
 				if (component.isFragment()) {
 					// a fragment can see all the packages from the host
 					HostSpecification host = bundle.getHost();
-					BundleDescription[] hosts = host.getHosts();
+					BundleDescription[] hosts;
+					synchronized (this) {
+						hosts = host.getHosts();
+					}
 					for (BundleDescription currentHost : hosts) {
 						IApiComponent apiComponent = component.getBaseline().getApiComponent(currentHost.getName());
 						if (apiComponent != null) {
@@ -598,6 +630,67 @@ public class ApiBaseline extends ApiElement implements IApiBaseline, IVMInstallC
 		}
 	}
 
+	/**
+	 * Returns the index of packages visible to the given component, building it
+	 * from the resolved state the first time it is requested. The index is
+	 * immutable and read without locking, it is only built while holding the
+	 * lock of this baseline since the state is not thread safe.
+	 *
+	 * @param component the source component
+	 * @param bundle the bundle description of the source component
+	 * @return map of package name to the components exporting it
+	 */
+	private Map<String, IApiComponent[]> getVisiblePackages(IApiComponent component, BundleDescription bundle) {
+		Map<String, IApiComponent[]> index = fVisiblePackagesIndex.get(component);
+		if (index != null) {
+			return index;
+		}
+		synchronized (this) {
+			index = fVisiblePackagesIndex.get(component);
+			if (index == null) {
+				index = Collections.unmodifiableMap(computeVisiblePackages(bundle));
+				fVisiblePackagesIndex.put(component, index);
+			}
+			return index;
+		}
+	}
+
+	/**
+	 * Computes the packages visible to the given bundle from the state. Must
+	 * only be called while holding the lock of this baseline.
+	 *
+	 * @param bundle the bundle description of the source component
+	 * @return map of package name to the components exporting it
+	 */
+	private Map<String, IApiComponent[]> computeVisiblePackages(BundleDescription bundle) {
+		StateHelper helper = getState().getStateHelper();
+		ExportPackageDescription[] visiblePackages = helper.getVisiblePackages(bundle);
+		Map<String, List<IApiComponent>> exporters = new HashMap<>(visiblePackages.length);
+		for (ExportPackageDescription pkg : visiblePackages) {
+			String pkgName = pkg.getName();
+			if (pkgName.equals(".")) { //$NON-NLS-1$
+				// translate . to default package
+				pkgName = Util.DEFAULT_PACKAGE_NAME;
+			}
+			BundleDescription bundleDescription = pkg.getExporter();
+			IApiComponent exporter = getApiComponent(bundleDescription.getSymbolicName());
+			if (exporter != null) {
+				List<IApiComponent> list = exporters.get(pkgName);
+				if (list == null) {
+					list = new ArrayList<>(1);
+					exporters.put(pkgName, list);
+				}
+				list.add(exporter);
+			}
+		}
+		Map<String, IApiComponent[]> index = new HashMap<>(exporters.size());
+		for (Entry<String, List<IApiComponent>> entry : exporters.entrySet()) {
+			List<IApiComponent> list = entry.getValue();
+			index.put(entry.getKey(), list.toArray(new IApiComponent[list.size()]));
+		}
+		return index;
+	}
+
 	/**
 	 * Returns all of the visible dependent components from the current state
 	 *
@@ -631,14 +724,21 @@ public class ApiBaseline extends ApiElement implements IApiBaseline, IVMInstallC
 		if (packageName.startsWith("java.")) { //$NON-NLS-1$
 			return true;
 		}
-		if (fSystemPackageNames == null) {
-			ExportPackageDescription[] systemPackages = getState().getSystemPackages();
-			fSystemPackageNames = new HashSet<>(systemPackages.length);
-			for (ExportPackageDescription systemPackage : systemPackages) {
-				fSystemPackageNames.add(systemPackage.getName());
+		HashSet<String> names = fSystemPackageNames;
+		if (names == null) {
+			synchronized (this) {
+				names = fSystemPackageNames;
+				if (names == null) {
+					ExportPackageDescription[] systemPackages = getState().getSystemPackages();
+					names = new HashSet<>(systemPackages.length);
+					for (ExportPackageDescription systemPackage : systemPackages) {
+						names.add(systemPackage.getName());
+					}
+					fSystemPackageNames = names;
+				}
 			}
 		}
-		return fSystemPackageNames.contains(packageName);
+		return names.contains(packageName);
 	}
 
 	/**
@@ -784,13 +884,13 @@ public class ApiBaseline extends ApiElement implements IApiBaseline, IVMInstallC
 			fComponentsByProjectNames.clear();
 			fComponentsByProjectNames = null;
 		}
-		if (fSystemPackageNames != null) {
-			fSystemPackageNames.clear();
-		}
+		fSystemPackageNames = null;
 		if (fSystemLibraryComponent != null) {
 			fSystemLibraryComponent.dispose();
 			fSystemLibraryComponent = null;
 		}
+		closeArchivePool();
+		fResolutionCache.clear();
 	}
 
 	/**
@@ -803,6 +903,28 @@ public class ApiBaseline extends ApiElement implements IApiBaseline, IVMInstallC
 		for (IApiComponent component2 : components) {
 			component2.close();
 		}
+		closeArchivePool();
+	}
+
+	/**
+	 * Returns the pool of open archives shared by all of the archive containers
+	 * in this baseline.
+	 *
+	 * @return the shared {@link ArchiveFilePool}
+	 * @noreference This method is not intended to be referenced by clients.
+	 */
+	public ArchiveFilePool getArchivePool() {
+		return fArchivePool;
+	}
+
+	/**
+	 * Closes all of the archives opened through this baseline
+	 */
+	private void closeArchivePool() {
+		if (ApiPlugin.DEBUG_BASELINE_MANAGER) {
+			System.out.println(getName() + ": " + fArchivePool); //$NON-NLS-1$
+		}
+		fArchivePool.close();
 	}
 
 	/**
@@ -871,12 +993,63 @@ public class ApiBaseline extends ApiElement implements IApiBaseline, IVMInstallC
 	 * @nooverride This method is not intended to be re-implemented or extended
 	 *             by clients.
 	 */
-	public synchronized void clearPackage(String packageName) {
-		if (fComponentsProvidingPackageCache != null) {
-			fComponentsProvidingPackageCache.remove(packageName);
+	public void clearPackage(String packageName) {
+		fPackageCacheGeneration++;
+		fComponentsProvidingPackageCache.remove(packageName);
+		fResolutionCache.clearPackage(packageName);
+	}
+
+	/**
+	 * Returns the cache of resolved references shared by all of the components
+	 * analyzed against this baseline.
+	 *
+	 * @return the {@link ReferenceResolutionCache} for this baseline
+	 * @noreference This method is not intended to be referenced by clients.
+	 */
+	public ReferenceResolutionCache getReferenceResolutionCache() {
+		return fResolutionCache;
+	}
+
+	/**
+	 * Sets whether bundle components added to this baseline keep their
+	 * complete manifest after initialization so that a binary snapshot can be
+	 * written without reading the bundles again. Turning retention off drops
+	 * the manifests already kept.
+	 *
+	 * @param retain whether to keep complete manifests
+	 * @noreference This method is not intended to be referenced by clients.
+	 * @see ApiBaselineSnapshot
+	 */
+	public void setRetainManifests(boolean retain) {
+		fRetainManifests = retain;
+		if (!retain) {
+			if (fComponentsById != null) {
+				releaseFullManifests(fComponentsById.values());
+			}
+			if (fAllComponentsById != null) {
+				for (Set<IApiComponent> components : fAllComponentsById.values()) {
+					releaseFullManifests(components);
+				}
+			}
 		}
 	}
 
+	private static void releaseFullManifests(Collection<IApiComponent> components) {
+		for (IApiComponent component : components) {
+			if (component instanceof BundleComponent) {
+				((BundleComponent) component).releaseFullManifest();
+			}
+		}
+	}
+
+	/**
+	 * @return whether bundle components keep their complete manifest
+	 * @noreference This method is not intended to be referenced by clients.
+	 */
+	public boolean isRetainingManifests() {
+		return fRetainManifests;
+	}
+
 	@Override
 	public String toString() {
 		return getName();
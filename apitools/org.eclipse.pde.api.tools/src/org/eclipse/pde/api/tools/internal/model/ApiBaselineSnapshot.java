@@ -0,0 +1,327 @@
+/*******************************************************************************
+ * Copyright (c) 2017 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.api.tools.internal.model;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.pde.api.tools.internal.provisional.ApiPlugin;
+import org.eclipse.pde.api.tools.internal.provisional.model.IApiBaseline;
+import org.eclipse.pde.api.tools.internal.provisional.model.IApiComponent;
+import org.eclipse.pde.api.tools.internal.util.Util;
+import org.eclipse.pde.internal.core.util.ManifestUtils;
+
+/**
+ * Binary snapshot of the bundles of a persisted {@link IApiBaseline}.
+ * <p>
+ * The snapshot records the location, time stamp, size and parsed manifest of
+ * every bundle in the baseline so a baseline can be restored without opening
+ * and parsing each bundle again. A snapshot is only used if it was written for
+ * the current XML description of the baseline and every bundle it records is
+ * unchanged on disk, otherwise the baseline is restored from its XML
+ * description.
+ * </p>
+ *
+ * @since 1.1
+ */
+public final class ApiBaselineSnapshot {
+
+	/**
+	 * Snapshot format version, a snapshot written with a different version is
+	 * ignored
+	 */
+	private static final int VERSION = 2;
+
+	/**
+	 * Marker for the kind of file
+	 */
+	private static final String KIND = "BASELINE"; //$NON-NLS-1$
+
+	/**
+	 * One bundle recorded in a snapshot
+	 */
+	static class BundleEntry {
+		String fLocation;
+		long fStamp;
+		long fSize;
+		Map<String, String> fManifest;
+	}
+
+	/**
+	 * Constructor - no instantiation
+	 */
+	private ApiBaselineSnapshot() {
+	}
+
+	/**
+	 * Restores the components of the given baseline from the given snapshot
+	 * file. Nothing is added to the baseline unless the whole snapshot is
+	 * up to date.
+	 *
+	 * @param baseline the baseline to restore
+	 * @param file the snapshot file
+	 * @param descriptionStamp the stamp of the current XML description of the
+	 *            baseline, see {@link #getDescriptionStamp(File)}
+	 * @return <code>true</code> if the baseline was restored from the snapshot,
+	 *         <code>false</code> if the snapshot is missing, from another
+	 *         version, written for another description or out of date
+	 * @throws CoreException if the components cannot be added to the baseline
+	 */
+	public static boolean restore(IApiBaseline baseline, File file, long descriptionStamp) throws CoreException {
+		if (!file.exists()) {
+			return false;
+		}
+		long start = System.currentTimeMillis();
+		String location = null;
+		List<BundleEntry> entries = null;
+		try {
+			DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+			try {
+				if (!ApiPlugin.PLUGIN_ID.equals(in.readUTF()) || !KIND.equals(in.readUTF()) || in.readInt() != VERSION) {
+					return false;
+				}
+				if (descriptionStamp == -1 || in.readLong() != descriptionStamp) {
+					if (ApiPlugin.DEBUG_BASELINE_MANAGER) {
+						System.out.println("Baseline snapshot for " + baseline.getName() + " does not match its description"); //$NON-NLS-1$ //$NON-NLS-2$
+					}
+					return false;
+				}
+				location = readString(in);
+				int count = in.readInt();
+				entries = new ArrayList<>(count);
+				for (int i = 0; i < count; i++) {
+					BundleEntry entry = new BundleEntry();
+					entry.fLocation = readString(in);
+					entry.fStamp = in.readLong();
+					entry.fSize = in.readLong();
+					int headers = in.readInt();
+					entry.fManifest = new HashMap<>(headers);
+					for (int j = 0; j < headers; j++) {
+						entry.fManifest.put(readString(in), readString(in));
+					}
+					entries.add(entry);
+				}
+			} finally {
+				in.close();
+			}
+		} catch (IOException e) {
+			ApiPlugin.log(e);
+			return false;
+		}
+		for (BundleEntry entry : entries) {
+			File bundle = new File(entry.fLocation);
+			if (getStamp(bundle) != entry.fStamp || getSize(bundle) != entry.fSize) {
+				if (ApiPlugin.DEBUG_BASELINE_MANAGER) {
+					System.out.println("Baseline snapshot for " + baseline.getName() + " is out of date: " + entry.fLocation); //$NON-NLS-1$ //$NON-NLS-2$
+				}
+				return false;
+			}
+		}
+		List<IApiComponent> components = new ArrayList<>(entries.size());
+		for (BundleEntry entry : entries) {
+			IApiComponent component = ApiModelFactory.newApiComponent(baseline, entry.fLocation, entry.fManifest);
+			if (component != null) {
+				components.add(component);
+			}
+		}
+		if (location.length() > 0) {
+			baseline.setLocation(location);
+		}
+		baseline.addApiComponents(components.toArray(new IApiComponent[components.size()]));
+		if (ApiPlugin.DEBUG_BASELINE_MANAGER) {
+			System.out.println("Time to restore baseline " + baseline.getName() + " from snapshot: " + (System.currentTimeMillis() - start) + "ms"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		}
+		return true;
+	}
+
+	/**
+	 * Writes a snapshot of the given baseline to the given file. No snapshot is
+	 * written if one of the components cannot be recorded, for example because
+	 * it is not backed by a bundle in the file system. The complete manifests
+	 * held by the components are used, bundles are only read again for
+	 * components that no longer hold one. A snapshot that cannot be written is
+	 * logged and deleted, it is only an optimization.
+	 *
+	 * @param baseline the baseline to write
+	 * @param file the snapshot file
+	 * @param descriptionStamp the stamp of the XML description the snapshot is
+	 *            written for, see {@link #getDescriptionStamp(File)}
+	 * @return <code>true</code> if the snapshot was written
+	 */
+	public static boolean write(IApiBaseline baseline, File file, long descriptionStamp) {
+		if (descriptionStamp == -1) {
+			return false;
+		}
+		Set<IApiComponent> components = new LinkedHashSet<>();
+		for (IApiComponent component : baseline.getApiComponents()) {
+			// if the baseline has multiple versions, record all versions
+			Set<IApiComponent> multipleComponents = baseline.getAllApiComponents(component.getSymbolicName());
+			if (multipleComponents.isEmpty()) {
+				components.add(component);
+			} else {
+				components.addAll(multipleComponents);
+			}
+		}
+		List<BundleEntry> entries = new ArrayList<>(components.size());
+		for (IApiComponent component : components) {
+			if (component.isSystemComponent()) {
+				continue;
+			}
+			if (!(component instanceof BundleComponent) || component instanceof ProjectComponent) {
+				return false;
+			}
+			File bundle = new File(component.getLocation());
+			BundleEntry entry = new BundleEntry();
+			entry.fLocation = bundle.getAbsolutePath();
+			entry.fStamp = getStamp(bundle);
+			entry.fSize = getSize(bundle);
+			if (entry.fStamp < 0) {
+				return false;
+			}
+			entry.fManifest = ((BundleComponent) component).getFullManifest();
+			if (entry.fManifest == null) {
+				try {
+					entry.fManifest = ManifestUtils.loadManifest(bundle);
+				} catch (CoreException e) {
+					return false;
+				}
+			}
+			if (entry.fManifest == null) {
+				return false;
+			}
+			entries.add(entry);
+		}
+		try {
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+			try {
+				out.writeUTF(ApiPlugin.PLUGIN_ID);
+				out.writeUTF(KIND);
+				out.writeInt(VERSION);
+				out.writeLong(descriptionStamp);
+				String location = baseline.getLocation();
+				writeString(out, location == null ? Util.EMPTY_STRING : location);
+				out.writeInt(entries.size());
+				for (BundleEntry entry : entries) {
+					writeString(out, entry.fLocation);
+					out.writeLong(entry.fStamp);
+					out.writeLong(entry.fSize);
+					out.writeInt(entry.fManifest.size());
+					for (Entry<String, String> header : entry.fManifest.entrySet()) {
+						writeString(out, header.getKey());
+						writeString(out, header.getValue());
+					}
+				}
+			} finally {
+				out.close();
+			}
+		} catch (IOException e) {
+			ApiPlugin.log(new Status(IStatus.WARNING, ApiPlugin.PLUGIN_ID, "Error writing baseline snapshot for " + baseline.getName(), e)); //$NON-NLS-1$
+			file.delete();
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Returns a stamp of the contents of the given XML description of a
+	 * baseline. The description is rewritten on every save, so its contents are
+	 * checked rather than its time stamp.
+	 *
+	 * @param description the <code>.profile</code> file of a baseline
+	 * @return the stamp or <code>-1</code> if the description cannot be read
+	 */
+	public static long getDescriptionStamp(File description) {
+		if (!description.isFile()) {
+			return -1;
+		}
+		CRC32 crc = new CRC32();
+		try {
+			InputStream in = new BufferedInputStream(new FileInputStream(description));
+			try {
+				byte[] buffer = new byte[8192];
+				int read;
+				while ((read = in.read(buffer)) != -1) {
+					crc.update(buffer, 0, read);
+				}
+			} finally {
+				in.close();
+			}
+		} catch (IOException e) {
+			return -1;
+		}
+		return (description.length() << 32) | crc.getValue();
+	}
+
+	/**
+	 * Returns the time stamp used to detect changes to the given bundle: the
+	 * time stamp of the archive or of the manifest of a bundle directory.
+	 *
+	 * @param bundle the bundle location
+	 * @return the time stamp or <code>-1</code> if the bundle has no manifest
+	 */
+	static long getStamp(File bundle) {
+		File file = bundle.isDirectory() ? new File(new File(bundle, "META-INF"), Util.MANIFEST_NAME) : bundle; //$NON-NLS-1$
+		if (!file.exists()) {
+			return -1;
+		}
+		return file.lastModified();
+	}
+
+	/**
+	 * Returns the size used to detect changes to the given bundle, see
+	 * {@link #getStamp(File)}
+	 *
+	 * @param bundle the bundle location
+	 * @return the size of the archive or manifest
+	 */
+	static long getSize(File bundle) {
+		File file = bundle.isDirectory() ? new File(new File(bundle, "META-INF"), Util.MANIFEST_NAME) : bundle; //$NON-NLS-1$
+		return file.length();
+	}
+
+	/**
+	 * Writes a string of any length, manifest headers can exceed the limit of
+	 * {@link DataOutputStream#writeUTF(String)}
+	 */
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	/**
+	 * Reads a string written with {@link #writeString(DataOutputStream, String)}
+	 */
+	private static String readString(DataInputStream in) throws IOException {
+		byte[] bytes = new byte[in.readInt()];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
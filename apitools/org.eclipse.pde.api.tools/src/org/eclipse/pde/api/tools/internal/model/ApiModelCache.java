@@ -18,7 +18,8 @@ import org.eclipse.pde.api.tools.internal.provisional.model.IApiComponent;
 import org.eclipse.pde.api.tools.internal.provisional.model.IApiElement;
 
 /**
- * Manages the caches of {@link IApiElement}s
+ * Manages the caches of {@link IApiElement}s. Access to the caches is
+ * synchronized as type structures can be built from several threads.
  *
  * @since 1.0.2
  */
@@ -66,6 +67,12 @@ public final class ApiModelCache {
 	Cache fRootCache = null;
 	Cache fMemberTypeCache = null;
 
+	/**
+	 * Compact type structures used to rebuild types evicted from the caches
+	 * above
+	 */
+	final TypeStructureCache fStructureCache = new TypeStructureCache();
+
 	/**
 	 * Constructor - no instantiation
 	 */
@@ -99,6 +106,66 @@ public final class ApiModelCache {
 		return buffer.toString();
 	}
 
+	/**
+	 * Returns the key to use in the {@link TypeStructureCache}. The key is of
+	 * the form: <code>[baselineid]#[componentid]#[typename]</code>
+	 *
+	 * @param baseline
+	 * @param component
+	 * @param typename
+	 * @return the structure cache key to use
+	 */
+	private String getStructureKey(String baseline, String component, String typename) {
+		StringBuilder buffer = new StringBuilder();
+		buffer.append(baseline).append('#');
+		if (component != null) {
+			buffer.append(component).append('#');
+			if (typename != null) {
+				buffer.append(typename);
+			}
+		}
+		return buffer.toString();
+	}
+
+	/**
+	 * Caches the compact structure of the type with the given name, see
+	 * {@link TypeStructureBuilder#compactTypeStructure(byte[])}
+	 *
+	 * @param baselineid the id of the baseline the component belongs to
+	 * @param componentid the id of the component the type resides in
+	 * @param typename the qualified name of the type
+	 * @param structure the compact type structure
+	 */
+	public void cacheTypeStructure(String baselineid, String componentid, String typename, byte[] structure) {
+		if (baselineid == null || componentid == null) {
+			return;
+		}
+		fStructureCache.put(getStructureKey(baselineid, componentid, typename), structure);
+	}
+
+	/**
+	 * Returns the compact structure of the type with the given name or
+	 * <code>null</code> if it is not cached
+	 *
+	 * @param baselineid the id of the baseline the component belongs to
+	 * @param componentid the id of the component the type resides in
+	 * @param typename the qualified name of the type
+	 * @return the compact type structure or <code>null</code>
+	 */
+	public byte[] getTypeStructure(String baselineid, String componentid, String typename) {
+		if (baselineid == null || componentid == null) {
+			return null;
+		}
+		return fStructureCache.get(getStructureKey(baselineid, componentid, typename));
+	}
+
+	/**
+	 * @return the cache of compact type structures
+	 */
+	public TypeStructureCache getStructureCache() {
+		return fStructureCache;
+	}
+
 	/**
 	 * Caches the given {@link IApiElement} in the correct cache based on its
 	 * type.
@@ -108,7 +175,7 @@ public final class ApiModelCache {
 	 *             {@link IApiElement} info in order to cache it - pass the
 	 *             exception along.
 	 */
-	public void cacheElementInfo(IApiElement element) throws CoreException {
+	public synchronized void cacheElementInfo(IApiElement element) throws CoreException {
 		switch (element.getType()) {
 			case IApiElement.TYPE: {
 				if (fRootCache == null) {
@@ -209,7 +276,7 @@ public final class ApiModelCache {
 	 * @return the cached {@link IApiElement} or <code>null</code> if no such
 	 *         element is cached
 	 */
-	public IApiElement getElementInfo(String baselineid, String componentid, String identifier, int type) {
+	public synchronized IApiElement getElementInfo(String baselineid, String componentid, String identifier, int type) {
 		if (baselineid == null || componentid == null) {
 			return null;
 		}
@@ -251,13 +318,16 @@ public final class ApiModelCache {
 	 *
 	 * @return true if the element was removed, false otherwise
 	 */
-	public boolean removeElementInfo(String baselineid, String componentid, String identifier, int type) {
+	public synchronized boolean removeElementInfo(String baselineid, String componentid, String identifier, int type) {
 		if (baselineid == null) {
 			return false;
 		}
 		switch (type) {
 			case IApiElement.TYPE: {
 				if (componentid != null && identifier != null) {
+					String key = getStructureKey(baselineid, componentid, identifier);
+					fStructureCache.remove(key);
+					fStructureCache.removeAll(key + '$');
 					boolean removed = true;
 					// clean member type cache
 					if (this.fMemberTypeCache != null) {
@@ -294,6 +364,9 @@ public final class ApiModelCache {
 			}
 			case IApiElement.COMPONENT: {
 				flushMemberCache();
+				if (componentid != null) {
+					fStructureCache.removeAll(getStructureKey(baselineid, componentid, null));
+				}
 				if (fRootCache != null && componentid != null) {
 					Cache compcache = (Cache) fRootCache.get(baselineid);
 					if (compcache != null) {
@@ -308,6 +381,7 @@ public final class ApiModelCache {
 			}
 			case IApiElement.BASELINE: {
 				flushMemberCache();
+				fStructureCache.removeAll(getStructureKey(baselineid, null, null));
 				if (fRootCache != null) {
 					return fRootCache.remove(baselineid) != null;
 				}
@@ -329,7 +403,7 @@ public final class ApiModelCache {
 	 *             {@link IApiElement} info in order to remove it from the cache
 	 *             - pass the exception along.
 	 */
-	public boolean removeElementInfo(IApiElement element) {
+	public synchronized boolean removeElementInfo(IApiElement element) {
 		if (element == null) {
 			return false;
 		}
@@ -350,6 +424,7 @@ public final class ApiModelCache {
 			}
 			case IApiElement.BASELINE: {
 				flushMemberCache();
+				fStructureCache.removeAll(getStructureKey(element.getName(), null, null));
 				if (fRootCache != null) {
 					IApiBaseline baseline = (IApiBaseline) element;
 					return fRootCache.remove(baseline.getName()) != null;
@@ -365,11 +440,12 @@ public final class ApiModelCache {
 	/**
 	 * Clears out all cached information.
 	 */
-	public void flushCaches() {
+	public synchronized void flushCaches() {
 		if (fRootCache != null) {
 			fRootCache.flush();
 		}
 		flushMemberCache();
+		fStructureCache.flush();
 	}
 
 	/**
@@ -386,7 +462,7 @@ public final class ApiModelCache {
 	 *
 	 * @return true if the cache has no entries, false otherwise
 	 */
-	public boolean isEmpty() {
+	public synchronized boolean isEmpty() {
 		boolean empty = true;
 		if (fRootCache != null) {
 			empty &= fRootCache.isEmpty();
@@ -394,6 +470,7 @@ public final class ApiModelCache {
 		if (this.fMemberTypeCache != null) {
 			empty &= this.fMemberTypeCache.isEmpty();
 		}
+		empty &= fStructureCache.isEmpty();
 		return empty;
 	}
 }
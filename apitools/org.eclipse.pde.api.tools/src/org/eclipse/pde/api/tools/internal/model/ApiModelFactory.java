@@ -16,6 +16,7 @@ import java.io.FilenameFilter;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
@@ -108,6 +109,28 @@ public class ApiModelFactory {
 		return null;
 	}
 
+	/**
+	 * Creates and returns a new API component for this baseline at the
+	 * specified location using an already parsed manifest, or <code>null</code>
+	 * if the manifest does not describe a valid API component. The component is
+	 * not added to the baseline.
+	 *
+	 * @param baseline the baseline the component belongs to
+	 * @param location absolute path in the local file system to the API
+	 *            component
+	 * @param manifest the parsed manifest headers of the component
+	 * @return API component or <code>null</code> if the manifest does not
+	 *         describe a valid API component
+	 * @exception CoreException if unable to create the component
+	 */
+	public static IApiComponent newApiComponent(IApiBaseline baseline, String location, Map<String, String> manifest) throws CoreException {
+		BundleComponent component = new BundleComponent(baseline, location, getBundleID(), manifest);
+		if (component.isValidBundle()) {
+			return component;
+		}
+		return null;
+	}
+
 	/**
 	 * Creates and returns a new API component for this baseline based on the
 	 * given model or <code>null</code> if the given model cannot be resolved or
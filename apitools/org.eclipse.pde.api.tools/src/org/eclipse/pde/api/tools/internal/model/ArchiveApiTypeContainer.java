@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2016 IBM Corporation and others.
+ * Copyright (c) 2007, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -96,13 +96,7 @@ public class ArchiveApiTypeContainer extends ApiElement implements IApiTypeConta
 				return fContents;
 			}
 			ArchiveApiTypeContainer archive = (ArchiveApiTypeContainer) getParent();
-			ZipFile zipFile;
-			try {
-				zipFile = new ZipFile(archive.fLocation);
-			} catch (IOException e) {
-				abort("Failed to open archive: " + archive.fLocation, e); //$NON-NLS-1$
-				return null;
-			}
+			ZipFile zipFile = archive.open();
 			try {
 				ZipEntry entry = zipFile.getEntry(getName());
 				InputStream stream = null;
@@ -128,11 +122,7 @@ public class ArchiveApiTypeContainer extends ApiElement implements IApiTypeConta
 					}
 				}
 			} finally {
-				try {
-					zipFile.close();
-				} catch (IOException e) {
-					abort("Failed to close class file archive", e); //$NON-NLS-1$
-				}
+				archive.release(zipFile);
 			}
 			abort("Class file not found: " + getTypeName() + " in archive: " + archive.fLocation, null); //$NON-NLS-1$ //$NON-NLS-2$
 			return null;
@@ -215,6 +205,10 @@ public class ArchiveApiTypeContainer extends ApiElement implements IApiTypeConta
 	 */
 	@Override
 	public synchronized void close() throws CoreException {
+		ArchiveFilePool pool = ArchiveFilePool.getPool(this);
+		if (pool != null) {
+			pool.close(fLocation);
+		}
 	}
 
 	/**
@@ -264,13 +258,7 @@ public class ArchiveApiTypeContainer extends ApiElement implements IApiTypeConta
 	private synchronized void init() throws CoreException {
 		if (fPackages == null) {
 			fPackages = new HashMap<>();
-			ZipFile zipFile;
-			try {
-				zipFile = new ZipFile(fLocation);
-			} catch (IOException e) {
-				abort("Failed to open archive: " + fLocation, e); //$NON-NLS-1$
-				return;
-			}
+			ZipFile zipFile = open();
 			try {
 				Enumeration<? extends ZipEntry> entries = zipFile.entries();
 				while (entries.hasMoreElements()) {
@@ -291,15 +279,32 @@ public class ArchiveApiTypeContainer extends ApiElement implements IApiTypeConta
 					}
 				}
 			} finally {
-				try {
-					zipFile.close();
-				} catch (IOException e) {
-					abort("Failed to close class file archive", e); //$NON-NLS-1$
-				}
+				release(zipFile);
 			}
 		}
 	}
 
+	/**
+	 * Opens the archive backing this container. The returned archive must be
+	 * handed back with {@link #release(ZipFile)}.
+	 *
+	 * @return the open archive
+	 * @throws CoreException if the archive cannot be opened
+	 */
+	ZipFile open() throws CoreException {
+		return ArchiveFilePool.acquire(this, fLocation);
+	}
+
+	/**
+	 * Hands back an archive returned from {@link #open()}
+	 *
+	 * @param zipFile the archive to release
+	 * @throws CoreException if the archive cannot be closed
+	 */
+	void release(ZipFile zipFile) throws CoreException {
+		ArchiveFilePool.release(this, zipFile);
+	}
+
 	@Override
 	public boolean equals(Object obj) {
 		if (obj instanceof ArchiveApiTypeContainer) {
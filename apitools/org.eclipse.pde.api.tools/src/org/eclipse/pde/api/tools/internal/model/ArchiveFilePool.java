@@ -0,0 +1,330 @@
+/*******************************************************************************
+ * Copyright (c) 2017 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.api.tools.internal.model;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipFile;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.pde.api.tools.internal.provisional.ApiPlugin;
+import org.eclipse.pde.api.tools.internal.provisional.model.IApiElement;
+
+/**
+ * A bounded pool of open {@link ZipFile} handles shared by all of the
+ * {@link ArchiveApiTypeContainer}s in a baseline.
+ * <p>
+ * Handles are reference counted: a handle returned from
+ * {@link #acquire(String)} stays open until it is handed back with
+ * {@link #release(ZipFile)}. Once the number of open handles exceeds the
+ * configured maximum, the least recently used handles that are not in use are
+ * closed.
+ * </p>
+ * <p>
+ * The maximum number of open handles defaults to {@link #DEFAULT_MAX_OPEN} and
+ * can be changed with the {@link #MAX_OPEN_PROPERTY} system property.
+ * </p>
+ *
+ * @since 1.1
+ */
+public final class ArchiveFilePool {
+
+	/**
+	 * An open archive and the number of clients currently using it
+	 */
+	static class Handle {
+		final ZipFile fZipFile;
+		int fReferences = 0;
+		boolean fDiscard = false;
+
+		Handle(ZipFile zipFile) {
+			fZipFile = zipFile;
+		}
+	}
+
+	/**
+	 * System property used to override the maximum number of open archives
+	 */
+	public static final String MAX_OPEN_PROPERTY = "org.eclipse.pde.api.tools.archivePoolSize"; //$NON-NLS-1$
+
+	/**
+	 * Default maximum number of open archives
+	 */
+	public static final int DEFAULT_MAX_OPEN = 64;
+
+	/**
+	 * Open handles by archive location, in least recently used order
+	 */
+	private final LinkedHashMap<String, Handle> fHandles = new LinkedHashMap<>(16, 0.75f, true);
+
+	/**
+	 * The location each open archive was acquired with. The name of a
+	 * {@link ZipFile} is normalized and may differ from that location.
+	 */
+	private final Map<ZipFile, String> fLocations = new IdentityHashMap<>();
+
+	private final int fMaxOpen;
+	private long fHits = 0;
+	private long fMisses = 0;
+	private long fEvictions = 0;
+
+	/**
+	 * Constructs a pool whose size is read from the {@link #MAX_OPEN_PROPERTY}
+	 * system property, falling back to {@link #DEFAULT_MAX_OPEN}
+	 */
+	public ArchiveFilePool() {
+		this(Integer.getInteger(MAX_OPEN_PROPERTY, DEFAULT_MAX_OPEN).intValue());
+	}
+
+	/**
+	 * Constructs a pool that keeps at most the given number of idle archives
+	 * open
+	 *
+	 * @param maxOpen the maximum number of open archives, must be at least 1
+	 */
+	public ArchiveFilePool(int maxOpen) {
+		fMaxOpen = Math.max(1, maxOpen);
+	}
+
+	/**
+	 * Returns the pool of archives shared by the baseline the given element
+	 * belongs to, or <code>null</code> if the element is not part of an
+	 * {@link ApiBaseline}.
+	 *
+	 * @param element the element reading archives
+	 * @return the shared {@link ArchiveFilePool} or <code>null</code>
+	 */
+	static ArchiveFilePool getPool(IApiElement element) {
+		IApiElement baseline = element.getAncestor(IApiElement.BASELINE);
+		if (baseline instanceof ApiBaseline) {
+			return ((ApiBaseline) baseline).getArchivePool();
+		}
+		return null;
+	}
+
+	/**
+	 * Opens the archive at the given location for the given element, from the
+	 * pool of its baseline if it has one. The returned archive must be handed
+	 * back with {@link #release(IApiElement, ZipFile)}.
+	 *
+	 * @param element the element reading the archive
+	 * @param location the location of the archive in the local file system
+	 * @return the open archive
+	 * @throws CoreException if the archive cannot be opened
+	 */
+	static ZipFile acquire(IApiElement element, String location) throws CoreException {
+		ArchiveFilePool pool = getPool(element);
+		try {
+			if (pool != null) {
+				return pool.acquire(location);
+			}
+			return new ZipFile(location);
+		} catch (IOException e) {
+			throw new CoreException(new Status(IStatus.ERROR, ApiPlugin.PLUGIN_ID, "Failed to open archive: " + location, e)); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Hands back an archive returned from
+	 * {@link #acquire(IApiElement, String)}
+	 *
+	 * @param element the element that read the archive
+	 * @param zipFile the archive to release
+	 * @throws CoreException if the archive cannot be closed
+	 */
+	static void release(IApiElement element, ZipFile zipFile) throws CoreException {
+		ArchiveFilePool pool = getPool(element);
+		if (pool != null) {
+			pool.release(zipFile);
+			return;
+		}
+		try {
+			zipFile.close();
+		} catch (IOException e) {
+			throw new CoreException(new Status(IStatus.ERROR, ApiPlugin.PLUGIN_ID, "Failed to close class file archive", e)); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Returns an open {@link ZipFile} for the archive at the given location,
+	 * opening it if required. Callers must hand the archive back with
+	 * {@link #release(ZipFile)} and must not close it themselves.
+	 *
+	 * @param location the location of the archive in the local file system
+	 * @return the open archive, never <code>null</code>
+	 * @throws IOException if the archive cannot be opened
+	 */
+	public synchronized ZipFile acquire(String location) throws IOException {
+		Handle handle = fHandles.get(location);
+		if (handle == null) {
+			fMisses++;
+			handle = new Handle(new ZipFile(location));
+			fHandles.put(location, handle);
+			fLocations.put(handle.fZipFile, location);
+		} else {
+			fHits++;
+			handle.fDiscard = false;
+		}
+		handle.fReferences++;
+		trim();
+		return handle.fZipFile;
+	}
+
+	/**
+	 * Hands back an archive previously returned from {@link #acquire(String)}.
+	 * Archives that are no longer in use are closed if the pool is over its
+	 * limit or if the pool was closed while they were in use.
+	 *
+	 * @param zipFile the archive to release
+	 */
+	public synchronized void release(ZipFile zipFile) {
+		String location = fLocations.get(zipFile);
+		Handle handle = location == null ? null : fHandles.get(location);
+		if (handle == null || handle.fZipFile != zipFile) {
+			// not managed by this pool (anymore)
+			closeArchive(zipFile);
+			return;
+		}
+		if (handle.fReferences > 0) {
+			handle.fReferences--;
+		}
+		if (handle.fReferences == 0 && handle.fDiscard) {
+			fHandles.remove(location);
+			closeArchive(zipFile);
+			return;
+		}
+		trim();
+	}
+
+	/**
+	 * Closes the archive at the given location if it is open. If the archive is
+	 * in use it is closed when it is released for the last time.
+	 *
+	 * @param location the location of the archive in the local file system
+	 */
+	public synchronized void close(String location) {
+		Handle handle = fHandles.get(location);
+		if (handle != null) {
+			if (handle.fReferences == 0) {
+				fHandles.remove(location);
+				closeArchive(handle.fZipFile);
+			} else {
+				handle.fDiscard = true;
+			}
+		}
+	}
+
+	/**
+	 * Closes all of the open archives. Archives that are in use are closed when
+	 * they are released for the last time. The pool can still be used after it
+	 * has been closed.
+	 */
+	public synchronized void close() {
+		List<ZipFile> toClose = new ArrayList<>();
+		for (Iterator<Handle> iter = fHandles.values().iterator(); iter.hasNext();) {
+			Handle handle = iter.next();
+			if (handle.fReferences == 0) {
+				iter.remove();
+				toClose.add(handle.fZipFile);
+			} else {
+				handle.fDiscard = true;
+			}
+		}
+		for (ZipFile zipFile : toClose) {
+			closeArchive(zipFile);
+		}
+	}
+
+	/**
+	 * Closes least recently used archives that are not in use until the pool
+	 * is back within its limit
+	 */
+	private void trim() {
+		if (fHandles.size() <= fMaxOpen) {
+			return;
+		}
+		for (Iterator<Handle> iter = fHandles.values().iterator(); iter.hasNext() && fHandles.size() > fMaxOpen;) {
+			Handle handle = iter.next();
+			if (handle.fReferences == 0) {
+				iter.remove();
+				fEvictions++;
+				closeArchive(handle.fZipFile);
+			}
+		}
+	}
+
+	/**
+	 * Closes the given archive, logging any failure
+	 *
+	 * @param zipFile
+	 */
+	private void closeArchive(ZipFile zipFile) {
+		fLocations.remove(zipFile);
+		try {
+			zipFile.close();
+		} catch (IOException e) {
+			ApiPlugin.log(e);
+		}
+	}
+
+	/**
+	 * @return the maximum number of idle archives this pool keeps open
+	 */
+	public int getMaxOpen() {
+		return fMaxOpen;
+	}
+
+	/**
+	 * @return the number of archives currently open
+	 */
+	public synchronized int getOpenCount() {
+		return fHandles.size();
+	}
+
+	/**
+	 * @return the number of requests served by an already open archive
+	 */
+	public synchronized long getHitCount() {
+		return fHits;
+	}
+
+	/**
+	 * @return the number of requests that had to open the archive
+	 */
+	public synchronized long getMissCount() {
+		return fMisses;
+	}
+
+	/**
+	 * @return the number of archives closed to stay within the pool limit
+	 */
+	public synchronized long getEvictionCount() {
+		return fEvictions;
+	}
+
+	@Override
+	public synchronized String toString() {
+		StringBuffer buffer = new StringBuffer();
+		buffer.append("Archive pool: open=").append(fHandles.size()); //$NON-NLS-1$
+		buffer.append(" max=").append(fMaxOpen); //$NON-NLS-1$
+		buffer.append(" hits=").append(fHits); //$NON-NLS-1$
+		buffer.append(" misses=").append(fMisses); //$NON-NLS-1$
+		buffer.append(" evictions=").append(fEvictions); //$NON-NLS-1$
+		return buffer.toString();
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2013 IBM Corporation and others.
+ * Copyright (c) 2007, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -13,14 +13,12 @@ package org.eclipse.pde.api.tools.internal.model;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.StringReader;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.ArrayList;
-import java.util.Enumeration;
 import java.util.HashSet;
 import java.util.Hashtable;
 import java.util.Iterator;
@@ -69,7 +67,6 @@ import org.eclipse.pde.api.tools.internal.provisional.model.IApiBaseline;
 import org.eclipse.pde.api.tools.internal.provisional.model.IApiComponent;
 import org.eclipse.pde.api.tools.internal.provisional.model.IApiElement;
 import org.eclipse.pde.api.tools.internal.provisional.model.IApiTypeContainer;
-import org.eclipse.pde.api.tools.internal.util.FileManager;
 import org.eclipse.pde.api.tools.internal.util.SourceDefaultHandler;
 import org.eclipse.pde.api.tools.internal.util.Util;
 import org.eclipse.pde.internal.core.TargetWeaver;
@@ -87,14 +84,25 @@ import org.xml.sax.SAXException;
  */
 public class BundleComponent extends Component {
 
-	static final String TMP_API_FILE_PREFIX = "api"; //$NON-NLS-1$
-	static final String TMP_API_FILE_POSTFIX = "tmp"; //$NON-NLS-1$
-
 	/**
 	 * Dictionary parsed from MANIFEST.MF
 	 */
 	private Map<String, String> fManifest;
 
+	/**
+	 * Whether {@link #fManifest} has been reduced to the
+	 * {@link #MANIFEST_HEADERS}
+	 */
+	private boolean fManifestCompacted = false;
+
+	/**
+	 * The complete manifest kept after compaction for the binary snapshot of
+	 * the owning baseline or <code>null</code>
+	 *
+	 * @see ApiBaseline#setRetainManifests(boolean)
+	 */
+	private Map<String, String> fFullManifest = null;
+
 	/**
 	 * Manifest headers that are maintained after {@link BundleDescription}
 	 * creation. Only these headers are maintained in the manifest dictionary to
@@ -170,6 +178,23 @@ public class BundleComponent extends Component {
 				&& !new File(location).isFile();
 	}
 
+	/**
+	 * Constructs a new API component from the specified location in the file
+	 * system in the given baseline, using an already parsed manifest rather
+	 * than reading it from the location.
+	 *
+	 * @param baseline owning API baseline
+	 * @param location directory or jar file
+	 * @param bundleid
+	 * @param manifest the parsed manifest headers of the bundle
+	 * @exception CoreException if unable to create a component from the
+	 *                specified location
+	 */
+	public BundleComponent(IApiBaseline baseline, String location, long bundleid, Map<String, String> manifest) throws CoreException {
+		this(baseline, location, bundleid);
+		fManifest = manifest;
+	}
+
 	@Override
 	public void dispose() {
 		try {
@@ -177,6 +202,7 @@ public class BundleComponent extends Component {
 		} finally {
 			synchronized (this) {
 				fManifest = null;
+				fFullManifest = null;
 				fBundleDescription = null;
 			}
 		}
@@ -224,6 +250,11 @@ public class BundleComponent extends Component {
 	 */
 	protected synchronized void doManifestCompaction() {
 		Map<String, String> temp = fManifest;
+		IApiBaseline baseline = getBaseline();
+		if (baseline instanceof ApiBaseline && ((ApiBaseline) baseline).isRetainingManifests()) {
+			fFullManifest = temp;
+		}
+		fManifestCompacted = true;
 		fManifest = new Hashtable<>(MANIFEST_HEADERS.length, 1);
 		for (String header : MANIFEST_HEADERS) {
 			String value = temp.get(header);
@@ -233,6 +264,29 @@ public class BundleComponent extends Component {
 		}
 	}
 
+	/**
+	 * Returns the complete manifest of this component if it is still held in
+	 * memory, without reading it from the bundle again.
+	 *
+	 * @return the complete manifest or <code>null</code> if only the compacted
+	 *         manifest is available
+	 * @see ApiBaseline#setRetainManifests(boolean)
+	 */
+	public synchronized Map<String, String> getFullManifest() {
+		if (fFullManifest != null) {
+			return fFullManifest;
+		}
+		return fManifestCompacted ? null : fManifest;
+	}
+
+	/**
+	 * Drops the complete manifest kept for the binary snapshot of the owning
+	 * baseline
+	 */
+	public synchronized void releaseFullManifest() {
+		fFullManifest = null;
+	}
+
 	/**
 	 * Returns if the bundle at the specified location is a valid bundle or not.
 	 * Validity is determined via the existence of a readable manifest file
@@ -671,49 +725,22 @@ public class BundleComponent extends Component {
 				}
 			} else {
 				// bundle is jar'd
-				ZipFile zip = null;
+				if (path.equals(".")) { //$NON-NLS-1$
+					return new ArchiveApiTypeContainer(this, fLocation);
+				}
+				// classpath element can be jar or folder
+				// https://bugs.eclipse.org/bugs/show_bug.cgi?id=279729
+				// read it from the bundle archive rather than extracting it
+				ZipFile zip = new ZipFile(fLocation);
 				try {
-					if (path.equals(".")) { //$NON-NLS-1$
-						return new ArchiveApiTypeContainer(this, fLocation);
-					} else {
-						// classpath element can be jar or folder
-						// https://bugs.eclipse.org/bugs/show_bug.cgi?id=279729
-						zip = new ZipFile(fLocation);
-						ZipEntry entry = zip.getEntry(path);
-						if (entry != null) {
-							File tmpfolder = new File(System.getProperty("java.io.tmpdir")); //$NON-NLS-1$
-							if (entry.isDirectory()) {
-								// extract the dir and all children
-								File dir = Util.createTempFile(TMP_API_FILE_PREFIX, TMP_API_FILE_POSTFIX);
-								// hack to create a temp directory
-								// see
-								// http://bugs.sun.com/bugdatabase/view_bug.do?bug_id=4735419
-								if (dir.delete()) {
-									dir.mkdir();
-									FileManager.getManager().recordTempFileRoot(dir.getCanonicalPath());
-								}
-								extractDirectory(zip, entry.getName(), dir);
-								if (dir.isDirectory() && dir.exists()) {
-									return new DirectoryApiTypeContainer(this, dir.getCanonicalPath());
-								}
-							} else {
-								File file = extractEntry(zip, entry, tmpfolder);
-								if (Util.isArchive(file.getName())) {
-									File parent = file.getParentFile();
-									if (!parent.equals(tmpfolder)) {
-										FileManager.getManager().recordTempFileRoot(parent.getCanonicalPath());
-									} else {
-										FileManager.getManager().recordTempFileRoot(file.getCanonicalPath());
-									}
-									return new ArchiveApiTypeContainer(this, file.getCanonicalPath());
-								}
-							}
+					ZipEntry entry = zip.getEntry(path);
+					if (entry != null) {
+						if (entry.isDirectory() || Util.isArchive(entry.getName())) {
+							return new NestedArchiveApiTypeContainer(this, fLocation, entry.getName());
 						}
 					}
 				} finally {
-					if (zip != null) {
-						zip.close();
-					}
+					zip.close();
 				}
 			}
 		} catch (IOException e) {
@@ -722,84 +749,6 @@ public class BundleComponent extends Component {
 		return null;
 	}
 
-	/**
-	 * Extracts a directory from the archive given a path prefix for entries to
-	 * retrieve. <code>null</code> can be passed in as a prefix, causing all
-	 * entries to be be extracted from the archive.
-	 *
-	 * @param zip the {@link ZipFile} to extract from
-	 * @param pathprefix the prefix'ing path to include for extraction
-	 * @param parent the parent directory to extract to
-	 * @throws IOException if the {@link ZipFile} cannot be read or extraction
-	 *             fails to write the file(s)
-	 */
-	void extractDirectory(ZipFile zip, String pathprefix, File parent) throws IOException {
-		Enumeration<? extends ZipEntry> entries = zip.entries();
-		String prefix = (pathprefix == null ? Util.EMPTY_STRING : pathprefix);
-		ZipEntry entry = null;
-		File file = null;
-		while (entries.hasMoreElements()) {
-			entry = entries.nextElement();
-			if (entry.getName().startsWith(prefix)) {
-				file = new File(parent, entry.getName());
-				if (entry.isDirectory()) {
-					file.mkdir();
-					continue;
-				}
-				extractEntry(zip, entry, parent);
-			}
-		}
-	}
-
-	/**
-	 * Extracts a non-directory entry from a zip file and returns the File
-	 * handle
-	 *
-	 * @param zip the zip to extract from
-	 * @param entry the entry to extract
-	 * @param parent the parent directory to add the extracted entry to
-	 * @return the file handle to the extracted entry, <code>null</code>
-	 *         otherwise
-	 * @throws IOException
-	 */
-	File extractEntry(ZipFile zip, ZipEntry entry, File parent) throws IOException {
-		InputStream inputStream = null;
-		File file;
-		FileOutputStream outputStream = null;
-		try {
-			inputStream = zip.getInputStream(entry);
-			file = new File(parent, entry.getName());
-			File lparent = file.getParentFile();
-			if (!lparent.exists()) {
-				lparent.mkdirs();
-			}
-			outputStream = new FileOutputStream(file);
-			byte[] bytes = new byte[8096];
-			while (inputStream.available() > 0) {
-				int read = inputStream.read(bytes);
-				if (read > 0) {
-					outputStream.write(bytes, 0, read);
-				}
-			}
-		} finally {
-			if (inputStream != null) {
-				try {
-					inputStream.close();
-				} catch (IOException e) {
-					ApiPlugin.log(e);
-				}
-			}
-			if (outputStream != null) {
-				try {
-					outputStream.close();
-				} catch (IOException e) {
-					ApiPlugin.log(e);
-				}
-			}
-		}
-		return file;
-	}
-
 	public void closingZipFileAndStream(InputStream stream, ZipFile jarFile) {
 		try {
 			if (stream != null) {
@@ -0,0 +1,563 @@
+/*******************************************************************************
+ * Copyright (c) 2017 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.api.tools.internal.model;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.pde.api.tools.internal.provisional.ApiPlugin;
+import org.eclipse.pde.api.tools.internal.provisional.model.ApiTypeContainerVisitor;
+import org.eclipse.pde.api.tools.internal.provisional.model.IApiElement;
+import org.eclipse.pde.api.tools.internal.provisional.model.IApiTypeContainer;
+import org.eclipse.pde.api.tools.internal.provisional.model.IApiTypeRoot;
+import org.eclipse.pde.api.tools.internal.util.Util;
+
+/**
+ * {@link IApiTypeContainer} for a <code>Bundle-ClassPath</code> entry of an
+ * archived bundle: either a jar nested in the bundle archive or a directory of
+ * the bundle archive. Class files are read directly from the bundle archive,
+ * nothing is extracted to disk.
+ * <p>
+ * A nested jar is loaded into memory and its central directory is parsed to
+ * locate class files. The loaded jar is released when the container is closed
+ * and loaded again on the next access.
+ * </p>
+ *
+ * @since 1.1
+ */
+public class NestedArchiveApiTypeContainer extends ApiElement implements IApiTypeContainer {
+
+	/**
+	 * {@link IApiTypeRoot} implementation within a nested archive or directory
+	 */
+	static class NestedApiTypeRoot extends AbstractApiTypeRoot implements Comparable<Object> {
+
+		private String fTypeName;
+
+		/**
+		 * Constructs a new handle to an {@link IApiTypeRoot} in the container.
+		 *
+		 * @param container the nested container
+		 * @param entryName entry name relative to the container
+		 */
+		public NestedApiTypeRoot(NestedArchiveApiTypeContainer container, String entryName) {
+			super(container, entryName);
+		}
+
+		@Override
+		public String getTypeName() {
+			if (fTypeName == null) {
+				fTypeName = getName().replace('/', '.').substring(0, getName().length() - Util.DOT_CLASS_SUFFIX.length());
+			}
+			return fTypeName;
+		}
+
+		@Override
+		public int compareTo(Object o) {
+			return getTypeName().compareTo(((NestedApiTypeRoot) o).getTypeName());
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (obj instanceof NestedApiTypeRoot) {
+				NestedApiTypeRoot classFile = (NestedApiTypeRoot) obj;
+				return this.getName().equals(classFile.getName()) && getParent().equals(classFile.getParent());
+			}
+			return false;
+		}
+
+		@Override
+		public int hashCode() {
+			return getName().hashCode();
+		}
+
+		@Override
+		public byte[] getContents() throws CoreException {
+			NestedArchiveApiTypeContainer container = (NestedArchiveApiTypeContainer) getParent();
+			byte[] contents = container.read(getName());
+			if (contents == null) {
+				abort("Class file not found: " + getTypeName() + " in archive: " + container.getName(), null); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+			return contents;
+		}
+
+		@Override
+		public String toString() {
+			return getTypeName();
+		}
+	}
+
+	/**
+	 * A zip archive held in memory, indexed by its central directory
+	 */
+	static class InMemoryArchive {
+
+		private static final int END_SIGNATURE = 0x06054b50;
+		private static final int CENTRAL_SIGNATURE = 0x02014b50;
+		private static final int END_SIZE = 22;
+
+		private final byte[] fBytes;
+
+		/**
+		 * Entry locations by name: local header offset, compression method,
+		 * compressed size and size
+		 */
+		private final Map<String, long[]> fEntries = new HashMap<>();
+
+		/**
+		 * Entry contents by name when the archive could only be read as a
+		 * stream
+		 */
+		private Map<String, byte[]> fContents;
+
+		/**
+		 * Constructor
+		 *
+		 * @param bytes the bytes of the zip archive
+		 * @throws IOException if the archive cannot be read
+		 */
+		InMemoryArchive(byte[] bytes) throws IOException {
+			fBytes = bytes;
+			try {
+				readCentralDirectory();
+			} catch (IOException | IndexOutOfBoundsException e) {
+				// e.g. zip64 archives: read all entries as a stream
+				fEntries.clear();
+				readEntries();
+			}
+		}
+
+		/**
+		 * Indexes the entries of the archive from its central directory
+		 *
+		 * @throws IOException
+		 */
+		private void readCentralDirectory() throws IOException {
+			ByteBuffer buffer = ByteBuffer.wrap(fBytes).order(ByteOrder.LITTLE_ENDIAN);
+			int end = -1;
+			for (int i = fBytes.length - END_SIZE; i >= 0 && i >= fBytes.length - END_SIZE - 0xFFFF; i--) {
+				if (buffer.getInt(i) == END_SIGNATURE) {
+					end = i;
+					break;
+				}
+			}
+			if (end < 0) {
+				throw new IOException("No end of central directory"); //$NON-NLS-1$
+			}
+			int count = buffer.getShort(end + 10) & 0xFFFF;
+			long offset = buffer.getInt(end + 16) & 0xFFFFFFFFL;
+			if (count == 0xFFFF || offset == 0xFFFFFFFFL) {
+				throw new IOException("Unsupported zip64 archive"); //$NON-NLS-1$
+			}
+			int position = (int) offset;
+			for (int i = 0; i < count; i++) {
+				if (buffer.getInt(position) != CENTRAL_SIGNATURE) {
+					throw new IOException("Invalid central directory"); //$NON-NLS-1$
+				}
+				int method = buffer.getShort(position + 10) & 0xFFFF;
+				long compressedSize = buffer.getInt(position + 20) & 0xFFFFFFFFL;
+				long size = buffer.getInt(position + 24) & 0xFFFFFFFFL;
+				int nameLength = buffer.getShort(position + 28) & 0xFFFF;
+				int extraLength = buffer.getShort(position + 30) & 0xFFFF;
+				int commentLength = buffer.getShort(position + 32) & 0xFFFF;
+				long localOffset = buffer.getInt(position + 42) & 0xFFFFFFFFL;
+				if (compressedSize == 0xFFFFFFFFL || size == 0xFFFFFFFFL || localOffset == 0xFFFFFFFFL) {
+					throw new IOException("Unsupported zip64 archive"); //$NON-NLS-1$
+				}
+				String name = new String(fBytes, position + 46, nameLength, StandardCharsets.UTF_8);
+				fEntries.put(name, new long[] { localOffset, method, compressedSize, size });
+				position += 46 + nameLength + extraLength + commentLength;
+			}
+		}
+
+		/**
+		 * Reads all entries of the archive as a stream
+		 *
+		 * @throws IOException
+		 */
+		private void readEntries() throws IOException {
+			fContents = new HashMap<>();
+			ZipInputStream stream = new ZipInputStream(new ByteArrayInputStream(fBytes));
+			try {
+				ZipEntry entry = null;
+				while ((entry = stream.getNextEntry()) != null) {
+					if (!entry.isDirectory()) {
+						fContents.put(entry.getName(), Util.getInputStreamAsByteArray(stream, -1));
+					}
+				}
+			} finally {
+				stream.close();
+			}
+		}
+
+		/**
+		 * @return the names of all entries of the archive
+		 */
+		Set<String> getEntryNames() {
+			return fContents != null ? fContents.keySet() : fEntries.keySet();
+		}
+
+		/**
+		 * Returns the contents of the entry with the given name
+		 *
+		 * @param name
+		 * @return the contents or <code>null</code> if there is no such entry
+		 * @throws IOException if the entry cannot be read
+		 */
+		byte[] read(String name) throws IOException {
+			if (fContents != null) {
+				return fContents.get(name);
+			}
+			long[] entry = fEntries.get(name);
+			if (entry == null) {
+				return null;
+			}
+			ByteBuffer buffer = ByteBuffer.wrap(fBytes).order(ByteOrder.LITTLE_ENDIAN);
+			int local = (int) entry[0];
+			int data = local + 30 + (buffer.getShort(local + 26) & 0xFFFF) + (buffer.getShort(local + 28) & 0xFFFF);
+			int compressedSize = (int) entry[2];
+			byte[] contents = new byte[(int) entry[3]];
+			switch ((int) entry[1]) {
+				case ZipEntry.STORED:
+					System.arraycopy(fBytes, data, contents, 0, contents.length);
+					return contents;
+				case ZipEntry.DEFLATED:
+					Inflater inflater = new Inflater(true);
+					try {
+						inflater.setInput(fBytes, data, compressedSize);
+						int read = 0;
+						while (read < contents.length && !inflater.finished()) {
+							int count = inflater.inflate(contents, read, contents.length - read);
+							if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+								break;
+							}
+							read += count;
+						}
+						if (read != contents.length) {
+							throw new IOException("Truncated entry: " + name); //$NON-NLS-1$
+						}
+						return contents;
+					} catch (DataFormatException e) {
+						throw new IOException("Invalid entry: " + name, e); //$NON-NLS-1$
+					} finally {
+						inflater.end();
+					}
+				default:
+					throw new IOException("Unsupported compression method for entry: " + name); //$NON-NLS-1$
+			}
+		}
+	}
+
+	/**
+	 * Location of the bundle archive in the local file system
+	 */
+	private final String fLocation;
+
+	/**
+	 * Path of the nested jar or directory in the bundle archive, directories
+	 * end with a '/'
+	 */
+	private final String fPath;
+
+	/**
+	 * The nested jar, <code>null</code> if this container is a directory or the
+	 * jar is not loaded
+	 */
+	private InMemoryArchive fArchive;
+
+	/**
+	 * Cache of package names to class file paths in that package, or
+	 * <code>null</code> if not yet initialized.
+	 */
+	private Map<String, Set<String>> fPackages;
+
+	/**
+	 * Cache of package names in this container.
+	 */
+	private String[] fPackageNames;
+
+	/**
+	 * Constructs an {@link IApiTypeContainer} for the given entry of the bundle
+	 * archive at the given location
+	 *
+	 * @param parent the parent {@link IApiElement} or <code>null</code> if none
+	 * @param location location of the bundle archive in the local file system
+	 * @param path path of the nested jar or directory in the archive,
+	 *            directories end with a '/'
+	 */
+	public NestedArchiveApiTypeContainer(IApiElement parent, String location, String path) {
+		super(parent, IApiElement.API_TYPE_CONTAINER, location + '!' + '/' + path);
+		this.fLocation = location;
+		this.fPath = path;
+	}
+
+	/**
+	 * @return if this container is a directory of the bundle archive
+	 */
+	private boolean isDirectory() {
+		return fPath.endsWith("/"); //$NON-NLS-1$
+	}
+
+	@Override
+	public void accept(ApiTypeContainerVisitor visitor) throws CoreException {
+		if (visitor.visit(this)) {
+			init();
+			List<String> packages = new ArrayList<>(fPackages.keySet());
+			Collections.sort(packages);
+			for (String pkg : packages) {
+				if (visitor.visitPackage(pkg)) {
+					List<String> types = new ArrayList<>(fPackages.get(pkg));
+					List<NestedApiTypeRoot> classFiles = new ArrayList<>(types.size());
+					for (String entryName : types) {
+						classFiles.add(new NestedApiTypeRoot(this, entryName));
+					}
+					Collections.sort(classFiles);
+					for (NestedApiTypeRoot classfile : classFiles) {
+						visitor.visit(pkg, classfile);
+						visitor.end(pkg, classfile);
+					}
+				}
+				visitor.endVisitPackage(pkg);
+			}
+		}
+		visitor.end(this);
+	}
+
+	@Override
+	public String toString() {
+		return "Nested Class File Container: " + getName(); //$NON-NLS-1$
+	}
+
+	/**
+	 * Releases the in-memory copy of a nested jar
+	 */
+	@Override
+	public synchronized void close() throws CoreException {
+		fArchive = null;
+	}
+
+	@Override
+	public IApiTypeRoot findTypeRoot(String qualifiedName) throws CoreException {
+		init();
+		int index = qualifiedName.lastIndexOf('.');
+		String packageName = Util.DEFAULT_PACKAGE_NAME;
+		if (index >= 0) {
+			packageName = qualifiedName.substring(0, index);
+		}
+		Set<String> classFileNames = fPackages.get(packageName);
+		if (classFileNames != null) {
+			String fileName = qualifiedName.replace('.', '/') + Util.DOT_CLASS_SUFFIX;
+			if (classFileNames.contains(fileName)) {
+				return new NestedApiTypeRoot(this, fileName);
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public IApiTypeRoot findTypeRoot(String qualifiedName, String id) throws CoreException {
+		return findTypeRoot(qualifiedName);
+	}
+
+	@Override
+	public String[] getPackageNames() throws CoreException {
+		init();
+		synchronized (this) {
+			if (fPackageNames == null) {
+				Set<String> names = fPackages.keySet();
+				String[] result = new String[names.size()];
+				names.toArray(result);
+				Arrays.sort(result);
+				fPackageNames = result;
+			}
+			return fPackageNames;
+		}
+	}
+
+	@Override
+	public int getContainerType() {
+		return ARCHIVE;
+	}
+
+	/**
+	 * Initializes cache of packages and types.
+	 *
+	 * @throws CoreException
+	 */
+	private synchronized void init() throws CoreException {
+		if (fPackages == null) {
+			Map<String, Set<String>> packages = new HashMap<>();
+			if (isDirectory()) {
+				ZipFile zipFile = open();
+				try {
+					Enumeration<? extends ZipEntry> entries = zipFile.entries();
+					while (entries.hasMoreElements()) {
+						String name = entries.nextElement().getName();
+						if (name.startsWith(fPath)) {
+							addClassFile(packages, name.substring(fPath.length()));
+						}
+					}
+				} finally {
+					release(zipFile);
+				}
+			} else {
+				for (String name : getArchive().getEntryNames()) {
+					addClassFile(packages, name);
+				}
+			}
+			fPackages = packages;
+		}
+	}
+
+	/**
+	 * Records the given entry in the package cache if it is a class file
+	 *
+	 * @param packages the package cache
+	 * @param name the entry name relative to this container
+	 */
+	private void addClassFile(Map<String, Set<String>> packages, String name) {
+		if (name.endsWith(Util.DOT_CLASS_SUFFIX)) {
+			String pkg = Util.DEFAULT_PACKAGE_NAME;
+			int index = name.lastIndexOf('/');
+			if (index >= 0) {
+				pkg = name.substring(0, index).replace('/', '.');
+			}
+			Set<String> fileNames = packages.get(pkg);
+			if (fileNames == null) {
+				fileNames = new HashSet<>();
+				packages.put(pkg, fileNames);
+			}
+			fileNames.add(name);
+		}
+	}
+
+	/**
+	 * Returns the nested jar, loading it from the bundle archive if needed
+	 *
+	 * @return the nested jar
+	 * @throws CoreException if the jar cannot be read
+	 */
+	private synchronized InMemoryArchive getArchive() throws CoreException {
+		if (fArchive == null) {
+			ZipFile zipFile = open();
+			try {
+				ZipEntry entry = zipFile.getEntry(fPath);
+				if (entry == null) {
+					abort("Nested archive not found: " + getName(), null); //$NON-NLS-1$
+				}
+				InputStream stream = zipFile.getInputStream(entry);
+				try {
+					fArchive = new InMemoryArchive(Util.getInputStreamAsByteArray(stream, (int) entry.getSize()));
+				} finally {
+					stream.close();
+				}
+			} catch (IOException e) {
+				abort("Failed to read nested archive: " + getName(), e); //$NON-NLS-1$
+			} finally {
+				release(zipFile);
+			}
+		}
+		return fArchive;
+	}
+
+	/**
+	 * Returns the contents of the entry with the given name
+	 *
+	 * @param name entry name relative to this container
+	 * @return the contents or <code>null</code> if there is no such entry
+	 * @throws CoreException if the entry cannot be read
+	 */
+	byte[] read(String name) throws CoreException {
+		if (isDirectory()) {
+			ZipFile zipFile = open();
+			try {
+				ZipEntry entry = zipFile.getEntry(fPath + name);
+				if (entry == null) {
+					return null;
+				}
+				InputStream stream = zipFile.getInputStream(entry);
+				try {
+					return Util.getInputStreamAsByteArray(stream, -1);
+				} finally {
+					try {
+						stream.close();
+					} catch (IOException e) {
+						ApiPlugin.log(e);
+					}
+				}
+			} catch (IOException e) {
+				abort("Unable to read class file: " + name + " in archive: " + getName(), e); //$NON-NLS-1$ //$NON-NLS-2$
+				return null;
+			} finally {
+				release(zipFile);
+			}
+		}
+		try {
+			return getArchive().read(name);
+		} catch (IOException e) {
+			abort("Unable to read class file: " + name + " in archive: " + getName(), e); //$NON-NLS-1$ //$NON-NLS-2$
+			return null;
+		}
+	}
+
+	/**
+	 * Opens the bundle archive. The returned archive must be handed back with
+	 * {@link #release(ZipFile)}.
+	 *
+	 * @return the open archive
+	 * @throws CoreException if the archive cannot be opened
+	 */
+	private ZipFile open() throws CoreException {
+		return ArchiveFilePool.acquire(this, fLocation);
+	}
+
+	/**
+	 * Hands back an archive returned from {@link #open()}
+	 *
+	 * @param zipFile the archive to release
+	 * @throws CoreException if the archive cannot be closed
+	 */
+	private void release(ZipFile zipFile) throws CoreException {
+		ArchiveFilePool.release(this, zipFile);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (obj instanceof NestedArchiveApiTypeContainer) {
+			return getName().equals(((NestedArchiveApiTypeContainer) obj).getName());
+		}
+		return false;
+	}
+
+	@Override
+	public int hashCode() {
+		return getName().hashCode();
+	}
+}
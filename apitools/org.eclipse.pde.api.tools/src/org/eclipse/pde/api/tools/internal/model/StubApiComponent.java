@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2013 IBM Corporation and others.
+ * Copyright (c) 2009, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -43,7 +43,16 @@ public class StubApiComponent extends SystemLibraryApiComponent {
 	private static final String STUB_PATH = "/org/eclipse/pde/api/tools/internal/api_stubs/"; //$NON-NLS-1$
 	private static Map<String, IApiComponent> AllSystemLibraryApiComponents;
 
-	public static IApiComponent getStubApiComponent(int eeValue) {
+	/**
+	 * Returns the shared component of the given execution environment,
+	 * creating it on first use. May be called by several analysis threads at
+	 * once.
+	 *
+	 * @param eeValue the execution environment
+	 * @return the component or <code>null</code> if no stub is installed for
+	 *         the execution environment
+	 */
+	public static synchronized IApiComponent getStubApiComponent(int eeValue) {
 		if (AllSystemLibraryApiComponents == null) {
 			AllSystemLibraryApiComponents = new HashMap<>();
 		}
@@ -184,7 +193,7 @@ public class StubApiComponent extends SystemLibraryApiComponent {
 		return false;
 	}
 
-	public static void disposeAllCaches() {
+	public static synchronized void disposeAllCaches() {
 		if (AllSystemLibraryApiComponents != null) {
 			for (IApiComponent apiComponent : AllSystemLibraryApiComponents.values()) {
 				apiComponent.dispose();
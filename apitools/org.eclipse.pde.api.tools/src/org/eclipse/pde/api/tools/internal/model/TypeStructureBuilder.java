@@ -30,6 +30,7 @@ import org.eclipse.pde.api.tools.internal.provisional.model.IApiTypeRoot;
 import org.objectweb.asm.AnnotationVisitor;
 import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.ClassWriter;
 import org.objectweb.asm.FieldVisitor;
 import org.objectweb.asm.Label;
 import org.objectweb.asm.MethodVisitor;
@@ -268,6 +269,32 @@ public class TypeStructureBuilder extends ClassVisitor {
 		return visitor.fType;
 	}
 
+	/**
+	 * Returns a compact form of the given .class file bytes holding only what
+	 * {@link #buildTypeStructure(byte[], IApiComponent, IApiTypeRoot)} reads:
+	 * method bodies, frames and debug attributes are dropped. The result can be
+	 * passed back to
+	 * {@link #buildTypeStructure(byte[], IApiComponent, IApiTypeRoot)} but is
+	 * not a valid class file.
+	 *
+	 * @param bytes class file bytes
+	 * @return the compact type structure or <code>null</code> if the bytes
+	 *         cannot be read
+	 */
+	public static byte[] compactTypeStructure(byte[] bytes) {
+		try {
+			ClassReader classReader = new ClassReader(bytes);
+			ClassWriter classWriter = new ClassWriter(0);
+			classReader.accept(classWriter, ClassReader.SKIP_CODE | ClassReader.SKIP_FRAMES | ClassReader.SKIP_DEBUG);
+			return classWriter.toByteArray();
+		} catch (ArrayIndexOutOfBoundsException e) {
+			return null;
+		} catch (IllegalArgumentException iae) {
+			// thrown from ASM 5.0 for bad bytecodes
+			return null;
+		}
+	}
+
 	/**
 	 * Builds a type structure with the given .class file bytes in the specified
 	 * API component.
@@ -0,0 +1,189 @@
+/*******************************************************************************
+ * Copyright (c) 2017 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.api.tools.internal.model;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map.Entry;
+
+/**
+ * Second level cache of type structures kept in their compact serialized form:
+ * the class file reduced to what {@link TypeStructureBuilder} reads, without
+ * method bodies or debug attributes. Type structures evicted from the
+ * {@link ApiModelCache} can be rebuilt from this cache without reading the
+ * class file again.
+ * <p>
+ * The cache is bounded by the number of bytes it holds. The default limit of
+ * {@link #DEFAULT_MAX_BYTES} can be changed with the
+ * {@link #MAX_BYTES_PROPERTY} system property.
+ * </p>
+ *
+ * @since 1.1
+ */
+public final class TypeStructureCache {
+
+	/**
+	 * System property used to override the maximum number of bytes held by the
+	 * cache
+	 */
+	public static final String MAX_BYTES_PROPERTY = "org.eclipse.pde.api.tools.typeStructureCacheSize"; //$NON-NLS-1$
+
+	/**
+	 * Default maximum number of bytes held by the cache
+	 */
+	public static final long DEFAULT_MAX_BYTES = 32L * 1024 * 1024;
+
+	/**
+	 * Compact structures by cache key, in least recently used order
+	 */
+	private final LinkedHashMap<String, byte[]> fStructures = new LinkedHashMap<>(256, 0.75f, true);
+
+	private final long fMaxBytes;
+	private long fBytes = 0;
+	private long fHits = 0;
+	private long fMisses = 0;
+	private long fEvictions = 0;
+
+	/**
+	 * Constructs a cache whose size is read from the {@link #MAX_BYTES_PROPERTY}
+	 * system property, falling back to {@link #DEFAULT_MAX_BYTES}
+	 */
+	public TypeStructureCache() {
+		this(Long.getLong(MAX_BYTES_PROPERTY, DEFAULT_MAX_BYTES).longValue());
+	}
+
+	/**
+	 * Constructs a cache holding at most the given number of bytes
+	 *
+	 * @param maxBytes the maximum number of bytes
+	 */
+	public TypeStructureCache(long maxBytes) {
+		fMaxBytes = maxBytes;
+	}
+
+	/**
+	 * Returns the compact structure cached for the given key or
+	 * <code>null</code> if none
+	 *
+	 * @param key the cache key
+	 * @return the compact structure or <code>null</code>
+	 */
+	public synchronized byte[] get(String key) {
+		byte[] bytes = fStructures.get(key);
+		if (bytes == null) {
+			fMisses++;
+		} else {
+			fHits++;
+		}
+		return bytes;
+	}
+
+	/**
+	 * Caches the compact structure for the given key, evicting least recently
+	 * used structures if the cache grows over its limit. Structures larger
+	 * than the limit are not cached.
+	 *
+	 * @param key the cache key
+	 * @param bytes the compact structure
+	 */
+	public synchronized void put(String key, byte[] bytes) {
+		if (bytes == null || bytes.length > fMaxBytes) {
+			return;
+		}
+		byte[] previous = fStructures.put(key, bytes);
+		if (previous != null) {
+			fBytes -= previous.length;
+		}
+		fBytes += bytes.length;
+		for (Iterator<byte[]> iter = fStructures.values().iterator(); fBytes > fMaxBytes && iter.hasNext();) {
+			fBytes -= iter.next().length;
+			iter.remove();
+			fEvictions++;
+		}
+	}
+
+	/**
+	 * Removes the structure cached for the given key
+	 *
+	 * @param key the cache key
+	 */
+	public synchronized void remove(String key) {
+		byte[] bytes = fStructures.remove(key);
+		if (bytes != null) {
+			fBytes -= bytes.length;
+		}
+	}
+
+	/**
+	 * Removes all structures whose key starts with the given prefix
+	 *
+	 * @param prefix the key prefix
+	 */
+	public synchronized void removeAll(String prefix) {
+		for (Iterator<Entry<String, byte[]>> iter = fStructures.entrySet().iterator(); iter.hasNext();) {
+			Entry<String, byte[]> entry = iter.next();
+			if (entry.getKey().startsWith(prefix)) {
+				fBytes -= entry.getValue().length;
+				iter.remove();
+			}
+		}
+	}
+
+	/**
+	 * Removes all cached structures
+	 */
+	public synchronized void flush() {
+		fStructures.clear();
+		fBytes = 0;
+	}
+
+	/**
+	 * @return the number of bytes currently held by the cache
+	 */
+	public synchronized long getSize() {
+		return fBytes;
+	}
+
+	/**
+	 * @return the maximum number of bytes held by the cache
+	 */
+	public long getMaxSize() {
+		return fMaxBytes;
+	}
+
+	/**
+	 * @return if the cache has no entries
+	 */
+	public synchronized boolean isEmpty() {
+		return fStructures.isEmpty();
+	}
+
+	/**
+	 * @return the number of lookups answered from the cache
+	 */
+	public synchronized long getHitCount() {
+		return fHits;
+	}
+
+	/**
+	 * @return the number of lookups not answered from the cache
+	 */
+	public synchronized long getMissCount() {
+		return fMisses;
+	}
+
+	/**
+	 * @return the number of structures evicted to stay within the size limit
+	 */
+	public synchronized long getEvictionCount() {
+		return fEvictions;
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2013 IBM Corporation and others.
+ * Copyright (c) 2007, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -18,6 +18,7 @@ import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.SubMonitor;
 import org.eclipse.jdt.core.Flags;
+import org.eclipse.pde.api.tools.internal.comparator.ApiBaselineComparator;
 import org.eclipse.pde.api.tools.internal.comparator.ClassFileComparator;
 import org.eclipse.pde.api.tools.internal.comparator.Delta;
 import org.eclipse.pde.api.tools.internal.provisional.ApiPlugin;
@@ -55,8 +56,10 @@ public class ApiComparator {
 	 * @param id
 	 * @param apiComponentVersion
 	 * @param apiComponentVersion2
+	 * @return the version change delta or <code>null</code> if neither the
+	 *         major nor the minor version changed
 	 */
-	static IDelta checkBundleVersionChanges(IApiComponent apiComponent2, String id, String apiComponentVersion, String apiComponentVersion2) {
+	public static IDelta checkBundleVersionChanges(IApiComponent apiComponent2, String id, String apiComponentVersion, String apiComponentVersion2) {
 		Version version = null;
 		try {
 			version = new Version(apiComponentVersion);
@@ -100,66 +103,34 @@ public class ApiComparator {
 	 * @throws IllegalArgumentException if one of the two baselines is null
 	 */
 	public static IDelta compare(final IApiBaseline referenceBaseline, final IApiBaseline baseline, final int visibilityModifiers, final boolean force, final IProgressMonitor monitor) {
-		SubMonitor localmonitor = SubMonitor.convert(monitor, 2);
-		try {
-			if (referenceBaseline == null || baseline == null) {
-				throw new IllegalArgumentException("None of the baselines must be null"); //$NON-NLS-1$
-			}
-			IApiComponent[] apiComponents = referenceBaseline.getApiComponents();
-			IApiComponent[] apiComponents2 = baseline.getApiComponents();
-			Set<String> apiComponentsIds = new HashSet<>();
-			final Delta globalDelta = new Delta();
-			SubMonitor apiLoopMonitor = localmonitor.split(1).setWorkRemaining(apiComponents.length);
-			for (IApiComponent apiComponentMainLoop : apiComponents) {
-				apiLoopMonitor.split(1);
-				IApiComponent apiComponent = apiComponentMainLoop;
-				if (!apiComponent.isSystemComponent()) {
-					String id = apiComponent.getSymbolicName();
-					IApiComponent apiComponentBaseline = baseline.getApiComponent(id);
-					IDelta delta = null;
-					if (apiComponentBaseline == null) {
-						// report removal of an API component
-						delta = new Delta(null, IDelta.API_BASELINE_ELEMENT_TYPE, IDelta.REMOVED, IDelta.API_COMPONENT, null, id, id);
-					} else {
-						apiComponentsIds.add(id);
-						String versionString = apiComponent.getVersion();
-						String versionString2 = apiComponentBaseline.getVersion();
-						IDelta bundleVersionChangesDelta = checkBundleVersionChanges(apiComponentBaseline, id, versionString, versionString2);
-						if (bundleVersionChangesDelta != null) {
-							globalDelta.add(bundleVersionChangesDelta);
-						}
-						if (!versionString.equals(versionString2) || force) {
-							long time = System.currentTimeMillis();
-							try {
-								delta = compare(apiComponent, apiComponentBaseline, referenceBaseline, baseline, visibilityModifiers, localmonitor.split(1));
-							} finally {
-								if (ApiPlugin.DEBUG_API_COMPARATOR) {
-									System.out.println("Time spent for " + id + " " + versionString + " : " + (System.currentTimeMillis() - time) + "ms"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
-								}
-							}
-						}
-					}
-					if (delta != null && delta != NO_DELTA) {
-						globalDelta.add(delta);
-					}
-				}
-			}
-			SubMonitor elementLoopMonitor = localmonitor.split(1).setWorkRemaining(apiComponents2.length);
-			for (IApiComponent element : apiComponents2) {
-				elementLoopMonitor.split(1);
-				IApiComponent apiComponent = element;
-				if (!apiComponent.isSystemComponent()) {
-					String id = apiComponent.getSymbolicName();
-					if (!apiComponentsIds.contains(id)) {
-						// addition of an API component
-						globalDelta.add(new Delta(null, IDelta.API_BASELINE_ELEMENT_TYPE, IDelta.ADDED, IDelta.API_COMPONENT, null, id, id));
-					}
-				}
-			}
-			return globalDelta.isEmpty() ? NO_DELTA : globalDelta;
-		} finally {
-			SubMonitor.done(monitor);
-		}
+		return compare(referenceBaseline, baseline, visibilityModifiers, force, 1, monitor);
+	}
+
+	/**
+	 * Returns a delta that corresponds to the difference between the given
+	 * baseline and the reference, comparing up to the given number of API
+	 * components concurrently. The work is split by API component, not by
+	 * package: all of the types of a component are compared by the same
+	 * thread. The returned delta does not depend on the number of threads.
+	 *
+	 * @param referenceBaseline the given API baseline which is used as the
+	 *            reference
+	 * @param baseline the given API baseline to compare with
+	 * @param visibilityModifiers the given visibility that triggers what
+	 *            visibility should be used for the comparison
+	 * @param force a flag to force the comparison of nested API components with
+	 *            the same versions
+	 * @param threads the number of API components to compare concurrently,
+	 *            <code>0</code> means one per available processor
+	 * @param monitor
+	 *
+	 * @return a delta, an empty delta if no difference is found or null if the
+	 *         delta detection failed
+	 * @throws IllegalArgumentException if one of the two baselines is null
+	 * @see ApiBaselineComparator
+	 */
+	public static IDelta compare(final IApiBaseline referenceBaseline, final IApiBaseline baseline, final int visibilityModifiers, final boolean force, final int threads, final IProgressMonitor monitor) {
+		return new ApiBaselineComparator(referenceBaseline, baseline, visibilityModifiers, force, threads).compare(monitor);
 	}
 
 	/**
@@ -541,6 +512,36 @@ public class ApiComparator {
 	 *             visited
 	 */
 	public static IDelta compare(final IApiScope scope, final IApiBaseline baseline, final int visibilityModifiers, final boolean force, final boolean continueOnResolverError, final IProgressMonitor monitor) throws CoreException {
+		return compare(scope, baseline, visibilityModifiers, force, continueOnResolverError, 1, monitor);
+	}
+
+	/**
+	 * Returns a delta that corresponds to the comparison of the given scope
+	 * with the given baseline, comparing up to the given number of API
+	 * components concurrently. The work is split by API component, not by
+	 * package: all of the types of a component are compared by the same
+	 * thread. The returned delta does not depend on the number of threads.
+	 *
+	 * @param scope the given scope for the comparison
+	 * @param baseline the given API baseline to compare with
+	 * @param visibilityModifiers the given visibility that triggers what
+	 *            visibility should be used for the comparison
+	 * @param force a flag to force the comparison of nested API components with
+	 *            the same versions
+	 * @param continueOnResolverError if <code>true</code> the comparison will
+	 *            continue even if a component in the scope has a resolver error
+	 * @param threads the number of API components to compare concurrently,
+	 *            <code>0</code> means one per available processor
+	 * @param monitor the given progress monitor to report progress
+	 *
+	 * @return a delta, an empty delta if no difference is found or null if the
+	 *         delta detection failed. If set to continue on resolver error a
+	 *         delta, possibly empty, will always be returned
+	 * @throws IllegalArgumentException if one of the two baselines is null
+	 *             CoreException if one of the element in the scope cannot be
+	 *             visited
+	 */
+	public static IDelta compare(final IApiScope scope, final IApiBaseline baseline, final int visibilityModifiers, final boolean force, final boolean continueOnResolverError, final int threads, final IProgressMonitor monitor) throws CoreException {
 
 		if (scope == null || baseline == null) {
 			throw new IllegalArgumentException("None of the scope or the baseline must be null"); //$NON-NLS-1$
@@ -548,8 +549,12 @@ public class ApiComparator {
 		SubMonitor localmonitor = SubMonitor.convert(monitor, 2);
 		try {
 			final Set<IDelta> deltas = new HashSet<>();
-			final CompareApiScopeVisitor visitor = new CompareApiScopeVisitor(deltas, baseline, force, visibilityModifiers, continueOnResolverError, localmonitor.split(1));
-			scope.accept(visitor);
+			final CompareApiScopeVisitor visitor = new CompareApiScopeVisitor(deltas, baseline, force, visibilityModifiers, continueOnResolverError, threads, localmonitor.split(1));
+			try {
+				scope.accept(visitor);
+			} finally {
+				visitor.done();
+			}
 
 			// If set to continue on error, return whatever deltas were
 			// collected
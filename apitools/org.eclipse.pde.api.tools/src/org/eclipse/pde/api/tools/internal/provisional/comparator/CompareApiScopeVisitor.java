@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2013 IBM Corporation and others.
+ * Copyright (c) 2008, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,7 +10,14 @@
  *******************************************************************************/
 package org.eclipse.pde.api.tools.internal.provisional.comparator;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.SubMonitor;
@@ -36,20 +43,53 @@ public class CompareApiScopeVisitor extends ApiScopeVisitor {
 	boolean continueOnResolverError = false;
 	boolean containsErrors = false;
 	SubMonitor monitor;
+	int threads = 1;
+
+	/**
+	 * Executor comparing the visited components when more than one thread is
+	 * used, <code>null</code> otherwise
+	 */
+	ExecutorService executor;
+
+	/**
+	 * Pending component comparisons, in the order the components were visited
+	 */
+	List<Future<IDelta>> pending = new ArrayList<>();
 
 	public CompareApiScopeVisitor(final Set<IDelta> deltas, final IApiBaseline baseline, final boolean force, final int visibilityModifiers, final boolean continueOnResolverError, final SubMonitor monitor) {
+		this(deltas, baseline, force, visibilityModifiers, continueOnResolverError, 1, monitor);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param deltas the set to collect the leaf deltas in
+	 * @param baseline the reference baseline
+	 * @param force a flag to force the comparison of nested API components with
+	 *            the same versions
+	 * @param visibilityModifiers the visibility to use for the comparison
+	 * @param continueOnResolverError if the comparison continues for components
+	 *            with resolver errors
+	 * @param threads the number of components to compare concurrently,
+	 *            <code>0</code> means one per available processor. The
+	 *            comparisons are only complete once {@link #done()} has been
+	 *            called.
+	 * @param monitor the progress monitor
+	 */
+	public CompareApiScopeVisitor(final Set<IDelta> deltas, final IApiBaseline baseline, final boolean force, final int visibilityModifiers, final boolean continueOnResolverError, final int threads, final SubMonitor monitor) {
 		this.deltas = deltas;
 		this.referenceBaseline = baseline;
 		this.visibilityModifiers = visibilityModifiers;
 		this.force = force;
 		this.continueOnResolverError = continueOnResolverError;
+		this.threads = threads <= 0 ? Runtime.getRuntime().availableProcessors() : threads;
 		this.monitor = monitor;
 	}
 
 	@Override
 	public boolean visit(IApiBaseline baseline) throws CoreException {
 		this.monitor.setWorkRemaining(100).split(1);
-		IDelta delta = ApiComparator.compare(this.referenceBaseline, baseline, this.visibilityModifiers, this.force, null);
+		IDelta delta = ApiComparator.compare(this.referenceBaseline, baseline, this.visibilityModifiers, this.force, this.threads, null);
 		if (delta != null) {
 			delta.accept(new DeltaVisitor() {
 				@Override
@@ -104,6 +144,32 @@ public class CompareApiScopeVisitor extends ApiScopeVisitor {
 		}
 
 		subMonitor.split(50);
+		if (this.threads > 1) {
+			if (this.executor == null) {
+				this.executor = Executors.newFixedThreadPool(this.threads);
+			}
+			final IApiComponent reference = referenceComponent;
+			this.pending.add(this.executor.submit(new Callable<IDelta>() {
+				@Override
+				public IDelta call() throws Exception {
+					return compareComponent(reference, component);
+				}
+			}));
+		} else {
+			addLeaves(compareComponent(referenceComponent, component));
+		}
+		return false;
+	}
+
+	/**
+	 * Compares the given component with its reference component
+	 *
+	 * @param referenceComponent the reference component or <code>null</code>
+	 *            if the component was added
+	 * @param component the component to compare
+	 * @return the delta of the component including its version changes
+	 */
+	IDelta compareComponent(IApiComponent referenceComponent, IApiComponent component) {
 		final Delta globalDelta = new Delta();
 		globalDelta.add(ApiComparator.compare(referenceComponent, component, this.visibilityModifiers, null));
 		if (referenceComponent != null) {
@@ -114,7 +180,16 @@ public class CompareApiScopeVisitor extends ApiScopeVisitor {
 				globalDelta.add(bundleVersionChangesDelta);
 			}
 		}
-		globalDelta.accept(new DeltaVisitor() {
+		return globalDelta;
+	}
+
+	/**
+	 * Collects the leaf deltas of the given delta
+	 *
+	 * @param delta
+	 */
+	void addLeaves(IDelta delta) {
+		delta.accept(new DeltaVisitor() {
 			@Override
 			public void endVisit(IDelta localDelta) {
 				if (localDelta.getChildren().length == 0) {
@@ -122,7 +197,34 @@ public class CompareApiScopeVisitor extends ApiScopeVisitor {
 				}
 			}
 		});
-		return false;
+	}
+
+	/**
+	 * Waits for the pending component comparisons and collects their deltas in
+	 * the order the components were visited. Must be called once the scope has
+	 * been visited.
+	 */
+	public void done() {
+		if (this.executor == null) {
+			return;
+		}
+		try {
+			for (Future<IDelta> future : this.pending) {
+				try {
+					addLeaves(future.get());
+				} catch (ExecutionException e) {
+					ApiPlugin.log(e.getCause());
+					this.containsErrors = true;
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			this.containsErrors = true;
+		} finally {
+			this.pending.clear();
+			this.executor.shutdownNow();
+			this.executor = null;
+		}
 	}
 
 	@Override
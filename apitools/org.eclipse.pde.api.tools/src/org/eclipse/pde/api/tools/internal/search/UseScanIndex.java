@@ -0,0 +1,521 @@
+/*******************************************************************************
+ * Copyright (c) 2017 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.api.tools.internal.search;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.pde.api.tools.internal.provisional.Factory;
+import org.eclipse.pde.api.tools.internal.provisional.descriptors.IComponentDescriptor;
+import org.eclipse.pde.api.tools.internal.provisional.descriptors.IElementDescriptor;
+import org.eclipse.pde.api.tools.internal.provisional.descriptors.IMemberDescriptor;
+import org.eclipse.pde.api.tools.internal.provisional.descriptors.IMethodDescriptor;
+import org.eclipse.pde.api.tools.internal.provisional.descriptors.IReferenceTypeDescriptor;
+
+/**
+ * Binary index of the references in an API use scan, keyed by referenced
+ * component and referenced root type.
+ * <p>
+ * The index is built once by parsing the XML reports of a scan with the
+ * {@link UseScanParser} and written to a file that is memory mapped when it is
+ * read back, so looking up the references to a type does not require parsing
+ * the scan again. Each index records a stamp of the scan it was built from, see
+ * {@link #computeStamp(File)}, and is not used if the scan has changed since.
+ * </p>
+ * <p>
+ * The file layout is:
+ *
+ * <pre>
+ * header:  MAGIC, VERSION, stamp (long), string count, key count, record count
+ * strings: offset of each string in the string data
+ * keys:    (key string, first record, record count), sorted by key
+ * records: RECORD_SIZE ints per reference
+ * data:    length prefixed UTF-8 bytes of each string
+ * </pre>
+ *
+ * Keys are of the form <code>[component id]/[root type name]</code>.
+ * </p>
+ *
+ * @since 1.1
+ */
+public final class UseScanIndex {
+
+	/**
+	 * Marker for the kind of file: "USIX"
+	 */
+	private static final int MAGIC = 0x55534958;
+
+	/**
+	 * Index format version, an index written with a different version is
+	 * rebuilt
+	 */
+	private static final int VERSION = 1;
+
+	private static final int HEADER_SIZE = 28;
+
+	/**
+	 * Number of ints per reference record
+	 */
+	private static final int RECORD_SIZE = 16;
+
+	private static final int R_FROM_ID = 0;
+	private static final int R_FROM_VERSION = 1;
+	private static final int R_ORIGIN_KIND = 2;
+	private static final int R_ORIGIN_TYPE = 3;
+	private static final int R_ORIGIN_NAME = 4;
+	private static final int R_ORIGIN_SIGNATURE = 5;
+	private static final int R_LINE = 6;
+	private static final int R_TO_ID = 7;
+	private static final int R_TO_VERSION = 8;
+	private static final int R_TARGET_KIND = 9;
+	private static final int R_TARGET_TYPE = 10;
+	private static final int R_TARGET_NAME = 11;
+	private static final int R_TARGET_SIGNATURE = 12;
+	private static final int R_KIND = 13;
+	private static final int R_FLAGS = 14;
+	private static final int R_VISIBILITY = 15;
+
+	private static final char KEY_DELIM = '/';
+
+	private final ByteBuffer fBuffer;
+	private final long fStamp;
+	private final int fKeyCount;
+	private final int fStringsStart;
+	private final int fKeysStart;
+	private final int fRecordsStart;
+	private final int fDataStart;
+	private final String[] fStrings;
+
+	/**
+	 * Constructor
+	 *
+	 * @param buffer the contents of the index
+	 */
+	private UseScanIndex(ByteBuffer buffer) {
+		fBuffer = buffer;
+		fStamp = buffer.getLong(8);
+		int stringCount = buffer.getInt(16);
+		fKeyCount = buffer.getInt(20);
+		int recordCount = buffer.getInt(24);
+		fStringsStart = HEADER_SIZE;
+		fKeysStart = fStringsStart + stringCount * 4;
+		fRecordsStart = fKeysStart + fKeyCount * 12;
+		fDataStart = fRecordsStart + recordCount * RECORD_SIZE * 4;
+		fStrings = new String[stringCount];
+	}
+
+	/**
+	 * Opens the index in the given file
+	 *
+	 * @param file the index file
+	 * @param stamp the stamp of the scan the index is expected to be built from
+	 * @return the index or <code>null</code> if the file does not exist, is
+	 *         from another version or was built from a different scan
+	 * @throws IOException if the file cannot be read
+	 */
+	public static UseScanIndex open(File file, long stamp) throws IOException {
+		if (!file.exists()) {
+			return null;
+		}
+		RandomAccessFile raf = new RandomAccessFile(file, "r"); //$NON-NLS-1$
+		try {
+			FileChannel channel = raf.getChannel();
+			if (channel.size() < HEADER_SIZE) {
+				return null;
+			}
+			ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION || buffer.getLong(8) != stamp) {
+				return null;
+			}
+			return new UseScanIndex(buffer);
+		} finally {
+			// the mapping stays valid once the file is closed
+			raf.close();
+		}
+	}
+
+	/**
+	 * Builds an index of the scan at the given location
+	 *
+	 * @param location the location of the XML reports of the scan
+	 * @param stamp the stamp of the scan, see {@link #computeStamp(File)}
+	 * @param file the file to write the index to or <code>null</code> to keep
+	 *            the index in memory
+	 * @param monitor
+	 * @return the new index
+	 * @throws Exception if the scan cannot be parsed or the index cannot be
+	 *             written
+	 */
+	public static UseScanIndex build(String location, long stamp, File file, IProgressMonitor monitor) throws Exception {
+		IndexingVisitor visitor = new IndexingVisitor();
+		new UseScanParser().parse(location, monitor, visitor);
+		if (file == null) {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			visitor.write(bytes, stamp);
+			return new UseScanIndex(ByteBuffer.wrap(bytes.toByteArray()));
+		}
+		File parent = file.getParentFile();
+		if (!parent.exists()) {
+			parent.mkdirs();
+		}
+		OutputStream out = new BufferedOutputStream(new FileOutputStream(file));
+		try {
+			visitor.write(out, stamp);
+		} finally {
+			out.close();
+		}
+		UseScanIndex index = open(file, stamp);
+		if (index == null) {
+			throw new IOException("Unable to read back " + file.getAbsolutePath()); //$NON-NLS-1$
+		}
+		return index;
+	}
+
+	/**
+	 * Computes a stamp of the scan at the given location from its time stamp
+	 * and the names, sizes and time stamps of its direct children only. It
+	 * changes when a scan is written again, since the scanner rewrites the
+	 * <code>meta.xml</code> file at the root of the scan, and is cheap enough
+	 * to be computed on every lookup.
+	 *
+	 * @param location
+	 * @return the stamp
+	 */
+	public static long computeQuickStamp(File location) {
+		long stamp = 31 * 17 + location.lastModified();
+		File[] files = location.listFiles();
+		if (files == null) {
+			return stamp;
+		}
+		for (File file : files) {
+			stamp = 31 * stamp + file.getName().hashCode();
+			stamp = 31 * stamp + file.length();
+			stamp = 31 * stamp + file.lastModified();
+		}
+		return stamp;
+	}
+
+	/**
+	 * Computes a stamp of the scan at the given location from the names, sizes
+	 * and time stamps of all of its files
+	 *
+	 * @param location
+	 * @return the stamp
+	 */
+	public static long computeStamp(File location) {
+		long stamp = 17;
+		File[] files = location.listFiles();
+		if (files == null) {
+			return stamp;
+		}
+		for (File file : files) {
+			stamp = 31 * stamp + file.getName().hashCode();
+			if (file.isDirectory()) {
+				stamp = 31 * stamp + computeStamp(file);
+			} else {
+				stamp = 31 * stamp + file.length();
+				stamp = 31 * stamp + file.lastModified();
+			}
+		}
+		return stamp;
+	}
+
+	/**
+	 * @return the stamp of the scan this index was built from
+	 */
+	public long getStamp() {
+		return fStamp;
+	}
+
+	/**
+	 * Adds the references to the given types of the given component to the
+	 * given collection
+	 *
+	 * @param componentId the symbolic name of the referenced component
+	 * @param types the qualified names of the referenced root types or
+	 *            <code>null</code> for all references to the component
+	 * @param references the collection to add to
+	 */
+	public synchronized void collect(String componentId, String[] types, IReferenceCollection references) {
+		String prefix = componentId + KEY_DELIM;
+		if (types == null || types.length == 0) {
+			for (int key = lowerBound(prefix); key < fKeyCount; key++) {
+				String name = getString(fBuffer.getInt(fKeysStart + key * 12));
+				if (!name.startsWith(prefix)) {
+					break;
+				}
+				collect(key, name.substring(prefix.length()), references);
+			}
+		} else {
+			for (String type : types) {
+				int key = lowerBound(prefix + type);
+				if (key < fKeyCount && getString(fBuffer.getInt(fKeysStart + key * 12)).equals(prefix + type)) {
+					collect(key, type, references);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Adds the references recorded for the given key to the collection
+	 *
+	 * @param key the index of the key
+	 * @param type the referenced root type of the key
+	 * @param references the collection to add to
+	 */
+	private void collect(int key, String type, IReferenceCollection references) {
+		int first = fBuffer.getInt(fKeysStart + key * 12 + 4);
+		int count = fBuffer.getInt(fKeysStart + key * 12 + 8);
+		int[] record = new int[RECORD_SIZE];
+		for (int i = first; i < first + count; i++) {
+			int offset = fRecordsStart + i * RECORD_SIZE * 4;
+			for (int j = 0; j < RECORD_SIZE; j++) {
+				record[j] = fBuffer.getInt(offset + j * 4);
+			}
+			IComponentDescriptor from = Factory.componentDescriptor(getString(record[R_FROM_ID]), getString(record[R_FROM_VERSION]));
+			IComponentDescriptor to = Factory.componentDescriptor(getString(record[R_TO_ID]), getString(record[R_TO_VERSION]));
+			IMemberDescriptor origin = getMember(record[R_ORIGIN_KIND], record[R_ORIGIN_TYPE], record[R_ORIGIN_NAME], record[R_ORIGIN_SIGNATURE]);
+			IMemberDescriptor target = getMember(record[R_TARGET_KIND], record[R_TARGET_TYPE], record[R_TARGET_NAME], record[R_TARGET_SIGNATURE]);
+			references.add(type, new ReferenceDescriptor(from, origin, record[R_LINE], to, target, record[R_KIND], record[R_FLAGS], record[R_VISIBILITY], null));
+		}
+	}
+
+	/**
+	 * Returns the index of the first key that is greater than or equal to the
+	 * given name
+	 *
+	 * @param name
+	 * @return the index of the key or the number of keys if there is none
+	 */
+	private int lowerBound(String name) {
+		int low = 0;
+		int high = fKeyCount;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (getString(fBuffer.getInt(fKeysStart + mid * 12)).compareTo(name) < 0) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Creates the member descriptor for the given string indexes
+	 */
+	private IMemberDescriptor getMember(int kind, int type, int name, int signature) {
+		switch (kind) {
+			case IElementDescriptor.METHOD:
+				return Factory.methodDescriptor(getString(type), getString(name), getString(signature));
+			case IElementDescriptor.FIELD:
+				return Factory.fieldDescriptor(getString(type), getString(name));
+			default:
+				return Factory.typeDescriptor(getString(type));
+		}
+	}
+
+	/**
+	 * Returns the string with the given index, decoding it on first use
+	 *
+	 * @param index
+	 * @return the string or <code>null</code> if the index is <code>-1</code>
+	 */
+	private String getString(int index) {
+		if (index < 0) {
+			return null;
+		}
+		String value = fStrings[index];
+		if (value == null) {
+			int offset = fDataStart + fBuffer.getInt(fStringsStart + index * 4);
+			int length = fBuffer.getInt(offset);
+			byte[] bytes = new byte[length];
+			for (int i = 0; i < length; i++) {
+				bytes[i] = fBuffer.get(offset + 4 + i);
+			}
+			value = new String(bytes, StandardCharsets.UTF_8);
+			fStrings[index] = value;
+		}
+		return value;
+	}
+
+	/**
+	 * Visitor collecting all of the references of a scan to write an index
+	 */
+	static class IndexingVisitor extends UseScanVisitor {
+		private final Map<String, Integer> fStringIndexes = new HashMap<>();
+		private final List<String> fStringList = new ArrayList<>();
+		private final TreeMap<String, List<int[]>> fKeys = new TreeMap<>();
+		private IComponentDescriptor fTarget;
+		private IComponentDescriptor fReferencing;
+		private IMemberDescriptor fMember;
+		private List<int[]> fRecords;
+
+		@Override
+		public boolean visitComponent(IComponentDescriptor target) {
+			fTarget = target;
+			return true;
+		}
+
+		@Override
+		public boolean visitReferencingComponent(IComponentDescriptor component) {
+			fReferencing = component;
+			return true;
+		}
+
+		@Override
+		public boolean visitMember(IMemberDescriptor referencedMember) {
+			// same root type computation as the UseScanReferenceVisitor
+			String rootType;
+			if (referencedMember instanceof IReferenceTypeDescriptor) {
+				rootType = ((IReferenceTypeDescriptor) referencedMember).getQualifiedName();
+			} else {
+				rootType = referencedMember.getEnclosingType().getQualifiedName();
+			}
+			if (rootType.indexOf('$') > -1) {
+				rootType = rootType.substring(0, rootType.indexOf('$'));
+			}
+			String key = fTarget.getId() + KEY_DELIM + rootType;
+			fRecords = fKeys.get(key);
+			if (fRecords == null) {
+				fRecords = new ArrayList<>();
+				fKeys.put(key, fRecords);
+			}
+			fMember = referencedMember;
+			return true;
+		}
+
+		@Override
+		public void visitReference(IReferenceDescriptor reference) {
+			int[] record = new int[RECORD_SIZE];
+			record[R_FROM_ID] = intern(fReferencing.getId());
+			record[R_FROM_VERSION] = intern(fReferencing.getVersion());
+			setMember(record, R_ORIGIN_KIND, reference.getMember());
+			record[R_LINE] = reference.getLineNumber();
+			record[R_TO_ID] = intern(fTarget.getId());
+			record[R_TO_VERSION] = intern(fTarget.getVersion());
+			setMember(record, R_TARGET_KIND, fMember);
+			record[R_KIND] = reference.getReferenceKind();
+			record[R_FLAGS] = reference.getReferenceFlags();
+			record[R_VISIBILITY] = reference.getVisibility();
+			fRecords.add(record);
+		}
+
+		/**
+		 * Records the kind, type, name and signature of the given member
+		 * starting at the given position of the record
+		 */
+		private void setMember(int[] record, int start, IMemberDescriptor member) {
+			int kind = member.getElementType();
+			record[start] = kind;
+			record[start + 2] = -1;
+			record[start + 3] = -1;
+			switch (kind) {
+				case IElementDescriptor.METHOD:
+					record[start + 1] = intern(member.getEnclosingType().getQualifiedName());
+					record[start + 2] = intern(member.getName());
+					record[start + 3] = intern(((IMethodDescriptor) member).getSignature());
+					break;
+				case IElementDescriptor.FIELD:
+					record[start + 1] = intern(member.getEnclosingType().getQualifiedName());
+					record[start + 2] = intern(member.getName());
+					break;
+				default:
+					record[start + 1] = intern(((IReferenceTypeDescriptor) member).getQualifiedName());
+					break;
+			}
+		}
+
+		/**
+		 * Returns the index of the given string in the string table
+		 */
+		private int intern(String value) {
+			if (value == null) {
+				return -1;
+			}
+			Integer index = fStringIndexes.get(value);
+			if (index == null) {
+				index = Integer.valueOf(fStringList.size());
+				fStringList.add(value);
+				fStringIndexes.put(value, index);
+			}
+			return index.intValue();
+		}
+
+		/**
+		 * Writes the index to the given stream
+		 *
+		 * @param stream
+		 * @param stamp
+		 * @throws IOException
+		 */
+		void write(OutputStream stream, long stamp) throws IOException {
+			List<Entry<String, List<int[]>>> keys = new ArrayList<>(fKeys.entrySet());
+			int[] keyNames = new int[keys.size()];
+			int recordCount = 0;
+			for (int i = 0; i < keys.size(); i++) {
+				keyNames[i] = intern(keys.get(i).getKey());
+				recordCount += keys.get(i).getValue().size();
+			}
+			DataOutputStream out = new DataOutputStream(stream);
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeLong(stamp);
+			out.writeInt(fStringList.size());
+			out.writeInt(keys.size());
+			out.writeInt(recordCount);
+			List<byte[]> data = new ArrayList<>(fStringList.size());
+			int offset = 0;
+			for (String value : fStringList) {
+				byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+				data.add(bytes);
+				out.writeInt(offset);
+				offset += 4 + bytes.length;
+			}
+			int first = 0;
+			for (int i = 0; i < keys.size(); i++) {
+				int count = keys.get(i).getValue().size();
+				out.writeInt(keyNames[i]);
+				out.writeInt(first);
+				out.writeInt(count);
+				first += count;
+			}
+			for (Entry<String, List<int[]>> key : keys) {
+				for (int[] record : key.getValue()) {
+					for (int value : record) {
+						out.writeInt(value);
+					}
+				}
+			}
+			for (byte[] bytes : data) {
+				out.writeInt(bytes.length);
+				out.write(bytes);
+			}
+			out.flush();
+		}
+	}
+}
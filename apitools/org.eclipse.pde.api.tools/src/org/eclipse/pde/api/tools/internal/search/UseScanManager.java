@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010, 2013 IBM Corporation and others.
+ * Copyright (c) 2010, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -15,11 +15,16 @@ import java.io.FileFilter;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
 import java.util.jar.JarFile;
 import java.util.regex.Pattern;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
+import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.Path;
@@ -87,6 +92,44 @@ public class UseScanManager {
 
 	private String[] fLocations = null;
 
+	/**
+	 * Open indexes of the use scans by scan location
+	 */
+	private final Map<String, UseScanIndex> fIndexes = new HashMap<>();
+
+	/**
+	 * The stamps of a use scan
+	 */
+	private static class ScanStamp {
+		/**
+		 * Cheap stamp checked on every lookup, see
+		 * {@link UseScanIndex#computeQuickStamp(File)}
+		 */
+		final long fQuickStamp;
+		/**
+		 * Stamp of all files of the scan identifying its index, only computed
+		 * again when the quick stamp changed
+		 */
+		final long fStamp;
+
+		ScanStamp(long quickStamp, long stamp) {
+			fQuickStamp = quickStamp;
+			fStamp = stamp;
+		}
+	}
+
+	/**
+	 * Stamps of the use scans by scan location
+	 */
+	private final Map<String, ScanStamp> fStamps = new HashMap<>();
+
+	/**
+	 * Names of the index files that have been memory mapped in this session.
+	 * A mapping stays alive until it is garbage collected so these files are
+	 * not deleted before the next session.
+	 */
+	private final Set<String> fMappedFiles = new HashSet<>();
+
 	/**
 	 * {@link FileFilter} for finding use scan directories
 	 */
@@ -170,8 +213,6 @@ public class UseScanManager {
 	 * @param monitor
 	 */
 	private void fetch(IApiComponent apiComponent, String[] types, IReferenceCollection references, IProgressMonitor monitor) {
-		UseScanParser parser = new UseScanParser();
-		UseScanReferenceVisitor visitor = new UseScanReferenceVisitor(apiComponent, types, references);
 		SubMonitor localmonitor = SubMonitor.convert(monitor, SearchMessages.load_external_dependencies, 10);
 		try {
 			String[] locations;
@@ -223,7 +264,7 @@ public class UseScanManager {
 							}
 							throw new Exception(message);
 						}
-						parser.parse(locations[i], iterationMonitor, visitor);
+						getIndex(locations[i], iterationMonitor).collect(apiComponent.getSymbolicName(), types, references);
 					} catch (Exception e) {
 						ApiPlugin.log(e); // log the exception and continue with
 											// next location
@@ -241,6 +282,88 @@ public class UseScanManager {
 		}
 	}
 
+	/**
+	 * Returns the index of the use scan at the given location, building it if
+	 * there is no index of the current state of the scan yet. Indexes are
+	 * written to the API use scan metadata area, or kept in memory when there
+	 * is no workspace. A cheap stamp of the scan is checked on every lookup,
+	 * all files of the scan are only stamped again when it changed.
+	 *
+	 * @param location the location of the XML reports of the scan
+	 * @param monitor
+	 * @return the index of the scan
+	 * @throws Exception if the scan cannot be parsed
+	 */
+	synchronized UseScanIndex getIndex(String location, IProgressMonitor monitor) throws Exception {
+		File scan = new File(location);
+		long quickStamp = UseScanIndex.computeQuickStamp(scan);
+		ScanStamp stamp = fStamps.get(location);
+		if (stamp == null || stamp.fQuickStamp != quickStamp) {
+			long fullStamp = UseScanIndex.computeStamp(scan);
+			if (stamp != null && stamp.fStamp != fullStamp) {
+				// the scan was written again at the same location
+				fIndexes.remove(location);
+			}
+			stamp = new ScanStamp(quickStamp, fullStamp);
+			fStamps.put(location, stamp);
+		}
+		UseScanIndex index = fIndexes.get(location);
+		if (index != null) {
+			return index;
+		}
+		File file = null;
+		if (ApiPlugin.isRunningInFramework()) {
+			try {
+				file = getIndexFile(location, stamp.fStamp);
+				index = UseScanIndex.open(file, stamp.fStamp);
+			} catch (CoreException e) {
+				// no workspace to hold the index, keep it in memory
+				file = null;
+			} catch (IOException e) {
+				ApiPlugin.log(e);
+			}
+		}
+		if (index == null) {
+			try {
+				index = UseScanIndex.build(location, stamp.fStamp, file, monitor);
+			} catch (IOException e) {
+				ApiPlugin.log(e);
+				file = null;
+				index = UseScanIndex.build(location, stamp.fStamp, null, monitor);
+			}
+		}
+		if (file != null) {
+			fMappedFiles.add(file.getName());
+		}
+		fIndexes.put(location, index);
+		return index;
+	}
+
+	/**
+	 * Returns the file holding the index of the given state of the use scan at
+	 * the given location. Index files of other states of the scan are deleted,
+	 * unless they have been mapped in this session.
+	 *
+	 * @param location the location of the XML reports of the scan
+	 * @param stamp the stamp of the scan
+	 * @return the index file
+	 * @throws CoreException if the index location cannot be resolved
+	 */
+	private File getIndexFile(String location, long stamp) throws CoreException {
+		String indexDirPath = VariablesPlugin.getDefault().getStringVariableManager().performStringSubstitution(tempLocation + "index"); //$NON-NLS-1$
+		String prefix = Integer.toHexString(new File(location).getAbsolutePath().hashCode()) + '_';
+		File file = new File(indexDirPath, prefix + Long.toHexString(stamp) + ".index"); //$NON-NLS-1$
+		String[] names = new File(indexDirPath).list();
+		if (names != null) {
+			for (String name : names) {
+				if (name.startsWith(prefix) && !name.equals(file.getName()) && !fMappedFiles.contains(name)) {
+					new File(indexDirPath, name).delete();
+				}
+			}
+		}
+		return file;
+	}
+
 	/**
 	 * Returns the scan
 	 *
@@ -411,5 +534,9 @@ public class UseScanManager {
 			reference.clear();
 		}
 		fApiComponentCache.flush();
+		synchronized (this) {
+			fIndexes.clear();
+			fStamps.clear();
+		}
 	}
 }
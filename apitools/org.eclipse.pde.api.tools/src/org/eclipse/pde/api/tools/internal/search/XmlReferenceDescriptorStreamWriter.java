@@ -0,0 +1,405 @@
+/*******************************************************************************
+ * Copyright (c) 2017 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.api.tools.internal.search;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map.Entry;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.pde.api.tools.internal.IApiCoreConstants;
+import org.eclipse.pde.api.tools.internal.IApiXmlConstants;
+import org.eclipse.pde.api.tools.internal.builder.Reference;
+import org.eclipse.pde.api.tools.internal.provisional.ApiPlugin;
+import org.eclipse.pde.api.tools.internal.provisional.VisibilityModifiers;
+import org.eclipse.pde.api.tools.internal.provisional.builder.IReference;
+import org.eclipse.pde.api.tools.internal.provisional.descriptors.IComponentDescriptor;
+import org.eclipse.pde.api.tools.internal.provisional.descriptors.IMemberDescriptor;
+
+/**
+ * Writes reference descriptions to XML files without holding the contents of
+ * the files in memory.
+ * <p>
+ * The references given to {@link #writeReferences(IReferenceDescriptor[])}
+ * are grouped by report file. Each group is then added to its report file by
+ * streaming the existing contents of the file to a new file, so the root
+ * element is written with the reference count of the existing and the new
+ * references. The files are complete and can be read by the
+ * {@link UseScanParser} after every call. The layout of the files is the same
+ * as the one written by {@link XmlReferenceDescriptorWriter}, except that a
+ * referenced member can appear in more than one <code>target</code> element of
+ * a file.
+ * </p>
+ *
+ * @since 1.1
+ */
+public class XmlReferenceDescriptorStreamWriter {
+
+	/**
+	 * The references of one report file, by referenced member
+	 */
+	static class Group {
+		String fOrigin;
+		String fReferee;
+		int fVisibility;
+		String fName;
+		int fCount = 0;
+		LinkedHashMap<String, LinkedHashSet<IReferenceDescriptor>> fTargets = new LinkedHashMap<>();
+	}
+
+	private final String fLocation;
+	private final XMLInputFactory fInputFactory = XMLInputFactory.newInstance();
+	private final XMLOutputFactory fOutputFactory = XMLOutputFactory.newInstance();
+
+	/**
+	 * Alternate API component where references were unresolved, or
+	 * <code>null</code> if not to be reported.
+	 */
+	private IComponentDescriptor alternate;
+
+	/**
+	 * Constructor
+	 *
+	 * @param location the absolute path in the local file system to the folder
+	 *            to write the reports to
+	 */
+	public XmlReferenceDescriptorStreamWriter(String location) {
+		fLocation = location;
+		fInputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+		fInputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+	}
+
+	/**
+	 * Adds the given references to the report files. If two references have
+	 * the same reference, referencer, type, visibility, and member, one will be
+	 * removed (even if the line numbers differ).
+	 *
+	 * @param references
+	 */
+	public void writeReferences(IReferenceDescriptor[] references) {
+		if (fLocation == null) {
+			return;
+		}
+		LinkedHashMap<File, Group> groups = new LinkedHashMap<>();
+		try {
+			for (IReferenceDescriptor reference : references) {
+				add(groups, reference);
+			}
+			for (Entry<File, Group> entry : groups.entrySet()) {
+				writeGroup(entry.getKey(), entry.getValue());
+			}
+		} catch (IOException e) {
+			ApiPlugin.log(e);
+		} catch (XMLStreamException e) {
+			ApiPlugin.log(e);
+		} catch (CoreException e) {
+			ApiPlugin.log(e);
+		}
+	}
+
+	/**
+	 * Adds the given reference to the group of its report file
+	 *
+	 * @param groups the groups by report file
+	 * @param reference
+	 * @throws CoreException
+	 */
+	private void add(LinkedHashMap<File, Group> groups, IReferenceDescriptor reference) throws CoreException {
+		String referee = XmlReferenceDescriptorWriter.getId(reference.getReferencedComponent());
+		String origin = XmlReferenceDescriptorWriter.getId(reference.getComponent());
+		int visibility;
+		if ((reference.getReferenceFlags() & IReference.F_ILLEGAL) > 0) {
+			visibility = VisibilityModifiers.ILLEGAL_API;
+		} else {
+			visibility = reference.getVisibility();
+		}
+		String name = XmlReferenceDescriptorWriter.getRefTypeName(reference.getReferenceType());
+		File parent = new File(new File(new File(fLocation, referee), origin), VisibilityModifiers.getVisibilityName(visibility));
+		File file = new File(parent, name + ".xml"); //$NON-NLS-1$
+		Group group = groups.get(file);
+		if (group == null) {
+			group = new Group();
+			group.fOrigin = origin;
+			group.fReferee = referee;
+			group.fVisibility = visibility;
+			group.fName = name;
+			groups.put(file, group);
+		}
+		String tname = XmlReferenceDescriptorWriter.getText(reference.getReferencedMember());
+		LinkedHashSet<IReferenceDescriptor> refs = group.fTargets.get(tname);
+		if (refs == null) {
+			refs = new LinkedHashSet<>();
+			group.fTargets.put(tname, refs);
+		}
+		if (refs.add(reference)) {
+			group.fCount++;
+		}
+	}
+
+	/**
+	 * Adds the given group of references to the given report file, creating
+	 * the file if required. The file is replaced by a new file holding its
+	 * existing contents followed by the references of the group.
+	 *
+	 * @param file
+	 * @param group
+	 * @throws IOException
+	 * @throws XMLStreamException
+	 * @throws CoreException
+	 */
+	private void writeGroup(File file, Group group) throws IOException, XMLStreamException, CoreException {
+		File parent = file.getParentFile();
+		if (!parent.exists()) {
+			parent.mkdirs();
+		}
+		File temp = new File(parent, file.getName() + ".tmp"); //$NON-NLS-1$
+		boolean written = false;
+		try {
+			OutputStream out = new BufferedOutputStream(new FileOutputStream(temp));
+			try {
+				XMLStreamWriter writer = fOutputFactory.createXMLStreamWriter(out, IApiCoreConstants.UTF_8);
+				try {
+					writer.writeStartDocument(IApiCoreConstants.UTF_8, "1.0"); //$NON-NLS-1$
+					if (!file.exists() || !copyReport(file, writer, group)) {
+						writeRoot(writer, group, group.fCount);
+					}
+					for (Entry<String, LinkedHashSet<IReferenceDescriptor>> entry : group.fTargets.entrySet()) {
+						writeTarget(writer, entry.getKey(), entry.getValue());
+					}
+					writer.writeEndElement();
+					writer.writeEndDocument();
+					writer.flush();
+				} finally {
+					writer.close();
+				}
+			} finally {
+				out.close();
+			}
+			if ((file.exists() && !file.delete()) || !temp.renameTo(file)) {
+				throw new IOException("Unable to replace " + file.getAbsolutePath()); //$NON-NLS-1$
+			}
+			written = true;
+		} finally {
+			if (!written) {
+				temp.delete();
+			}
+		}
+	}
+
+	/**
+	 * Copies the root element of the given report file and its children to the
+	 * given writer, leaving the root element open so that the references of the
+	 * given group can be added to it
+	 *
+	 * @param file
+	 * @param writer
+	 * @param group
+	 * @return <code>true</code> if the root element was written,
+	 *         <code>false</code> if the file has no root element
+	 * @throws IOException
+	 * @throws XMLStreamException
+	 * @throws CoreException
+	 */
+	private boolean copyReport(File file, XMLStreamWriter writer, Group group) throws IOException, XMLStreamException, CoreException {
+		InputStream in = new BufferedInputStream(new FileInputStream(file));
+		try {
+			XMLStreamReader reader = fInputFactory.createXMLStreamReader(in);
+			try {
+				int depth = 0;
+				while (reader.hasNext()) {
+					switch (reader.next()) {
+						case XMLStreamConstants.START_ELEMENT:
+							depth++;
+							if (depth == 1) {
+								String count = reader.getAttributeValue(null, IApiXmlConstants.ATTR_REFERENCE_COUNT);
+								writeRoot(writer, group, parseCount(count) + group.fCount);
+							} else {
+								writer.writeStartElement(reader.getLocalName());
+								for (int i = 0; i < reader.getAttributeCount(); i++) {
+									writer.writeAttribute(reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+								}
+							}
+							break;
+						case XMLStreamConstants.END_ELEMENT:
+							depth--;
+							if (depth == 0) {
+								return true;
+							}
+							writer.writeEndElement();
+							break;
+						case XMLStreamConstants.CHARACTERS:
+						case XMLStreamConstants.CDATA:
+							if (depth > 1 && !reader.isWhiteSpace()) {
+								writer.writeCharacters(reader.getText());
+							}
+							break;
+						default:
+							break;
+					}
+				}
+				return depth > 0;
+			} finally {
+				reader.close();
+			}
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Writes the start of the root element of a report file
+	 *
+	 * @param writer
+	 * @param group
+	 * @param count the number of references in the file
+	 * @throws XMLStreamException
+	 * @throws CoreException
+	 */
+	private void writeRoot(XMLStreamWriter writer, Group group, int count) throws XMLStreamException, CoreException {
+		writer.writeStartElement(IApiXmlConstants.REFERENCES);
+		writer.writeAttribute(IApiXmlConstants.ATTR_REFERENCE_VISIBILITY, Integer.toString(group.fVisibility));
+		writer.writeAttribute(IApiXmlConstants.ATTR_ORIGIN, group.fOrigin);
+		writer.writeAttribute(IApiXmlConstants.ATTR_REFEREE, group.fReferee);
+		writer.writeAttribute(IApiXmlConstants.ATTR_NAME, XmlReferenceDescriptorWriter.getFormattedTypeName(group.fName));
+		if (alternate != null) {
+			writer.writeAttribute(IApiXmlConstants.ATTR_ALTERNATE, XmlReferenceDescriptorWriter.getId(alternate));
+		}
+		writer.writeAttribute(IApiXmlConstants.ATTR_REFERENCE_COUNT, Integer.toString(count));
+	}
+
+	/**
+	 * Writes a <code>target</code> element for the given referenced member
+	 *
+	 * @param writer
+	 * @param tname the referenced member
+	 * @param refs the references to the member
+	 * @throws XMLStreamException
+	 * @throws CoreException
+	 */
+	private void writeTarget(XMLStreamWriter writer, String tname, LinkedHashSet<IReferenceDescriptor> refs) throws XMLStreamException, CoreException {
+		writer.writeStartElement(IApiXmlConstants.ELEMENT_TARGET);
+		writer.writeAttribute(IApiXmlConstants.ATTR_NAME, tname);
+		LinkedHashMap<Integer, List<IReferenceDescriptor>> kinds = new LinkedHashMap<>();
+		IReferenceDescriptor last = null;
+		for (IReferenceDescriptor ref : refs) {
+			Integer kind = Integer.valueOf(ref.getReferenceKind());
+			List<IReferenceDescriptor> list = kinds.get(kind);
+			if (list == null) {
+				list = new ArrayList<>();
+				kinds.put(kind, list);
+			}
+			list.add(ref);
+			last = ref;
+		}
+		if (last != null) {
+			// set qualified referenced attributes
+			IMemberDescriptor resolved = last.getReferencedMember();
+			if (resolved != null) {
+				writeMemberDetails(writer, resolved);
+			}
+		}
+		for (Entry<Integer, List<IReferenceDescriptor>> entry : kinds.entrySet()) {
+			Integer kind = entry.getKey();
+			List<IReferenceDescriptor> list = entry.getValue();
+			writer.writeStartElement(IApiXmlConstants.REFERENCE_KIND);
+			writer.writeAttribute(IApiXmlConstants.ATTR_REFERENCE_KIND_NAME, Reference.getReferenceText(kind.intValue()));
+			writer.writeAttribute(IApiXmlConstants.ATTR_KIND, kind.toString());
+			writer.writeAttribute(IApiXmlConstants.ATTR_FLAGS, Integer.toString(list.get(0).getReferenceFlags()));
+			for (IReferenceDescriptor ref : list) {
+				writeReference(writer, ref);
+			}
+			writer.writeEndElement();
+		}
+		writer.writeEndElement();
+	}
+
+	/**
+	 * Writes a <code>reference</code> element for the given reference
+	 *
+	 * @param writer
+	 * @param reference
+	 * @throws XMLStreamException
+	 * @throws CoreException
+	 */
+	private void writeReference(XMLStreamWriter writer, IReferenceDescriptor reference) throws XMLStreamException, CoreException {
+		if (reference.getReferencedMember() == null) {
+			return;
+		}
+		IMemberDescriptor member = reference.getMember();
+		writer.writeEmptyElement(IApiXmlConstants.ATTR_REFERENCE);
+		writer.writeAttribute(IApiXmlConstants.ATTR_ORIGIN, XmlReferenceDescriptorWriter.getText(member));
+		String[] messages = reference.getProblemMessages();
+		if (messages != null) {
+			writer.writeAttribute(IApiXmlConstants.ELEMENT_PROBLEM_MESSAGE_ARGUMENTS, XmlReferenceDescriptorWriter.getText(messages));
+		}
+		// add detailed information about origin
+		writeMemberDetails(writer, member);
+		writer.writeAttribute(IApiXmlConstants.ATTR_LINE_NUMBER, Integer.toString(reference.getLineNumber()));
+	}
+
+	/**
+	 * Writes the member descriptor details as attributes of the current
+	 * element
+	 *
+	 * @param writer
+	 * @param member
+	 * @throws XMLStreamException
+	 */
+	private void writeMemberDetails(XMLStreamWriter writer, IMemberDescriptor member) throws XMLStreamException {
+		for (Entry<String, String> entry : XmlReferenceDescriptorWriter.getMemberDetails(member).entrySet()) {
+			writer.writeAttribute(entry.getKey(), entry.getValue());
+		}
+	}
+
+	/**
+	 * Parses a reference count, returning <code>0</code> if it is not a number
+	 *
+	 * @param value
+	 * @return the count
+	 */
+	private int parseCount(String value) {
+		if (value == null) {
+			return 0;
+		}
+		try {
+			return Integer.parseInt(value.trim());
+		} catch (NumberFormatException e) {
+			return 0;
+		}
+	}
+
+	/**
+	 * Sets the alternate component where references were unresolved, or
+	 * <code>null</code> if none.
+	 *
+	 * @param other component descriptor or <code>null</code>
+	 */
+	public void setAlternate(IComponentDescriptor other) {
+		alternate = other;
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2016 IBM Corporation and others.
+ * Copyright (c) 2009, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -20,6 +20,8 @@ import java.io.OutputStreamWriter;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Map.Entry;
 
 import javax.xml.parsers.DocumentBuilder;
@@ -197,7 +199,7 @@ public class XmlReferenceDescriptorWriter {
 	 *         version information as well
 	 * @throws CoreException
 	 */
-	String getId(IComponentDescriptor component) throws CoreException {
+	static String getId(IComponentDescriptor component) throws CoreException {
 		StringBuffer buffer = new StringBuffer();
 		buffer.append(component.getId()).append(" ").append('(').append(component.getVersion()).append(')'); //$NON-NLS-1$
 		return buffer.toString();
@@ -210,7 +212,7 @@ public class XmlReferenceDescriptorWriter {
 	 * @param groupname
 	 * @return a formatted version of the references file name
 	 */
-	private String getFormattedTypeName(String groupname) {
+	static String getFormattedTypeName(String groupname) {
 		if (TYPE_REFERENCES.equals(groupname)) {
 			return "Types"; //$NON-NLS-1$
 		}
@@ -229,7 +231,7 @@ public class XmlReferenceDescriptorWriter {
 	 * @param type
 	 * @return
 	 */
-	private String getRefTypeName(int type) {
+	static String getRefTypeName(int type) {
 		switch (type) {
 			case IReference.T_TYPE_REFERENCE:
 				return TYPE_REFERENCES;
@@ -403,24 +405,39 @@ public class XmlReferenceDescriptorWriter {
 	 * @param member member to add details for
 	 */
 	private void addMemberDetails(Element element, IMemberDescriptor member) {
+		for (Entry<String, String> entry : getMemberDetails(member).entrySet()) {
+			element.setAttribute(entry.getKey(), entry.getValue());
+		}
+	}
+
+	/**
+	 * Returns the names and values of the attributes describing the given
+	 * member descriptor, in the order they are written.
+	 * 
+	 * @param member member to get details for
+	 * @return the attributes describing the member, never <code>null</code>
+	 */
+	static Map<String, String> getMemberDetails(IMemberDescriptor member) {
+		Map<String, String> details = new LinkedHashMap<>(4);
 		switch (member.getElementType()) {
 			case IElementDescriptor.TYPE:
-				element.setAttribute(IApiXmlConstants.ATTR_TYPE, ((IReferenceTypeDescriptor) member).getQualifiedName());
+				details.put(IApiXmlConstants.ATTR_TYPE, ((IReferenceTypeDescriptor) member).getQualifiedName());
 				break;
 			case IElementDescriptor.FIELD:
 				IReferenceTypeDescriptor encl = member.getEnclosingType();
-				element.setAttribute(IApiXmlConstants.ATTR_TYPE, encl.getQualifiedName());
-				element.setAttribute(IApiXmlConstants.ATTR_MEMBER_NAME, member.getName());
+				details.put(IApiXmlConstants.ATTR_TYPE, encl.getQualifiedName());
+				details.put(IApiXmlConstants.ATTR_MEMBER_NAME, member.getName());
 				break;
 			case IElementDescriptor.METHOD:
 				encl = member.getEnclosingType();
-				element.setAttribute(IApiXmlConstants.ATTR_TYPE, encl.getQualifiedName());
-				element.setAttribute(IApiXmlConstants.ATTR_MEMBER_NAME, member.getName());
-				element.setAttribute(IApiXmlConstants.ATTR_SIGNATURE, ((IMethodDescriptor) member).getSignature());
+				details.put(IApiXmlConstants.ATTR_TYPE, encl.getQualifiedName());
+				details.put(IApiXmlConstants.ATTR_MEMBER_NAME, member.getName());
+				details.put(IApiXmlConstants.ATTR_SIGNATURE, ((IMethodDescriptor) member).getSignature());
 				break;
 			default:
 				break;
 		}
+		return details;
 	}
 
 	/**
@@ -508,7 +525,7 @@ public class XmlReferenceDescriptorWriter {
 	 *         <code>null</code>
 	 * @since 1.1
 	 */
-	String getText(Object[] array) {
+	static String getText(Object[] array) {
 		StringBuffer buffer = new StringBuffer();
 		for (int i = 0; i < array.length; i++) {
 			buffer.append(array[i].toString());
@@ -526,7 +543,7 @@ public class XmlReferenceDescriptorWriter {
 	 * @return
 	 * @throws CoreException
 	 */
-	private String getText(IMemberDescriptor member) throws CoreException {
+	static String getText(IMemberDescriptor member) throws CoreException {
 		switch (member.getElementType()) {
 			case IElementDescriptor.TYPE:
 				return Signatures.getQualifiedTypeSignature((IReferenceTypeDescriptor) member);
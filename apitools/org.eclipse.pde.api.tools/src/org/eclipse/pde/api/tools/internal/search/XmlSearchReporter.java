@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2013 IBM Corporation and others.
+ * Copyright (c) 2009, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -50,6 +50,7 @@ import org.xml.sax.helpers.DefaultHandler;
 public class XmlSearchReporter implements IApiSearchReporter {
 
 	private String fLocation = null;
+	private XmlReferenceDescriptorStreamWriter fWriter = null;
 	private DocumentBuilder parser = null;
 	private boolean debug = false;
 	private int referenceCount = 0;
@@ -65,6 +66,7 @@ public class XmlSearchReporter implements IApiSearchReporter {
 	 */
 	public XmlSearchReporter(String location, boolean debug) {
 		fLocation = location;
+		fWriter = new XmlReferenceDescriptorStreamWriter(location);
 		this.debug = debug;
 		try {
 			parser = DocumentBuilderFactory.newInstance().newDocumentBuilder();
@@ -86,7 +88,6 @@ public class XmlSearchReporter implements IApiSearchReporter {
 		// Use a hashset for counting to remove any duplicate references that
 		// the writer would remove
 		HashSet<IReferenceDescriptor> writtenReferences = new HashSet<>();
-		XmlReferenceDescriptorWriter writer = new XmlReferenceDescriptorWriter(fLocation);
 		List<IReferenceDescriptor> descriptors = new ArrayList<>(references.length + 1);
 		for (IReference referenceInterface : references) {
 			Reference reference = (Reference) referenceInterface;
@@ -114,7 +115,7 @@ public class XmlSearchReporter implements IApiSearchReporter {
 			}
 		}
 
-		writer.writeReferences(descriptors.toArray(new IReferenceDescriptor[descriptors.size()]));
+		fWriter.writeReferences(descriptors.toArray(new IReferenceDescriptor[descriptors.size()]));
 	}
 
 	/**
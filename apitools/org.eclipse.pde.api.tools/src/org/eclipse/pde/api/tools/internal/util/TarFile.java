@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2013 IBM Corporation and others.
+ * Copyright (c) 2008, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,17 +11,30 @@
  *******************************************************************************/
 package org.eclipse.pde.api.tools.internal.util;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
 import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.zip.GZIPInputStream;
 
 /**
  * Reads a .tar or .tar.gz archive file, providing an index enumeration and
  * allows for accessing an InputStream for arbitrary files in the archive.
+ * <p>
+ * Entries requested in archive order are read by streaming through the
+ * archive. Once an entry before the current position is requested, the archive
+ * is read with random access: an uncompressed archive is read directly, a
+ * compressed one is decompressed once to a temporary file that is deleted when
+ * the tar file is closed.
+ * </p>
  */
 public class TarFile {
 	private static class TarInputStream extends FilterInputStream {
@@ -338,6 +351,70 @@ public class TarFile {
 		}
 	}
 
+	/**
+	 * Input stream of the data of one entry read from a random access file
+	 */
+	private static class EntryInputStream extends InputStream {
+		private final RandomAccessFile raf;
+		private long position;
+		private long remaining;
+
+		/**
+		 * Constructor
+		 *
+		 * @param raf the uncompressed archive
+		 * @param position the offset of the data of the entry
+		 * @param size the size of the entry
+		 */
+		EntryInputStream(RandomAccessFile raf, long position, long size) {
+			this.raf = raf;
+			this.position = position;
+			this.remaining = size;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (remaining <= 0) {
+				return -1;
+			}
+			int size;
+			// the file is shared by all entry streams
+			synchronized (raf) {
+				raf.seek(position);
+				size = raf.read(b, off, (int) Math.min(len, remaining));
+			}
+			if (size < 0) {
+				throw new IOException("early end of stream"); //$NON-NLS-1$
+			}
+			position += size;
+			remaining -= size;
+			return size;
+		}
+
+		@Override
+		public int read() throws IOException {
+			byte[] data = new byte[1];
+			int size = read(data, 0, 1);
+			if (size < 0) {
+				return size;
+			}
+			return data[0] & 0xff;
+		}
+
+		@Override
+		public long skip(long n) throws IOException {
+			long skipped = Math.max(0, Math.min(n, remaining));
+			position += skipped;
+			remaining -= skipped;
+			return skipped;
+		}
+
+		@Override
+		public int available() throws IOException {
+			return (int) Math.min(Integer.MAX_VALUE, remaining);
+		}
+	}
+
 	private File file;
 	TarInputStream entryEnumerationStream;
 	TarEntry curEntry;
@@ -345,6 +422,26 @@ public class TarFile {
 
 	private InputStream internalEntryStream;
 
+	/**
+	 * If the archive is gzip compressed
+	 */
+	private boolean compressed = false;
+
+	/**
+	 * The uncompressed archive once random access is needed
+	 */
+	private RandomAccessFile randomAccessFile;
+
+	/**
+	 * Temporary file holding the decompressed archive or <code>null</code>
+	 */
+	private File decompressedFile;
+
+	/**
+	 * Entries of the archive by name, built on first lookup
+	 */
+	private Map<String, TarEntry> entryIndex;
+
 	/**
 	 * Create a new TarFile for the given file.
 	 *
@@ -355,16 +452,7 @@ public class TarFile {
 	public TarFile(File file) throws TarException, IOException {
 		this.file = file;
 
-		InputStream in = new FileInputStream(file);
-		// First, check if it's a GZIPInputStream.
-		try {
-			in = new GZIPInputStream(in);
-		} catch (IOException e) {
-			// If it is not compressed we close
-			// the old one and recreate
-			in.close();
-			in = new FileInputStream(file);
-		}
+		InputStream in = openStream();
 		try {
 			entryEnumerationStream = new TarInputStream(in);
 		} catch (TarException ex) {
@@ -386,6 +474,104 @@ public class TarFile {
 		if (internalEntryStream != null) {
 			internalEntryStream.close();
 		}
+		if (randomAccessFile != null) {
+			randomAccessFile.close();
+			randomAccessFile = null;
+		}
+		if (decompressedFile != null) {
+			decompressedFile.delete();
+			decompressedFile = null;
+		}
+	}
+
+	/**
+	 * Opens a new stream on the uncompressed contents of the archive, noting
+	 * whether the archive is compressed.
+	 *
+	 * @return a new input stream positioned at the start of the archive
+	 * @throws IOException
+	 */
+	private InputStream openStream() throws IOException {
+		InputStream in = new FileInputStream(file);
+		// First, check if it's a GZIPInputStream.
+		try {
+			in = new GZIPInputStream(in);
+			compressed = true;
+		} catch (IOException e) {
+			// If it is not compressed we close
+			// the old one and recreate
+			in.close();
+			in = new FileInputStream(file);
+			compressed = false;
+		}
+		return in;
+	}
+
+	/**
+	 * Opens the uncompressed archive for random access, decompressing it to a
+	 * temporary file first if needed.
+	 *
+	 * @return the random access file
+	 * @throws IOException
+	 */
+	private RandomAccessFile getRandomAccessFile() throws IOException {
+		if (randomAccessFile == null) {
+			File uncompressed = file;
+			if (compressed) {
+				decompressedFile = File.createTempFile("tarfile", ".tar"); //$NON-NLS-1$ //$NON-NLS-2$
+				decompressedFile.deleteOnExit();
+				InputStream in = new GZIPInputStream(new FileInputStream(file));
+				try {
+					OutputStream out = new BufferedOutputStream(new FileOutputStream(decompressedFile));
+					try {
+						byte[] buf = new byte[8192];
+						int len;
+						while ((len = in.read(buf)) >= 0) {
+							out.write(buf, 0, len);
+						}
+					} finally {
+						out.close();
+					}
+				} finally {
+					in.close();
+				}
+				uncompressed = decompressedFile;
+			}
+			randomAccessFile = new RandomAccessFile(uncompressed, "r"); //$NON-NLS-1$
+			// the streaming reader is not needed anymore
+			if (internalEntryStream != null) {
+				internalEntryStream.close();
+				internalEntryStream = null;
+			}
+			entryStream = null;
+		}
+		return randomAccessFile;
+	}
+
+	/**
+	 * Returns the entry with the given name. The first lookup reads all of the
+	 * entry headers of the archive once to index them.
+	 *
+	 * @param name the name of the entry
+	 * @return the entry or <code>null</code> if the archive has no entry with
+	 *         the given name
+	 * @throws TarException
+	 * @throws IOException
+	 */
+	public TarEntry getEntry(String name) throws TarException, IOException {
+		if (entryIndex == null) {
+			Map<String, TarEntry> index = new LinkedHashMap<>();
+			TarInputStream in = new TarInputStream(openStream());
+			try {
+				for (TarEntry entry = in.getNextEntry(); entry != null; entry = in.getNextEntry()) {
+					index.put(entry.getName(), entry);
+				}
+			} finally {
+				in.close();
+			}
+			entryIndex = index;
+		}
+		return entryIndex.get(name);
 	}
 
 	/**
@@ -435,20 +621,13 @@ public class TarFile {
 	 * @throws IOException
 	 */
 	public InputStream getInputStream(TarEntry entry) throws TarException, IOException {
-		if (entryStream == null || !entryStream.skipToEntry(entry)) {
-			if (internalEntryStream != null) {
-				internalEntryStream.close();
-			}
-			internalEntryStream = new FileInputStream(file);
-			// First, check if it's a GZIPInputStream.
-			try {
-				internalEntryStream = new GZIPInputStream(internalEntryStream);
-			} catch (IOException e) {
-				// If it is not compressed we close
-				// the old one and recreate
-				internalEntryStream.close();
-				internalEntryStream = new FileInputStream(file);
-			}
+		if (randomAccessFile != null || (entryStream != null && !entryStream.skipToEntry(entry))) {
+			// the entry is before the current position, seek to its data
+			// instead of reading the archive again from the start
+			return new EntryInputStream(getRandomAccessFile(), entry.filepos + 512L, entry.getSize());
+		}
+		if (entryStream == null) {
+			internalEntryStream = openStream();
 			entryStream = new TarInputStream(internalEntryStream, entry) {
 				@Override
 				public void close() {
@@ -63,6 +63,12 @@ public class APIFreezeTask extends CommonUtilsTask {
 	 */
 	private Map<String, ResolverError[]> resolverErrors = new HashMap<>();
 
+	/**
+	 * The number of components compared concurrently. Set to <code>1</code> by
+	 * default.
+	 */
+	private int threads = 1;
+
 	@Override
 	public void execute() throws BuildException {
 		if (this.referenceBaselineLocation == null || this.currentBaselineLocation == null || this.reportLocation == null) {
@@ -147,7 +153,7 @@ public class APIFreezeTask extends CommonUtilsTask {
 			time = System.currentTimeMillis();
 		}
 		try {
-			delta = ApiComparator.compare(getScope(currentBaseline), referenceBaseline, VisibilityModifiers.API, true, processUnresolvedBundles, null);
+			delta = ApiComparator.compare(getScope(currentBaseline), referenceBaseline, VisibilityModifiers.API, true, processUnresolvedBundles, this.threads, null);
 		} catch (CoreException e) {
 			// ignore
 		} finally {
@@ -409,6 +415,22 @@ public class APIFreezeTask extends CommonUtilsTask {
 		this.processUnresolvedBundles = processUnresolvedBundles;
 	}
 
+	/**
+	 * Set the number of components to compare concurrently.
+	 * <p>
+	 * The generated report does not depend on the number of threads. Use
+	 * <code>0</code> to use one thread per available processor.
+	 * </p>
+	 * <p>
+	 * Default is <code>1</code>, components are compared one after the other.
+	 * </p>
+	 *
+	 * @param threads the number of threads to use
+	 */
+	public void setThreads(String threads) {
+		this.threads = parseThreads(threads);
+	}
+
 	/**
 	 * Modifies the given doc to add a new element under the root element that
 	 * lists all the components that had resolver errors which could affect the
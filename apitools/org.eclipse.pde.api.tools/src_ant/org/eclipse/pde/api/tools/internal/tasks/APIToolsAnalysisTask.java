@@ -26,6 +26,11 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.tools.ant.BuildException;
 import org.eclipse.core.runtime.CoreException;
@@ -166,6 +171,12 @@ public class APIToolsAnalysisTask extends CommonUtilsTask {
 	 */
 	private boolean processUnresolvedBundles = true;
 
+	/**
+	 * The number of components analyzed concurrently. Set to <code>1</code> by
+	 * default.
+	 */
+	private int threads = 1;
+
 	private Summary[] createAllSummaries(Map<String, IApiProblem[]> allProblems) {
 		Set<Map.Entry<String, IApiProblem[]>> entrySet = allProblems.entrySet();
 		int size = entrySet.size();
@@ -390,6 +401,7 @@ public class APIToolsAnalysisTask extends CommonUtilsTask {
 			IApiComponent[] apiComponents = currentBaseline.getApiComponents();
 			int length = apiComponents.length;
 			Set<String> visitedApiComponentNames = new HashSet<>();
+			List<IApiComponent> componentsToAnalyze = new ArrayList<>(length);
 			for (int i = 0; i < length; i++) {
 				IApiComponent apiComponent = apiComponents[i];
 				String name = apiComponent.getSymbolicName();
@@ -426,23 +438,16 @@ public class APIToolsAnalysisTask extends CommonUtilsTask {
 				}
 
 				allApiBundles.add(name);
-				BaseApiAnalyzer analyzer = new BaseApiAnalyzer();
-				try {
-					analyzer.setContinueOnResolverError(true);
-					analyzer.analyzeComponent(null, getFilterStore(name), this.properties, referenceBaseline, apiComponent, new BuildContext(), new NullProgressMonitor());
-					IApiProblem[] problems = analyzer.getProblems();
-					// remove duplicates
-					problems = removeDuplicates(problems);
-					if (problems.length != 0) {
-						allProblems.put(name, problems);
-					} else if (this.debug) {
-						System.out.println(name + " has no problems"); //$NON-NLS-1$
-					}
-				} catch (RuntimeException e) {
-					ApiPlugin.log(e);
-					throw e;
-				} finally {
-					analyzer.dispose();
+				componentsToAnalyze.add(apiComponent);
+			}
+			List<IApiProblem[]> results = analyzeComponents(referenceBaseline, componentsToAnalyze);
+			for (int i = 0, max = componentsToAnalyze.size(); i < max; i++) {
+				String name = componentsToAnalyze.get(i).getSymbolicName();
+				IApiProblem[] problems = results.get(i);
+				if (problems.length != 0) {
+					allProblems.put(name, problems);
+				} else if (this.debug) {
+					System.out.println(name + " has no problems"); //$NON-NLS-1$
 				}
 			}
 			if (debug) {
@@ -520,6 +525,84 @@ public class APIToolsAnalysisTask extends CommonUtilsTask {
 		}
 	}
 
+	/**
+	 * Analyzes the given components against the reference baseline. If more
+	 * than one thread is configured the components are analyzed concurrently,
+	 * each with its own {@link BaseApiAnalyzer}.
+	 *
+	 * @param referenceBaseline the baseline to compare against
+	 * @param components the components to analyze
+	 * @return the problems found for each component, in the order of the given
+	 *         components
+	 */
+	private List<IApiProblem[]> analyzeComponents(final IApiBaseline referenceBaseline, List<IApiComponent> components) {
+		List<IApiProblem[]> results = new ArrayList<>(components.size());
+		int poolSize = Math.min(this.threads, components.size());
+		if (poolSize <= 1) {
+			for (IApiComponent component : components) {
+				results.add(analyzeComponent(referenceBaseline, component));
+			}
+			return results;
+		}
+		if (this.debug) {
+			System.out.println("Analyzing " + components.size() + " components using " + poolSize + " threads"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(poolSize);
+		try {
+			List<Future<IApiProblem[]>> futures = new ArrayList<>(components.size());
+			for (final IApiComponent component : components) {
+				futures.add(executor.submit(new Callable<IApiProblem[]>() {
+					@Override
+					public IApiProblem[] call() throws Exception {
+						return analyzeComponent(referenceBaseline, component);
+					}
+				}));
+			}
+			// collect in submission order so the report does not depend on
+			// which component finished first
+			for (Future<IApiProblem[]> future : futures) {
+				results.add(future.get());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new BuildException(e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw new BuildException(cause);
+		} finally {
+			executor.shutdownNow();
+		}
+		return results;
+	}
+
+	/**
+	 * Analyzes a single component against the reference baseline using a new
+	 * {@link BaseApiAnalyzer}
+	 *
+	 * @param referenceBaseline the baseline to compare against
+	 * @param component the component to analyze
+	 * @return the problems found for the component with duplicates removed
+	 */
+	IApiProblem[] analyzeComponent(IApiBaseline referenceBaseline, IApiComponent component) {
+		String name = component.getSymbolicName();
+		BaseApiAnalyzer analyzer = new BaseApiAnalyzer();
+		try {
+			analyzer.setContinueOnResolverError(true);
+			analyzer.analyzeComponent(null, getFilterStore(name), this.properties, referenceBaseline, component, new BuildContext(), new NullProgressMonitor());
+			IApiProblem[] problems = analyzer.getProblems();
+			// remove duplicates
+			return removeDuplicates(problems);
+		} catch (RuntimeException e) {
+			ApiPlugin.log(e);
+			throw e;
+		} finally {
+			analyzer.dispose();
+		}
+	}
+
 	/**
 	 * Returns <code>true</code if the given component should be filtered from
 	 * results of this task. This may be because the name is a match or partial
@@ -921,4 +1004,21 @@ public class APIToolsAnalysisTask extends CommonUtilsTask {
 		this.processUnresolvedBundles = processUnresolvedBundles;
 	}
 
+	/**
+	 * Set the number of components to analyze concurrently.
+	 * <p>
+	 * Each component is analyzed by its own analyzer on a pool of the given
+	 * number of threads. The generated reports do not depend on the number of
+	 * threads. Use <code>0</code> to use one thread per available processor.
+	 * </p>
+	 * <p>
+	 * Default is <code>1</code>, components are analyzed one after the other.
+	 * </p>
+	 *
+	 * @param threads the number of threads to use
+	 */
+	public void setThreads(String threads) {
+		this.threads = parseThreads(threads);
+	}
+
 }
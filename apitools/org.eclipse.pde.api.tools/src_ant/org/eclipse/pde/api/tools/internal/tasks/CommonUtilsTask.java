@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2013 IBM Corporation and others.
+ * Copyright (c) 2008, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -206,6 +206,23 @@ public abstract class CommonUtilsTask extends Task {
 		}
 	}
 
+	/**
+	 * Parses the number of threads given to a task. Zero or a negative number
+	 * stands for one thread per available processor.
+	 *
+	 * @param threads the number of threads
+	 * @return the number of threads to use
+	 * @throws BuildException if the value is not a number
+	 */
+	protected static int parseThreads(String threads) {
+		try {
+			int value = Integer.parseInt(threads.trim());
+			return value <= 0 ? Runtime.getRuntime().availableProcessors() : value;
+		} catch (NumberFormatException e) {
+			throw new BuildException(NLS.bind(Messages.invalidThreadsValue, threads));
+		}
+	}
+
 	/**
 	 * Parses and returns patterns as an array of Strings or <code>null</code>
 	 * if none.
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2010 IBM Corporation and others.
+ * Copyright (c) 2007, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -49,6 +49,12 @@ public class CompareTask extends CommonUtilsTask {
 	private String excludeListLocation;
 	private String includeListLocation;
 
+	/**
+	 * The number of components compared concurrently. Set to <code>1</code> by
+	 * default.
+	 */
+	private int threads = 1;
+
 	@Override
 	public void execute() throws BuildException {
 		if (this.referenceBaselineLocation == null || this.currentBaselineLocation == null || this.reportLocation == null) {
@@ -143,7 +149,7 @@ public class CompareTask extends CommonUtilsTask {
 			scope.addElement(currentBaseline);
 		}
 		try {
-			delta = ApiComparator.compare(scope, referenceBaseline, this.visibilityModifiers, false, null);
+			delta = ApiComparator.compare(scope, referenceBaseline, this.visibilityModifiers, false, false, this.threads, null);
 		} catch (CoreException e) {
 			// an error occurred during the comparison
 			throw new BuildException(NLS.bind(Messages.illegalElementInScope, e.getMessage()));
@@ -384,4 +390,20 @@ public class CompareTask extends CommonUtilsTask {
 	public void setincludeList(String includeListLocation) {
 		this.includeListLocation = includeListLocation;
 	}
+
+	/**
+	 * Set the number of components to compare concurrently.
+	 * <p>
+	 * The generated report does not depend on the number of threads. Use
+	 * <code>0</code> to use one thread per available processor.
+	 * </p>
+	 * <p>
+	 * Default is <code>1</code>, components are compared one after the other.
+	 * </p>
+	 *
+	 * @param threads the number of threads to use
+	 */
+	public void setThreads(String threads) {
+		this.threads = parseThreads(threads);
+	}
 }
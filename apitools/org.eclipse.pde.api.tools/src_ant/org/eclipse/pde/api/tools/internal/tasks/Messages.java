@@ -135,6 +135,8 @@ public class Messages extends NLS {
 
 	public static String no_xml_location;
 
+	public static String invalidThreadsValue;
+
 	static {
 		// initialize resource bundle
 		NLS.initializeMessages(BUNDLE_NAME, Messages.class);
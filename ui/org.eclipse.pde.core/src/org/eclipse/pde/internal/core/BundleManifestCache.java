@@ -0,0 +1,253 @@
+/*******************************************************************************
+ * Copyright (c) 2017 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.internal.core;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.jar.JarFile;
+
+/**
+ * Persistent cache of the parsed manifest headers of target bundles, keyed by
+ * bundle location. An entry is only reused while the bundle archive, or the
+ * manifest files of a bundle directory, keep the last modified time and size
+ * they had when the entry was recorded.
+ * <p>
+ * The {@link PDEState} creates its bundle descriptions and auxiliary data from
+ * these headers, so unchanged bundles do not need to be opened again when the
+ * target state is created.
+ * </p>
+ */
+public class BundleManifestCache {
+
+	/**
+	 * Version of the cache file format, to be increased whenever the format
+	 * or the way headers are computed changes
+	 */
+	private static final int VERSION = 1;
+
+	/**
+	 * A cached manifest and the stamp of the bundle it was read from
+	 */
+	static class Entry {
+		long fTimestamp;
+		long fSize;
+		Map<String, String> fHeaders;
+	}
+
+	private final File fFile;
+
+	/**
+	 * Entries read from the cache file by bundle location
+	 */
+	private final Map<String, Entry> fEntries = new HashMap<>();
+
+	/**
+	 * Entries looked up or added since the cache was loaded. Only these are
+	 * saved so bundles removed from the target do not stay in the cache.
+	 */
+	private final Map<String, Entry> fUsed = new HashMap<>();
+
+	private boolean fDirty;
+	private int fHits;
+	private int fMisses;
+
+	/**
+	 * Creates a cache backed by the given file and loads its entries. A
+	 * missing, outdated or corrupt file results in an empty cache.
+	 *
+	 * @param file the cache file
+	 */
+	public BundleManifestCache(File file) {
+		fFile = file;
+		load();
+	}
+
+	/**
+	 * Returns the cached manifest headers of the bundle at the given location
+	 * if the bundle did not change since they were recorded.
+	 *
+	 * @param bundleLocation the bundle archive or directory
+	 * @return a modifiable copy of the headers or <code>null</code> if the
+	 *         bundle is not cached or changed
+	 */
+	public synchronized Map<String, String> getManifest(File bundleLocation) {
+		String key = bundleLocation.getAbsolutePath();
+		Entry entry = fEntries.get(key);
+		if (entry != null) {
+			long[] stamp = computeStamp(bundleLocation);
+			if (stamp != null && stamp[0] == entry.fTimestamp && stamp[1] == entry.fSize) {
+				fUsed.put(key, entry);
+				fHits++;
+				return copy(entry.fHeaders);
+			}
+		}
+		fMisses++;
+		return null;
+	}
+
+	/**
+	 * Records the manifest headers read from the bundle at the given location
+	 *
+	 * @param bundleLocation the bundle archive or directory
+	 * @param manifest the headers read from the bundle
+	 */
+	public synchronized void putManifest(File bundleLocation, Map<String, String> manifest) {
+		long[] stamp = computeStamp(bundleLocation);
+		if (stamp == null) {
+			return;
+		}
+		Entry entry = new Entry();
+		entry.fTimestamp = stamp[0];
+		entry.fSize = stamp[1];
+		entry.fHeaders = copy(manifest);
+		fUsed.put(bundleLocation.getAbsolutePath(), entry);
+		fDirty = true;
+	}
+
+	/**
+	 * Writes the entries used since the cache was loaded to the cache file if
+	 * any of them was added or any stored entry was not used.
+	 */
+	public synchronized void save() {
+		if (!fDirty && fUsed.size() == fEntries.size()) {
+			return;
+		}
+		File parent = fFile.getParentFile();
+		if (parent != null && !parent.exists()) {
+			parent.mkdirs();
+		}
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(fFile)))) {
+			out.writeInt(VERSION);
+			out.writeInt(fUsed.size());
+			for (Map.Entry<String, Entry> mapEntry : fUsed.entrySet()) {
+				Entry entry = mapEntry.getValue();
+				writeString(out, mapEntry.getKey());
+				out.writeLong(entry.fTimestamp);
+				out.writeLong(entry.fSize);
+				out.writeInt(entry.fHeaders.size());
+				for (Map.Entry<String, String> header : entry.fHeaders.entrySet()) {
+					writeString(out, header.getKey());
+					writeString(out, header.getValue());
+				}
+			}
+		} catch (IOException e) {
+			PDECore.log(e);
+			fFile.delete();
+			return;
+		}
+		fEntries.clear();
+		fEntries.putAll(fUsed);
+		fDirty = false;
+	}
+
+	/**
+	 * @return the number of manifests returned from the cache
+	 */
+	public synchronized int getHitCount() {
+		return fHits;
+	}
+
+	/**
+	 * @return the number of manifests that were not cached or outdated
+	 */
+	public synchronized int getMissCount() {
+		return fMisses;
+	}
+
+	private void load() {
+		if (!fFile.isFile()) {
+			return;
+		}
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(fFile)))) {
+			if (in.readInt() != VERSION) {
+				return;
+			}
+			int count = in.readInt();
+			for (int i = 0; i < count; i++) {
+				String location = readString(in);
+				Entry entry = new Entry();
+				entry.fTimestamp = in.readLong();
+				entry.fSize = in.readLong();
+				int headers = in.readInt();
+				entry.fHeaders = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+				for (int j = 0; j < headers; j++) {
+					String key = readString(in);
+					entry.fHeaders.put(key, readString(in));
+				}
+				fEntries.put(location, entry);
+			}
+		} catch (IOException e) {
+			// corrupt or truncated, start from an empty cache
+			fEntries.clear();
+		}
+	}
+
+	/**
+	 * Returns a case insensitive copy of the given headers, like the headers
+	 * parsed from a manifest file
+	 */
+	private static Map<String, String> copy(Map<String, String> headers) {
+		Map<String, String> copy = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+		copy.putAll(headers);
+		return copy;
+	}
+
+	/**
+	 * Returns the last modified time and size the manifest headers of the
+	 * given bundle depend on. For a bundle directory these are combined from
+	 * its manifest, plugin.xml and fragment.xml files.
+	 *
+	 * @param bundleLocation the bundle archive or directory
+	 * @return the time stamp and size or <code>null</code> if the bundle does
+	 *         not exist
+	 */
+	static long[] computeStamp(File bundleLocation) {
+		if (bundleLocation.isFile()) {
+			return new long[] {bundleLocation.lastModified(), bundleLocation.length()};
+		}
+		if (!bundleLocation.isDirectory()) {
+			return null;
+		}
+		long timestamp = 17;
+		long size = 17;
+		String[] names = new String[] {JarFile.MANIFEST_NAME, ICoreConstants.PLUGIN_FILENAME_DESCRIPTOR, ICoreConstants.FRAGMENT_FILENAME_DESCRIPTOR};
+		for (String name : names) {
+			File file = new File(bundleLocation, name);
+			if (file.isFile()) {
+				timestamp = timestamp * 31 + file.lastModified();
+				size = size * 31 + file.length();
+			} else {
+				timestamp = timestamp * 31 - 1;
+				size = size * 31 - 1;
+			}
+		}
+		return new long[] {timestamp, size};
+	}
+
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		// header values such as Export-Package may exceed the modified UTF-8 limit
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private String readString(DataInputStream in) throws IOException {
+		int length = in.readInt();
+		if (length < 0 || length > fFile.length()) {
+			throw new IOException("Corrupt manifest cache"); //$NON-NLS-1$
+		}
+		byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2013 IBM Corporation and others.
+ * Copyright (c) 2007, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -25,13 +25,48 @@ public class BundleValidationOperation implements IWorkspaceRunnable {
 	private Dictionary<?, ?>[] fProperties;
 	private State fState;
 
+	/**
+	 * A previous validation whose state may be updated instead of creating a
+	 * new one, or <code>null</code>
+	 */
+	private BundleValidationOperation fPrevious;
+
+	/**
+	 * The copies in the state of the bundle descriptions of the models
+	 */
+	private Map<BundleDescription, BundleDescription> fCopies;
+
+	/**
+	 * The resolver errors when the state was handed over to a later
+	 * validation, or <code>null</code> while the state is owned by this one
+	 */
+	private Map<Object, Object[]> fResolverErrors;
+	private boolean fHasErrors;
+	private boolean fEmpty;
+
 	public BundleValidationOperation(IPluginModelBase[] models) {
 		this(models, new Dictionary[] {TargetPlatformHelper.getTargetEnvironment()});
 	}
 
 	public BundleValidationOperation(IPluginModelBase[] models, Dictionary<?, ?>[] properties) {
+		this(models, properties, null);
+	}
+
+	/**
+	 * Creates an operation that validates the given models. If the previous
+	 * operation validated with the same platform properties, its state is
+	 * updated with the bundles that were added or removed since and only
+	 * these are resolved again. The previous operation keeps reporting the
+	 * errors it found, but its state belongs to this operation afterwards.
+	 *
+	 * @param models the models to validate
+	 * @param properties the platform properties
+	 * @param previous a previous validation or <code>null</code>
+	 */
+	public BundleValidationOperation(IPluginModelBase[] models, Dictionary<?, ?>[] properties, BundleValidationOperation previous) {
 		fModels = models;
 		fProperties = properties;
+		fPrevious = previous;
 	}
 
 	@Override
@@ -39,12 +74,21 @@ public class BundleValidationOperation implements IWorkspaceRunnable {
 		if (FACTORY == null) {
 			FACTORY = Platform.getPlatformAdmin().getFactory();
 		}
+		BundleValidationOperation previous = fPrevious;
+		fPrevious = null;
+		if (previous != null && previous.fState != null && Arrays.equals(previous.fProperties, fProperties)) {
+			update(previous, monitor);
+			return;
+		}
 		SubMonitor subMonitor = SubMonitor.convert(monitor, fModels.length + 1);
 		fState = FACTORY.createState(true);
+		fCopies = new IdentityHashMap<>(fModels.length);
 		for (IPluginModelBase fModel : fModels) {
 			BundleDescription bundle = fModel.getBundleDescription();
-			if (bundle != null) {
-				fState.addBundle(FACTORY.createBundleDescription(bundle));
+			if (bundle != null && !fCopies.containsKey(bundle)) {
+				BundleDescription copy = FACTORY.createBundleDescription(bundle);
+				fCopies.put(bundle, copy);
+				fState.addBundle(copy);
 			}
 			subMonitor.split(1);
 		}
@@ -53,7 +97,56 @@ public class BundleValidationOperation implements IWorkspaceRunnable {
 		subMonitor.split(1);
 	}
 
-	public Map<Object, Object[]> getResolverErrors() {
+	/**
+	 * Updates the state of the given previous validation to contain the
+	 * bundles of the models of this operation. The bundle descriptions of
+	 * models are replaced whenever their manifests change, so bundles are
+	 * compared by identity.
+	 */
+	private void update(BundleValidationOperation previous, IProgressMonitor monitor) {
+		SubMonitor subMonitor = SubMonitor.convert(monitor, fModels.length + 1);
+		// dialogs of earlier launches may still show the previous results
+		previous.handOver();
+		fState = previous.fState;
+		fCopies = new IdentityHashMap<>(fModels.length);
+		List<BundleDescription> added = new ArrayList<>();
+		for (IPluginModelBase fModel : fModels) {
+			BundleDescription bundle = fModel.getBundleDescription();
+			if (bundle != null && !fCopies.containsKey(bundle)) {
+				BundleDescription copy = previous.fCopies.remove(bundle);
+				if (copy == null) {
+					copy = FACTORY.createBundleDescription(bundle);
+					fState.addBundle(copy);
+					added.add(copy);
+				}
+				fCopies.put(bundle, copy);
+			}
+			subMonitor.split(1);
+		}
+		// the state re-resolves the dependents of removed bundles on its own
+		for (BundleDescription removed : previous.fCopies.values()) {
+			fState.removeBundle(removed);
+		}
+		if (!added.isEmpty() || !previous.fCopies.isEmpty()) {
+			fState.resolve(added.toArray(new BundleDescription[added.size()]));
+		}
+		subMonitor.split(1);
+	}
+
+	/**
+	 * Keeps the current results of this operation before its state is
+	 * updated by a later validation.
+	 */
+	private synchronized void handOver() {
+		fResolverErrors = getResolverErrors();
+		fHasErrors = hasErrors();
+		fEmpty = isEmpty();
+	}
+
+	public synchronized Map<Object, Object[]> getResolverErrors() {
+		if (fResolverErrors != null) {
+			return new HashMap<>(fResolverErrors);
+		}
 		Set<String> alreadyDuplicated = new HashSet<>();
 		Map<Object, Object[]> map = new HashMap<>();
 		BundleDescription[] bundles = fState.getBundles();
@@ -76,11 +169,29 @@ public class BundleValidationOperation implements IWorkspaceRunnable {
 		return map;
 	}
 
+	/**
+	 * Returns the state of this validation. Once the operation was passed as
+	 * the previous one to a later validation, the state is updated by that
+	 * validation and no longer matches the results of this one.
+	 *
+	 * @return the resolver state
+	 */
 	public State getState() {
 		return fState;
 	}
 
-	public boolean hasErrors() {
+	public synchronized boolean isEmpty() {
+		if (fResolverErrors != null) {
+			return fEmpty;
+		}
+		// bundles may have been removed from an updated state
+		return fState.getBundles().length == 0;
+	}
+
+	public synchronized boolean hasErrors() {
+		if (fResolverErrors != null) {
+			return fHasErrors;
+		}
 		if (fState.getHighestBundleId() > -1) {
 			BundleDescription[] bundles = fState.getBundles();
 			for (BundleDescription bundle : bundles) {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2015 IBM Corporation and others.
+ * Copyright (c) 2005, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -102,7 +102,21 @@ public class MinimalState {
 	}
 
 	public BundleDescription addBundle(File bundleLocation, long bundleId) throws CoreException {
-		Map<String, String> manifest = ManifestUtils.loadManifest(bundleLocation);
+		return addLoadedBundle(loadManifest(bundleLocation), bundleLocation, bundleId);
+	}
+
+	/**
+	 * Adds the bundle with the given manifest headers, as returned from
+	 * {@link #loadManifest(File)}, to the state.
+	 *
+	 * @param manifest the manifest headers of the bundle
+	 * @param bundleLocation the bundle archive or directory
+	 * @param bundleId the id of the bundle to update or <code>-1</code> to add
+	 *            a new bundle
+	 * @return the bundle description or <code>null</code>
+	 * @throws CoreException if the manifest is not valid
+	 */
+	protected BundleDescription addLoadedBundle(Map<String, String> manifest, File bundleLocation, long bundleId) throws CoreException {
 		// update for development mode
 		TargetWeaver.weaveManifest(manifest);
 
@@ -120,6 +134,18 @@ public class MinimalState {
 		return desc;
 	}
 
+	/**
+	 * Returns the manifest headers of the bundle at the given location. The
+	 * returned map may be modified by the caller.
+	 *
+	 * @param bundleLocation the bundle archive or directory
+	 * @return the manifest headers
+	 * @throws CoreException if the manifest cannot be read
+	 */
+	protected Map<String, String> loadManifest(File bundleLocation) throws CoreException {
+		return ManifestUtils.loadManifest(bundleLocation);
+	}
+
 	protected void addAuxiliaryData(BundleDescription desc, Map<String, String> manifest, boolean hasBundleStructure) {
 	}
 
@@ -134,6 +160,7 @@ public class MinimalState {
 	 * @return state delta
 	 */
 	public StateDelta resolveState(String[] symbolicNames) {
+		prepareResolve();
 		if (initializePlatformProperties()) {
 			return fState.resolve(false);
 		}
@@ -148,10 +175,18 @@ public class MinimalState {
 	}
 
 	private synchronized StateDelta internalResolveState(boolean incremental) {
+		prepareResolve();
 		boolean fullBuildRequired = initializePlatformProperties();
 		return fState.resolve(incremental && !fullBuildRequired);
 	}
 
+	/**
+	 * Called before the state is resolved. Subclasses may override to compute
+	 * data needed during resolution.
+	 */
+	protected void prepareResolve() {
+	}
+
 	protected boolean initializePlatformProperties() {
 		if (fExecutionEnvironments == null && !fNoProfile)
 			setExecutionEnvironments();
@@ -163,6 +198,15 @@ public class MinimalState {
 		return false;
 	}
 
+	/**
+	 * Makes the next resolve of the state recompute its platform properties,
+	 * for example after the environment of the target platform changed. The
+	 * state is resolved from scratch if the properties differ.
+	 */
+	public void resetPlatformProperties() {
+		fEEListChanged = true;
+	}
+
 	private Dictionary<String, String>[] getProfilePlatformProperties() {
 		return TargetPlatformHelper.getPlatformProperties(fExecutionEnvironments, this);
 	}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -28,6 +28,7 @@ import org.eclipse.pde.internal.core.project.BundleProjectService;
 import org.eclipse.pde.internal.core.schema.SchemaRegistry;
 import org.eclipse.pde.internal.core.target.P2TargetUtils;
 import org.eclipse.pde.internal.core.target.TargetPlatformService;
+import org.eclipse.pde.internal.core.util.TypeExistenceCache;
 import org.eclipse.update.configurator.ConfiguratorUtils;
 import org.osgi.framework.*;
 
@@ -138,6 +139,9 @@ public class PDECore extends Plugin implements DebugOptionsListener {
 	// Schema registry
 	private SchemaRegistry fSchemaRegistry;
 
+	// Types referenced from extensions
+	private TypeExistenceCache fTypeExistenceCache;
+
 	private SourceLocationManager fSourceLocationManager;
 	private JavadocLocationManager fJavadocLocationManager;
 	private SearchablePluginsManager fSearchablePluginsManager;
@@ -206,6 +210,14 @@ public class PDECore extends Plugin implements DebugOptionsListener {
 		return fSchemaRegistry;
 	}
 
+	public synchronized TypeExistenceCache getTypeExistenceCache() {
+		if (fTypeExistenceCache == null) {
+			fTypeExistenceCache = new TypeExistenceCache();
+			fTypeExistenceCache.start();
+		}
+		return fTypeExistenceCache;
+	}
+
 	public synchronized PDEExtensionRegistry getExtensionsRegistry() {
 		if (fExtensionRegistry == null) {
 			fExtensionRegistry = new PDEExtensionRegistry();
@@ -317,6 +329,10 @@ public class PDECore extends Plugin implements DebugOptionsListener {
 			fSchemaRegistry.shutdown();
 			fSchemaRegistry = null;
 		}
+		if (fTypeExistenceCache != null) {
+			fTypeExistenceCache.shutdown();
+			fTypeExistenceCache = null;
+		}
 		if (fTargetProfileManager != null) {
 			fTargetProfileManager.shutdown();
 			fTargetProfileManager = null;
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2016 IBM Corporation and others.
+ * Copyright (c) 2005, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -14,6 +14,7 @@ package org.eclipse.pde.internal.core;
 import java.io.File;
 import java.net.URL;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import org.eclipse.core.filesystem.URIUtil;
 import org.eclipse.core.resources.IWorkspaceRoot;
 import org.eclipse.core.resources.ResourcesPlugin;
@@ -23,13 +24,33 @@ import org.eclipse.pde.core.plugin.IPluginModelBase;
 import org.eclipse.pde.core.target.LoadTargetDefinitionJob;
 import org.eclipse.pde.internal.core.plugin.*;
 import org.eclipse.pde.internal.core.util.CoreUtility;
+import org.eclipse.pde.internal.core.util.ParallelLoader;
 import org.osgi.framework.Version;
 
 public class PDEState extends MinimalState {
 
+	/**
+	 * Name of the file in the PDE state location caching the manifests of
+	 * the target bundles
+	 */
+	private static final String MANIFEST_CACHE = ".targetManifests"; //$NON-NLS-1$
+
 	private PDEAuxiliaryState fAuxiliaryState;
 	private ArrayList<IPluginModelBase> fTargetModels = new ArrayList<>();
 
+	/**
+	 * Cache of the target bundle manifests, only set while the target state
+	 * is created
+	 */
+	private BundleManifestCache fManifestCache;
+
+	/**
+	 * Whether bundle locations are inside the workspace, computed before the
+	 * state is resolved so the selection policy of the resolver does not have
+	 * to query the workspace
+	 */
+	private final Map<String, Boolean> fWorkspaceLocations = new ConcurrentHashMap<>();
+
 	/**
 	 * Creates a new PDE State containing bundles from the given URLs.
 	 *
@@ -42,7 +63,8 @@ public class PDEState extends MinimalState {
 		long start = System.currentTimeMillis();
 		fAuxiliaryState = new PDEAuxiliaryState();
 
-		// We no longer try and restore from a cached state as it had no performance benefit
+		// The state itself is not restored from a cache as it had no performance benefit,
+		// only the parsed manifests of unchanged bundles are reused
 		createNewTargetState(addResolver, target, monitor);
 
 		if (removeDuplicates) {
@@ -80,15 +102,10 @@ public class PDEState extends MinimalState {
 								String loc1 = s1.getLocation();
 								String loc2 = s2.getLocation();
 								if (loc1 != null && loc2 != null  && !loc1.equals(loc2)) {
-									IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
-									if (root != null) {
-										IPath p1 = new Path(loc1);
-										if (root.findContainersForLocationURI(URIUtil.toURI(p1)).length != 0)
-											return -1;
-										IPath p2 = new Path(loc2);
-										if (root.findContainersForLocationURI(URIUtil.toURI(p2)).length != 0)
-											return 1;
-									}
+									if (isWorkspaceLocation(loc1))
+										return -1;
+									if (isWorkspaceLocation(loc2))
+										return 1;
 								}
 							}
 						}
@@ -127,18 +144,156 @@ public class PDEState extends MinimalState {
 				}
 			});
 		}
+		loadTargetBundles(urls, monitor);
+	}
+
+	/**
+	 * Reads the manifests of the given target bundles and adds the bundles to
+	 * the state.
+	 *
+	 * @param urls urls of target bundles
+	 * @param monitor progress monitor
+	 * @return the descriptions of the added bundles
+	 */
+	private List<BundleDescription> loadTargetBundles(URL[] urls, IProgressMonitor monitor) {
 		SubMonitor subMonitor = SubMonitor.convert(monitor, PDECoreMessages.PDEState_CreatingTargetModelState,
-				urls.length);
-		for (URL url : urls) {
-			File file = new File(url.getFile());
-			try {
-				subMonitor.subTask(file.getName());
-				addBundle(file, -1);
-			} catch (CoreException e) {
-				PDECore.log(e);
+				urls.length * 2);
+		List<BundleDescription> added = new ArrayList<>(urls.length);
+		fManifestCache = new BundleManifestCache(new File(DIR, MANIFEST_CACHE));
+		try {
+			List<File> files = new ArrayList<>(urls.length);
+			for (URL url : urls) {
+				files.add(new File(url.getFile()));
+			}
+			// read the manifests concurrently, then add the bundles to the
+			// state one after the other in the order of the urls
+			List<ParallelLoader.Result<Map<String, String>>> manifests = ParallelLoader.load(files, new ParallelLoader.ILoadOperation<File, Map<String, String>>() {
+				@Override
+				public Map<String, String> load(File file) throws CoreException {
+					return loadManifest(file);
+				}
+			}, subMonitor.split(urls.length));
+			for (int i = 0; i < files.size(); i++) {
+				File file = files.get(i);
+				ParallelLoader.Result<Map<String, String>> manifest = manifests.get(i);
+				try {
+					subMonitor.subTask(file.getName());
+					if (manifest.getException() != null) {
+						throw manifest.getException();
+					}
+					BundleDescription desc = addLoadedBundle(manifest.getValue(), file, -1);
+					if (desc != null) {
+						added.add(desc);
+					}
+				} catch (CoreException e) {
+					PDECore.log(e);
+				}
+				subMonitor.split(1);
+			}
+			fManifestCache.save();
+			if (PDECore.DEBUG_MODEL) {
+				System.out.println("Target manifests read from cache: " + fManifestCache.getHitCount() + ", parsed: " + fManifestCache.getMissCount()); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+		} finally {
+			fManifestCache = null;
+		}
+		return added;
+	}
+
+	/**
+	 * Adds the bundles at the given locations to the target part of this state
+	 * and creates their models. Bundles with the same symbolic name and version
+	 * as a bundle already in the state are not added. The state is not
+	 * resolved.
+	 *
+	 * @param urls urls of the target bundles to add
+	 * @param monitor progress monitor
+	 * @return the models of the added bundles
+	 */
+	public IPluginModelBase[] addTargetBundles(URL[] urls, IProgressMonitor monitor) {
+		List<IPluginModelBase> models = new ArrayList<>(urls.length);
+		for (BundleDescription desc : loadTargetBundles(urls, monitor)) {
+			if (isDuplicate(desc)) {
+				fState.removeBundle(desc);
+				continue;
+			}
+			IPluginModelBase model = createExternalModel(desc);
+			fTargetModels.add(model);
+			models.add(model);
+		}
+		return models.toArray(new IPluginModelBase[models.size()]);
+	}
+
+	/**
+	 * Removes the given target models and their bundles from this state. The
+	 * state is not resolved.
+	 *
+	 * @param models the target models to remove
+	 */
+	public void removeTargetModels(Collection<IPluginModelBase> models) {
+		fTargetModels.removeAll(models);
+		for (IPluginModelBase model : models) {
+			removeBundleDescription(model.getBundleDescription());
+		}
+	}
+
+	private boolean isDuplicate(BundleDescription desc) {
+		for (BundleDescription other : fState.getBundles(desc.getSymbolicName())) {
+			if (other.getBundleId() != desc.getBundleId() && other.getVersion().equals(desc.getVersion())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Looks up whether the bundles with the same symbolic name and version are
+	 * inside the workspace. These are the bundles the selection policy of the
+	 * resolver has to choose from by location.
+	 */
+	@Override
+	protected void prepareResolve() {
+		fWorkspaceLocations.clear();
+		Map<String, BundleDescription> bundles = new HashMap<>();
+		for (BundleDescription desc : fState.getBundles()) {
+			BundleDescription other = bundles.put(desc.getSymbolicName() + '_' + desc.getVersion(), desc);
+			if (other != null && desc.getLocation() != null && other.getLocation() != null) {
+				isWorkspaceLocation(desc.getLocation());
+				isWorkspaceLocation(other.getLocation());
+			}
+		}
+	}
+
+	/**
+	 * Returns whether the given bundle location is the location of a container
+	 * in the workspace. The result is cached until the state is resolved again.
+	 *
+	 * @param location the bundle location
+	 * @return whether the location is in the workspace
+	 */
+	boolean isWorkspaceLocation(String location) {
+		Boolean result = fWorkspaceLocations.get(location);
+		if (result == null) {
+			IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
+			result = Boolean.valueOf(root != null && root.findContainersForLocationURI(URIUtil.toURI(new Path(location))).length != 0);
+			fWorkspaceLocations.put(location, result);
+		}
+		return result.booleanValue();
+	}
+
+	@Override
+	protected Map<String, String> loadManifest(File bundleLocation) throws CoreException {
+		if (fManifestCache == null) {
+			return super.loadManifest(bundleLocation);
+		}
+		Map<String, String> manifest = fManifestCache.getManifest(bundleLocation);
+		if (manifest == null) {
+			manifest = super.loadManifest(bundleLocation);
+			if (manifest != null) {
+				fManifestCache.putManifest(bundleLocation, manifest);
 			}
-			subMonitor.split(1);
 		}
+		return manifest;
 	}
 
 	@Override
@@ -26,6 +26,7 @@ import org.eclipse.pde.core.build.IBuild;
 import org.eclipse.pde.core.build.IBuildEntry;
 import org.eclipse.pde.core.plugin.*;
 import org.eclipse.pde.core.target.*;
+import org.eclipse.pde.internal.core.project.PDEProject;
 import org.eclipse.pde.internal.core.target.P2TargetUtils;
 
 public class PluginModelManager implements IModelProviderListener {
@@ -64,7 +65,7 @@ public class PluginModelManager implements IModelProviderListener {
 						fProjects.clear();
 						fContainers.clear();
 					}
-					JavaCore.setClasspathContainer(PDECore.REQUIRED_PLUGINS_CONTAINER_PATH, projects, containers, monitor);
+					setClasspathContainers(projects, containers, monitor);
 					synchronized (fProjects) {
 						more = !fProjects.isEmpty();
 					}
@@ -98,6 +99,20 @@ public class PluginModelManager implements IModelProviderListener {
 	 */
 	private UpdateClasspathsJob fUpdateJob = new UpdateClasspathsJob();
 
+	/**
+	 * The secondary dependencies of a project and the modification stamp of
+	 * the build.properties file they were read from
+	 */
+	private static class SecondaryDependencies {
+		final long fStamp;
+		final String[] fPluginIds;
+
+		SecondaryDependencies(long stamp, String[] pluginIds) {
+			fStamp = stamp;
+			fPluginIds = pluginIds;
+		}
+	}
+
 	/**
 	 * Subclass of ModelEntry
 	 * It adds methods that add/remove model from the entry.
@@ -151,6 +166,8 @@ public class PluginModelManager implements IModelProviderListener {
 	private ExternalModelManager fExternalManager; // keeps track of changes in target models
 	private WorkspacePluginModelManager fWorkspaceManager; // keeps track of changes in the workspace
 	private PDEState fState; // keeps the combined view of the target and workspace
+	private Map<String, long[]> fTargetStamps; // time stamps of the loaded target bundles by location
+	private final Map<IProject, SecondaryDependencies> fSecondaryDependencies = new HashMap<>(); // secondary dependencies by project
 
 	private Map<String, LocalModelEntry> fEntries; // a master table keyed by plugin ID and the value is a ModelEntry
 	private ArrayList<IPluginModelListener> fListeners; // a list of listeners interested in changes to the plug-in models
@@ -267,6 +284,7 @@ public class PluginModelManager implements IModelProviderListener {
 	private void updateAffectedEntries(StateDelta delta, boolean runAsynch) {
 		Map<IJavaProject, RequiredPluginsClasspathContainer> map = new HashMap<>();
 		if (delta == null) {
+			RequiredPluginsClasspathContainer.clearVisiblePackages(null);
 			// if the delta is null, then the entire target changed.
 			// Therefore, we should update the classpath for all workspace plug-ins.
 			IPluginModelBase[] models = getWorkspaceModels();
@@ -280,12 +298,15 @@ public class PluginModelManager implements IModelProviderListener {
 				}
 			}
 		} else {
-			BundleDelta[] deltas = delta.getChanges();
-			for (BundleDelta bundleDelta : deltas) {
+			// update classpath for workspace plug-ins that are housed in a Java project and
+			// have been affected by the processed model changes, directly or through their dependencies
+			Set<BundleDescription> affected = getAffectedBundles(delta.getChanges());
+			RequiredPluginsClasspathContainer.clearVisiblePackages(affected);
+			Set<String> affectedNames = new HashSet<>();
+			for (BundleDescription desc : affected) {
+				affectedNames.add(desc.getSymbolicName());
 				try {
-					// update classpath for workspace plug-ins that are housed in a
-					// Java project hand have been affected by the processd model changes.
-					IPluginModelBase model = findModel(bundleDelta.getBundle());
+					IPluginModelBase model = findModel(desc);
 					IResource resource = model == null ? null : model.getUnderlyingResource();
 					if (resource != null) {
 						IProject project = resource.getProject();
@@ -299,7 +320,7 @@ public class PluginModelManager implements IModelProviderListener {
 				} catch (CoreException e) {
 				}
 			}
-			// do secondary dependencies
+			// do secondary dependencies on any of the affected bundles
 			IPluginModelBase[] models = getWorkspaceModels();
 			for (IPluginModelBase model : models) {
 				IProject project = model.getUnderlyingResource().getProject();
@@ -309,9 +330,12 @@ public class PluginModelManager implements IModelProviderListener {
 					IJavaProject jProject = JavaCore.create(project);
 					if (map.containsKey(jProject))
 						continue;
-					IBuild build = ClasspathUtilCore.getBuild(model);
-					if (build != null && build.getEntry(IBuildEntry.SECONDARY_DEPENDENCIES) != null) {
-						map.put(jProject, new RequiredPluginsClasspathContainer(model, build));
+					for (String pluginId : getSecondaryDependencies(model)) {
+						IPluginModelBase dependency = PluginRegistry.findModel(pluginId);
+						if (affectedNames.contains(pluginId) || (dependency != null && affected.contains(dependency.getBundleDescription()))) {
+							map.put(jProject, new RequiredPluginsClasspathContainer(model));
+							break;
+						}
 					}
 				} catch (CoreException e) {
 				}
@@ -338,13 +362,106 @@ public class PluginModelManager implements IModelProviderListener {
 			} else {
 				// else update synchronously
 				try {
-					JavaCore.setClasspathContainer(PDECore.REQUIRED_PLUGINS_CONTAINER_PATH, projects, containers, null);
+					setClasspathContainers(projects, containers, null);
 				} catch (JavaModelException e) {
 				}
 			}
 		}
 	}
 
+	/**
+	 * Sets the required plug-ins classpath containers of the given projects,
+	 * skipping projects whose current container already has the same entries
+	 * and access rules. Setting a container makes JDT rebuild the project and
+	 * all projects depending on it, even if nothing changed.
+	 *
+	 * @param projects the projects to update
+	 * @param containers the new containers of the projects
+	 * @param monitor progress monitor or <code>null</code>
+	 * @throws JavaModelException if a container cannot be set
+	 */
+	static void setClasspathContainers(IJavaProject[] projects, IClasspathContainer[] containers, IProgressMonitor monitor) throws JavaModelException {
+		List<IJavaProject> changedProjects = new ArrayList<>(projects.length);
+		List<IClasspathContainer> changedContainers = new ArrayList<>(containers.length);
+		for (int i = 0; i < projects.length; i++) {
+			IClasspathContainer current = null;
+			try {
+				current = JavaCore.getClasspathContainer(PDECore.REQUIRED_PLUGINS_CONTAINER_PATH, projects[i]);
+			} catch (JavaModelException e) {
+			}
+			if (current != null && Arrays.equals(current.getClasspathEntries(), containers[i].getClasspathEntries())) {
+				continue;
+			}
+			changedProjects.add(projects[i]);
+			changedContainers.add(containers[i]);
+		}
+		if (PDECore.DEBUG_CLASSPATH) {
+			System.out.println("Classpath containers changed for " + changedProjects.size() + " of " + projects.length + " projects"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		}
+		if (!changedProjects.isEmpty()) {
+			JavaCore.setClasspathContainer(PDECore.REQUIRED_PLUGINS_CONTAINER_PATH, changedProjects.toArray(new IJavaProject[changedProjects.size()]), changedContainers.toArray(new IClasspathContainer[changedContainers.size()]), monitor);
+		}
+	}
+
+	/**
+	 * Returns the given bundles and, transitively, all bundles wired to them
+	 * in the resolved state. These are the bundles whose classpath may change
+	 * when the given bundles change.
+	 *
+	 * @param deltas the changes of a state delta
+	 * @return the changed bundles and their dependents
+	 */
+	private Set<BundleDescription> getAffectedBundles(BundleDelta[] deltas) {
+		Set<BundleDescription> affected = new HashSet<>();
+		LinkedList<BundleDescription> queue = new LinkedList<>();
+		for (BundleDelta bundleDelta : deltas) {
+			if (affected.add(bundleDelta.getBundle())) {
+				queue.add(bundleDelta.getBundle());
+			}
+		}
+		while (!queue.isEmpty()) {
+			BundleDescription desc = queue.removeFirst();
+			for (BundleDescription dependent : desc.getDependents()) {
+				if (affected.add(dependent)) {
+					queue.add(dependent);
+				}
+			}
+		}
+		return affected;
+	}
+
+	/**
+	 * Returns the secondary dependencies listed in the build.properties file
+	 * of the given workspace model. The dependencies are read again only when
+	 * the file changed.
+	 *
+	 * @param model a workspace model
+	 * @return the ids of the secondary dependencies, may be empty
+	 */
+	private String[] getSecondaryDependencies(IPluginModelBase model) {
+		IProject project = model.getUnderlyingResource().getProject();
+		long stamp = PDEProject.getBuildProperties(project).getModificationStamp();
+		synchronized (fSecondaryDependencies) {
+			SecondaryDependencies cached = fSecondaryDependencies.get(project);
+			if (cached != null && cached.fStamp == stamp) {
+				return cached.fPluginIds;
+			}
+		}
+		String[] tokens = new String[0];
+		try {
+			IBuild build = ClasspathUtilCore.getBuild(model);
+			IBuildEntry entry = build == null ? null : build.getEntry(IBuildEntry.SECONDARY_DEPENDENCIES);
+			if (entry != null) {
+				tokens = entry.getTokens();
+			}
+		} catch (CoreException e) {
+		}
+		synchronized (fSecondaryDependencies) {
+			fSecondaryDependencies.put(project, new SecondaryDependencies(stamp, tokens));
+		}
+		return tokens;
+	}
+
 	/**
 	 * Notify all interested listeners in changes made to the master table
 	 *
@@ -464,11 +581,179 @@ public class PluginModelManager implements IModelProviderListener {
 	}
 
 	/**
-	 * Clears all existing models and recreates them
+	 * Updates the models after the target platform changed. If only a few
+	 * target bundles were added, removed or modified, only these are updated
+	 * in the table and the state. Otherwise all existing models are cleared
+	 * and recreated.
 	 */
 	public void targetReloaded(IProgressMonitor monitor) {
-		fEntries = null;
-		initializeTable(monitor);
+		SubMonitor subMon = SubMonitor.convert(monitor, PDECoreMessages.PluginModelManager_InitializingPluginModels, 100);
+		URL[] externalUrls = reloadIncrementally(subMon.newChild(60));
+		if (externalUrls != null) {
+			synchronized (this) {
+				fEntries = null;
+				initializeTable(externalUrls, subMon.newChild(40));
+			}
+		}
+	}
+
+	/**
+	 * Updates the table and the state for the target bundles that changed
+	 * since the target was last loaded, if there are few of them.
+	 *
+	 * @param monitor progress monitor
+	 * @return <code>null</code> if the models were updated, otherwise the
+	 *         urls of the new target bundles or an empty array if they are
+	 *         not known and the models must be recreated
+	 */
+	private synchronized URL[] reloadIncrementally(IProgressMonitor monitor) {
+		if (fEntries == null || fState == null || fTargetStamps == null || fCancelled) {
+			return new URL[0];
+		}
+		SubMonitor subMon = SubMonitor.convert(monitor, 100);
+		try {
+			if (TargetPlatformHelper.getUnresolvedRepositoryBasedWorkspaceTarget() != null) {
+				return new URL[0];
+			}
+		} catch (CoreException e) {
+			return new URL[0];
+		}
+		URL[] externalUrls = getExternalBundles(subMon.split(60));
+		if (subMon.isCanceled()) {
+			return externalUrls;
+		}
+
+		// compare the bundle locations and their time stamps with the ones of the loaded target
+		Map<String, long[]> stamps = computeTargetStamps(externalUrls);
+		List<URL> addedUrls = new ArrayList<>();
+		Set<String> removedLocations = new HashSet<>();
+		for (URL url : externalUrls) {
+			String location = new File(url.getFile()).getAbsolutePath();
+			long[] stamp = fTargetStamps.get(location);
+			if (stamp == null || !Arrays.equals(stamp, stamps.get(location))) {
+				addedUrls.add(url);
+				if (stamp != null) {
+					removedLocations.add(location);
+				}
+			}
+		}
+		for (String location : fTargetStamps.keySet()) {
+			if (!stamps.containsKey(location)) {
+				removedLocations.add(location);
+			}
+		}
+		int changes = addedUrls.size() + removedLocations.size();
+		if (changes > Math.max(stamps.size(), fTargetStamps.size()) / 2) {
+			return externalUrls;
+		}
+		List<IPluginModelBase> removed = new ArrayList<>();
+		for (IPluginModelBase model : fExternalManager.getAllModels()) {
+			if (removedLocations.contains(new File(model.getInstallLocation()).getAbsolutePath())) {
+				if (fState.getSystemBundle().equals(model.getPluginBase().getId())) {
+					// the system bundle provides the execution environment profiles
+					return externalUrls;
+				}
+				removed.add(model);
+			}
+		}
+
+		if (PDECore.DEBUG_MODEL) {
+			System.out.println("\nTarget changed, updating " + addedUrls.size() + " added and " + removed.size() + " removed target models"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		}
+		long startTime = System.currentTimeMillis();
+		PluginModelDelta delta = new PluginModelDelta();
+		// remove the old bundles first so that modified bundles are not dropped as duplicates
+		fState.removeTargetModels(removed);
+		IPluginModelBase[] added;
+		try {
+			added = fState.addTargetBundles(addedUrls.toArray(new URL[addedUrls.size()]), subMon.split(30));
+		} catch (OperationCanceledException e) {
+			// the state is partially updated, recreate all models on next access
+			fEntries = null;
+			fTargetStamps = null;
+			throw e;
+		}
+		// the bundle descriptions of the removed models are already out of the
+		// state, only update the entries. An entry left empty is only removed
+		// if no new model replaces it, so a modified bundle is a single change.
+		Set<LocalModelEntry> changed = new LinkedHashSet<>();
+		Map<String, LocalModelEntry> emptied = new LinkedHashMap<>();
+		for (IPluginModelBase model : removed) {
+			String id = model.getPluginBase().getId();
+			LocalModelEntry entry = id != null ? fEntries.get(id) : null;
+			if (entry != null) {
+				entry.removeModel(model);
+				if (!entry.hasExternalModels() && !entry.hasWorkspaceModels()) {
+					emptied.put(id, entry);
+				} else {
+					changed.add(entry);
+				}
+			}
+		}
+
+		boolean preferWorkspaceBundle = PDECore.getDefault().getPreferencesManager().getBoolean(ICoreConstants.WORKSPACE_PLUGINS_OVERRIDE_TARGET);
+		Set<String> addedBSNs = new HashSet<>();
+		for (IPluginModelBase model : added) {
+			String id = model.getPluginBase().getId();
+			if (id == null) {
+				continue;
+			}
+			LocalModelEntry entry = fEntries.get(id);
+			if (entry == null) {
+				entry = new LocalModelEntry(id);
+				fEntries.put(id, entry);
+				delta.addEntry(entry, PluginModelDelta.ADDED);
+			} else {
+				emptied.remove(id);
+				changed.add(entry);
+			}
+			entry.addModel(model);
+			// the workspace bundles of the same id keep overriding the target bundle
+			if (entry.hasWorkspaceModels() && preferWorkspaceBundle) {
+				fState.removeBundleDescription(model.getBundleDescription());
+			}
+			addedBSNs.add(id);
+		}
+		for (Entry<String, LocalModelEntry> emptiedEntry : emptied.entrySet()) {
+			fEntries.remove(emptiedEntry.getKey());
+			delta.addEntry(emptiedEntry.getValue(), PluginModelDelta.REMOVED);
+		}
+		for (LocalModelEntry entry : changed) {
+			delta.addEntry(entry, PluginModelDelta.CHANGED);
+		}
+		fExternalManager.setModels(fState.getTargetModels());
+		fTargetStamps = stamps;
+		saveExternalPluginList(externalUrls);
+
+		// the environment of the new target may differ
+		fState.resetPlatformProperties();
+		StateDelta stateDelta = addedBSNs.isEmpty() ? fState.resolveState(true) : fState.resolveState(addedBSNs.toArray(new String[addedBSNs.size()]));
+		subMon.worked(10);
+		// flush the extension registry cache since target bundles have changed
+		PDECore.getDefault().getExtensionsRegistry().targetReloaded();
+		PDECore.getDefault().getSchemaRegistry().targetReloaded();
+		updateAffectedEntries(stateDelta, true);
+		fireStateDelta(stateDelta);
+		fireDelta(delta);
+		if (PDECore.DEBUG_MODEL) {
+			System.out.println("PDE plug-in models updated in " + (System.currentTimeMillis() - startTime) + " ms"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the time stamps of the given target bundles by location
+	 *
+	 * @param urls urls of target bundles
+	 * @return the last modified times and sizes of the bundles by absolute path
+	 */
+	private Map<String, long[]> computeTargetStamps(URL[] urls) {
+		Map<String, long[]> stamps = new HashMap<>((int) (urls.length / 0.75f) + 1);
+		for (URL url : urls) {
+			File file = new File(url.getFile());
+			stamps.put(file.getAbsolutePath(), BundleManifestCache.computeStamp(file));
+		}
+		return stamps;
 	}
 
 	/**
@@ -491,6 +776,17 @@ public class PluginModelManager implements IModelProviderListener {
 	 *
 	 */
 	private synchronized void initializeTable(IProgressMonitor monitor) {
+		initializeTable(null, monitor);
+	}
+
+	/**
+	 * Initializes the table if it is not initialized yet.
+	 *
+	 * @param knownUrls the urls of the target bundles if they are already known,
+	 *            <code>null</code> or an empty array to compute them
+	 * @param monitor progress monitor
+	 */
+	private synchronized void initializeTable(URL[] knownUrls, IProgressMonitor monitor) {
 		if (fEntries != null)
 			return;
 
@@ -528,6 +824,7 @@ public class PluginModelManager implements IModelProviderListener {
 			//Workspace target contains unresolved p2 repositories,
 			//set empty fState, fExternalManager, fEntries- scheduling target platform resolve
 			fState = new PDEState(new URL[0], true, true, subMon);
+			fTargetStamps = null;
 			fExternalManager.setModels(new IPluginModelBase[0]);
 			fEntries = entries;
 			LoadTargetDefinitionJob.load(unresolvedRepoBasedtarget);
@@ -536,7 +833,8 @@ public class PluginModelManager implements IModelProviderListener {
 
 		long startTargetModels = System.currentTimeMillis();
 		// Target models
-		URL[] externalUrls = getExternalBundles(subMon.split(40));
+		URL[] externalUrls = knownUrls != null && knownUrls.length > 0 ? knownUrls : getExternalBundles(subMon.split(40));
+		subMon.setWorkRemaining(60);
 		if (subMon.isCanceled()) {
 			// If target resolution is cancelled, externalUrls will be empty. Log warning so user knows how to reload the target.
 			if (PDECore.DEBUG_MODEL) {
@@ -548,6 +846,7 @@ public class PluginModelManager implements IModelProviderListener {
 		}
 
 		fState = new PDEState(externalUrls, true, true, subMon.split(15));
+		fTargetStamps = fCancelled ? null : computeTargetStamps(externalUrls);
 		fExternalManager.setModels(fState.getTargetModels());
 		addToTable(entries, fExternalManager.getAllModels());
 
@@ -581,6 +880,7 @@ public class PluginModelManager implements IModelProviderListener {
 		fEntries = entries;
 		// flush the extension registry cache since workspace data (BundleDescription id's) have changed.
 		PDECore.getDefault().getExtensionsRegistry().targetReloaded();
+		PDECore.getDefault().getSchemaRegistry().targetReloaded();
 		if (oldState != null) {
 			// Need to update classpath entries
 			updateAffectedEntries(null, true);
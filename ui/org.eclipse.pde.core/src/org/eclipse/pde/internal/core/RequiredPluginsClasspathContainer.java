@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2000, 2013 IBM Corporation and others.
+ *  Copyright (c) 2000, 2017 IBM Corporation and others.
  *  All rights reserved. This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License v1.0
  *  which accompanies this distribution, and is available at
@@ -37,6 +37,29 @@ public class RequiredPluginsClasspathContainer extends PDEClasspathContainer imp
 	 */
 	private static List<IClasspathContributor> fClasspathContributors = null;
 
+	/**
+	 * Access rules of the packages visible to a bundle by exporting bundle,
+	 * and the bundle description they were computed for
+	 */
+	private static class VisiblePackages {
+		final BundleDescription fBundle;
+		final Map<BundleDescription, List<Rule>> fRules;
+
+		VisiblePackages(BundleDescription bundle, Map<BundleDescription, List<Rule>> rules) {
+			fBundle = bundle;
+			fRules = rules;
+		}
+	}
+
+	/**
+	 * Visible packages computed with the {@link StateHelper} by bundle id,
+	 * reused until the bundle or one of its dependencies changes. A bundle
+	 * keeps its id when its description is replaced, so entries of old
+	 * descriptions are overwritten instead of kept.
+	 * @see #clearVisiblePackages(Collection)
+	 */
+	private static final Map<Long, VisiblePackages> fVisiblePackages = new HashMap<>();
+
 	/**
 	 * Constructor for RequiredPluginsClasspathContainer.
 	 */
@@ -188,19 +211,63 @@ public class RequiredPluginsClasspathContainer extends PDEClasspathContainer imp
 	private void addVisiblePackagesFromState(StateHelper helper, BundleDescription desc, Map<BundleDescription, ArrayList<Rule>> visiblePackages) {
 		if (desc == null)
 			return;
-		ExportPackageDescription[] exports = helper.getVisiblePackages(desc);
-		for (ExportPackageDescription export : exports) {
-			BundleDescription exporter = export.getExporter();
-			if (exporter == null)
-				continue;
-			ArrayList<Rule> list = visiblePackages.get(exporter);
+		Map<BundleDescription, List<Rule>> rules = null;
+		synchronized (fVisiblePackages) {
+			VisiblePackages cached = fVisiblePackages.get(desc.getBundleId());
+			if (cached != null && cached.fBundle == desc) {
+				rules = cached.fRules;
+			}
+		}
+		if (rules == null) {
+			rules = new LinkedHashMap<>();
+			ExportPackageDescription[] exports = helper.getVisiblePackages(desc);
+			for (ExportPackageDescription export : exports) {
+				BundleDescription exporter = export.getExporter();
+				if (exporter == null)
+					continue;
+				List<Rule> list = rules.get(exporter);
+				if (list == null) {
+					list = new ArrayList<>();
+					rules.put(exporter, list);
+				}
+				Rule rule = getRule(helper, desc, export);
+				if (!list.contains(rule))
+					list.add(rule);
+			}
+			synchronized (fVisiblePackages) {
+				fVisiblePackages.put(desc.getBundleId(), new VisiblePackages(desc, rules));
+			}
+		}
+		for (Map.Entry<BundleDescription, List<Rule>> entry : rules.entrySet()) {
+			ArrayList<Rule> list = visiblePackages.get(entry.getKey());
 			if (list == null) {
 				list = new ArrayList<>();
-				visiblePackages.put(exporter, list);
+				visiblePackages.put(entry.getKey(), list);
+			}
+			for (Rule rule : entry.getValue()) {
+				if (!list.contains(rule))
+					list.add(rule);
+			}
+		}
+	}
+
+	/**
+	 * Discards the visible packages computed for the given bundles. Must be
+	 * called for all bundles whose resolution or dependencies changed, and
+	 * for removed bundles.
+	 *
+	 * @param bundles the changed bundles or <code>null</code> to discard the
+	 *        visible packages of all bundles
+	 */
+	public static void clearVisiblePackages(Collection<BundleDescription> bundles) {
+		synchronized (fVisiblePackages) {
+			if (bundles == null) {
+				fVisiblePackages.clear();
+			} else {
+				for (BundleDescription bundle : bundles) {
+					fVisiblePackages.remove(bundle.getBundleId());
+				}
 			}
-			Rule rule = getRule(helper, desc, export);
-			if (!list.contains(rule))
-				list.add(rule);
 		}
 	}
 
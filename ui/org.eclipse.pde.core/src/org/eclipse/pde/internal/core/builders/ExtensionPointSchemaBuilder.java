@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2012 IBM Corporation and others.
+ * Copyright (c) 2000, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,7 +12,11 @@
 package org.eclipse.pde.internal.core.builders;
 
 import java.io.*;
-import java.util.Map;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
 import org.eclipse.core.resources.*;
 import org.eclipse.core.runtime.*;
 import org.eclipse.osgi.util.NLS;
@@ -20,14 +24,27 @@ import org.eclipse.pde.core.IModel;
 import org.eclipse.pde.core.plugin.*;
 import org.eclipse.pde.internal.core.*;
 import org.eclipse.pde.internal.core.natures.PDE;
+import org.eclipse.pde.internal.core.ischema.ISchema;
+import org.eclipse.pde.internal.core.ischema.ISchemaInclude;
 import org.eclipse.pde.internal.core.schema.Schema;
 import org.eclipse.pde.internal.core.schema.SchemaDescriptor;
+import org.eclipse.pde.internal.core.util.ParallelLoader;
 
 public class ExtensionPointSchemaBuilder extends IncrementalProjectBuilder {
+
+	/**
+	 * Persistent property of a generated reference document holding the hash
+	 * of the schema and its includes it was generated from, followed by the
+	 * modification stamp of the document
+	 */
+	private static final QualifiedName SCHEMA_HASH = new QualifiedName(PDECore.PLUGIN_ID, "schemaHash"); //$NON-NLS-1$
+
 	class DeltaVisitor implements IResourceDeltaVisitor {
 		private IProgressMonitor monitor;
+		private List<IFile> files;
 
-		public DeltaVisitor(IProgressMonitor monitor) {
+		public DeltaVisitor(List<IFile> files, IProgressMonitor monitor) {
+			this.files = files;
 			this.monitor = monitor;
 		}
 
@@ -47,7 +64,7 @@ public class ExtensionPointSchemaBuilder extends IncrementalProjectBuilder {
 				if (isSchemaFile(candidate)) {
 					// That's it, but only check it if it has been added or changed
 					if (delta.getKind() != IResourceDelta.REMOVED) {
-						compileFile(candidate, monitor);
+						files.add(candidate);
 					} else {
 						removeOutputFile(candidate, monitor);
 					}
@@ -57,18 +74,93 @@ public class ExtensionPointSchemaBuilder extends IncrementalProjectBuilder {
 		}
 	}
 
+	/**
+	 * A reference document to generate from a valid schema file
+	 */
+	static class SchemaOutput {
+		IFile fFile;
+		IPath fOutputPath;
+		String fStoredHash;
+		String fHash;
+		/**
+		 * The files of the schema and of all schemas it includes
+		 */
+		List<URL> fSources = new ArrayList<>();
+		/**
+		 * The locations of includes that could not be resolved
+		 */
+		List<String> fUnresolvedIncludes = new ArrayList<>();
+
+		SchemaOutput(IFile file, IPath outputPath, String storedHash, ISchema schema) {
+			fFile = file;
+			fOutputPath = outputPath;
+			fStoredHash = storedHash;
+			if (schema != null) {
+				collectSources(schema, new HashSet<String>());
+			}
+		}
+
+		private void collectSources(ISchema schema, Set<String> visited) {
+			URL url = schema.getURL();
+			if (url == null || !visited.add(url.toString())) {
+				return;
+			}
+			fSources.add(url);
+			for (ISchemaInclude include : schema.getIncludes()) {
+				ISchema included = include.getIncludedSchema();
+				if (included != null) {
+					collectSources(included, visited);
+				} else {
+					fUnresolvedIncludes.add(include.getLocation());
+				}
+			}
+		}
+
+		/**
+		 * Loads the schema and transforms it into HTML unless the files of the
+		 * schema and its includes did not change since the existing document
+		 * was generated. Does not access the workspace, so it may run on any
+		 * thread.
+		 *
+		 * @return the UTF-8 encoded document or <code>null</code> if the
+		 * existing document is up to date
+		 */
+		byte[] transform() {
+			// the files are hashed as they are, the schema is only loaded if the document is out of date
+			fHash = computeHash(fSources, fUnresolvedIncludes);
+			if (fHash != null && fHash.equals(fStoredHash)) {
+				return null;
+			}
+			SchemaDescriptor desc = new SchemaDescriptor(fFile, false);
+			Schema schema = (Schema) desc.getSchema(false);
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			PrintWriter writer = new PrintWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+			try {
+				SchemaTransformer transformer = new SchemaTransformer();
+				transformer.transform(schema, writer);
+			} finally {
+				writer.close();
+			}
+			return out.toByteArray();
+		}
+	}
+
 	@Override
 	protected IProject[] build(int kind, Map<String, String> args, IProgressMonitor monitor) throws CoreException {
 		IResourceDelta delta = null;
 		if (kind != FULL_BUILD)
 			delta = getDelta(getProject());
 
+		List<IFile> files = new ArrayList<>();
 		if (delta == null || kind == FULL_BUILD) {
-			if (isInterestingProject(getProject()))
-				compileSchemasIn(getProject(), monitor);
+			if (isInterestingProject(getProject())) {
+				monitor.subTask(PDECoreMessages.Builders_Schema_compilingSchemas);
+				collectSchemasIn(getProject(), files);
+			}
 		} else {
-			delta.accept(new DeltaVisitor(monitor));
+			delta.accept(new DeltaVisitor(files, monitor));
 		}
+		compileFiles(files, monitor);
 		return new IProject[0];
 	}
 
@@ -101,8 +193,51 @@ public class ExtensionPointSchemaBuilder extends IncrementalProjectBuilder {
 		return PDE.hasPluginNature(project) && !WorkspaceModelManager.isBinaryProject(project);
 	}
 
-	private void compileFile(IFile file, IProgressMonitor monitor) {
+	/**
+	 * Validates the given schema files one after the other, then generates the
+	 * reference documents of the valid ones in parallel. Documents whose schema
+	 * and includes did not change since they were generated are not written again.
+	 *
+	 * @param files the schema files to compile
+	 * @param monitor progress monitor
+	 */
+	private void compileFiles(List<IFile> files, IProgressMonitor monitor) {
+		SubMonitor subMonitor = SubMonitor.convert(monitor, files.size() * 2);
+		List<SchemaOutput> outputs = new ArrayList<>();
+		for (IFile file : files) {
+			SchemaOutput output = validateFile(file, subMonitor.split(1));
+			if (output != null) {
+				outputs.add(output);
+			}
+		}
+		if (outputs.isEmpty()) {
+			return;
+		}
+
+		// loading and transforming schemas does not touch the workspace, markers and documents are written below
+		List<ParallelLoader.Result<byte[]>> results = ParallelLoader.load(outputs, new ParallelLoader.ILoadOperation<SchemaOutput, byte[]>() {
+			@Override
+			public byte[] load(SchemaOutput output) {
+				return output.transform();
+			}
+		}, subMonitor.split(outputs.size()));
 
+		subMonitor.subTask(PDECoreMessages.Builders_updating);
+		for (int i = 0; i < outputs.size(); i++) {
+			byte[] content = results.get(i).getValue();
+			if (content != null) {
+				writeOutputFile(outputs.get(i), content, subMonitor);
+			}
+		}
+	}
+
+	/**
+	 * Validates a schema file and creates markers for the problems found.
+	 *
+	 * @return the document to generate, or <code>null</code> if the schema has
+	 * errors or documents are not generated for the project
+	 */
+	private SchemaOutput validateFile(IFile file, IProgressMonitor monitor) {
 		String message = NLS.bind(PDECoreMessages.Builders_Schema_compiling, file.getFullPath().toString());
 		monitor.subTask(message);
 
@@ -110,43 +245,84 @@ public class ExtensionPointSchemaBuilder extends IncrementalProjectBuilder {
 		DefaultSAXParser.parse(file, reporter);
 		reporter.validateContent(monitor);
 
-		StringWriter swriter = new StringWriter();
-		PrintWriter writer = new PrintWriter(swriter);
+		boolean generateDoc = CompilerFlags.getBoolean(file.getProject(), CompilerFlags.S_CREATE_DOCS);
+		if (reporter.getDocumentRoot() == null || reporter.getErrorCount() != 0 || !generateDoc) {
+			return null;
+		}
+		IPath outputPath = new Path(getOutputFileName(file));
+		IFile outputFile = file.getWorkspace().getRoot().getFile(outputPath);
+		String storedHash = null;
 		try {
-			boolean generateDoc = CompilerFlags.getBoolean(file.getProject(), CompilerFlags.S_CREATE_DOCS);
-			if (reporter.getDocumentRoot() != null && reporter.getErrorCount() == 0 && generateDoc) {
-				ensureFoldersExist(file.getProject(), getDocLocation(file));
-				String outputFileName = getOutputFileName(file);
-				IWorkspace workspace = file.getWorkspace();
-				Path outputPath = new Path(outputFileName);
-
-				SchemaDescriptor desc = new SchemaDescriptor(file, false);
-				Schema schema = (Schema) desc.getSchema(false);
-
-				SchemaTransformer transformer = new SchemaTransformer();
-				transformer.transform(schema, writer);
-
-				ByteArrayInputStream target = new ByteArrayInputStream(swriter.toString().getBytes("UTF8")); //$NON-NLS-1$
-				IFile outputFile = workspace.getRoot().getFile(outputPath);
-				if (!workspace.getRoot().exists(outputPath)) {
-					outputFile.create(target, true, monitor);
-				} else {
-					outputFile.setContents(target, true, false, monitor);
+			if (outputFile.exists()) {
+				String property = outputFile.getPersistentProperty(SCHEMA_HASH);
+				// a document modified since it was generated is written again
+				String stamp = "@" + outputFile.getModificationStamp(); //$NON-NLS-1$
+				if (property != null && property.endsWith(stamp)) {
+					storedHash = property.substring(0, property.length() - stamp.length());
 				}
 			}
-		} catch (UnsupportedEncodingException e) {
+		} catch (CoreException e) {
 			PDECore.logException(e);
+		}
+		// the includes were resolved when validating the schema
+		return new SchemaOutput(file, outputPath, storedHash, reporter.getSchema());
+	}
+
+	private void writeOutputFile(SchemaOutput output, byte[] content, IProgressMonitor monitor) {
+		IFile file = output.fFile;
+		try {
+			ensureFoldersExist(file.getProject(), getDocLocation(file));
+			IWorkspace workspace = file.getWorkspace();
+			ByteArrayInputStream target = new ByteArrayInputStream(content);
+			IFile outputFile = workspace.getRoot().getFile(output.fOutputPath);
+			if (!workspace.getRoot().exists(output.fOutputPath)) {
+				outputFile.create(target, true, monitor);
+			} else {
+				outputFile.setContents(target, true, false, monitor);
+			}
+			if (output.fHash != null) {
+				outputFile.setPersistentProperty(SCHEMA_HASH, output.fHash + "@" + outputFile.getModificationStamp()); //$NON-NLS-1$
+			}
 		} catch (CoreException e) {
 			PDECore.logException(e);
-		} finally {
-			writer.close();
-			try {
-				swriter.close();
-			} catch (IOException e1) {
+		}
+	}
+
+	/**
+	 * Computes a hash over the contents of the files of a schema and the
+	 * schemas it includes, directly or indirectly.
+	 *
+	 * @param sources the files of the schema and its includes
+	 * @param unresolvedIncludes the locations of includes that could not be
+	 * resolved, the document changes once they can
+	 * @return the hash or <code>null</code> if a file could not be read
+	 */
+	static String computeHash(List<URL> sources, List<String> unresolvedIncludes) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-1"); //$NON-NLS-1$
+			byte[] buffer = new byte[8192];
+			for (URL url : sources) {
+				try (InputStream stream = url.openStream()) {
+					int read;
+					while ((read = stream.read(buffer)) != -1) {
+						digest.update(buffer, 0, read);
+					}
+				}
+			}
+			for (String location : unresolvedIncludes) {
+				digest.update(location.getBytes(StandardCharsets.UTF_8));
+			}
+			StringBuilder hash = new StringBuilder();
+			for (byte b : digest.digest()) {
+				hash.append(Character.forDigit((b >> 4) & 0xF, 16));
+				hash.append(Character.forDigit(b & 0xF, 16));
 			}
+			return hash.toString();
+		} catch (NoSuchAlgorithmException e) {
+			PDECore.logException(e);
+		} catch (IOException e) {
 		}
-		monitor.subTask(PDECoreMessages.Builders_updating);
-		monitor.done();
+		return null;
 	}
 
 	private void ensureFoldersExist(IProject project, String pathName) throws CoreException {
@@ -163,17 +339,15 @@ public class ExtensionPointSchemaBuilder extends IncrementalProjectBuilder {
 		}
 	}
 
-	private void compileSchemasIn(IContainer container, IProgressMonitor monitor) throws CoreException {
-		monitor.subTask(PDECoreMessages.Builders_Schema_compilingSchemas);
+	private void collectSchemasIn(IContainer container, List<IFile> files) throws CoreException {
 		IResource[] members = container.members();
 		for (IResource member : members) {
 			if (member instanceof IContainer)
-				compileSchemasIn((IContainer) member, monitor);
+				collectSchemasIn((IContainer) member, files);
 			else if (member instanceof IFile && isSchemaFile((IFile) member)) {
-				compileFile((IFile) member, monitor);
+				files.add((IFile) member);
 			}
 		}
-		monitor.done();
 	}
 
 	private String getDocLocation(IFile file) {
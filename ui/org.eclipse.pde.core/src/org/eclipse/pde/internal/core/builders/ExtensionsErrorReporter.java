@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2016 IBM Corporation and others.
+ * Copyright (c) 2005, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -36,6 +36,19 @@ public class ExtensionsErrorReporter extends ManifestErrorReporter {
 	private IPluginModelBase fModel;
 	private IBuild fBuildModel;
 
+	/**
+	 * A class attribute of an extension, checked once all extensions of the
+	 * file have been validated
+	 */
+	private static class ClassReference {
+		String fClassName;
+		String fAttrName;
+		int fLine;
+		String fLocationPath;
+	}
+
+	private List<ClassReference> fClassReferences = new ArrayList<>();
+
 	public ExtensionsErrorReporter(IFile file) {
 		super(file);
 		fModel = PluginRegistry.findModel(file.getProject());
@@ -53,13 +66,58 @@ public class ExtensionsErrorReporter extends ManifestErrorReporter {
 	public void characters(char[] characters, int start, int length) throws SAXException {
 	}
 
+	/**
+	 * Validates the extensions and extension points as soon as they have
+	 * been parsed. Only the element being validated is kept in memory, which
+	 * matters for generated files with many thousands of extensions.
+	 */
+	@Override
+	protected boolean topLevelElementParsed(Element element) {
+		if (!isValidRootElement(element.getParentNode().getNodeName()))
+			return false;
+		validateTopLevelElement(element);
+		return true;
+	}
+
+	/**
+	 * @param elementName name of the root element of the document
+	 * @return whether the children of the root element are to be validated
+	 */
+	protected boolean isValidRootElement(String elementName) {
+		return "plugin".equals(elementName) || "fragment".equals(elementName); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * Validates a direct child of the root element
+	 *
+	 * @param child the element to validate
+	 */
+	protected void validateTopLevelElement(Element child) {
+		String name = child.getNodeName();
+		if (name.equals("extension")) { //$NON-NLS-1$
+			validateExtension(child);
+		} else if (name.equals("extension-point")) { //$NON-NLS-1$
+			validateExtensionPoint(child);
+		} else {
+			if (!name.equals("runtime") && !name.equals("requires")) { //$NON-NLS-1$ //$NON-NLS-2$
+				int severity = CompilerFlags.getFlag(fProject, CompilerFlags.P_UNKNOWN_ELEMENT);
+				if (severity != CompilerFlags.IGNORE)
+					reportIllegalElement(child, severity);
+			} else {
+				int severity = CompilerFlags.getFlag(fProject, CompilerFlags.P_DEPRECATED);
+				if (severity != CompilerFlags.IGNORE)
+					reportUnusedElement(child, severity);
+			}
+		}
+	}
+
 	@Override
 	public void validateContent(IProgressMonitor monitor) {
 		Element element = getDocumentRoot();
 		if (element == null)
 			return;
 		String elementName = element.getNodeName();
-		if (!"plugin".equals(elementName) && !"fragment".equals(elementName)) { //$NON-NLS-1$ //$NON-NLS-2$
+		if (!isValidRootElement(elementName)) {
 			reportIllegalElement(element, CompilerFlags.ERROR);
 		} else {
 			int severity = CompilerFlags.getFlag(fProject, CompilerFlags.P_DEPRECATED);
@@ -70,29 +128,17 @@ public class ExtensionsErrorReporter extends ManifestErrorReporter {
 				}
 			}
 
+			// children validated while parsing have been released, only those
+			// left when the parser stopped at an error are validated here
 			NodeList children = element.getChildNodes();
 			for (int i = 0; i < children.getLength(); i++) {
 				if (monitor.isCanceled())
 					break;
-				Element child = (Element) children.item(i);
-				String name = child.getNodeName();
-				if (name.equals("extension")) { //$NON-NLS-1$
-					validateExtension(child);
-				} else if (name.equals("extension-point")) { //$NON-NLS-1$
-					validateExtensionPoint(child);
-				} else {
-					if (!name.equals("runtime") && !name.equals("requires")) { //$NON-NLS-1$ //$NON-NLS-2$
-						severity = CompilerFlags.getFlag(fProject, CompilerFlags.P_UNKNOWN_ELEMENT);
-						if (severity != CompilerFlags.IGNORE)
-							reportIllegalElement(child, severity);
-					} else {
-						severity = CompilerFlags.getFlag(fProject, CompilerFlags.P_DEPRECATED);
-						if (severity != CompilerFlags.IGNORE)
-							reportUnusedElement(child, severity);
-					}
-				}
+				validateTopLevelElement((Element) children.item(i));
 			}
 
+			validateClassReferences();
+
 			if (fModel != null) {
 			IExtensions extensions = fModel.getExtensions();
 			if (extensions != null && extensions.getExtensions().length == 0 && extensions.getExtensionPoints().length == 0)
@@ -533,36 +579,72 @@ public class ExtensionsErrorReporter extends ManifestErrorReporter {
 	}
 
 	protected void validateJavaAttribute(Element element, Attr attr) {
-		String value = attr.getValue();
-		IJavaProject javaProject = JavaCore.create(fFile.getProject());
+		int severity = CompilerFlags.getFlag(fProject, CompilerFlags.P_UNKNOWN_CLASS);
+		int discouragedSeverity = CompilerFlags.getFlag(fProject, CompilerFlags.P_DISCOURAGED_CLASS);
+		if (severity == CompilerFlags.IGNORE && discouragedSeverity == CompilerFlags.IGNORE)
+			return;
 
+		String value = attr.getValue();
 		// be careful: people have the option to use the format:
 		// fullqualifiedName:staticMethod
 		int index = value.indexOf(":"); //$NON-NLS-1$
 		if (index != -1)
 			value = value.substring(0, index);
 
-		// assume we're on the classpath already
-		boolean onClasspath = true;
+		// the type is looked up later together with all other class attributes of the file
+		ClassReference reference = new ClassReference();
+		reference.fClassName = value;
+		reference.fAttrName = attr.getName();
+		reference.fLine = getLine(element, attr.getName());
+		reference.fLocationPath = getLocationPath(element, attr.getName() + F_ATT_VALUE_PREFIX + attr.getValue());
+		fClassReferences.add(reference);
+	}
+
+	/**
+	 * Looks up the types referenced by the class attributes collected while
+	 * validating the extensions, each distinct type once, and reports the
+	 * types that are missing or discouraged.
+	 */
+	protected void validateClassReferences() {
+		if (fClassReferences.isEmpty())
+			return;
+		List<ClassReference> references = fClassReferences;
+		fClassReferences = new ArrayList<>();
+		IJavaProject javaProject = JavaCore.create(fFile.getProject());
+		if (!javaProject.isOpen())
+			return;
+
+		TypeExistenceCache cache = PDECore.getDefault().getTypeExistenceCache();
 		int severity = CompilerFlags.getFlag(fProject, CompilerFlags.P_UNKNOWN_CLASS);
-		if (severity != CompilerFlags.IGNORE && javaProject.isOpen()) {
-			onClasspath = PDEJavaHelper.isOnClasspath(value, javaProject);
-			if (!onClasspath) {
-				report(NLS.bind(PDECoreMessages.Builders_Manifest_class, (new String[] {value, attr.getName()})), getLine(element, attr.getName()), severity, PDEMarkerFactory.P_UNKNOWN_CLASS, element, attr.getName() + F_ATT_VALUE_PREFIX + attr.getValue(), PDEMarkerFactory.CAT_FATAL);
+		int discouragedSeverity = CompilerFlags.getFlag(fProject, CompilerFlags.P_DISCOURAGED_CLASS);
+		BundleDescription desc = fModel == null ? null : fModel.getBundleDescription();
+		Map<String, Boolean> onClasspath = new HashMap<>();
+		Map<String, Boolean> discouraged = new HashMap<>();
+		for (ClassReference reference : references) {
+			String value = reference.fClassName;
+			// assume we're on the classpath already
+			Boolean found = Boolean.TRUE;
+			if (severity != CompilerFlags.IGNORE) {
+				found = onClasspath.get(value);
+				if (found == null) {
+					found = Boolean.valueOf(cache.isOnClasspath(value, javaProject));
+					onClasspath.put(value, found);
+				}
+				if (!found.booleanValue()) {
+					report(NLS.bind(PDECoreMessages.Builders_Manifest_class, (new String[] {value, reference.fAttrName})), reference.fLine, severity, PDEMarkerFactory.P_UNKNOWN_CLASS, reference.fLocationPath, PDEMarkerFactory.CAT_FATAL);
+				}
 			}
-		}
 
-		severity = CompilerFlags.getFlag(fProject, CompilerFlags.P_DISCOURAGED_CLASS);
-		if (severity != CompilerFlags.IGNORE && javaProject.isOpen()) {
-			if (fModel == null) {
-				return;
-			}
-			BundleDescription desc = fModel.getBundleDescription();
-			if (desc == null)
-				return;
 			// only check if we're discouraged if there is something on the classpath
-			if (onClasspath && PDEJavaHelper.isDiscouraged(value, javaProject, desc)) {
-				report(NLS.bind(PDECoreMessages.Builders_Manifest_discouragedClass, (new String[] {value, attr.getName()})), getLine(element, attr.getName()), severity, PDEMarkerFactory.M_DISCOURAGED_CLASS, element, attr.getName() + F_ATT_VALUE_PREFIX + attr.getValue(), PDEMarkerFactory.CAT_OTHER);
+			if (discouragedSeverity != CompilerFlags.IGNORE && desc != null && found.booleanValue()) {
+				Boolean isDiscouraged = discouraged.get(value);
+				if (isDiscouraged == null) {
+					isDiscouraged = Boolean.valueOf(PDEJavaHelper.isDiscouraged(value, javaProject, desc));
+					discouraged.put(value, isDiscouraged);
+				}
+				if (isDiscouraged.booleanValue()) {
+					report(NLS.bind(PDECoreMessages.Builders_Manifest_discouragedClass, (new String[] {value, reference.fAttrName})), reference.fLine, discouragedSeverity, PDEMarkerFactory.M_DISCOURAGED_CLASS, reference.fLocationPath, PDEMarkerFactory.CAT_OTHER);
+				}
 			}
 		}
 	}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2005, 2008 IBM Corporation and others.
+ *  Copyright (c) 2005, 2017 IBM Corporation and others.
  *  All rights reserved. This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License v1.0
  *  which accompanies this distribution, and is available at
@@ -26,6 +26,29 @@ public abstract class PluginBaseErrorReporter extends ExtensionsErrorReporter {
 		super(file);
 	}
 
+	@Override
+	protected boolean isValidRootElement(String elementName) {
+		return getRootElementName().equals(elementName);
+	}
+
+	@Override
+	protected void validateTopLevelElement(Element child) {
+		String name = child.getNodeName();
+		if (name.equals("extension")) { //$NON-NLS-1$
+			validateExtension(child);
+		} else if (name.equals("extension-point")) { //$NON-NLS-1$
+			validateExtensionPoint(child);
+		} else if (name.equals("runtime")) { //$NON-NLS-1$
+			validateRuntime(child);
+		} else if (name.equals("requires")) { //$NON-NLS-1$
+			validateRequires(child);
+		} else {
+			int severity = CompilerFlags.getFlag(fProject, CompilerFlags.P_UNKNOWN_ELEMENT);
+			if (severity != CompilerFlags.IGNORE)
+				reportIllegalElement((Element) child.getParentNode(), severity);
+		}
+	}
+
 	@Override
 	public void validateContent(IProgressMonitor monitor) {
 		Element element = getDocumentRoot();
@@ -36,26 +59,14 @@ public abstract class PluginBaseErrorReporter extends ExtensionsErrorReporter {
 			reportIllegalElement(element, CompilerFlags.ERROR);
 		} else {
 			validateTopLevelAttributes(element);
+			// children validated while parsing have been released
 			NodeList children = element.getChildNodes();
 			for (int i = 0; i < children.getLength(); i++) {
 				if (monitor.isCanceled())
 					break;
-				Element child = (Element) children.item(i);
-				String name = child.getNodeName();
-				if (name.equals("extension")) { //$NON-NLS-1$
-					validateExtension(child);
-				} else if (name.equals("extension-point")) { //$NON-NLS-1$
-					validateExtensionPoint(child);
-				} else if (name.equals("runtime")) { //$NON-NLS-1$
-					validateRuntime(child);
-				} else if (name.equals("requires")) { //$NON-NLS-1$
-					validateRequires(child);
-				} else {
-					int severity = CompilerFlags.getFlag(fProject, CompilerFlags.P_UNKNOWN_ELEMENT);
-					if (severity != CompilerFlags.IGNORE)
-						reportIllegalElement(element, severity);
-				}
+				validateTopLevelElement((Element) children.item(i));
 			}
+			validateClassReferences();
 		}
 	}
 
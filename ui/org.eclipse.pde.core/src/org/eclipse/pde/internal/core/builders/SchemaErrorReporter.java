@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2005, 2013 IBM Corporation and others.
+ *  Copyright (c) 2005, 2017 IBM Corporation and others.
  *  All rights reserved. This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License v1.0
  *  which accompanies this distribution, and is available at
@@ -84,6 +84,15 @@ public class SchemaErrorReporter extends XMLErrorReporter {
 		fSchema = desc.getSchema(false);
 	}
 
+	/**
+	 * Returns the schema being validated, with its includes
+	 *
+	 * @return the schema or <code>null</code> if the file does not exist
+	 */
+	public ISchema getSchema() {
+		return fSchema;
+	}
+
 	@Override
 	public void validateContent(IProgressMonitor monitor) {
 		List<String> elements = new ArrayList<>();
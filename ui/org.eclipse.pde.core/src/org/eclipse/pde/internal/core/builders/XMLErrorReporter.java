@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2000, 2016 IBM Corporation and others.
+ *  Copyright (c) 2000, 2017 IBM Corporation and others.
  *  All rights reserved. This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License v1.0
  *  which accompanies this distribution, and is available at
@@ -67,6 +67,12 @@ public class XMLErrorReporter extends DefaultHandler {
 
 	private double fSchemaVersion = 2.1;
 
+	/**
+	 * Number of children of the root element that were released after they
+	 * had been parsed, see {@link #topLevelElementParsed(Element)}
+	 */
+	private int fReleasedChildren;
+
 	public XMLErrorReporter(IFile file) {
 		ITextFileBufferManager manager = FileBuffers.getTextFileBufferManager();
 		try {
@@ -141,15 +147,34 @@ public class XMLErrorReporter extends DefaultHandler {
 	}
 
 	public void report(String message, int line, int severity, int fixId, Element element, String attrName, String category) {
+		report(message, line, severity, fixId, generateLocationPath(element, attrName), category);
+	}
+
+	/**
+	 * Reports a problem on an element whose location path was computed with
+	 * {@link #getLocationPath(Element, String)} before the element was
+	 * released
+	 */
+	public void report(String message, int line, int severity, int fixId, String locationPath, String category) {
 		IMarker marker = report(message, line, severity, fixId, category);
 		if (marker == null)
 			return;
 		try {
-			marker.setAttribute(PDEMarkerFactory.MPK_LOCATION_PATH, generateLocationPath(element, attrName));
+			marker.setAttribute(PDEMarkerFactory.MPK_LOCATION_PATH, locationPath);
 		} catch (CoreException e) {
 		}
 	}
 
+	/**
+	 * @param element the element
+	 * @param attrName the attribute name or <code>null</code>
+	 * @return the location path stored in the markers reported on the given
+	 *         element or attribute
+	 */
+	protected String getLocationPath(Element element, String attrName) {
+		return generateLocationPath(element, attrName);
+	}
+
 	private String generateLocationPath(Node node, String attrName) {
 		if (node == null)
 			return ""; // //$NON-NLS-1$
@@ -160,6 +185,8 @@ public class XMLErrorReporter extends DefaultHandler {
 
 		StringBuffer sb = new StringBuffer();
 		Node parent = node.getParentNode();
+		if (parent != null && parent == fRootElement)
+			childIndex += fReleasedChildren;
 		if (parent != null && !(parent instanceof Document)) {
 			sb.append(generateLocationPath(parent, null));
 			sb.append(F_CHILD_SEP);
@@ -232,7 +259,36 @@ public class XMLErrorReporter extends DefaultHandler {
 
 	@Override
 	public void endElement(String uri, String localName, String qName) throws SAXException {
-		fElementStack.pop();
+		Element element = fElementStack.pop();
+		if (fElementStack.size() == 1 && topLevelElementParsed(element)) {
+			// the element has been processed, keep only the root and its attributes
+			fElementStack.peek().removeChild(element);
+			releaseOffsets(element);
+			fReleasedChildren++;
+		}
+	}
+
+	/**
+	 * Called while the document is parsed, once a direct child of the root
+	 * element and all its descendants have been parsed. Subclasses validating
+	 * the children of the root one at a time can do so here and release the
+	 * element, so that large documents are not kept in memory as a whole.
+	 * Reporting problems on the element works as usual during this call.
+	 *
+	 * @param element the parsed element, still attached to the root element
+	 * @return <code>true</code> if the element has been processed and must
+	 *         be removed from the document, <code>false</code> to keep it
+	 */
+	protected boolean topLevelElementParsed(Element element) {
+		return false;
+	}
+
+	private void releaseOffsets(Element element) {
+		fOffsetTable.remove(element);
+		for (Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+			if (child instanceof Element)
+				releaseOffsets((Element) child);
+		}
 	}
 
 	private void generateErrorElementHierarchy() {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2000, 2013 IBM Corporation and others.
+ *  Copyright (c) 2000, 2017 IBM Corporation and others.
  *  All rights reserved. This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License v1.0
  *  which accompanies this distribution, and is available at
@@ -148,7 +148,7 @@ public class IncludedSchemaDescriptor implements ISchemaDescriptor {
 	}
 
 	@Override
-	public ISchema getSchema(boolean abbreviated) {
+	public synchronized ISchema getSchema(boolean abbreviated) {
 		if (fSchema == null && fSchemaURL != null) {
 			fSchema = new Schema(this, fSchemaURL, abbreviated);
 			fSchema.load();
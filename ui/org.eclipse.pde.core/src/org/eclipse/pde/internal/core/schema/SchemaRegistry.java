@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2013 IBM Corporation and others.
+ * Copyright (c) 2005, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -13,9 +13,9 @@ package org.eclipse.pde.internal.core.schema;
 import java.io.File;
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.util.HashMap;
-import org.eclipse.core.runtime.IPath;
-import org.eclipse.core.runtime.Path;
+import java.util.*;
+import org.eclipse.core.resources.*;
+import org.eclipse.core.runtime.*;
 import org.eclipse.pde.core.plugin.*;
 import org.eclipse.pde.internal.core.PDECore;
 import org.eclipse.pde.internal.core.SourceLocationManager;
@@ -24,29 +24,86 @@ import org.eclipse.pde.internal.core.ischema.ISchemaDescriptor;
 import org.eclipse.pde.internal.core.text.plugin.PluginExtensionPointNode;
 import org.eclipse.pde.internal.core.util.CoreUtility;
 
-public class SchemaRegistry {
+/**
+ * Caches the parsed schemas of extension points and of the schemas they
+ * include. The registry is safe to use from several threads, such as the
+ * builders of a parallel build, and keeps at most {@link #MAX_SCHEMAS}
+ * schemas, evicting the least recently used ones.
+ * <p>
+ * Schemas in the workspace are discarded when a resource delta reports a
+ * change of their file, all other schemas when the target is reloaded.
+ * Looking up a cached schema does not touch the file system.
+ * </p>
+ */
+public class SchemaRegistry implements IResourceChangeListener {
 
-	private HashMap<String, ISchemaDescriptor> fRegistry = new HashMap<>();
+	/**
+	 * Maximum number of schemas kept in the registry
+	 */
+	private static final int MAX_SCHEMAS = 500;
+
+	/**
+	 * A cached schema and the extension point attributes its location was
+	 * computed from
+	 */
+	private static class SchemaEntry {
+		final String fSource;
+		final ISchemaDescriptor fDescriptor;
+
+		SchemaEntry(String source, ISchemaDescriptor descriptor) {
+			fSource = source;
+			fDescriptor = descriptor;
+		}
+	}
+
+	private final Map<String, SchemaEntry> fRegistry = new LinkedHashMap<String, SchemaEntry>(64, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, SchemaEntry> eldest) {
+			return size() > MAX_SCHEMAS;
+		}
+	};
+
+	public SchemaRegistry() {
+		PDECore.getWorkspace().addResourceChangeListener(this, IResourceChangeEvent.POST_CHANGE);
+	}
 
 	public ISchema getSchema(String extPointID) {
 		IPluginExtensionPoint point = PDECore.getDefault().getExtensionsRegistry().findExtensionPoint(extPointID);
 		if (point == null) {
 			// if there is an old schema associated with this extension point, release it.
-			if (fRegistry.containsKey(extPointID))
+			synchronized (fRegistry) {
 				fRegistry.remove(extPointID);
+			}
 			return null;
 		}
 
-		URL url = getSchemaURL(point);
-		if (url == null)
-			return null;
-
-		ISchemaDescriptor desc = getExistingDescriptor(extPointID, url);
+		// the schema location only needs to be computed again if the extension point moved
+		IPluginModelBase model = point.getPluginModel();
+		String source = (model == null ? null : model.getInstallLocation()) + "|" + point.getSchema(); //$NON-NLS-1$
+		ISchemaDescriptor desc = null;
+		synchronized (fRegistry) {
+			SchemaEntry entry = fRegistry.get(extPointID);
+			if (entry != null && entry.fSource.equals(source))
+				desc = entry.fDescriptor;
+		}
 		if (desc == null) {
-			desc = new SchemaDescriptor(extPointID, url);
-			fRegistry.put(extPointID, desc);
+			URL url = getSchemaURL(point);
+			if (url == null)
+				return null;
+			synchronized (fRegistry) {
+				SchemaEntry entry = fRegistry.get(extPointID);
+				if (entry != null && entry.fDescriptor.getSchemaURL().equals(url)) {
+					desc = entry.fDescriptor;
+				} else {
+					desc = new SchemaDescriptor(extPointID, url);
+				}
+				fRegistry.put(extPointID, new SchemaEntry(source, desc));
+			}
 		}
 
+		// parsed outside the registry lock, descriptors parse their schema only once
 		return desc.getSchema(true);
 	}
 
@@ -56,10 +113,15 @@ public class SchemaRegistry {
 			if (url == null)
 				return null;
 
-			ISchemaDescriptor desc = getExistingDescriptor(url.toString(), url);
-			if (desc == null) {
-				desc = new IncludedSchemaDescriptor(url);
-				fRegistry.put(url.toString(), desc);
+			String key = url.toString();
+			ISchemaDescriptor desc;
+			synchronized (fRegistry) {
+				SchemaEntry entry = fRegistry.get(key);
+				if (entry == null) {
+					entry = new SchemaEntry(key, new IncludedSchemaDescriptor(url));
+					fRegistry.put(key, entry);
+				}
+				desc = entry.fDescriptor;
 			}
 			return desc.getSchema(true);
 		} catch (MalformedURLException e) {
@@ -67,14 +129,91 @@ public class SchemaRegistry {
 		return null;
 	}
 
-	private ISchemaDescriptor getExistingDescriptor(String key, URL url) {
-		ISchemaDescriptor desc = null;
-		if (fRegistry.containsKey(key)) {
-			desc = fRegistry.get(key);
-			if (hasSchemaChanged(desc, url))
-				desc = null;
+	/**
+	 * Discards all schemas that are not located in the workspace, to be called
+	 * when the target platform was reloaded
+	 */
+	public void targetReloaded() {
+		IWorkspaceRoot root = PDECore.getWorkspace().getRoot();
+		synchronized (fRegistry) {
+			Iterator<SchemaEntry> iterator = fRegistry.values().iterator();
+			while (iterator.hasNext()) {
+				File file = getFile(iterator.next().fDescriptor);
+				if (file == null || root.getFileForLocation(new Path(file.getAbsolutePath())) == null) {
+					iterator.remove();
+				}
+			}
 		}
-		return desc;
+	}
+
+	/**
+	 * Discards the schemas whose files in the workspace were changed, moved or
+	 * deleted. All schemas are discarded when a project is removed, closed or
+	 * opened.
+	 */
+	@Override
+	public void resourceChanged(IResourceChangeEvent event) {
+		final Set<File> changed = new HashSet<>();
+		final boolean[] projectsChanged = new boolean[1];
+		try {
+			event.getDelta().accept(new IResourceDeltaVisitor() {
+				@Override
+				public boolean visit(IResourceDelta delta) {
+					IResource resource = delta.getResource();
+					if (resource.getType() == IResource.PROJECT && (delta.getKind() == IResourceDelta.REMOVED || (delta.getFlags() & IResourceDelta.OPEN) != 0)) {
+						// files of closed projects are not reported
+						projectsChanged[0] = true;
+						return false;
+					}
+					if (resource.getType() == IResource.FILE) {
+						// only schemas and the schemas they include are cached
+						if (!isSchemaFile(resource)) {
+							return false;
+						}
+						IPath location = resource.getLocation();
+						if (location != null && (delta.getKind() != IResourceDelta.CHANGED || (delta.getFlags() & (IResourceDelta.CONTENT | IResourceDelta.REPLACED)) != 0)) {
+							changed.add(location.toFile().getAbsoluteFile());
+						}
+						return false;
+					}
+					return true;
+				}
+			});
+		} catch (CoreException e) {
+			PDECore.logException(e);
+			projectsChanged[0] = true;
+		}
+		if (!projectsChanged[0] && changed.isEmpty()) {
+			return;
+		}
+		synchronized (fRegistry) {
+			if (projectsChanged[0]) {
+				fRegistry.clear();
+				return;
+			}
+			Iterator<SchemaEntry> iterator = fRegistry.values().iterator();
+			while (iterator.hasNext()) {
+				if (changed.contains(getFile(iterator.next().fDescriptor))) {
+					iterator.remove();
+				}
+			}
+		}
+	}
+
+	private static boolean isSchemaFile(IResource resource) {
+		String extension = resource.getFileExtension();
+		return "exsd".equals(extension) || "mxsd".equals(extension); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * Returns the file of a schema or <code>null</code> if the schema is not a
+	 * file, for example if it is located in a jar
+	 */
+	private static File getFile(ISchemaDescriptor desc) {
+		URL url = desc.getSchemaURL();
+		if (url == null || !"file".equals(url.getProtocol())) //$NON-NLS-1$
+			return null;
+		return new File(url.getFile()).getAbsoluteFile();
 	}
 
 	public static URL getSchemaURL(IPluginExtensionPoint point, IPluginModelBase base) {
@@ -153,15 +292,11 @@ public class SchemaRegistry {
 		return null;
 	}
 
-	private boolean hasSchemaChanged(ISchemaDescriptor desc, URL url) {
-		if (!desc.getSchemaURL().equals(url))
-			return true;
-		File file = new File(url.getFile());
-		return (desc.getLastModified() != file.lastModified());
-	}
-
 	public void shutdown() {
-		fRegistry.clear();
+		PDECore.getWorkspace().removeResourceChangeListener(this);
+		synchronized (fRegistry) {
+			fRegistry.clear();
+		}
 	}
 
 	private static String getId(IPluginExtensionPoint point, IPluginModelBase base) {
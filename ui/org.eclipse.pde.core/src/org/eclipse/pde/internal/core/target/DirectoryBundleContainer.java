@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2013 IBM Corporation and others.
+ * Copyright (c) 2008, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,14 +11,14 @@
 package org.eclipse.pde.internal.core.target;
 
 import java.io.File;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
 import org.eclipse.core.runtime.*;
 import org.eclipse.osgi.util.NLS;
 import org.eclipse.pde.core.target.*;
 import org.eclipse.pde.internal.build.IPDEBuildConstants;
 import org.eclipse.pde.internal.core.PDECore;
 import org.eclipse.pde.internal.core.util.ManifestUtils;
+import org.eclipse.pde.internal.core.util.ParallelLoader;
 
 /**
  * A directory of bundles.
@@ -67,19 +67,24 @@ public class DirectoryBundleContainer extends AbstractBundleContainer {
 			File site = getSite(dir);
 			File[] files = site.listFiles();
 			SubMonitor localMonitor = SubMonitor.convert(monitor, Messages.DirectoryBundleContainer_0, files.length);
+			List<ParallelLoader.Result<TargetBundle>> results = ParallelLoader.load(Arrays.asList(files), new ParallelLoader.ILoadOperation<File, TargetBundle>() {
+				@Override
+				public TargetBundle load(File file) throws CoreException {
+					return new TargetBundle(file);
+				}
+			}, localMonitor);
 			List<TargetBundle> bundles = new ArrayList<>(files.length);
-			for (File file : files) {
-				try {
-					TargetBundle rb = new TargetBundle(file);
-					bundles.add(rb);
-				} catch (CoreException e) {
+			for (ParallelLoader.Result<TargetBundle> result : results) {
+				if (result.getValue() != null) {
+					bundles.add(result.getValue());
+				} else {
 					// If an old style conversion fails because the service is not available, log the error.
 					// Otherwise, ignore non-bundle files
+					CoreException e = result.getException();
 					if (e.getStatus().getCode() == ManifestUtils.STATUS_CODE_PLUGIN_CONVERTER_UNAVAILABLE) {
 						PDECore.log(e);
 					}
 				}
-				localMonitor.split(1);
 			}
 			return bundles.toArray(new TargetBundle[bundles.size()]);
 		}
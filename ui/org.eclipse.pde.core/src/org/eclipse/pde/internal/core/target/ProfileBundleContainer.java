@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2014 IBM Corporation and others.
+ * Copyright (c) 2008, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -20,6 +20,7 @@ import org.eclipse.osgi.util.NLS;
 import org.eclipse.pde.core.target.*;
 import org.eclipse.pde.internal.core.*;
 import org.eclipse.pde.internal.core.util.ManifestUtils;
+import org.eclipse.pde.internal.core.util.ParallelLoader;
 
 /**
  * A bundle container representing an installed profile.
@@ -120,33 +121,30 @@ public class ProfileBundleContainer extends AbstractBundleContainer {
 		if (source == null) {
 			source = new BundleInfo[0];
 		}
-		List<TargetBundle> all = new ArrayList<>();
-		SubMonitor localMonitor = SubMonitor.convert(monitor, Messages.DirectoryBundleContainer_0, infos.length + source.length);
-		// Add executable bundles
-		for (BundleInfo info : infos) {
-			if (monitor.isCanceled()) {
-				return new TargetBundle[0];
-			}
-			URI location = info.getLocation();
-			try {
-				all.add(new TargetBundle(URIUtil.toFile(location)));
-			} catch (CoreException e) {
-				all.add(new InvalidTargetBundle(new BundleInfo(location), e.getStatus()));
-			}
-			localMonitor.split(1);
+		List<BundleInfo> bundles = new ArrayList<>(infos.length + source.length);
+		// Add executable bundles, then source bundles
+		bundles.addAll(Arrays.asList(infos));
+		bundles.addAll(Arrays.asList(source));
+		SubMonitor localMonitor = SubMonitor.convert(monitor, Messages.DirectoryBundleContainer_0, bundles.size());
+		List<ParallelLoader.Result<TargetBundle>> results;
+		try {
+			results = ParallelLoader.load(bundles, new ParallelLoader.ILoadOperation<BundleInfo, TargetBundle>() {
+				@Override
+				public TargetBundle load(BundleInfo info) throws CoreException {
+					return new TargetBundle(URIUtil.toFile(info.getLocation()));
+				}
+			}, localMonitor);
+		} catch (OperationCanceledException e) {
+			return new TargetBundle[0];
 		}
-		// Add source bundles
-		for (BundleInfo element : source) {
-			if (monitor.isCanceled()) {
-				return new TargetBundle[0];
+		List<TargetBundle> all = new ArrayList<>(bundles.size());
+		for (int i = 0; i < bundles.size(); i++) {
+			ParallelLoader.Result<TargetBundle> result = results.get(i);
+			if (result.getValue() != null) {
+				all.add(result.getValue());
+			} else {
+				all.add(new InvalidTargetBundle(new BundleInfo(bundles.get(i).getLocation()), result.getException().getStatus()));
 			}
-			URI location = element.getLocation();
-			try {
-				all.add(new TargetBundle(URIUtil.toFile(location)));
-			} catch (CoreException e) {
-				all.add(new InvalidTargetBundle(new BundleInfo(location), e.getStatus()));
-			}
-			localMonitor.split(1);
 		}
 		return all.toArray(new TargetBundle[all.size()]);
 	}
@@ -175,23 +173,29 @@ public class ProfileBundleContainer extends AbstractBundleContainer {
 	protected TargetBundle[] resolvePlatformXML(ITargetDefinition definition, String home, IProgressMonitor monitor) throws CoreException {
 		URL[] files = PluginPathFinder.getPlatformXMLPaths(home, false);
 		if (files.length > 0) {
-			List<TargetBundle> all = new ArrayList<>(files.length);
 			SubMonitor localMonitor = SubMonitor.convert(monitor, Messages.DirectoryBundleContainer_0, files.length);
+			List<File> plugins = new ArrayList<>(files.length);
 			for (URL file : files) {
-				if (localMonitor.isCanceled()) {
-					throw new OperationCanceledException();
+				plugins.add(new File(file.getFile()));
+			}
+			List<ParallelLoader.Result<TargetBundle>> results = ParallelLoader.load(plugins, new ParallelLoader.ILoadOperation<File, TargetBundle>() {
+				@Override
+				public TargetBundle load(File plugin) throws CoreException {
+					return new TargetBundle(plugin);
 				}
-				try {
-					File plugin = new File(file.getFile());
-					all.add(new TargetBundle(plugin));
-				} catch (CoreException e) {
+			}, localMonitor);
+			List<TargetBundle> all = new ArrayList<>(files.length);
+			for (ParallelLoader.Result<TargetBundle> result : results) {
+				if (result.getValue() != null) {
+					all.add(result.getValue());
+				} else {
 					// If an old style conversion fails because the service is not available, log the error.
 					// Otherwise, ignore non-bundle files
+					CoreException e = result.getException();
 					if (e.getStatus().getCode() == ManifestUtils.STATUS_CODE_PLUGIN_CONVERTER_UNAVAILABLE) {
 						PDECore.log(e);
 					}
 				}
-				localMonitor.split(1);
 			}
 			if (!all.isEmpty()) {
 				return all.toArray(new TargetBundle[all.size()]);
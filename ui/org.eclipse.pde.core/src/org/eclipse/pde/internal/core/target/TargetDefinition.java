@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2016 IBM Corporation and others.
+ * Copyright (c) 2008, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -25,6 +25,7 @@ import org.eclipse.osgi.util.NLS;
 import org.eclipse.pde.core.plugin.TargetPlatform;
 import org.eclipse.pde.core.target.*;
 import org.eclipse.pde.internal.core.*;
+import org.eclipse.pde.internal.core.util.ParallelLoader;
 import org.xml.sax.SAXException;
 
 /**
@@ -71,7 +72,7 @@ public class TargetDefinition implements ITargetDefinition {
 	public static final int MODE_FEATURE = 1;
 
 	// cache of features found for a given location, maps a string path location to a array of IFeatureModels (IFeatureModel[])
-	private static Map<String, TargetFeature[]> fFeaturesInLocation = new HashMap<>();
+	private static Map<String, TargetFeature[]> fFeaturesInLocation = Collections.synchronizedMap(new HashMap<String, TargetFeature[]>());
 
 	// internal cache for features.  A target managed by features will contain a set of features as well as a set of plug-ins that don't belong to a feature
 	private TargetFeature[] fFeatures;
@@ -216,7 +217,7 @@ public class TargetDefinition implements ITargetDefinition {
 
 	@Override
 	public IStatus resolve(IProgressMonitor monitor) {
-		ITargetLocation[] containers = getTargetLocations();
+		final ITargetLocation[] containers = getTargetLocations();
 		int num = 0;
 		// keep a map of synchronizer and number of containers it synchronizes
 		HashMap<P2TargetUtils, Integer> synchronizerNumContainerMap = new HashMap<>();
@@ -270,18 +271,55 @@ public class TargetDefinition implements ITargetDefinition {
 				if (subMonitor.isCanceled()) {
 					return Status.CANCEL_STATUS;
 				}
-				for (ITargetLocation container : containers) {
+				// Locations that are not backed by a p2 profile do not depend on
+				// each other and are resolved concurrently, the others are
+				// resolved one after the other.
+				IStatus[] statuses = new IStatus[containers.length];
+				List<Integer> concurrent = new ArrayList<>();
+				for (int i = 0; i < containers.length; i++) {
+					if (isConcurrentResolveSupported(containers[i])) {
+						concurrent.add(Integer.valueOf(i));
+					}
+				}
+				if (!concurrent.isEmpty()) {
+					subMonitor.subTask(Messages.TargetDefinition_4);
+					final SubMonitor cancelMonitor = subMonitor;
+					try {
+						List<ParallelLoader.Result<IStatus>> results = ParallelLoader.load(concurrent, new ParallelLoader.ILoadOperation<Integer, IStatus>() {
+							@Override
+							public IStatus load(Integer index) {
+								// progress is reported as the locations complete,
+								// the workers only check for cancellation
+								return containers[index.intValue()].resolve(TargetDefinition.this, new NullProgressMonitor() {
+									@Override
+									public boolean isCanceled() {
+										return cancelMonitor.isCanceled();
+									}
+								});
+							}
+						}, subMonitor.split(concurrent.size() * 100));
+						for (int i = 0; i < concurrent.size(); i++) {
+							statuses[concurrent.get(i).intValue()] = results.get(i).getValue();
+						}
+					} catch (OperationCanceledException e) {
+						return Status.CANCEL_STATUS;
+					}
+				}
+				for (int i = 0; i < containers.length; i++) {
 					if (subMonitor.isCanceled()) {
 						return Status.CANCEL_STATUS;
 					}
-					subMonitor.subTask(Messages.TargetDefinition_4);
-					P2TargetUtils synchronizer = container.getAdapter(P2TargetUtils.class);
-					int totalWork = 5;
-					if (synchronizer == null)
-						totalWork = 100;
-					IStatus s = container.resolve(this, subMonitor.split(totalWork));
-					if (!s.isOK()) {
-						status.add(s);
+					ITargetLocation container = containers[i];
+					if (statuses[i] == null) {
+						subMonitor.subTask(Messages.TargetDefinition_4);
+						P2TargetUtils synchronizer = container.getAdapter(P2TargetUtils.class);
+						int totalWork = 5;
+						if (synchronizer == null)
+							totalWork = 100;
+						statuses[i] = container.resolve(this, subMonitor.split(totalWork));
+					}
+					if (!statuses[i].isOK()) {
+						status.add(statuses[i]);
 					}
 				}
 			}
@@ -303,6 +341,21 @@ public class TargetDefinition implements ITargetDefinition {
 		}
 	}
 
+	/**
+	 * Returns whether the given location can be resolved on another thread,
+	 * concurrently with other locations of this target. This is the case for
+	 * the locations provided by PDE that do not use a p2 profile.
+	 *
+	 * @param container the target location
+	 * @return whether the location can be resolved concurrently
+	 */
+	private boolean isConcurrentResolveSupported(ITargetLocation container) {
+		if (container.getAdapter(P2TargetUtils.class) != null) {
+			return false;
+		}
+		return container instanceof DirectoryBundleContainer || container instanceof ProfileBundleContainer || container instanceof FeatureBundleContainer;
+	}
+
 	@Override
 	public boolean isResolved() {
 		ITargetLocation[] containers = getTargetLocations();
@@ -0,0 +1,183 @@
+/*******************************************************************************
+ * Copyright (c) 2017 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.internal.core.util;
+
+import java.util.*;
+import java.util.concurrent.*;
+import org.eclipse.core.runtime.*;
+
+/**
+ * Runs an I/O bound load operation, such as opening bundles and parsing their
+ * manifests, for a list of sources on a bounded pool of threads. The results
+ * are returned in the order of the sources so that callers can feed them into
+ * structures that are not thread safe, like an OSGi state, in a single
+ * deterministic step.
+ * <p>
+ * The number of threads defaults to the number of processors, at most
+ * {@link #MAX_THREADS}, and can be set with the
+ * <code>org.eclipse.pde.core.loadThreads</code> system property. A value of
+ * <code>1</code> loads the sources one after the other on the calling thread.
+ * Loads nested in the operation of another load are never run concurrently.
+ * </p>
+ */
+public class ParallelLoader {
+
+	/**
+	 * Upper bound of the default number of threads
+	 */
+	public static final int MAX_THREADS = 8;
+
+	/**
+	 * An operation loading one source
+	 */
+	public interface ILoadOperation<S, T> {
+		/**
+		 * Loads the given source. May be called from several threads at once.
+		 *
+		 * @param source the source to load
+		 * @return the loaded value
+		 * @throws CoreException if the source cannot be loaded
+		 */
+		T load(S source) throws CoreException;
+	}
+
+	/**
+	 * The outcome of loading one source, either a value or an exception
+	 */
+	public static class Result<T> {
+		T fValue;
+		CoreException fException;
+
+		/**
+		 * @return the loaded value, <code>null</code> if loading failed
+		 */
+		public T getValue() {
+			return fValue;
+		}
+
+		/**
+		 * @return the exception thrown while loading, or <code>null</code>
+		 */
+		public CoreException getException() {
+			return fException;
+		}
+	}
+
+	/**
+	 * Set on the threads of a loader while they run a load operation
+	 */
+	private static final ThreadLocal<Boolean> fgLoaderThread = new ThreadLocal<>();
+
+	private ParallelLoader() {
+	}
+
+	/**
+	 * @return the number of threads used to load sources
+	 */
+	public static int getThreadCount() {
+		int count = Math.min(Runtime.getRuntime().availableProcessors(), MAX_THREADS);
+		return Math.max(1, Integer.getInteger("org.eclipse.pde.core.loadThreads", count).intValue()); //$NON-NLS-1$
+	}
+
+	/**
+	 * Loads all given sources and returns the results in the same order.
+	 * <p>
+	 * When called from an operation that is itself run by a loader, the
+	 * sources are loaded one after the other on the calling thread, so nested
+	 * loads share the threads of the outer load instead of starting pools of
+	 * their own.
+	 * </p>
+	 *
+	 * @param sources the sources to load
+	 * @param operation the operation loading a single source
+	 * @param monitor progress monitor, one unit of work is reported per source
+	 *            as soon as it is loaded
+	 * @return the results in the order of the sources
+	 * @throws OperationCanceledException if the monitor is canceled
+	 */
+	public static <S, T> List<Result<T>> load(List<S> sources, final ILoadOperation<S, T> operation, IProgressMonitor monitor) {
+		SubMonitor subMonitor = SubMonitor.convert(monitor, sources.size());
+		int threads = Math.min(getThreadCount(), sources.size());
+		if (threads <= 1 || fgLoaderThread.get() != null) {
+			List<Result<T>> results = new ArrayList<>(sources.size());
+			for (S source : sources) {
+				results.add(loadOne(operation, source));
+				subMonitor.split(1);
+			}
+			return results;
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			CompletionService<Void> completion = new ExecutorCompletionService<>(executor);
+			final List<Result<T>> results = new ArrayList<>(sources.size());
+			for (int i = 0; i < sources.size(); i++) {
+				final S source = sources.get(i);
+				final Result<T> result = new Result<>();
+				results.add(result);
+				completion.submit(new Callable<Void>() {
+					@Override
+					public Void call() {
+						fgLoaderThread.set(Boolean.TRUE);
+						try {
+							Result<T> loaded = loadOne(operation, source);
+							result.fValue = loaded.fValue;
+							result.fException = loaded.fException;
+						} finally {
+							fgLoaderThread.remove();
+						}
+						return null;
+					}
+				});
+			}
+			// report progress as the sources complete, checking regularly for
+			// cancellation while a slow source is still loading
+			int remaining = sources.size();
+			while (remaining > 0) {
+				Future<Void> done = completion.poll(100, TimeUnit.MILLISECONDS);
+				if (done == null) {
+					if (subMonitor.isCanceled()) {
+						throw new OperationCanceledException();
+					}
+					continue;
+				}
+				done.get();
+				remaining--;
+				subMonitor.split(1);
+			}
+			return results;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new OperationCanceledException();
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IllegalStateException(cause);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	static <S, T> Result<T> loadOne(ILoadOperation<S, T> operation, S source) {
+		Result<T> result = new Result<>();
+		try {
+			result.fValue = operation.load(source);
+		} catch (CoreException e) {
+			result.fException = e;
+		}
+		return result;
+	}
+
+}
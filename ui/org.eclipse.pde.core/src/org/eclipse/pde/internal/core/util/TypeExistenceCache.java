@@ -0,0 +1,166 @@
+/*******************************************************************************
+ * Copyright (c) 2017 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.internal.core.util;
+
+import java.util.*;
+import org.eclipse.jdt.core.*;
+
+/**
+ * Remembers whether the types referenced by the class attributes of
+ * extensions exist on the classpath of a Java project, so that incremental
+ * builds do not look up the same types in the Java model again.
+ * <p>
+ * Results are discarded when a Java element delta reports that a type may
+ * have been added or removed. A change of a compilation unit or class file
+ * discards the results for its package, structural changes such as classpath
+ * or package fragment root changes discard all results.
+ * </p>
+ */
+public class TypeExistenceCache implements IElementChangedListener {
+
+	/**
+	 * Whether a type exists by fully qualified name, by project
+	 */
+	private final Map<IJavaProject, Map<String, Boolean>> fTypes = new HashMap<>();
+
+	/**
+	 * Incremented whenever results are discarded, a lookup done meanwhile
+	 * may be stale and is not cached
+	 */
+	private int fGeneration;
+
+	public void start() {
+		JavaCore.addElementChangedListener(this, ElementChangedEvent.POST_CHANGE);
+	}
+
+	public void shutdown() {
+		JavaCore.removeElementChangedListener(this);
+		clear();
+	}
+
+	/**
+	 * Returns whether the given type is on the classpath of the given project
+	 *
+	 * @param fullyQualifiedName the name of the type, nested types may be
+	 *        separated with <code>$</code>
+	 * @param project the project whose classpath to search
+	 * @return whether the type exists
+	 * @see PDEJavaHelper#isOnClasspath(String, IJavaProject)
+	 */
+	public boolean isOnClasspath(String fullyQualifiedName, IJavaProject project) {
+		int generation;
+		synchronized (fTypes) {
+			Map<String, Boolean> types = fTypes.get(project);
+			Boolean exists = types == null ? null : types.get(fullyQualifiedName);
+			if (exists != null) {
+				return exists.booleanValue();
+			}
+			generation = fGeneration;
+		}
+		// the Java model is not searched while holding the lock
+		boolean exists = PDEJavaHelper.isOnClasspath(fullyQualifiedName, project);
+		synchronized (fTypes) {
+			if (generation != fGeneration) {
+				return exists;
+			}
+			Map<String, Boolean> types = fTypes.get(project);
+			if (types == null) {
+				types = new HashMap<>();
+				fTypes.put(project, types);
+			}
+			types.put(fullyQualifiedName, Boolean.valueOf(exists));
+		}
+		return exists;
+	}
+
+	/**
+	 * Discards all cached results
+	 */
+	public void clear() {
+		synchronized (fTypes) {
+			fTypes.clear();
+			fGeneration++;
+		}
+	}
+
+	@Override
+	public void elementChanged(ElementChangedEvent event) {
+		Set<String> packages = new HashSet<>();
+		if (collectChangedPackages(event.getDelta(), packages)) {
+			clear();
+		} else if (!packages.isEmpty()) {
+			synchronized (fTypes) {
+				fGeneration++;
+				for (Map<String, Boolean> types : fTypes.values()) {
+					Iterator<String> iterator = types.keySet().iterator();
+					while (iterator.hasNext()) {
+						if (isInPackages(iterator.next(), packages)) {
+							iterator.remove();
+						}
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Collects the names of the packages in which types may have been added
+	 * or removed
+	 *
+	 * @return <code>true</code> if all results have to be discarded
+	 */
+	private boolean collectChangedPackages(IJavaElementDelta delta, Set<String> packages) {
+		IJavaElement element = delta.getElement();
+		switch (element.getElementType()) {
+			case IJavaElement.JAVA_MODEL :
+				break;
+			case IJavaElement.JAVA_PROJECT :
+			case IJavaElement.PACKAGE_FRAGMENT_ROOT :
+				int structural = IJavaElementDelta.F_CLASSPATH_CHANGED | IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED | IJavaElementDelta.F_ADDED_TO_CLASSPATH | IJavaElementDelta.F_REMOVED_FROM_CLASSPATH | IJavaElementDelta.F_ARCHIVE_CONTENT_CHANGED | IJavaElementDelta.F_OPENED | IJavaElementDelta.F_CLOSED | IJavaElementDelta.F_REORDER;
+				if (delta.getKind() != IJavaElementDelta.CHANGED || (delta.getFlags() & structural) != 0) {
+					return true;
+				}
+				break;
+			case IJavaElement.PACKAGE_FRAGMENT :
+				if (delta.getKind() != IJavaElementDelta.CHANGED) {
+					packages.add(element.getElementName());
+					return false;
+				}
+				break;
+			case IJavaElement.COMPILATION_UNIT :
+			case IJavaElement.CLASS_FILE :
+				IJavaElement pkg = element.getAncestor(IJavaElement.PACKAGE_FRAGMENT);
+				if (pkg != null) {
+					packages.add(pkg.getElementName());
+				}
+				return false;
+			default :
+				return false;
+		}
+		for (IJavaElementDelta child : delta.getAffectedChildren()) {
+			if (collectChangedPackages(child, packages)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean isInPackages(String fullyQualifiedName, Set<String> packages) {
+		for (String pkg : packages) {
+			// the default package contains all names, member types may be separated with dots
+			if (pkg.length() == 0 || fullyQualifiedName.startsWith(pkg.concat("."))) { //$NON-NLS-1$
+				return true;
+			}
+		}
+		return false;
+	}
+
+}
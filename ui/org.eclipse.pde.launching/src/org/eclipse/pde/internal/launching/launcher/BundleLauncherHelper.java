@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2016 IBM Corporation and others.
+ * Copyright (c) 2007, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -38,6 +38,25 @@ public class BundleLauncherHelper {
 
 	public static final char VERSION_SEPARATOR = '*';
 
+	/**
+	 * Maximum number of parsed bundle lists kept in {@link #fgParsedEntries}
+	 */
+	private static final int MAX_PARSED_ENTRIES = 16;
+
+	/**
+	 * Bundle lists read from launch configuration attributes, parsed into the
+	 * id, version and start data of every bundle entry as written by
+	 * {@link #writeBundleEntry(IPluginModelBase, String, String)}
+	 */
+	private static final Map<String, String[][]> fgParsedEntries = new LinkedHashMap<String, String[][]>(MAX_PARSED_ENTRIES, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, String[][]> eldest) {
+			return size() > MAX_PARSED_ENTRIES;
+		}
+	};
+
 	public static Map<IPluginModelBase, String> getWorkspaceBundleMap(ILaunchConfiguration configuration) throws CoreException {
 		return getWorkspaceBundleMap(configuration, null, IPDELauncherConstants.WORKSPACE_BUNDLES);
 	}
@@ -296,18 +315,10 @@ public class BundleLauncherHelper {
 	public static Map<IPluginModelBase, String> getWorkspaceBundleMap(ILaunchConfiguration configuration, Set<String> set, String attribute) throws CoreException {
 		String selected = configuration.getAttribute(attribute, ""); //$NON-NLS-1$
 		Map<IPluginModelBase, String> map = new HashMap<>();
-		StringTokenizer tok = new StringTokenizer(selected, ","); //$NON-NLS-1$
-		while (tok.hasMoreTokens()) {
-			String token = tok.nextToken();
-			int index = token.indexOf('@');
-			if (index < 0) { // if no start levels, assume default
-				token = token.concat("@default:default"); //$NON-NLS-1$
-				index = token.indexOf('@');
-			}
-			String idVersion = token.substring(0, index);
-			int versionIndex = idVersion.indexOf(VERSION_SEPARATOR);
-			String id = (versionIndex > 0) ? idVersion.substring(0, versionIndex) : idVersion;
-			String version = (versionIndex > 0) ? idVersion.substring(versionIndex + 1) : null;
+		for (String[] bundleEntry : parseBundleEntries(selected)) {
+			String id = bundleEntry[0];
+			String version = bundleEntry[1];
+			String startData = bundleEntry[2];
 			if (set != null)
 				set.add(id);
 			ModelEntry entry = PluginRegistry.findEntry(id);
@@ -324,7 +335,7 @@ public class BundleLauncherHelper {
 						// b) no version
 						// c) all else fails, if there's just one bundle available, use it
 						if (base.getVersion().equals(version) || version == null || models.length == 1)
-							addBundleToMap(map, model, token.substring(index + 1));
+							addBundleToMap(map, model, startData);
 					}
 				}
 			}
@@ -423,18 +434,10 @@ public class BundleLauncherHelper {
 	public static Map<IPluginModelBase, String> getTargetBundleMap(ILaunchConfiguration configuration, Set<String> set, String attribute) throws CoreException {
 		String selected = configuration.getAttribute(attribute, ""); //$NON-NLS-1$
 		Map<IPluginModelBase, String> map = new HashMap<>();
-		StringTokenizer tok = new StringTokenizer(selected, ","); //$NON-NLS-1$
-		while (tok.hasMoreTokens()) {
-			String token = tok.nextToken();
-			int index = token.indexOf('@');
-			if (index < 0) { // if no start levels, assume default
-				token = token.concat("@default:default"); //$NON-NLS-1$
-				index = token.indexOf('@');
-			}
-			String idVersion = token.substring(0, index);
-			int versionIndex = idVersion.indexOf(VERSION_SEPARATOR);
-			String id = (versionIndex > 0) ? idVersion.substring(0, versionIndex) : idVersion;
-			String version = (versionIndex > 0) ? idVersion.substring(versionIndex + 1) : null;
+		for (String[] bundleEntry : parseBundleEntries(selected)) {
+			String id = bundleEntry[0];
+			String version = bundleEntry[1];
+			String startData = bundleEntry[2];
 			if (set != null && set.contains(id))
 				continue;
 			ModelEntry entry = PluginRegistry.findEntry(id);
@@ -448,7 +451,7 @@ public class BundleLauncherHelper {
 						// b) no version
 						// c) all else fails, if there's just one bundle available, use it
 						if (base.getVersion().equals(version) || version == null || models.length == 1)
-							addBundleToMap(map, model, token.substring(index + 1));
+							addBundleToMap(map, model, startData);
 					}
 				}
 			}
@@ -456,6 +459,44 @@ public class BundleLauncherHelper {
 		return map;
 	}
 
+	/**
+	 * Parses a comma separated list of bundle entries as written by
+	 * {@link #writeBundleEntry(IPluginModelBase, String, String)}. The lists
+	 * of large launch configurations are parsed once and then reused.
+	 *
+	 * @param selected the list of bundle entries
+	 * @return the id, version or <code>null</code> and start data of every
+	 *         entry, which must not be modified
+	 */
+	static String[][] parseBundleEntries(String selected) {
+		synchronized (fgParsedEntries) {
+			String[][] entries = fgParsedEntries.get(selected);
+			if (entries != null) {
+				return entries;
+			}
+		}
+		List<String[]> entries = new ArrayList<>();
+		StringTokenizer tok = new StringTokenizer(selected, ","); //$NON-NLS-1$
+		while (tok.hasMoreTokens()) {
+			String token = tok.nextToken();
+			int index = token.indexOf('@');
+			if (index < 0) { // if no start levels, assume default
+				token = token.concat("@default:default"); //$NON-NLS-1$
+				index = token.indexOf('@');
+			}
+			String idVersion = token.substring(0, index);
+			int versionIndex = idVersion.indexOf(VERSION_SEPARATOR);
+			String id = (versionIndex > 0) ? idVersion.substring(0, versionIndex) : idVersion;
+			String version = (versionIndex > 0) ? idVersion.substring(versionIndex + 1) : null;
+			entries.add(new String[] {id, version, token.substring(index + 1)});
+		}
+		String[][] result = entries.toArray(new String[entries.size()][]);
+		synchronized (fgParsedEntries) {
+			fgParsedEntries.put(selected, result);
+		}
+		return result;
+	}
+
 	public static String writeBundleEntry(IPluginModelBase model, String startLevel, String autoStart) {
 		IPluginBase base = model.getPluginBase();
 		String id = base.getId();
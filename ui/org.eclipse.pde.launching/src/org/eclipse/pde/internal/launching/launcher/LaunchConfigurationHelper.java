@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2015 IBM Corporation and others.
+ * Copyright (c) 2005, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -19,6 +19,7 @@ import org.eclipse.core.variables.VariablesPlugin;
 import org.eclipse.debug.core.ILaunchConfiguration;
 import org.eclipse.jdt.launching.IJavaLaunchConfigurationConstants;
 import org.eclipse.osgi.service.resolver.BundleDescription;
+import org.eclipse.pde.core.plugin.IPluginBase;
 import org.eclipse.pde.core.plugin.IPluginModelBase;
 import org.eclipse.pde.core.plugin.TargetPlatform;
 import org.eclipse.pde.internal.build.IPDEBuildConstants;
@@ -46,6 +47,40 @@ public class LaunchConfigurationHelper {
 	 */
 	private static final String DEFAULT_P2_DIRECTORY = ".p2"; //$NON-NLS-1$
 
+	/**
+	 * A configuration file written by a launch, with the content it was
+	 * written from and its last modified time and size after writing
+	 */
+	private static class WrittenFile {
+		final Object fContent;
+		final File fFile;
+		final URL fURL;
+		final long[] fStamp;
+
+		WrittenFile(Object content, File file, URL url) {
+			fContent = content;
+			fFile = file;
+			fURL = url;
+			fStamp = getStamp(file);
+		}
+
+		/**
+		 * Returns whether the file was written from the given content and
+		 * did not change on disk since
+		 */
+		boolean isUnchanged(Object content) {
+			return fContent.equals(content) && fFile.exists() && Arrays.equals(fStamp, getStamp(fFile));
+		}
+	}
+
+	/**
+	 * The configuration files written by the last launches, by absolute path
+	 * of the file or, for bundles.info, of its configuration directory. A
+	 * file that is unchanged does not need to be written again on the next
+	 * launch.
+	 */
+	private static final Map<String, WrittenFile> fgWrittenFiles = new HashMap<>();
+
 	public static void synchronizeManifests(ILaunchConfiguration config, File configDir) {
 		try {
 			String programArgs = config.getAttribute(IJavaLaunchConfigurationConstants.ATTR_PROGRAM_ARGUMENTS, ""); //$NON-NLS-1$
@@ -161,9 +196,9 @@ public class LaunchConfigurationHelper {
 			URL bundlesTxt = null;
 			boolean usedefault = configuration.getAttribute(IPDELauncherConstants.USE_DEFAULT, true);
 			if (usedefault) {
-				bundlesTxt = P2Utils.writeBundlesTxt(bundlesWithStartLevels, start, autostart, configurationDirectory, osgiBundles);
+				bundlesTxt = writeBundlesTxt(bundlesWithStartLevels, start, autostart, configurationDirectory, osgiBundles);
 			} else {
-				bundlesTxt = P2Utils.writeBundlesTxt(bundlesWithStartLevels, start, autostart, configurationDirectory, null);
+				bundlesTxt = writeBundlesTxt(bundlesWithStartLevels, start, autostart, configurationDirectory, null);
 			}
 
 			// Add bundles.txt as p2 config data
@@ -480,6 +515,14 @@ public class LaunchConfigurationHelper {
 	}
 
 	public static void save(File file, Properties properties) {
+		String key = file.getAbsolutePath();
+		WrittenFile written;
+		synchronized (fgWrittenFiles) {
+			written = fgWrittenFiles.get(key);
+		}
+		if (written != null && written.isUnchanged(properties)) {
+			return;
+		}
 		try {
 			FileOutputStream stream = new FileOutputStream(file);
 			properties.store(stream, "Configuration File"); //$NON-NLS-1$
@@ -487,7 +530,61 @@ public class LaunchConfigurationHelper {
 			stream.close();
 		} catch (IOException e) {
 			PDECore.logException(e);
+			return;
+		}
+		Properties copy = new Properties();
+		copy.putAll(properties);
+		synchronized (fgWrittenFiles) {
+			fgWrittenFiles.put(key, new WrittenFile(copy, file, null));
+		}
+	}
+
+	/**
+	 * Writes the bundles.info file for the simple configurator unless the file
+	 * was written by an earlier launch for the same bundles and start levels
+	 * and did not change since.
+	 *
+	 * @see P2Utils#writeBundlesTxt(Map, int, boolean, File, String)
+	 */
+	private static URL writeBundlesTxt(Map<IPluginModelBase, String> bundles, int defaultStartLevel, boolean defaultAutoStart, File directory, String osgiBundleList) {
+		List<String> entries = new ArrayList<>(bundles.size());
+		for (Map.Entry<IPluginModelBase, String> entry : bundles.entrySet()) {
+			IPluginModelBase model = entry.getKey();
+			IPluginBase base = model.getPluginBase();
+			StringBuffer buffer = new StringBuffer();
+			buffer.append(model.getInstallLocation()).append('|');
+			if (base != null) {
+				buffer.append(base.getId()).append('|');
+				buffer.append(base.getVersion()).append('|');
+			}
+			buffer.append(model.getTimeStamp()).append('|');
+			buffer.append(entry.getValue());
+			entries.add(buffer.toString());
 		}
+		Collections.sort(entries);
+		String content = defaultStartLevel + "|" + defaultAutoStart + "|" + osgiBundleList + "|" + entries; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		String key = directory.getAbsolutePath();
+		WrittenFile written;
+		synchronized (fgWrittenFiles) {
+			written = fgWrittenFiles.get(key);
+		}
+		// the stamp of the configuration directory changes with every launch, only check bundles.info itself
+		if (written != null && written.isUnchanged(content)) {
+			return written.fURL;
+		}
+		URL url = P2Utils.writeBundlesTxt(bundles, defaultStartLevel, defaultAutoStart, directory, osgiBundleList);
+		synchronized (fgWrittenFiles) {
+			if (url != null) {
+				fgWrittenFiles.put(key, new WrittenFile(content, new File(url.getFile()), url));
+			} else {
+				fgWrittenFiles.remove(key);
+			}
+		}
+		return url;
+	}
+
+	private static long[] getStamp(File file) {
+		return new long[] {file.lastModified(), file.length()};
 	}
 
 	public static String getContributingPlugin(String productID) {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2007, 2015 IBM Corporation and others.
+ *  Copyright (c) 2007, 2017 IBM Corporation and others.
  *  All rights reserved. This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License v1.0
  *  which accompanies this distribution, and is available at
@@ -31,6 +31,32 @@ import org.osgi.framework.Constants;
 
 public abstract class LaunchValidationOperation implements IWorkspaceRunnable {
 
+	/**
+	 * Maximum number of launch configurations whose last validation is kept
+	 */
+	private static final int MAX_CACHED_VALIDATIONS = 5;
+
+	/**
+	 * The last validation of recently validated launch configurations by
+	 * name. Relaunching a configuration updates the state of its last
+	 * validation with the bundles that changed instead of resolving all
+	 * bundles again.
+	 */
+	private static final Map<String, BundleValidationOperation> fgValidations = new LinkedHashMap<String, BundleValidationOperation>(MAX_CACHED_VALIDATIONS, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, BundleValidationOperation> eldest) {
+			return size() > MAX_CACHED_VALIDATIONS;
+		}
+	};
+
+	/**
+	 * Java profile properties read from the system bundle, by system bundle
+	 * location, time stamp and execution environment
+	 */
+	private static final Map<String, Properties> fgProfileProperties = new HashMap<>();
+
 	private BundleValidationOperation fOperation;
 	protected ILaunchConfiguration fLaunchConfiguration;
 
@@ -40,8 +66,21 @@ public abstract class LaunchValidationOperation implements IWorkspaceRunnable {
 
 	@Override
 	public void run(IProgressMonitor monitor) throws CoreException {
-		fOperation = new BundleValidationOperation(getModels(), getPlatformProperties());
+		String key = fLaunchConfiguration == null ? null : fLaunchConfiguration.getName();
+		BundleValidationOperation previous = null;
+		if (key != null) {
+			// take the previous validation out of the cache while its state is updated
+			synchronized (fgValidations) {
+				previous = fgValidations.remove(key);
+			}
+		}
+		fOperation = new BundleValidationOperation(getModels(), getPlatformProperties(), previous);
 		fOperation.run(monitor);
+		if (key != null) {
+			synchronized (fgValidations) {
+				fgValidations.put(key, fOperation);
+			}
+		}
 	}
 
 	protected abstract IPluginModelBase[] getModels() throws CoreException;
@@ -99,6 +138,20 @@ public abstract class LaunchValidationOperation implements IWorkspaceRunnable {
 			return null;
 
 		File location = new File(model.getInstallLocation());
+		String key = location.getAbsolutePath() + '|' + location.lastModified() + '|' + ee;
+		synchronized (fgProfileProperties) {
+			if (fgProfileProperties.containsKey(key)) {
+				return fgProfileProperties.get(key);
+			}
+		}
+		Properties profile = readJavaProfileProperties(location, ee);
+		synchronized (fgProfileProperties) {
+			fgProfileProperties.put(key, profile);
+		}
+		return profile;
+	}
+
+	private Properties readJavaProfileProperties(File location, String ee) {
 		String filename = ee.replace('/', '_') + ".profile"; //$NON-NLS-1$
 		InputStream is = null;
 		ZipFile zipFile = null;
@@ -151,7 +204,7 @@ public abstract class LaunchValidationOperation implements IWorkspaceRunnable {
 	}
 
 	public boolean isEmpty() {
-		return fOperation.getState().getHighestBundleId() == -1;
+		return fOperation.isEmpty();
 	}
 
 	protected State getState() {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2015 IBM Corporation and others.
+ * Copyright (c) 2005, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,6 +12,7 @@ package org.eclipse.pde.ui.tests;
 
 import junit.framework.Test;
 import junit.framework.TestSuite;
+import org.eclipse.pde.ui.tests.build.*;
 import org.eclipse.pde.ui.tests.build.properties.AllValidatorTests;
 import org.eclipse.pde.ui.tests.classpathcontributor.ClasspathContributorTest;
 import org.eclipse.pde.ui.tests.classpathresolver.ClasspathResolverTest;
@@ -19,6 +20,7 @@ import org.eclipse.pde.ui.tests.ee.ExportBundleTests;
 import org.eclipse.pde.ui.tests.imports.AllImportTests;
 import org.eclipse.pde.ui.tests.launcher.AllLauncherTests;
 import org.eclipse.pde.ui.tests.model.bundle.AllBundleModelTests;
+import org.eclipse.pde.ui.tests.model.schema.AllSchemaModelTests;
 import org.eclipse.pde.ui.tests.model.xml.AllXMLModelTests;
 import org.eclipse.pde.ui.tests.nls.AllNLSTests;
 import org.eclipse.pde.ui.tests.preferences.AllPreferenceTests;
@@ -39,7 +41,11 @@ public class AllPDETests {
 		suite.addTest(AllImportTests.suite());
 		suite.addTest(AllBundleModelTests.suite());
 		suite.addTest(AllXMLModelTests.suite());
+		suite.addTest(AllSchemaModelTests.suite());
 		suite.addTest(AllValidatorTests.suite());
+		suite.addTest(ExtensionsErrorReporterTests.suite());
+		suite.addTest(TypeExistenceCacheTests.suite());
+		suite.addTest(ExtensionPointSchemaBuilderTests.suite());
 		suite.addTest(AllNLSTests.suite());
 		suite.addTest(AllPDERuntimeTests.suite());
 		suite.addTest(ExportBundleTests.suite());
@@ -47,6 +53,7 @@ public class AllPDETests {
 		suite.addTest(AllLogViewTests.suite());
 		suite.addTest(ProjectCreationTests.suite());
 		suite.addTest(BundleRootTests.suite());
+		suite.addTest(ClasspathContainerUpdateTests.suite());
 		suite.addTest(PluginRegistryTests.suite());
 		suite.addTest(ClasspathResolverTest.suite());
 		suite.addTest(ClasspathContributorTest.suite());
@@ -0,0 +1,168 @@
+/*******************************************************************************
+ * Copyright (c) 2017 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.ui.tests.build;
+
+import java.io.*;
+import junit.framework.*;
+import org.eclipse.core.resources.*;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.preferences.IEclipsePreferences;
+import org.eclipse.pde.core.project.IBundleProjectDescription;
+import org.eclipse.pde.internal.core.builders.CompilerFlags;
+import org.eclipse.pde.internal.core.natures.PDE;
+import org.eclipse.pde.ui.tests.project.ProjectCreationTests;
+
+/**
+ * Tests that the reference documents of extension point schemas are
+ * generated in parallel, and only written again when the schema or one of
+ * its includes changed
+ */
+public class ExtensionPointSchemaBuilderTests extends TestCase {
+
+	private static final String PLUGIN_ID = "test.schema.builder";
+
+	/**
+	 * Number of standalone schemas, enough to be transformed on several threads
+	 */
+	private static final int SCHEMAS = 8;
+
+	private IProject fProject;
+
+	public static Test suite() {
+		return new TestSuite(ExtensionPointSchemaBuilderTests.class);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		fProject = ResourcesPlugin.getWorkspace().getRoot().getProject(PLUGIN_ID);
+		IBundleProjectDescription description = ProjectCreationTests.getBundleProjectService().getDescription(fProject);
+		description.setSymbolicName(PLUGIN_ID);
+		description.setSingleton(true);
+		description.setNatureIds(new String[] {IBundleProjectDescription.PLUGIN_NATURE});
+		description.apply(null);
+		IEclipsePreferences preferences = new ProjectScope(fProject).getNode(PDE.PLUGIN_ID);
+		preferences.putBoolean(CompilerFlags.S_CREATE_DOCS, true);
+		preferences.put(CompilerFlags.S_DOC_FOLDER, "doc");
+		preferences.flush();
+
+		fProject.getFolder("schema").create(true, true, null);
+		for (int i = 0; i < SCHEMAS; i++) {
+			writeSchema("schema" + i, "element" + i, null);
+		}
+		writeSchema("common", "commonElement", null);
+		writeSchema("including", "includingElement", "common.exsd");
+		build();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		fProject.delete(true, true, null);
+	}
+
+	private void writeSchema(String name, String element, String include) throws Exception {
+		StringBuffer buffer = new StringBuffer();
+		buffer.append("<?xml version='1.0' encoding='UTF-8'?>\n");
+		buffer.append("<schema targetNamespace=\"" + PLUGIN_ID + "\" xmlns=\"http://www.w3.org/2001/XMLSchema\">\n");
+		buffer.append("<annotation><appInfo><meta.schema plugin=\"" + PLUGIN_ID + "\" id=\"" + name + "\" name=\"" + name + "\"/></appInfo></annotation>\n");
+		if (include != null) {
+			buffer.append("<include schemaLocation=\"" + include + "\"/>\n");
+		}
+		buffer.append("<element name=\"extension\"><complexType><sequence><element ref=\"" + element + "\"/></sequence>\n");
+		buffer.append("<attribute name=\"point\" type=\"string\" use=\"required\"/></complexType></element>\n");
+		buffer.append("<element name=\"" + element + "\"><complexType><attribute name=\"id\" type=\"string\"/></complexType></element>\n");
+		buffer.append("</schema>\n");
+		IFile file = fProject.getFile("schema/" + name + ".exsd");
+		InputStream stream = new ByteArrayInputStream(buffer.toString().getBytes("UTF-8"));
+		if (file.exists()) {
+			file.setContents(stream, true, false, null);
+		} else {
+			file.create(stream, true, null);
+		}
+	}
+
+	private void build() throws CoreException {
+		ProjectCreationTests.waitForBuild();
+		fProject.build(IncrementalProjectBuilder.FULL_BUILD, null);
+	}
+
+	private IFile getDocument(String name) {
+		IFile file = fProject.getFolder("doc").getFile(PLUGIN_ID.replace('.', '_') + "_" + name + ".html");
+		assertTrue("Missing document " + file, file.exists());
+		return file;
+	}
+
+	private String getContents(IFile file) throws Exception {
+		try (InputStream stream = file.getContents()) {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] buffer = new byte[8192];
+			int read;
+			while ((read = stream.read(buffer)) != -1) {
+				out.write(buffer, 0, read);
+			}
+			return new String(out.toByteArray(), "UTF-8");
+		}
+	}
+
+	public void testDocumentsGenerated() throws Exception {
+		// the documents transformed in parallel are written to their own files
+		for (int i = 0; i < SCHEMAS; i++) {
+			String contents = getContents(getDocument("schema" + i));
+			assertTrue("Wrong document for schema" + i, contents.indexOf("element" + i) != -1);
+			for (int j = 0; j < SCHEMAS; j++) {
+				if (j != i) {
+					assertEquals("Document of schema" + j + " written for schema" + i, -1, contents.indexOf("element" + j));
+				}
+			}
+		}
+		assertTrue("Wrong document", getContents(getDocument("including")).indexOf("includingElement") != -1);
+	}
+
+	public void testUnchangedDocumentsSkipped() throws Exception {
+		long stamp = getDocument("schema0").getModificationStamp();
+		long including = getDocument("including").getModificationStamp();
+		build();
+		assertEquals("Unchanged document written", stamp, getDocument("schema0").getModificationStamp());
+		assertEquals("Unchanged document written", including, getDocument("including").getModificationStamp());
+
+		// the same contents written again do not change the document
+		writeSchema("schema0", "element0", null);
+		ProjectCreationTests.waitForBuild();
+		assertEquals("Unchanged document written", stamp, getDocument("schema0").getModificationStamp());
+	}
+
+	public void testChangedSchemaRegenerated() throws Exception {
+		long stamp = getDocument("schema0").getModificationStamp();
+		long other = getDocument("schema1").getModificationStamp();
+		writeSchema("schema0", "changedElement", null);
+		ProjectCreationTests.waitForBuild();
+		IFile document = getDocument("schema0");
+		assertFalse("Changed document not written", stamp == document.getModificationStamp());
+		assertTrue("Changed document not written", getContents(document).indexOf("changedElement") != -1);
+		assertEquals("Unchanged document written", other, getDocument("schema1").getModificationStamp());
+	}
+
+	public void testChangedIncludeRegenerated() throws Exception {
+		long stamp = getDocument("including").getModificationStamp();
+		long other = getDocument("schema0").getModificationStamp();
+		writeSchema("common", "changedCommonElement", null);
+		build();
+		assertFalse("Document of the including schema not written", stamp == getDocument("including").getModificationStamp());
+		assertEquals("Unchanged document written", other, getDocument("schema0").getModificationStamp());
+	}
+
+	public void testEditedDocumentRewritten() throws Exception {
+		IFile document = getDocument("schema0");
+		document.setContents(new ByteArrayInputStream("edited".getBytes("UTF-8")), true, false, null);
+		build();
+		assertTrue("Edited document not written", getContents(getDocument("schema0")).indexOf("element0") != -1);
+	}
+
+}
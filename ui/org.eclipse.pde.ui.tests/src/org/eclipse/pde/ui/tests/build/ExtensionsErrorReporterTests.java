@@ -0,0 +1,150 @@
+/*******************************************************************************
+ * Copyright (c) 2017 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.ui.tests.build;
+
+import java.io.ByteArrayInputStream;
+import junit.framework.*;
+import org.eclipse.core.resources.*;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.pde.core.project.IBundleProjectDescription;
+import org.eclipse.pde.core.project.IBundleProjectService;
+import org.eclipse.pde.internal.core.builders.PDEMarkerFactory;
+import org.eclipse.pde.internal.core.builders.XMLErrorReporter;
+import org.eclipse.pde.internal.core.project.PDEProject;
+import org.eclipse.pde.ui.tests.project.ProjectCreationTests;
+
+/**
+ * Tests that the problems reported on a plugin.xml, which is validated one
+ * extension at a time while it is parsed, keep their line numbers and the
+ * location paths used by quick fixes
+ */
+public class ExtensionsErrorReporterTests extends TestCase {
+
+	private static final String PLUGIN_ID = "test.extensions.reporter";
+
+	private IProject fProject;
+
+	public static Test suite() {
+		return new TestSuite(ExtensionsErrorReporterTests.class);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		fProject = ResourcesPlugin.getWorkspace().getRoot().getProject(PLUGIN_ID);
+		IBundleProjectService service = ProjectCreationTests.getBundleProjectService();
+		IBundleProjectDescription description = service.getDescription(fProject);
+		description.setSymbolicName(PLUGIN_ID);
+		description.setSingleton(true);
+		description.setNatureIds(new String[] {IBundleProjectDescription.PLUGIN_NATURE});
+		description.apply(null);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		fProject.delete(true, true, null);
+	}
+
+	/**
+	 * Writes the plugin.xml file with the given lines, builds the project
+	 * and returns the problems reported on the file
+	 */
+	private IMarker[] build(String... lines) throws CoreException {
+		StringBuffer buffer = new StringBuffer();
+		for (String line : lines) {
+			buffer.append(line).append('\n');
+		}
+		IFile file = PDEProject.getPluginXml(fProject);
+		file.create(new ByteArrayInputStream(buffer.toString().getBytes()), true, null);
+		fProject.build(IncrementalProjectBuilder.FULL_BUILD, null);
+		return file.findMarkers(PDEMarkerFactory.MARKER_ID, false, IResource.DEPTH_ZERO);
+	}
+
+	private IMarker findMarker(IMarker[] markers, int line) throws CoreException {
+		IMarker found = null;
+		for (IMarker marker : markers) {
+			if (marker.getAttribute(IMarker.LINE_NUMBER, -1) == line) {
+				assertNull("Several problems on line " + line, found);
+				found = marker;
+			}
+		}
+		assertNotNull("No problem on line " + line, found);
+		return found;
+	}
+
+	private String path(String... elements) {
+		StringBuffer buffer = new StringBuffer();
+		for (String element : elements) {
+			if (buffer.length() > 0) {
+				buffer.append(XMLErrorReporter.F_CHILD_SEP);
+			}
+			buffer.append(element);
+		}
+		return buffer.toString();
+	}
+
+	public void testProblemsOnLaterExtensions() throws Exception {
+		IMarker[] markers = build( //
+				"<?xml version=\"1.0\" encoding=\"UTF-8\"?>", //
+				"<?eclipse version=\"3.4\"?>", //
+				"<plugin>", //
+				"   <extension-point id=\"point\" name=\"Point\"/>", //
+				"   <extension", //
+				"         point=\"" + PLUGIN_ID + ".missing\">", //
+				"   </extension>", //
+				"   <unknown/>", //
+				"   <extension point=\"" + PLUGIN_ID + ".missing2\"/>", //
+				"   <unknown>", //
+				"      <nested/>", //
+				"   </unknown>", //
+				"</plugin>");
+		assertEquals("Wrong number of problems", 4, markers.length);
+
+		// the line of the attribute, not of the start of the element
+		IMarker missing = findMarker(markers, 6);
+		assertTrue("Wrong problem", missing.getAttribute(IMarker.MESSAGE, "").indexOf(PLUGIN_ID + ".missing") != -1);
+		assertEquals("Wrong severity", IMarker.SEVERITY_ERROR, missing.getAttribute(IMarker.SEVERITY, -1));
+
+		IMarker unknown = findMarker(markers, 8);
+		assertEquals("Wrong quick fix", PDEMarkerFactory.P_ILLEGAL_XML_NODE, unknown.getAttribute(PDEMarkerFactory.PROBLEM_ID, -1));
+		assertEquals("Wrong location path", path("(0)plugin", "(2)unknown"), unknown.getAttribute(PDEMarkerFactory.MPK_LOCATION_PATH, ""));
+
+		IMarker missing2 = findMarker(markers, 9);
+		assertTrue("Wrong problem", missing2.getAttribute(IMarker.MESSAGE, "").indexOf(PLUGIN_ID + ".missing2") != -1);
+
+		// released siblings still count in the location path
+		IMarker unknown2 = findMarker(markers, 10);
+		assertEquals("Wrong location path", path("(0)plugin", "(4)unknown"), unknown2.getAttribute(PDEMarkerFactory.MPK_LOCATION_PATH, ""));
+	}
+
+	public void testProblemsAfterFatalError() throws Exception {
+		IMarker[] markers = build( //
+				"<?xml version=\"1.0\" encoding=\"UTF-8\"?>", //
+				"<?eclipse version=\"3.4\"?>", //
+				"<plugin>", //
+				"   <extension-point id=\"point\" name=\"Point\"/>", //
+				"   <unknown/>", //
+				"   <unknown>", //
+				"      <nested>", //
+				"</plugin>");
+
+		IMarker unknown = findMarker(markers, 5);
+		assertEquals("Wrong location path", path("(0)plugin", "(1)unknown"), unknown.getAttribute(PDEMarkerFactory.MPK_LOCATION_PATH, ""));
+		// the element left open by the parse error is validated after parsing
+		IMarker unknown2 = findMarker(markers, 6);
+		assertEquals("Wrong location path", path("(0)plugin", "(2)unknown"), unknown2.getAttribute(PDEMarkerFactory.MPK_LOCATION_PATH, ""));
+		boolean fatal = false;
+		for (IMarker marker : markers) {
+			fatal |= marker.getAttribute(IMarker.LINE_NUMBER, -1) == 8;
+		}
+		assertTrue("Parse error not reported", fatal);
+	}
+
+}
@@ -0,0 +1,220 @@
+/*******************************************************************************
+ * Copyright (c) 2017 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.ui.tests.build;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import junit.framework.*;
+import org.eclipse.core.resources.*;
+import org.eclipse.core.runtime.*;
+import org.eclipse.jdt.core.*;
+import org.eclipse.pde.core.project.*;
+import org.eclipse.pde.internal.core.builders.PDEMarkerFactory;
+import org.eclipse.pde.internal.core.builders.XMLErrorReporter;
+import org.eclipse.pde.internal.core.project.PDEProject;
+import org.eclipse.pde.internal.core.util.TypeExistenceCache;
+import org.eclipse.pde.ui.tests.project.ProjectCreationTests;
+
+/**
+ * Tests that the types referenced by class attributes of extensions are
+ * looked up together, and that the cached results are discarded when Java
+ * element deltas report that types were added or removed
+ */
+public class TypeExistenceCacheTests extends TestCase {
+
+	private static final String PLUGIN_ID = "test.class.references";
+	private static final String EXISTING = "test.classes.Existing";
+	private static final String MISSING = "test.classes.Missing";
+
+	private static final String SCHEMA = "<?xml version='1.0' encoding='UTF-8'?>\n" //
+			+ "<schema targetNamespace=\"" + PLUGIN_ID + "\" xmlns=\"http://www.w3.org/2001/XMLSchema\">\n" //
+			+ "<annotation><appInfo><meta.schema plugin=\"" + PLUGIN_ID + "\" id=\"point\" name=\"Point\"/></appInfo></annotation>\n" //
+			+ "<element name=\"extension\"><complexType><sequence><element ref=\"handler\" minOccurs=\"0\" maxOccurs=\"unbounded\"/></sequence>\n" //
+			+ "<attribute name=\"point\" type=\"string\" use=\"required\"/><attribute name=\"id\" type=\"string\"/><attribute name=\"name\" type=\"string\"/></complexType></element>\n" //
+			+ "<element name=\"handler\"><complexType><attribute name=\"class\" type=\"string\" use=\"required\">\n" //
+			+ "<annotation><appInfo><meta.attribute kind=\"java\"/></appInfo></annotation></attribute></complexType></element>\n" //
+			+ "</schema>\n";
+
+	private IProject fProject;
+	private IProject fOtherProject;
+	private TypeExistenceCache fCache;
+
+	public static Test suite() {
+		return new TestSuite(TypeExistenceCacheTests.class);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		fProject = ResourcesPlugin.getWorkspace().getRoot().getProject(PLUGIN_ID);
+		IBundleProjectService service = ProjectCreationTests.getBundleProjectService();
+		IBundleProjectDescription description = service.getDescription(fProject);
+		description.setSymbolicName(PLUGIN_ID);
+		description.setSingleton(true);
+		description.setNatureIds(new String[] {IBundleProjectDescription.PLUGIN_NATURE, JavaCore.NATURE_ID});
+		description.setBundleClasspath(new IBundleClasspathEntry[] {service.newBundleClasspathEntry(new Path("src"), null, new Path("."))});
+		description.apply(null);
+		createClass(EXISTING);
+		createFile("schema/point.exsd", SCHEMA);
+		ProjectCreationTests.waitForBuild();
+		fCache = new TypeExistenceCache();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		fCache.shutdown();
+		fProject.delete(true, true, null);
+		if (fOtherProject != null) {
+			fOtherProject.delete(true, true, null);
+		}
+	}
+
+	private IFile createFile(String path, String content) throws CoreException {
+		IFile file = fProject.getFile(path);
+		IContainer parent = file.getParent();
+		List<IFolder> folders = new ArrayList<>();
+		while (!parent.exists()) {
+			folders.add(0, (IFolder) parent);
+			parent = parent.getParent();
+		}
+		for (IFolder folder : folders) {
+			folder.create(true, true, null);
+		}
+		file.create(new ByteArrayInputStream(content.getBytes()), true, null);
+		return file;
+	}
+
+	private IFile createClass(String name) throws CoreException {
+		int index = name.lastIndexOf('.');
+		String content = "package " + name.substring(0, index) + ";\npublic class " + name.substring(index + 1) + " {\n}\n";
+		return createFile("src/" + name.replace('.', '/') + ".java", content);
+	}
+
+	private IJavaProject getJavaProject() {
+		return JavaCore.create(fProject);
+	}
+
+	public void testResultsCached() throws Exception {
+		assertTrue("Existing type not found", fCache.isOnClasspath(EXISTING, getJavaProject()));
+		assertFalse("Missing type found", fCache.isOnClasspath(MISSING, getJavaProject()));
+
+		// the cache is not listening to Java element deltas
+		createClass(MISSING);
+		ProjectCreationTests.waitForBuild();
+		assertFalse("Result not cached", fCache.isOnClasspath(MISSING, getJavaProject()));
+
+		fCache.clear();
+		assertTrue("Added type not found", fCache.isOnClasspath(MISSING, getJavaProject()));
+	}
+
+	public void testAddedTypeDiscarded() throws Exception {
+		fCache.start();
+		assertFalse("Missing type found", fCache.isOnClasspath(MISSING, getJavaProject()));
+		createClass(MISSING);
+		ProjectCreationTests.waitForBuild();
+		assertTrue("Added type not found", fCache.isOnClasspath(MISSING, getJavaProject()));
+	}
+
+	public void testRemovedTypeDiscarded() throws Exception {
+		fCache.start();
+		assertTrue("Existing type not found", fCache.isOnClasspath(EXISTING, getJavaProject()));
+		fProject.getFile("src/" + EXISTING.replace('.', '/') + ".java").delete(true, null);
+		ProjectCreationTests.waitForBuild();
+		assertFalse("Removed type found", fCache.isOnClasspath(EXISTING, getJavaProject()));
+	}
+
+	public void testClasspathChangeDiscards() throws Exception {
+		fCache.start();
+		fOtherProject = ResourcesPlugin.getWorkspace().getRoot().getProject(PLUGIN_ID + ".other");
+		fOtherProject.create(null);
+		fOtherProject.open(null);
+		IProjectDescription description = fOtherProject.getDescription();
+		description.setNatureIds(new String[] {JavaCore.NATURE_ID});
+		fOtherProject.setDescription(description, null);
+		IJavaProject other = JavaCore.create(fOtherProject);
+		other.setRawClasspath(new IClasspathEntry[0], fOtherProject.getFullPath().append("bin"), null);
+		assertFalse("Type of another project found", fCache.isOnClasspath(EXISTING, other));
+
+		other.setRawClasspath(new IClasspathEntry[] {JavaCore.newProjectEntry(fProject.getFullPath())}, fOtherProject.getFullPath().append("bin"), null);
+		assertTrue("Type of a required project not found", fCache.isOnClasspath(EXISTING, other));
+	}
+
+	/**
+	 * Writes a plugin.xml referencing the same existing and missing types
+	 * from several extensions, builds the project and returns the problems
+	 * reported for missing classes
+	 */
+	private List<IMarker> buildClassReferences() throws CoreException {
+		IFile file = PDEProject.getPluginXml(fProject);
+		if (!file.exists()) {
+			String content = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" //
+					+ "<?eclipse version=\"3.4\"?>\n" //
+					+ "<plugin>\n" //
+					+ "   <extension-point id=\"point\" name=\"Point\" schema=\"schema/point.exsd\"/>\n" //
+					+ "   <extension point=\"" + PLUGIN_ID + ".point\">\n" //
+					+ "      <handler class=\"" + EXISTING + "\"/>\n" //
+					+ "      <handler class=\"" + MISSING + "\"/>\n" //
+					+ "   </extension>\n" //
+					+ "   <extension point=\"" + PLUGIN_ID + ".point\">\n" //
+					+ "      <handler class=\"" + MISSING + "\"/>\n" //
+					+ "      <handler class=\"" + EXISTING + ":data\"/>\n" //
+					+ "   </extension>\n" //
+					+ "</plugin>\n";
+			file.create(new ByteArrayInputStream(content.getBytes()), true, null);
+			// the extension point of the file is known once the models are updated
+			ProjectCreationTests.waitForBuild();
+		}
+		fProject.build(IncrementalProjectBuilder.FULL_BUILD, null);
+		List<IMarker> markers = new ArrayList<>();
+		for (IMarker marker : file.findMarkers(PDEMarkerFactory.MARKER_ID, false, IResource.DEPTH_ZERO)) {
+			if (marker.getAttribute(PDEMarkerFactory.PROBLEM_ID, -1) == PDEMarkerFactory.P_UNKNOWN_CLASS) {
+				markers.add(marker);
+			}
+		}
+		return markers;
+	}
+
+	private void assertMarker(IMarker marker, int line, String... path) {
+		StringBuffer buffer = new StringBuffer();
+		for (String element : path) {
+			if (buffer.length() > 0) {
+				buffer.append(XMLErrorReporter.F_CHILD_SEP);
+			}
+			buffer.append(element);
+		}
+		buffer.append(XMLErrorReporter.F_ATT_PREFIX).append("class").append(XMLErrorReporter.F_ATT_VALUE_PREFIX).append(MISSING);
+		assertEquals("Wrong line", line, marker.getAttribute(IMarker.LINE_NUMBER, -1));
+		assertEquals("Wrong location path", buffer.toString(), marker.getAttribute(PDEMarkerFactory.MPK_LOCATION_PATH, ""));
+	}
+
+	public void testEachReferenceReported() throws Exception {
+		List<IMarker> markers = buildClassReferences();
+		assertEquals("Wrong number of missing classes", 2, markers.size());
+		IMarker first = markers.get(0);
+		IMarker second = markers.get(1);
+		if (first.getAttribute(IMarker.LINE_NUMBER, -1) > second.getAttribute(IMarker.LINE_NUMBER, -1)) {
+			first = markers.get(1);
+			second = markers.get(0);
+		}
+		// the type is looked up once but reported on each reference
+		assertMarker(first, 7, "(0)plugin", "(1)extension", "(1)handler");
+		assertMarker(second, 10, "(0)plugin", "(2)extension", "(0)handler");
+	}
+
+	public void testAddedClassNoLongerReported() throws Exception {
+		assertEquals("Wrong number of missing classes", 2, buildClassReferences().size());
+		// the results of the previous build are discarded by the Java element delta
+		createClass(MISSING);
+		ProjectCreationTests.waitForBuild();
+		assertEquals("Added class still reported", 0, buildClassReferences().size());
+	}
+
+}
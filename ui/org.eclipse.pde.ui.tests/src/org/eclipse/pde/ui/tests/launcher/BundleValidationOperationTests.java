@@ -0,0 +1,156 @@
+/*******************************************************************************
+ * Copyright (c) 2017 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.ui.tests.launcher;
+
+import java.util.*;
+import junit.framework.*;
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.osgi.service.resolver.*;
+import org.eclipse.pde.core.plugin.IPluginModelBase;
+import org.eclipse.pde.internal.core.BundleValidationOperation;
+import org.eclipse.pde.internal.core.plugin.ExternalPluginModel;
+import org.osgi.framework.Constants;
+
+/**
+ * Tests that a validation updates the state of a previous validation when
+ * the platform properties did not change
+ */
+public class BundleValidationOperationTests extends TestCase {
+
+	private StateObjectFactory fFactory;
+	private State fDescriptions;
+	private long fNextId;
+
+	public static Test suite() {
+		return new TestSuite(BundleValidationOperationTests.class);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		fFactory = Platform.getPlatformAdmin().getFactory();
+		fDescriptions = fFactory.createState(true);
+		fNextId = 0;
+	}
+
+	private BundleDescription createDescription(String name, String version, String requires) throws Exception {
+		Dictionary<String, String> manifest = new Hashtable<>();
+		manifest.put(Constants.BUNDLE_MANIFESTVERSION, "2");
+		manifest.put(Constants.BUNDLE_SYMBOLICNAME, name);
+		manifest.put(Constants.BUNDLE_VERSION, version);
+		if (requires != null) {
+			manifest.put(Constants.REQUIRE_BUNDLE, requires);
+		}
+		long id = fNextId++;
+		return fFactory.createBundleDescription(fDescriptions, manifest, "/bundles/" + name + '_' + version + '_' + id, id);
+	}
+
+	private IPluginModelBase createModel(String name, String version, String requires) throws Exception {
+		ExternalPluginModel model = new ExternalPluginModel();
+		model.setBundleDescription(createDescription(name, version, requires));
+		return model;
+	}
+
+	private Dictionary<?, ?>[] createProperties(String environment) {
+		Dictionary<String, String> properties = new Hashtable<>();
+		properties.put(Constants.FRAMEWORK_EXECUTIONENVIRONMENT, environment);
+		return new Dictionary[] {properties};
+	}
+
+	private BundleValidationOperation validate(IPluginModelBase[] models, Dictionary<?, ?>[] properties, BundleValidationOperation previous) throws Exception {
+		BundleValidationOperation operation = new BundleValidationOperation(models, properties, previous);
+		operation.run(null);
+		return operation;
+	}
+
+	private void assertResolved(BundleValidationOperation operation, String name, boolean resolved) {
+		BundleDescription[] bundles = operation.getState().getBundles(name);
+		assertEquals("Wrong number of bundles " + name, 1, bundles.length);
+		assertEquals("Wrong resolution of " + name, resolved, bundles[0].isResolved());
+	}
+
+	public void testBundleAdded() throws Exception {
+		Dictionary<?, ?>[] properties = createProperties("JavaSE-1.8");
+		IPluginModelBase a = createModel("a", "1.0.0", "b");
+		IPluginModelBase b = createModel("b", "1.0.0", null);
+		BundleValidationOperation first = validate(new IPluginModelBase[] {a}, properties, null);
+		assertTrue("Missing requirement not reported", first.hasErrors());
+		assertResolved(first, "a", false);
+
+		BundleValidationOperation second = validate(new IPluginModelBase[] {a, b}, properties, first);
+		assertSame("State not reused", first.getState(), second.getState());
+		assertFalse("Requirement not resolved", second.hasErrors());
+		assertResolved(second, "a", true);
+		assertResolved(second, "b", true);
+
+		// the results shown for the previous validation do not change
+		assertTrue("Previous errors lost", first.hasErrors());
+		assertEquals("Previous errors lost", 1, first.getResolverErrors().size());
+	}
+
+	public void testBundleRemoved() throws Exception {
+		Dictionary<?, ?>[] properties = createProperties("JavaSE-1.8");
+		IPluginModelBase a = createModel("a", "1.0.0", "b");
+		IPluginModelBase b = createModel("b", "1.0.0", null);
+		BundleValidationOperation first = validate(new IPluginModelBase[] {a, b}, properties, null);
+		assertFalse("Unexpected errors", first.hasErrors());
+
+		BundleValidationOperation second = validate(new IPluginModelBase[] {a}, properties, first);
+		assertSame("State not reused", first.getState(), second.getState());
+		assertEquals("Removed bundle still in the state", 0, second.getState().getBundles("b").length);
+		assertTrue("Missing requirement not reported", second.hasErrors());
+		assertResolved(second, "a", false);
+
+		assertFalse("Previous results changed", first.hasErrors());
+		assertTrue("Previous results changed", first.getResolverErrors().isEmpty());
+
+		BundleValidationOperation third = validate(new IPluginModelBase[0], properties, second);
+		assertTrue("Bundles left in the state", third.isEmpty());
+		assertFalse("Previous results changed", second.isEmpty());
+	}
+
+	public void testManifestChanged() throws Exception {
+		Dictionary<?, ?>[] properties = createProperties("JavaSE-1.8");
+		IPluginModelBase a = createModel("a", "1.0.0", "b;bundle-version=\"2.0.0\"");
+		ExternalPluginModel b = new ExternalPluginModel();
+		b.setBundleDescription(createDescription("b", "1.0.0", null));
+		BundleValidationOperation first = validate(new IPluginModelBase[] {a, b}, properties, null);
+		assertTrue("Wrong version not reported", first.hasErrors());
+
+		// a changed manifest replaces the bundle description of the model
+		b.setBundleDescription(createDescription("b", "2.0.0", null));
+		BundleValidationOperation second = validate(new IPluginModelBase[] {a, b}, properties, first);
+		assertSame("State not reused", first.getState(), second.getState());
+		assertFalse("New version not resolved", second.hasErrors());
+		assertResolved(second, "a", true);
+		BundleDescription[] bundles = second.getState().getBundles("b");
+		assertEquals("Old description still in the state", 1, bundles.length);
+		assertEquals("Wrong version", "2.0.0", bundles[0].getVersion().toString());
+	}
+
+	public void testEnvironmentChanged() throws Exception {
+		IPluginModelBase a = createModel("a", "1.0.0", "b");
+		IPluginModelBase b = createModel("b", "1.0.0", null);
+		IPluginModelBase[] models = new IPluginModelBase[] {a, b};
+		BundleValidationOperation first = validate(models, createProperties("JavaSE-1.8"), null);
+		assertFalse("Unexpected errors", first.hasErrors());
+
+		BundleValidationOperation second = validate(models, createProperties("JavaSE-1.7"), first);
+		assertNotSame("State not rebuilt", first.getState(), second.getState());
+		assertFalse("Unexpected errors", second.hasErrors());
+		assertResolved(second, "a", true);
+		assertEquals("Wrong platform properties", "JavaSE-1.7", second.getState().getPlatformProperties()[0].get(Constants.FRAMEWORK_EXECUTIONENVIRONMENT));
+
+		// the previous state was not handed over and is unchanged
+		assertResolved(first, "a", true);
+		assertEquals("Previous state changed", 2, first.getState().getBundles().length);
+	}
+
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009 EclipseSource Corporation and others.
+ * Copyright (c) 2009, 2017 EclipseSource Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,8 +10,15 @@
  *******************************************************************************/
 package org.eclipse.pde.ui.tests.launcher;
 
+import java.io.*;
+import java.net.URL;
+import java.util.*;
 import junit.framework.*;
+import org.eclipse.debug.core.*;
+import org.eclipse.pde.core.plugin.IPluginModelBase;
+import org.eclipse.pde.core.plugin.PluginRegistry;
 import org.eclipse.pde.internal.launching.launcher.LaunchConfigurationHelper;
+import org.eclipse.pde.launching.IPDELauncherConstants;
 
 /**
  * Tests LaunchConfigurationHelper convenience methods
@@ -19,10 +26,58 @@ import org.eclipse.pde.internal.launching.launcher.LaunchConfigurationHelper;
  */
 public class LaunchConfigurationHelperTestCase extends TestCase {
 
+	private static final String SIMPLE_CONFIGURATOR = "org.eclipse.equinox.simpleconfigurator";
+
+	private File fDir;
+
 	public static Test suite() {
 		return new TestSuite(LaunchConfigurationHelperTestCase.class);
 	}
 
+	@Override
+	protected void setUp() throws Exception {
+		fDir = File.createTempFile("launchconfig", null);
+		fDir.delete();
+		fDir.mkdirs();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		delete(fDir);
+	}
+
+	private void delete(File file) {
+		File[] files = file.listFiles();
+		if (files != null) {
+			for (File child : files) {
+				delete(child);
+			}
+		}
+		file.delete();
+	}
+
+	private Properties load(File file) throws IOException {
+		Properties properties = new Properties();
+		try (InputStream stream = new FileInputStream(file)) {
+			properties.load(stream);
+		}
+		return properties;
+	}
+
+	private void write(File file, String content) throws IOException {
+		try (Writer writer = new FileWriter(file)) {
+			writer.write(content);
+		}
+	}
+
+	/**
+	 * Waits until a file written now gets a different time stamp than one
+	 * written before
+	 */
+	private void waitForNewTimeStamp() throws InterruptedException {
+		Thread.sleep(1100);
+	}
+
 	public void testgetStartData() {
 		assertEquals(LaunchConfigurationHelper.getStartData("", false), "");
 		assertEquals(LaunchConfigurationHelper.getStartData("", true), "@start");
@@ -40,4 +95,80 @@ public class LaunchConfigurationHelperTestCase extends TestCase {
 		assertEquals(LaunchConfigurationHelper.getStartData("default", true), "@start");
 	}
 
+	public void testConfigIniSkippedWhenUnchanged() throws Exception {
+		File file = new File(fDir, "config.ini");
+		Properties properties = new Properties();
+		properties.setProperty("osgi.bundles.defaultStartLevel", "4");
+		LaunchConfigurationHelper.save(file, properties);
+		assertEquals("Wrong content", properties, load(file));
+		long written = file.lastModified();
+
+		waitForNewTimeStamp();
+		LaunchConfigurationHelper.save(file, properties);
+		assertEquals("Unchanged file rewritten", written, file.lastModified());
+
+		properties.setProperty("osgi.bundles.defaultStartLevel", "5");
+		LaunchConfigurationHelper.save(file, properties);
+		assertEquals("Changed properties not written", properties, load(file));
+	}
+
+	public void testConfigIniRewrittenWhenEdited() throws Exception {
+		File file = new File(fDir, "config.ini");
+		Properties properties = new Properties();
+		properties.setProperty("osgi.bundles.defaultStartLevel", "4");
+		LaunchConfigurationHelper.save(file, properties);
+
+		write(file, "osgi.bundles.defaultStartLevel=6\nosgi.clean=true\n");
+		LaunchConfigurationHelper.save(file, properties);
+		assertEquals("Edited file not rewritten", properties, load(file));
+
+		assertTrue(file.delete());
+		LaunchConfigurationHelper.save(file, properties);
+		assertTrue("Deleted file not rewritten", file.exists());
+		assertEquals("Wrong content", properties, load(file));
+	}
+
+	public void testBundlesInfoSkippedWhenUnchanged() throws Exception {
+		IPluginModelBase configurator = PluginRegistry.findModel(SIMPLE_CONFIGURATOR);
+		assertNotNull("Missing simple configurator", configurator);
+		File template = new File(fDir, "template.ini");
+		write(template, "osgi.bundles=" + SIMPLE_CONFIGURATOR + "@1:start\n");
+		ILaunchConfigurationType type = DebugPlugin.getDefault().getLaunchManager().getLaunchConfigurationType(IPDELauncherConstants.OSGI_CONFIGURATION_TYPE);
+		ILaunchConfigurationWorkingCopy configuration = type.newInstance(null, "bundlesinfo");
+		configuration.setAttribute(IPDELauncherConstants.CONFIG_GENERATE_DEFAULT, false);
+		configuration.setAttribute(IPDELauncherConstants.CONFIG_TEMPLATE_LOCATION, template.getAbsolutePath());
+		configuration.setAttribute(IPDELauncherConstants.USE_DEFAULT, false);
+		Map<String, IPluginModelBase> bundles = new HashMap<>();
+		bundles.put(SIMPLE_CONFIGURATOR, configurator);
+		Map<IPluginModelBase, String> startLevels = new HashMap<>();
+		startLevels.put(configurator, "1:true");
+		File configDir = new File(fDir, "configuration");
+
+		Properties properties = LaunchConfigurationHelper.createConfigIniFile(configuration, null, bundles, startLevels, configDir);
+		String configUrl = properties.getProperty(SIMPLE_CONFIGURATOR + ".configUrl");
+		assertNotNull("bundles.info not written", configUrl);
+		File bundlesInfo = new File(new URL(configUrl).getFile());
+		assertTrue("bundles.info not written", bundlesInfo.exists());
+		long written = bundlesInfo.lastModified();
+
+		waitForNewTimeStamp();
+		properties = LaunchConfigurationHelper.createConfigIniFile(configuration, null, bundles, startLevels, configDir);
+		assertEquals("Wrong bundles.info", configUrl, properties.getProperty(SIMPLE_CONFIGURATOR + ".configUrl"));
+		assertEquals("Unchanged bundles.info rewritten", written, bundlesInfo.lastModified());
+
+		write(bundlesInfo, "edited\n");
+		LaunchConfigurationHelper.createConfigIniFile(configuration, null, bundles, startLevels, configDir);
+		assertTrue("Edited bundles.info not rewritten", bundlesInfo.length() > "edited\n".length());
+
+		assertTrue(bundlesInfo.delete());
+		LaunchConfigurationHelper.createConfigIniFile(configuration, null, bundles, startLevels, configDir);
+		assertTrue("Deleted bundles.info not rewritten", bundlesInfo.exists());
+		written = bundlesInfo.lastModified();
+
+		waitForNewTimeStamp();
+		startLevels.put(configurator, "2:true");
+		LaunchConfigurationHelper.createConfigIniFile(configuration, null, bundles, startLevels, configDir);
+		assertFalse("bundles.info not written for changed start levels", written == bundlesInfo.lastModified());
+	}
+
 }
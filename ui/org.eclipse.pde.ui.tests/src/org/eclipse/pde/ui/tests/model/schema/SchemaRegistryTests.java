@@ -0,0 +1,124 @@
+/*******************************************************************************
+ * Copyright (c) 2017 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.ui.tests.model.schema;
+
+import java.io.ByteArrayInputStream;
+import junit.framework.*;
+import org.eclipse.core.resources.*;
+import org.eclipse.pde.internal.core.ischema.ISchema;
+import org.eclipse.pde.internal.core.ischema.ISchemaDescriptor;
+import org.eclipse.pde.internal.core.schema.IncludedSchemaDescriptor;
+import org.eclipse.pde.internal.core.schema.SchemaRegistry;
+
+/**
+ * Tests that the schema registry evicts the least recently used schemas and
+ * discards schemas whose files change in the workspace
+ */
+public class SchemaRegistryTests extends TestCase {
+
+	/**
+	 * Number of schemas kept by the registry
+	 */
+	private static final int MAX_SCHEMAS = 500;
+
+	private static final String SCHEMA = "<?xml version='1.0' encoding='UTF-8'?>\n" //
+			+ "<schema targetNamespace=\"test\" xmlns=\"http://www.w3.org/2001/XMLSchema\">\n" //
+			+ "<element name=\"extension\"><complexType><attribute name=\"point\" type=\"string\" use=\"required\"/></complexType></element>\n" //
+			+ "</schema>\n";
+
+	private SchemaRegistry fRegistry;
+	private IProject fProject;
+	private IFolder fFolder;
+	private ISchemaDescriptor fParent;
+
+	public static Test suite() {
+		return new TestSuite(SchemaRegistryTests.class);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		fRegistry = new SchemaRegistry();
+		fProject = ResourcesPlugin.getWorkspace().getRoot().getProject("test.schema.registry");
+		fProject.create(null);
+		fProject.open(null);
+		fFolder = fProject.getFolder("schema");
+		fFolder.create(true, true, null);
+		IFile parent = createFile("parent.exsd", SCHEMA);
+		fParent = new IncludedSchemaDescriptor(parent.getLocation().toFile().toURI().toURL());
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		fRegistry.shutdown();
+		fProject.delete(true, true, null);
+	}
+
+	private IFile createFile(String name, String content) throws Exception {
+		IFile file = fFolder.getFile(name);
+		file.create(new ByteArrayInputStream(content.getBytes("UTF-8")), true, null);
+		return file;
+	}
+
+	private ISchema getIncludedSchema(String name) {
+		ISchema schema = fRegistry.getIncludedSchema(fParent, name);
+		assertNotNull("Missing schema " + name, schema);
+		return schema;
+	}
+
+	public void testEviction() throws Exception {
+		for (int i = 0; i <= MAX_SCHEMAS; i++) {
+			createFile("schema" + i + ".exsd", SCHEMA);
+		}
+		ISchema first = getIncludedSchema("schema0.exsd");
+		ISchema second = getIncludedSchema("schema1.exsd");
+		assertSame("Schema not cached", first, getIncludedSchema("schema0.exsd"));
+		for (int i = 2; i < MAX_SCHEMAS; i++) {
+			getIncludedSchema("schema" + i + ".exsd");
+		}
+		// the registry is full, using the first schema makes the second one the eldest
+		assertSame("Schema evicted too early", first, getIncludedSchema("schema0.exsd"));
+		getIncludedSchema("schema" + MAX_SCHEMAS + ".exsd");
+		assertSame("Recently used schema evicted", first, getIncludedSchema("schema0.exsd"));
+		assertNotSame("Least recently used schema not evicted", second, getIncludedSchema("schema1.exsd"));
+	}
+
+	public void testChangedSchemaDiscarded() throws Exception {
+		IFile file = createFile("included.exsd", SCHEMA);
+		ISchema schema = getIncludedSchema("included.exsd");
+		assertSame("Schema not cached", schema, getIncludedSchema("included.exsd"));
+
+		// files other than schemas do not affect the registry
+		createFile("build.properties", "bin.includes = schema/\n");
+		assertSame("Schema discarded by an unrelated file", schema, getIncludedSchema("included.exsd"));
+
+		file.setContents(new ByteArrayInputStream(SCHEMA.replace("extension", "extension2").getBytes("UTF-8")), true, false, null);
+		ISchema changed = getIncludedSchema("included.exsd");
+		assertNotSame("Changed schema not discarded", schema, changed);
+		assertNotNull("Changed schema not parsed", changed.findElement("extension2"));
+	}
+
+	public void testDeletedSchemaDiscarded() throws Exception {
+		IFile file = createFile("included.exsd", SCHEMA);
+		ISchema schema = getIncludedSchema("included.exsd");
+		file.delete(true, null);
+		createFile("included.exsd", SCHEMA);
+		assertNotSame("Deleted schema not discarded", schema, getIncludedSchema("included.exsd"));
+	}
+
+	public void testClosedProjectDiscardsSchemas() throws Exception {
+		createFile("included.exsd", SCHEMA);
+		ISchema schema = getIncludedSchema("included.exsd");
+		fProject.close(null);
+		fProject.open(null);
+		assertNotSame("Schema of a closed project not discarded", schema, getIncludedSchema("included.exsd"));
+	}
+
+}
@@ -0,0 +1,116 @@
+/*******************************************************************************
+ * Copyright (c) 2017 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.ui.tests.performance.parts;
+
+import java.io.*;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.pde.internal.core.PDEState;
+import org.eclipse.pde.internal.core.util.CoreUtility;
+import org.eclipse.pde.ui.tests.PDETestsPlugin;
+import org.eclipse.test.performance.Dimension;
+import org.eclipse.test.performance.PerformanceTestCase;
+
+/**
+ * Tests the time it takes to resolve a state in which every bundle exists in
+ * several locations with the same version, so the selection policy of the
+ * resolver has to choose between the copies by location.
+ */
+public class ResolverPerfTest extends PerformanceTestCase {
+
+	private static final int PROVIDER_COUNT = 200;
+	private static final int COPY_COUNT = 3;
+	private static final int CONSUMER_COUNT = 200;
+
+	private File fLocation;
+
+	public static Test suite() {
+		return new TestSuite(ResolverPerfTest.class);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		if (fLocation != null) {
+			CoreUtility.deleteContent(fLocation);
+		}
+		super.tearDown();
+	}
+
+	/**
+	 * Resolves a state containing duplicate bundles
+	 */
+	public void testResolveDuplicateBundles() throws Exception {
+		tagAsSummary("Resolve state with duplicate bundles", Dimension.ELAPSED_PROCESS); //$NON-NLS-1$
+		IPath stateLocation = PDETestsPlugin.getDefault().getStateLocation();
+		fLocation = stateLocation.append("resolverPerfTestPlugins").toFile();
+		URL[] urls = createBundles(fLocation);
+		PDEState state = new PDEState(urls, true, false, new NullProgressMonitor());
+		assertEquals(PROVIDER_COUNT * COPY_COUNT + CONSUMER_COUNT, state.getState().getBundles().length);
+
+		// Warm-up Iterations
+		for (int i = 0; i < 3; i++) {
+			state.resolveState(false);
+		}
+		// Test Iterations
+		for (int i = 0; i < 50; i++) {
+			startMeasuring();
+			state.resolveState(false);
+			stopMeasuring();
+		}
+		commitMeasurements();
+		assertPerformance();
+
+		assertTrue("Consumer bundle should resolve", state.getState().getBundles("consumer_0")[0].isResolved());
+	}
+
+	private URL[] createBundles(File location) throws IOException {
+		List<URL> urls = new ArrayList<>();
+		for (int copy = 0; copy < COPY_COUNT; copy++) {
+			for (int i = 0; i < PROVIDER_COUNT; i++) {
+				File dir = new File(location, "copy" + copy + "/provider_" + i);
+				writeManifest(dir, "provider_" + i, "Export-Package: provider_" + i + ";version=\"1.0.0\"\n");
+				urls.add(dir.toURI().toURL());
+			}
+		}
+		for (int i = 0; i < CONSUMER_COUNT; i++) {
+			File dir = new File(location, "consumer_" + i);
+			StringBuffer imports = new StringBuffer("Import-Package: ");
+			for (int j = 0; j < PROVIDER_COUNT; j++) {
+				if (j > 0) {
+					imports.append(",\n ");
+				}
+				imports.append("provider_").append(j);
+			}
+			imports.append('\n');
+			writeManifest(dir, "consumer_" + i, imports.toString());
+			urls.add(dir.toURI().toURL());
+		}
+		return urls.toArray(new URL[urls.size()]);
+	}
+
+	private void writeManifest(File bundleDir, String symbolicName, String headers) throws IOException {
+		File metaInf = new File(bundleDir, "META-INF");
+		metaInf.mkdirs();
+		try (Writer writer = new OutputStreamWriter(new FileOutputStream(new File(metaInf, "MANIFEST.MF")), "UTF-8")) {
+			writer.write("Manifest-Version: 1.0\n");
+			writer.write("Bundle-ManifestVersion: 2\n");
+			writer.write("Bundle-SymbolicName: " + symbolicName + "\n");
+			writer.write("Bundle-Version: 1.0.0\n");
+			writer.write(headers);
+		}
+	}
+
+}
@@ -0,0 +1,141 @@
+/*******************************************************************************
+ * Copyright (c) 2017 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.ui.tests.project;
+
+import junit.framework.*;
+import org.eclipse.core.resources.*;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jdt.core.*;
+import org.eclipse.pde.core.project.*;
+import org.eclipse.pde.internal.core.PDECore;
+
+/**
+ * Tests that a manifest change updates the required plug-ins containers of
+ * the changed bundle and its dependents, and only if their entries changed.
+ */
+public class ClasspathContainerUpdateTests extends TestCase {
+
+	private static final String A = "test.container.a";
+	private static final String B = "test.container.b";
+	private static final String C = "test.container.c";
+	private static final String D = "test.container.d";
+
+	public static Test suite() {
+		return new TestSuite(ClasspathContainerUpdateTests.class);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		IBundleProjectService service = ProjectCreationTests.getBundleProjectService();
+		// b re-exports a to c, d is unrelated
+		createProject(A, new IPackageExportDescription[] {service.newPackageExport(A, null, true, null)}, null);
+		createProject(B, null, new IRequiredBundleDescription[] {service.newRequiredBundle(A, null, false, true)});
+		createProject(C, null, new IRequiredBundleDescription[] {service.newRequiredBundle(B, null, false, false)});
+		createProject(D, null, null);
+		waitForClasspathUpdates();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		for (String name : new String[] {A, B, C, D}) {
+			IProject project = getProject(name);
+			if (project.exists()) {
+				project.delete(true, true, null);
+			}
+		}
+	}
+
+	private IProject getProject(String name) {
+		return ResourcesPlugin.getWorkspace().getRoot().getProject(name);
+	}
+
+	private void createProject(String name, IPackageExportDescription[] exports, IRequiredBundleDescription[] requires) throws CoreException {
+		IBundleProjectService service = ProjectCreationTests.getBundleProjectService();
+		IBundleProjectDescription description = service.getDescription(getProject(name));
+		description.setSymbolicName(name);
+		description.setNatureIds(new String[] {IBundleProjectDescription.PLUGIN_NATURE, JavaCore.NATURE_ID});
+		description.setBundleClasspath(new IBundleClasspathEntry[] {service.newBundleClasspathEntry(new Path("src"), null, new Path("."))});
+		description.setPackageExports(exports);
+		description.setRequiredBundles(requires);
+		description.apply(null);
+	}
+
+	private IClasspathContainer getContainer(String name) throws JavaModelException {
+		IClasspathContainer container = JavaCore.getClasspathContainer(PDECore.REQUIRED_PLUGINS_CONTAINER_PATH, JavaCore.create(getProject(name)));
+		assertNotNull("Missing container of " + name, container);
+		return container;
+	}
+
+	/**
+	 * Waits until the builds and the job setting the classpath containers
+	 * are done
+	 */
+	private void waitForClasspathUpdates() throws InterruptedException {
+		ProjectCreationTests.waitForBuild();
+		long end = System.currentTimeMillis() + 30000;
+		while (!Job.getJobManager().isIdle() && System.currentTimeMillis() < end) {
+			Thread.sleep(50);
+		}
+	}
+
+	private boolean hasAccessRule(IClasspathContainer container, String bundle, String packageName) {
+		String pattern = packageName.replace('.', '/') + "/*";
+		for (IClasspathEntry entry : container.getClasspathEntries()) {
+			if (entry.getPath().lastSegment().equals(bundle)) {
+				for (IAccessRule rule : entry.getAccessRules()) {
+					if (rule.getPattern().toString().equals(pattern)) {
+						return true;
+					}
+				}
+			}
+		}
+		return false;
+	}
+
+	public void testDependentsUpdated() throws Exception {
+		IClasspathContainer b = getContainer(B);
+		IClasspathContainer c = getContainer(C);
+		IClasspathContainer d = getContainer(D);
+		assertFalse("Package not exported yet", hasAccessRule(c, A, A + ".more"));
+
+		IBundleProjectService service = ProjectCreationTests.getBundleProjectService();
+		IBundleProjectDescription description = service.getDescription(getProject(A));
+		description.setPackageExports(new IPackageExportDescription[] {service.newPackageExport(A, null, true, null), service.newPackageExport(A + ".more", null, true, null)});
+		description.apply(null);
+		waitForClasspathUpdates();
+
+		assertNotSame("Container of the requiring bundle not updated", b, getContainer(B));
+		assertTrue("Missing access rule", hasAccessRule(getContainer(B), A, A + ".more"));
+		// c only sees the package of a through b
+		assertNotSame("Container of the indirect dependent not updated", c, getContainer(C));
+		assertTrue("Missing access rule", hasAccessRule(getContainer(C), A, A + ".more"));
+		assertSame("Container of an unrelated bundle updated", d, getContainer(D));
+	}
+
+	public void testUnchangedEntriesNotSet() throws Exception {
+		IClasspathContainer a = getContainer(A);
+		IClasspathContainer b = getContainer(B);
+		IClasspathContainer c = getContainer(C);
+
+		// the bundle name does not change any classpath entry
+		IBundleProjectDescription description = ProjectCreationTests.getBundleProjectService().getDescription(getProject(A));
+		description.setBundleName("Changed Name");
+		description.apply(null);
+		waitForClasspathUpdates();
+
+		assertSame("Unchanged container set", a, getContainer(A));
+		assertSame("Unchanged container of the requiring bundle set", b, getContainer(B));
+		assertSame("Unchanged container of the indirect dependent set", c, getContainer(C));
+	}
+
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016 IBM Corporation and others.
+ * Copyright (c) 2016, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -30,6 +30,8 @@ public class AllTargetMinimalTests {
 		suite.addTest(MinimalTargetDefinitionResolutionTests.suite());
 		suite.addTest(MinimalTargetDefinitionFeatureResolutionTests.suite());
 		suite.addTest(IUBundleContainerTests.suite());
+		suite.addTest(BundleManifestCacheTests.suite());
+		suite.addTest(ParallelLoaderTests.suite());
 		return suite;
 	}
 
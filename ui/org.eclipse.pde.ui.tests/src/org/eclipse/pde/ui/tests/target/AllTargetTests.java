@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2010 IBM Corporation and others.
+ * Copyright (c) 2005, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -25,6 +25,9 @@ public class AllTargetTests {
 		suite.addTest(TargetDefinitionResolutionTests.suite());
 		suite.addTest(TargetDefinitionFeatureResolutionTests.suite());
 		suite.addTest(IUBundleContainerTests.suite());
+		suite.addTest(BundleManifestCacheTests.suite());
+		suite.addTest(ParallelLoaderTests.suite());
+		suite.addTest(PluginModelManagerReloadTests.suite());
 		return suite;
 	}
 
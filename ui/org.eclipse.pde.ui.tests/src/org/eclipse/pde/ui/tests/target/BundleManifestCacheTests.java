@@ -0,0 +1,108 @@
+/*******************************************************************************
+ * Copyright (c) 2017 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.ui.tests.target;
+
+import java.io.*;
+import java.util.Map;
+import java.util.jar.*;
+import junit.framework.*;
+import org.eclipse.pde.internal.core.BundleManifestCache;
+import org.eclipse.pde.internal.core.util.ManifestUtils;
+import org.osgi.framework.Constants;
+
+/**
+ * Tests the persistent cache of target bundle manifests
+ */
+public class BundleManifestCacheTests extends TestCase {
+
+	private File fDir;
+
+	public static Test suite() {
+		return new TestSuite(BundleManifestCacheTests.class);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		fDir = File.createTempFile("manifestcache", null);
+		fDir.delete();
+		fDir.mkdirs();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		File[] files = fDir.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				file.delete();
+			}
+		}
+		fDir.delete();
+	}
+
+	private File createBundle(String name, String version) throws IOException {
+		Manifest manifest = new Manifest();
+		Attributes attributes = manifest.getMainAttributes();
+		attributes.put(Attributes.Name.MANIFEST_VERSION, "1.0");
+		attributes.putValue(Constants.BUNDLE_MANIFESTVERSION, "2");
+		attributes.putValue(Constants.BUNDLE_SYMBOLICNAME, name);
+		attributes.putValue(Constants.BUNDLE_VERSION, version);
+		File file = new File(fDir, name + ".jar");
+		try (JarOutputStream out = new JarOutputStream(new FileOutputStream(file), manifest)) {
+			out.putNextEntry(new JarEntry("about.html"));
+			out.write(version.getBytes());
+			out.closeEntry();
+		}
+		return file;
+	}
+
+	public void testReuseUnchangedBundle() throws Exception {
+		File bundle = createBundle("a.bundle", "1.0.0");
+		File cacheFile = new File(fDir, "cache");
+		BundleManifestCache cache = new BundleManifestCache(cacheFile);
+		assertNull("Bundle should not be cached yet", cache.getManifest(bundle));
+		cache.putManifest(bundle, ManifestUtils.loadManifest(bundle));
+		cache.save();
+		assertTrue("Cache file should exist", cacheFile.isFile());
+
+		cache = new BundleManifestCache(cacheFile);
+		Map<String, String> manifest = cache.getManifest(bundle);
+		assertNotNull("Bundle should be cached", manifest);
+		assertEquals("a.bundle", manifest.get(Constants.BUNDLE_SYMBOLICNAME));
+		assertEquals("Headers should be case insensitive", "1.0.0", manifest.get("bundle-version"));
+		assertEquals(1, cache.getHitCount());
+		assertEquals(0, cache.getMissCount());
+	}
+
+	public void testChangedBundleIsReparsed() throws Exception {
+		File bundle = createBundle("b.bundle", "1.0.0");
+		File cacheFile = new File(fDir, "cache");
+		BundleManifestCache cache = new BundleManifestCache(cacheFile);
+		cache.putManifest(bundle, ManifestUtils.loadManifest(bundle));
+		cache.save();
+
+		bundle = createBundle("b.bundle", "1.0.0.qualifier");
+		bundle.setLastModified(bundle.lastModified() + 2000);
+		cache = new BundleManifestCache(cacheFile);
+		assertNull("Changed bundle should not be returned from the cache", cache.getManifest(bundle));
+		assertEquals(1, cache.getMissCount());
+	}
+
+	public void testCorruptCacheIsIgnored() throws Exception {
+		File bundle = createBundle("c.bundle", "1.0.0");
+		File cacheFile = new File(fDir, "cache");
+		try (FileOutputStream out = new FileOutputStream(cacheFile)) {
+			out.write(new byte[] {0, 0, 0, 1, 0x7f, 0, 0, 0, 1, 2, 3});
+		}
+		BundleManifestCache cache = new BundleManifestCache(cacheFile);
+		assertNull(cache.getManifest(bundle));
+	}
+
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016 IBM Corporation and others.
+ * Copyright (c) 2016, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,6 +11,7 @@
 package org.eclipse.pde.ui.tests.target;
 
 import java.io.File;
+import java.util.*;
 import junit.framework.Test;
 import junit.framework.TestSuite;
 import org.eclipse.core.runtime.*;
@@ -187,6 +188,81 @@ public class MinimalTargetDefinitionResolutionTests extends AbstractTargetTest {
 		}
 	}
 
+	/**
+	 * Resolves the given target with directory locations of the abcde and
+	 * multiple version plug-ins using the given number of loader threads
+	 *
+	 * @param definition the target to resolve
+	 * @param threads the number of loader threads
+	 * @param monitor the progress monitor or <code>null</code>
+	 * @return the resolution status
+	 */
+	private IStatus resolveDirectories(ITargetDefinition definition, String threads, IProgressMonitor monitor) throws Exception {
+		definition.setTargetLocations(new ITargetLocation[] {
+				getTargetService().newDirectoryLocation(extractAbcdePlugins().append("plugins").toOSString()),
+				getTargetService().newDirectoryLocation(extractMultiVersionPlugins().toOSString()) });
+		String property = "org.eclipse.pde.core.loadThreads";
+		String old = System.getProperty(property);
+		System.setProperty(property, threads);
+		try {
+			return definition.resolve(monitor);
+		} finally {
+			if (old == null) {
+				System.clearProperty(property);
+			} else {
+				System.setProperty(property, old);
+			}
+		}
+	}
+
+	/**
+	 * Tests that resolving the locations of a target concurrently finds the
+	 * same bundles as resolving them one after the other
+	 *
+	 * @throws Exception
+	 */
+	public void testConcurrentResolve() throws Exception {
+		ITargetDefinition serial = getNewTarget();
+		assertTrue(resolveDirectories(serial, "1", null).isOK());
+		ITargetDefinition concurrent = getNewTarget();
+		assertTrue(resolveDirectories(concurrent, "4", null).isOK());
+		TargetBundle[] expected = serial.getAllBundles();
+		TargetBundle[] actual = concurrent.getAllBundles();
+		assertEquals("Wrong number of bundles", expected.length, actual.length);
+		Set<String> expectedNames = new HashSet<>();
+		for (TargetBundle bundle : expected) {
+			expectedNames.add(bundle.getBundleInfo().getSymbolicName() + '_' + bundle.getBundleInfo().getVersion());
+		}
+		Set<String> actualNames = new HashSet<>();
+		for (TargetBundle bundle : actual) {
+			actualNames.add(bundle.getBundleInfo().getSymbolicName() + '_' + bundle.getBundleInfo().getVersion());
+		}
+		assertEquals("Wrong bundles", expectedNames, actualNames);
+	}
+
+	/**
+	 * Tests that cancelling the concurrent resolution of the locations of a
+	 * target returns a cancel status
+	 *
+	 * @throws Exception
+	 */
+	public void testCancelConcurrentResolve() throws Exception {
+		final NullProgressMonitor monitor = new NullProgressMonitor() {
+			@Override
+			public void worked(int work) {
+				setCanceled(true);
+			}
+
+			@Override
+			public void internalWorked(double work) {
+				setCanceled(true);
+			}
+		};
+		IStatus status = resolveDirectories(getNewTarget(), "4", monitor);
+		assertTrue("The resolution should have been cancelled", monitor.isCanceled());
+		assertEquals("Incorrect severity", IStatus.CANCEL, status.getSeverity());
+	}
+
 	/**
 	 * Tests that a target definition is in synch with the target platform.
 	 *
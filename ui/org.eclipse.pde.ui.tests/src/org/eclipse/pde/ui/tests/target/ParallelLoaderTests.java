@@ -0,0 +1,208 @@
+/*******************************************************************************
+ * Copyright (c) 2017 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.ui.tests.target;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import junit.framework.*;
+import org.eclipse.core.runtime.*;
+import org.eclipse.pde.internal.core.PDECore;
+import org.eclipse.pde.internal.core.util.ParallelLoader;
+
+/**
+ * Tests the loader used to read target bundles concurrently
+ */
+public class ParallelLoaderTests extends TestCase {
+
+	public static Test suite() {
+		return new TestSuite(ParallelLoaderTests.class);
+	}
+
+	private List<ParallelLoader.Result<String>> load(int count) {
+		List<Integer> sources = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			sources.add(Integer.valueOf(i));
+		}
+		return ParallelLoader.load(sources, new ParallelLoader.ILoadOperation<Integer, String>() {
+			@Override
+			public String load(Integer source) throws CoreException {
+				if (source.intValue() % 3 == 0) {
+					throw new CoreException(new Status(IStatus.ERROR, PDECore.PLUGIN_ID, source.toString()));
+				}
+				try {
+					// finish the sources out of order
+					Thread.sleep((source.intValue() * 7) % 5);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return source.toString();
+			}
+		}, new NullProgressMonitor());
+	}
+
+	private void assertResults(List<ParallelLoader.Result<String>> results, int count) {
+		assertEquals(count, results.size());
+		for (int i = 0; i < count; i++) {
+			ParallelLoader.Result<String> result = results.get(i);
+			if (i % 3 == 0) {
+				assertNull(result.getValue());
+				assertEquals(Integer.toString(i), result.getException().getStatus().getMessage());
+			} else {
+				assertNull(result.getException());
+				assertEquals(Integer.toString(i), result.getValue());
+			}
+		}
+	}
+
+	public void testResultsKeepSourceOrder() {
+		assertResults(load(100), 100);
+	}
+
+	public void testSingleThread() {
+		String property = "org.eclipse.pde.core.loadThreads";
+		String old = System.getProperty(property);
+		System.setProperty(property, "1");
+		try {
+			assertEquals(1, ParallelLoader.getThreadCount());
+			assertResults(load(20), 20);
+		} finally {
+			if (old == null) {
+				System.clearProperty(property);
+			} else {
+				System.setProperty(property, old);
+			}
+		}
+	}
+
+	public void testNoSources() {
+		assertTrue(load(0).isEmpty());
+	}
+
+	/**
+	 * Runs the given runnable with the given number of loader threads
+	 */
+	private void withThreads(String threads, Runnable runnable) {
+		String property = "org.eclipse.pde.core.loadThreads";
+		String old = System.getProperty(property);
+		System.setProperty(property, threads);
+		try {
+			runnable.run();
+		} finally {
+			if (old == null) {
+				System.clearProperty(property);
+			} else {
+				System.setProperty(property, old);
+			}
+		}
+	}
+
+	public void testNestedLoadRunsOnLoaderThread() {
+		withThreads("4", new Runnable() {
+			@Override
+			public void run() {
+				List<ParallelLoader.Result<Boolean>> results = ParallelLoader.load(Arrays.asList(1, 2, 3, 4), new ParallelLoader.ILoadOperation<Integer, Boolean>() {
+					@Override
+					public Boolean load(Integer source) throws CoreException {
+						final Thread outer = Thread.currentThread();
+						List<ParallelLoader.Result<Thread>> nested = ParallelLoader.load(Arrays.asList(1, 2, 3, 4), new ParallelLoader.ILoadOperation<Integer, Thread>() {
+							@Override
+							public Thread load(Integer nestedSource) throws CoreException {
+								return Thread.currentThread();
+							}
+						}, null);
+						for (ParallelLoader.Result<Thread> result : nested) {
+							if (result.getValue() != outer) {
+								return Boolean.FALSE;
+							}
+						}
+						return Boolean.TRUE;
+					}
+				}, null);
+				for (ParallelLoader.Result<Boolean> result : results) {
+					assertEquals("Nested load should run on the loader thread", Boolean.TRUE, result.getValue());
+				}
+			}
+		});
+	}
+
+	public void testProgressReportedOnCompletion() {
+		withThreads("4", new Runnable() {
+			@Override
+			public void run() {
+				final CountDownLatch othersDone = new CountDownLatch(3);
+				NullProgressMonitor monitor = new NullProgressMonitor() {
+					@Override
+					public void worked(int work) {
+						othersDone.countDown();
+					}
+
+					@Override
+					public void internalWorked(double work) {
+						othersDone.countDown();
+					}
+				};
+				List<ParallelLoader.Result<Boolean>> results = ParallelLoader.load(Arrays.asList(0, 1, 2, 3), new ParallelLoader.ILoadOperation<Integer, Boolean>() {
+					@Override
+					public Boolean load(Integer source) throws CoreException {
+						if (source.intValue() != 0) {
+							return Boolean.TRUE;
+						}
+						// the first source only completes once the progress of
+						// the others has been reported
+						try {
+							return Boolean.valueOf(othersDone.await(10, TimeUnit.SECONDS));
+						} catch (InterruptedException e) {
+							Thread.currentThread().interrupt();
+							return Boolean.FALSE;
+						}
+					}
+				}, monitor);
+				assertEquals("Progress should be reported before the first source completes", Boolean.TRUE, results.get(0).getValue());
+			}
+		});
+	}
+
+	public void testCancel() {
+		withThreads("4", new Runnable() {
+			@Override
+			public void run() {
+				final AtomicInteger loaded = new AtomicInteger();
+				final NullProgressMonitor monitor = new NullProgressMonitor();
+				List<Integer> sources = new ArrayList<>();
+				for (int i = 0; i < 200; i++) {
+					sources.add(Integer.valueOf(i));
+				}
+				try {
+					ParallelLoader.load(sources, new ParallelLoader.ILoadOperation<Integer, Integer>() {
+						@Override
+						public Integer load(Integer source) throws CoreException {
+							if (loaded.incrementAndGet() == 10) {
+								monitor.setCanceled(true);
+							}
+							try {
+								Thread.sleep(5);
+							} catch (InterruptedException e) {
+								Thread.currentThread().interrupt();
+							}
+							return source;
+						}
+					}, monitor);
+					fail("The load should have been canceled");
+				} catch (OperationCanceledException e) {
+					// expected
+				}
+				assertTrue("Sources should not be loaded after the cancellation", loaded.get() < 200);
+			}
+		});
+	}
+
+}
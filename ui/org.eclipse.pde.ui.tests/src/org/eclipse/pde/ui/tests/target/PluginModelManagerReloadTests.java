@@ -0,0 +1,204 @@
+/*******************************************************************************
+ * Copyright (c) 2017 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.ui.tests.target;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+import org.eclipse.core.runtime.*;
+import org.eclipse.osgi.service.resolver.State;
+import org.eclipse.osgi.service.resolver.StateDelta;
+import org.eclipse.pde.core.plugin.*;
+import org.eclipse.pde.core.target.*;
+import org.eclipse.pde.internal.core.*;
+import org.eclipse.pde.ui.tests.PDETestsPlugin;
+
+/**
+ * Tests that the plug-in models are updated incrementally when only a few
+ * target bundles change, and recreated otherwise
+ */
+public class PluginModelManagerReloadTests extends AbstractTargetTest {
+
+	private File fDir;
+	private final List<PluginModelDelta> fDeltas = new ArrayList<>();
+	private int fStateChanges;
+
+	private final IPluginModelListener fModelListener = new IPluginModelListener() {
+		@Override
+		public void modelsChanged(PluginModelDelta delta) {
+			fDeltas.add(delta);
+		}
+	};
+
+	private final IStateDeltaListener fStateListener = new IStateDeltaListener() {
+		@Override
+		public void stateResolved(StateDelta delta) {
+		}
+
+		@Override
+		public void stateChanged(State newState) {
+			fStateChanges++;
+		}
+	};
+
+	public static Test suite() {
+		return new TestSuite(PluginModelManagerReloadTests.class);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		fDir = PDETestsPlugin.getDefault().getStateLocation().append("reload-plugins").toFile();
+		if (fDir.exists()) {
+			delete(fDir);
+		}
+		fDir.mkdirs();
+		for (File file : extractAbcdePlugins().append("plugins").toFile().listFiles()) {
+			copy(file, new File(fDir, file.getName()));
+		}
+		loadTarget();
+		PluginModelManager manager = PDECore.getDefault().getModelManager();
+		manager.addPluginModelListener(fModelListener);
+		manager.addStateDeltaListener(fStateListener);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		PluginModelManager manager = PDECore.getDefault().getModelManager();
+		manager.removePluginModelListener(fModelListener);
+		manager.removeStateDeltaListener(fStateListener);
+		resetTargetPlatform();
+		delete(fDir);
+		super.tearDown();
+	}
+
+	private void loadTarget() throws CoreException {
+		fDeltas.clear();
+		fStateChanges = 0;
+		ITargetDefinition target = getNewTarget();
+		target.setTargetLocations(new ITargetLocation[] {getTargetService().newDirectoryLocation(fDir.getAbsolutePath())});
+		setTargetPlatform(target);
+	}
+
+	private void copy(File source, File destination) throws IOException {
+		if (source.isDirectory()) {
+			destination.mkdirs();
+			for (File file : source.listFiles()) {
+				copy(file, new File(destination, file.getName()));
+			}
+		} else {
+			Files.copy(source.toPath(), destination.toPath());
+		}
+	}
+
+	private void touch(File file) {
+		File[] files = file.listFiles();
+		if (files != null) {
+			for (File child : files) {
+				touch(child);
+			}
+		}
+		assertTrue("Could not modify " + file, file.setLastModified(file.lastModified() + 10000));
+	}
+
+	/**
+	 * Returns the single delta fired by the last reload
+	 */
+	private PluginModelDelta getDelta() {
+		assertEquals("Wrong number of model deltas", 1, fDeltas.size());
+		return fDeltas.get(0);
+	}
+
+	private void assertEntries(String message, ModelEntry[] entries, String... ids) {
+		assertEquals(message, ids.length, entries.length);
+		for (int i = 0; i < ids.length; i++) {
+			assertEquals(message, ids[i], entries[i].getId());
+		}
+	}
+
+	public void testAddBundle() throws Exception {
+		File jar = extractMultiVersionPlugins().append("a.typical.bundle_1.0.0.200907071058.jar").toFile();
+		copy(jar, new File(fDir, jar.getName()));
+		loadTarget();
+
+		PluginModelDelta delta = getDelta();
+		assertEntries("Wrong added entries", delta.getAddedEntries(), "a.typical.bundle");
+		assertEntries("Wrong removed entries", delta.getRemovedEntries());
+		assertEntries("Wrong changed entries", delta.getChangedEntries());
+		assertNotNull("Added bundle not found", PluginRegistry.findModel("a.typical.bundle"));
+		assertNotNull("Added bundle not in the state", TargetPlatformHelper.getState().getBundle("a.typical.bundle", null));
+	}
+
+	public void testRemoveBundle() throws Exception {
+		assertTrue(new File(fDir, "bundle.e_1.0.0.jar").delete());
+		loadTarget();
+
+		PluginModelDelta delta = getDelta();
+		assertEntries("Wrong added entries", delta.getAddedEntries());
+		assertEntries("Wrong removed entries", delta.getRemovedEntries(), "bundle.e");
+		assertEntries("Wrong changed entries", delta.getChangedEntries());
+		assertNull("Removed bundle still found", PluginRegistry.findModel("bundle.e"));
+		assertNull("Removed bundle still in the state", TargetPlatformHelper.getState().getBundle("bundle.e", null));
+		assertNotNull("Other bundle not found", PluginRegistry.findModel("bundle.d"));
+	}
+
+	public void testModifyBundle() throws Exception {
+		IPluginModelBase before = PluginRegistry.findModel("bundle.a");
+		assertNotNull("Bundle not found", before);
+		touch(new File(fDir, "bundle.a_1.0.0.jar"));
+		loadTarget();
+
+		PluginModelDelta delta = getDelta();
+		assertEntries("Wrong added entries", delta.getAddedEntries());
+		assertEntries("Wrong removed entries", delta.getRemovedEntries());
+		assertEntries("Wrong changed entries", delta.getChangedEntries(), "bundle.a");
+		IPluginModelBase after = PluginRegistry.findModel("bundle.a");
+		assertNotNull("Modified bundle not found", after);
+		assertNotSame("Modified bundle not reloaded", before, after);
+		assertEquals("Wrong number of models", 1, PluginRegistry.findEntry("bundle.a").getExternalModels().length);
+		assertSame("Modified bundle not in the state", after.getBundleDescription(), TargetPlatformHelper.getState().getBundle("bundle.a", null));
+	}
+
+	public void testMostBundlesChanged() throws Exception {
+		String[] names = new String[] {"bundle.a", "bundle.b", "bundle.c"};
+		for (String name : names) {
+			assertTrue(new File(fDir, name + "_1.0.0.jar").delete());
+			assertTrue(new File(fDir, name + ".source_1.0.0.jar").delete());
+		}
+		loadTarget();
+
+		assertEquals("Models not recreated", 0, fDeltas.size());
+		assertEquals("Target change not reported", 1, fStateChanges);
+		for (String name : names) {
+			assertNull("Removed bundle still found", PluginRegistry.findModel(name));
+		}
+		assertNotNull("Other bundle not found", PluginRegistry.findModel("bundle.d"));
+	}
+
+	public void testSystemBundleChanged() throws Exception {
+		File osgi = FileLocator.getBundleFile(Platform.getBundle("org.eclipse.osgi"));
+		File copy = new File(fDir, osgi.getName());
+		copy(osgi, copy);
+		loadTarget();
+		assertNotNull("System bundle not found", PluginRegistry.findModel("org.eclipse.osgi"));
+
+		touch(copy);
+		loadTarget();
+		// the execution environments may have changed, all models are recreated
+		assertEquals("Models not recreated", 0, fDeltas.size());
+		assertNotNull("System bundle not found", PluginRegistry.findModel("org.eclipse.osgi"));
+		assertNotNull("Other bundle not found", PluginRegistry.findModel("bundle.a"));
+	}
+
+}